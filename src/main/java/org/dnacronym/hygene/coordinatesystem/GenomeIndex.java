@@ -4,15 +4,15 @@ import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.GraphIterator;
 import org.dnacronym.hygene.graph.SequenceDirection;
 import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaTokenizer;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
 import java.util.Map;
-import java.util.Set;
-import java.util.StringTokenizer;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
 
 
@@ -26,8 +26,8 @@ public final class GenomeIndex {
     private final Graph graph;
     private final String name;
     private final String index;
-    private final Set<Integer> visited;
-    private final Set<Integer> nodesInGenome;
+    private final BitSet visited;
+    private final BitSet nodesInGenome;
     /**
      * Maps from base counts to node IDs.
      */
@@ -50,9 +50,9 @@ public final class GenomeIndex {
                 .filter(entry -> entry.getValue().equals(name))
                 .map(Map.Entry::getKey).findFirst().orElse(name);
 
-        visited = new HashSet<>();
+        visited = new BitSet();
         baseCounts = new TreeMap<>();
-        nodesInGenome = new HashSet<>();
+        nodesInGenome = new BitSet();
         currentNode = -1;
     }
 
@@ -64,7 +64,7 @@ public final class GenomeIndex {
      * @throws IOException if an error occurs during IO operations
      */
     public void buildIndex(final ProgressUpdater progressUpdater) throws IOException {
-        if (graph.getNodeArrays().length == 2) {
+        if (graph.getNodeCount() == 2) {
             return;
         }
         final GraphIterator graphIterator = new GraphIterator(gfaFile.getGraph());
@@ -74,8 +74,8 @@ public final class GenomeIndex {
         findLeftMostNode(graphIterator);
 
         int currentBaseCount = 1;
-        visited.add(currentNode);
-        while (currentNode != graph.getNodeArrays().length - 1) {
+        visited.set(currentNode);
+        while (currentNode != graph.getNodeCount() - 1) {
             baseCounts.put(currentBaseCount, currentNode);
             currentBaseCount += graph.getSequenceLength(currentNode);
 
@@ -87,7 +87,7 @@ public final class GenomeIndex {
                 break;
             }
 
-            visited.add(currentNode);
+            visited.set(currentNode);
         }
     }
 
@@ -125,52 +125,77 @@ public final class GenomeIndex {
      * @param progressUpdater the instance that should be informed of the progress of this task
      * @throws IOException            if an error occurs during IO operations
      */
-    @SuppressWarnings("squid:S1188")
     private void collectNodesOfGenome(final ProgressUpdater progressUpdater) throws IOException {
-        final int[] counter = {0};
-        final int[] currentProgress = {-1};
-        Files.lines(Paths.get(gfaFile.getFileName())).forEach(line -> {
-            if (line.charAt(0) != 'S') {
-                return;
-            }
-            counter[0]++;
-
-            final int oriIndex = line.indexOf(GENOME_LIST_HEADER_PREFIX) + GENOME_LIST_HEADER_PREFIX.length();
-            final String genomesRaw = line.substring(oriIndex);
-            final int tabIndex = genomesRaw.indexOf('\t');
-            final String genomes;
-            if (tabIndex == -1) {
-                genomes = genomesRaw;
-            } else {
-                genomes = genomesRaw.substring(0, tabIndex);
-            }
+        final byte[] genomeListPrefix = GENOME_LIST_HEADER_PREFIX.getBytes(StandardCharsets.UTF_8);
+        final byte[] indexBytes = index.getBytes(StandardCharsets.UTF_8);
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        int counter = 0;
+        int currentProgress = -1;
+        try (FileChannel channel = gfaFile.getFileChannel()) {
+            final GfaTokenizer tokenizer = GfaTokenizer.fromFileChannel(channel, 0, channel.size());
+            while (tokenizer.next()) {
+                if (tokenizer.getRecordType() != 'S') {
+                    continue;
+                }
+                counter++;
 
-            handleGenomeString(genomes, counter[0]);
+                final int genomeField = findField(tokenizer, genomeListPrefix);
+                if (genomeField >= 0 && containsGenome(tokenizer, genomeField, genomeListPrefix.length,
+                        indexBytes, nameBytes)) {
+                    nodesInGenome.set(counter);
+                }
 
-            final int newProgress = Math.round((100.0f * counter[0]) / (graph.getNodeArrays().length - 2));
-            if (newProgress > currentProgress[0]) {
-                progressUpdater.updateProgress(newProgress, "Indexing genomes...");
-                currentProgress[0] = newProgress;
+                final int newProgress = Math.round((100.0f * counter) / (graph.getNodeCount() - 2));
+                if (newProgress > currentProgress) {
+                    progressUpdater.updateProgress(newProgress, "Indexing genomes...");
+                    currentProgress = newProgress;
+                }
             }
-        });
+        }
     }
 
     /**
-     * Evaluates the genome field string of a node.
+     * Finds the first optional field of the current segment that starts with the given prefix.
      *
-     * @param genomes   the string of genomes
-     * @param currentId the ID of the node that is being evaluated
+     * @param tokenizer a {@link GfaTokenizer} positioned at a segment
+     * @param prefix    the prefix of the field
+     * @return the index of the field, or -1 if the segment has no such field
      */
-    private void handleGenomeString(final String genomes, final int currentId) {
-        final StringTokenizer st = new StringTokenizer(genomes, ";");
-        String token;
-        while (st.hasMoreTokens()) {
-            token = st.nextToken();
-            if (token.equals(index) || token.equals(name)) {
-                nodesInGenome.add(currentId);
-                break;
+    private static int findField(final GfaTokenizer tokenizer, final byte[] prefix) {
+        for (int field = 1; field < tokenizer.getFieldCount(); field++) {
+            if (tokenizer.fieldStartsWith(field, prefix)) {
+                return field;
             }
         }
+        return -1;
+    }
+
+    /**
+     * Evaluates the genome field of a node.
+     *
+     * @param tokenizer  a {@link GfaTokenizer} positioned at a segment
+     * @param field      the index of the field containing the genomes
+     * @param offset     the index in the field at which the list of genomes starts
+     * @param indexBytes the index of the genome
+     * @param nameBytes  the name of the genome
+     * @return {@code true} iff the field contains the index or the name of the genome
+     */
+    private static boolean containsGenome(final GfaTokenizer tokenizer, final int field, final int offset,
+                                          final byte[] indexBytes, final byte[] nameBytes) {
+        int tokenStart = offset;
+        while (tokenStart <= tokenizer.getFieldLength(field)) {
+            final int separator = tokenizer.indexOf(field, (byte) ';', tokenStart);
+            final int tokenEnd = separator < 0 ? tokenizer.getFieldLength(field) : separator;
+            final int tokenLength = tokenEnd - tokenStart;
+
+            if (tokenizer.regionEquals(field, tokenStart, tokenLength, indexBytes)
+                    || tokenizer.regionEquals(field, tokenStart, tokenLength, nameBytes)) {
+                return true;
+            }
+            tokenStart = tokenEnd + 1;
+        }
+        return false;
     }
 
     /**
@@ -183,14 +208,14 @@ public final class GenomeIndex {
      */
     private void findNextNode(final GraphIterator graphIterator) {
         graphIterator.visitDirectNeighbours(currentNode, SequenceDirection.RIGHT, neighbour -> {
-            if (neighbour == graph.getNodeArrays().length - 1 || !nodesInGenome.contains(neighbour)) {
+            if (neighbour == graph.getNodeCount() - 1 || !nodesInGenome.get(neighbour)) {
                 return;
             }
 
             final boolean[] flag = {false};
 
             graphIterator.visitDirectNeighbours(neighbour, SequenceDirection.LEFT, neighbourOfNeighbour -> {
-                if (!visited.contains(neighbourOfNeighbour) && nodesInGenome.contains(neighbourOfNeighbour)) {
+                if (!visited.get(neighbourOfNeighbour) && nodesInGenome.get(neighbourOfNeighbour)) {
                     flag[0] = true;
                 }
             });
@@ -212,10 +237,13 @@ public final class GenomeIndex {
      * @param graphIterator the graph iterator
      */
     private void findLeftMostNode(final GraphIterator graphIterator) {
-        currentNode = nodesInGenome.iterator().next();
+        currentNode = nodesInGenome.nextSetBit(0);
+        if (currentNode < 0) {
+            throw new NoSuchElementException("The genome does not contain any nodes.");
+        }
 
         graphIterator.visitIndirectNeighbours(currentNode, SequenceDirection.LEFT, neighbour -> {
-            if (neighbour != 0 && nodesInGenome.contains(neighbour)) {
+            if (neighbour != 0 && nodesInGenome.get(neighbour)) {
                 currentNode = neighbour;
             }
         });
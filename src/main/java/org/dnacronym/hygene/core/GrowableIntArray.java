@@ -0,0 +1,120 @@
+package org.dnacronym.hygene.core;
+
+import java.util.Arrays;
+
+
+/**
+ * An array of {@code int}s that grows as values are appended, without boxing its values.
+ */
+public final class GrowableIntArray {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int length;
+
+
+    /**
+     * Constructs a new, empty {@link GrowableIntArray} with a default capacity.
+     */
+    public GrowableIntArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link GrowableIntArray} with the given initial capacity.
+     *
+     * @param capacity the initial capacity
+     */
+    public GrowableIntArray(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        this.values = new int[capacity];
+    }
+
+
+    /**
+     * Appends the given value.
+     *
+     * @param value the value to append
+     */
+    public void add(final int value) {
+        if (length == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, values.length + (values.length >> 1)));
+        }
+
+        values[length] = value;
+        length++;
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index an index between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @return the value at the given index
+     */
+    public int get(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Replaces the value at the given index.
+     *
+     * @param index an index between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @param value the new value
+     */
+    public void set(final int index, final int value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    /**
+     * Removes and returns the last value.
+     *
+     * @return the last value
+     */
+    public int removeLast() {
+        checkIndex(length - 1);
+        length--;
+        return values[length];
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Removes all values, keeping the capacity.
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * Returns a copy of the values, trimmed to {@link #size()}.
+     *
+     * @return a copy of the values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, length);
+    }
+
+
+    /**
+     * Throws an {@link IndexOutOfBoundsException} if the given index does not refer to a value.
+     *
+     * @param index an index
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + length + ".");
+        }
+    }
+}
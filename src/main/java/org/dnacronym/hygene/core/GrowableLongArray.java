@@ -0,0 +1,102 @@
+package org.dnacronym.hygene.core;
+
+import java.util.Arrays;
+
+
+/**
+ * An array of {@code long}s that grows as values are appended, without boxing its values.
+ */
+public final class GrowableLongArray {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int length;
+
+
+    /**
+     * Constructs a new, empty {@link GrowableLongArray} with a default capacity.
+     */
+    public GrowableLongArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link GrowableLongArray} with the given initial capacity.
+     *
+     * @param capacity the initial capacity
+     */
+    public GrowableLongArray(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        this.values = new long[capacity];
+    }
+
+
+    /**
+     * Appends the given value.
+     *
+     * @param value the value to append
+     */
+    public void add(final long value) {
+        if (length == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, values.length + (values.length >> 1)));
+        }
+
+        values[length] = value;
+        length++;
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index an index between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @return the value at the given index
+     */
+    public long get(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Replaces the value at the given index.
+     *
+     * @param index an index between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @param value the new value
+     */
+    public void set(final int index, final long value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of the values, trimmed to {@link #size()}.
+     *
+     * @return a copy of the values
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, length);
+    }
+
+
+    /**
+     * Throws an {@link IndexOutOfBoundsException} if the given index does not refer to a value.
+     *
+     * @param index an index
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + length + ".");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.dnacronym.hygene.core;
+
+
+/**
+ * An operation that accepts two {@code int} arguments and returns no result.
+ * <p>
+ * This is the primitive specialisation of {@link java.util.function.BiConsumer} for two {@code int}s.
+ */
+@FunctionalInterface
+public interface IntBiConsumer {
+    /**
+     * Performs this operation on the given arguments.
+     *
+     * @param first  the first argument
+     * @param second the second argument
+     */
+    void accept(int first, int second);
+}
@@ -0,0 +1,110 @@
+package org.dnacronym.hygene.core;
+
+import java.util.NoSuchElementException;
+
+
+/**
+ * A first-in-first-out queue of {@code int}s backed by a ring buffer, without boxing its values.
+ * <p>
+ * The buffer grows as values are added and is kept when the queue is cleared, so that a queue can be reused for many
+ * traversals without allocating.
+ */
+public final class IntQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int head;
+    private int length;
+
+
+    /**
+     * Constructs a new, empty {@link IntQueue} with a default capacity.
+     */
+    public IntQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link IntQueue} with the given initial capacity.
+     *
+     * @param capacity the initial capacity
+     */
+    public IntQueue(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+
+    /**
+     * Adds the given value to the tail of the queue.
+     *
+     * @param value the value to add
+     */
+    public void add(final int value) {
+        if (length == values.length) {
+            grow();
+        }
+
+        values[(head + length) % values.length] = value;
+        length++;
+    }
+
+    /**
+     * Removes and returns the value at the head of the queue.
+     *
+     * @return the value at the head of the queue
+     */
+    public int remove() {
+        if (length == 0) {
+            throw new NoSuchElementException("Cannot remove a value from an empty queue.");
+        }
+
+        final int value = values[head];
+        head = (head + 1) % values.length;
+        length--;
+        return value;
+    }
+
+    /**
+     * Returns the number of values in the queue.
+     *
+     * @return the number of values in the queue
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Returns {@code true} iff. the queue contains no values.
+     *
+     * @return {@code true} iff. the queue contains no values
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Removes all values from the queue, keeping its capacity.
+     */
+    public void clear() {
+        head = 0;
+        length = 0;
+    }
+
+
+    /**
+     * Doubles the capacity of the buffer, moving the values to the start of the new buffer.
+     */
+    private void grow() {
+        final int[] newValues = new int[values.length * 2];
+        final int headLength = Math.min(length, values.length - head);
+        System.arraycopy(values, head, newValues, 0, headLength);
+        System.arraycopy(values, 0, newValues, headLength, length - headLength);
+
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,325 @@
+package org.dnacronym.hygene.core;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * A map from {@code long} keys to non-null values that iterates in insertion order, without boxing its keys.
+ * <p>
+ * Entries are stored in insertion order in parallel key and value arrays, and are found through an open-addressing
+ * hash table with linear probing that refers to those arrays. Removed entries leave a gap in the arrays, which is
+ * closed the next time the arrays are grown.
+ * <p>
+ * Like {@link java.util.LinkedHashMap}, replacing the value of a key does not change its position in the iteration
+ * order. This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public final class LinkedLongMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int FREE = -1;
+    private static final int REMOVED = -2;
+
+    /**
+     * Per hash slot, the index of the entry in the entry arrays, or {@link #FREE} or {@link #REMOVED}.
+     */
+    private int[] slots;
+    private long[] keys;
+    /**
+     * The value of each entry, or {@code null} for removed entries.
+     */
+    private @Nullable Object[] valueArray;
+    /**
+     * The number of used positions in the entry arrays, including those of removed entries.
+     */
+    private int entryCount;
+    /**
+     * The number of entries that have not been removed.
+     */
+    private int count;
+    private int modificationCount;
+
+
+    /**
+     * Constructs a new, empty {@link LinkedLongMap} with a default capacity.
+     */
+    public LinkedLongMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link LinkedLongMap} with room for the given number of entries.
+     *
+     * @param capacity the initial capacity
+     */
+    public LinkedLongMap(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        final int entryCapacity = Math.max(DEFAULT_CAPACITY, capacity);
+        this.slots = createSlots(entryCapacity);
+        this.keys = new long[entryCapacity];
+        this.valueArray = new Object[entryCapacity];
+    }
+
+    /**
+     * Constructs a copy of an existing {@link LinkedLongMap}.
+     *
+     * @param map an existing {@link LinkedLongMap}
+     */
+    public LinkedLongMap(final LinkedLongMap<V> map) {
+        this.slots = map.slots.clone();
+        this.keys = map.keys.clone();
+        this.valueArray = map.valueArray.clone();
+        this.entryCount = map.entryCount;
+        this.count = map.count;
+    }
+
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return the number of entries in this map
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns {@code true} iff. this map contains no entries.
+     *
+     * @return {@code true} iff. this map contains no entries
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns {@code true} iff. this map contains the given key.
+     *
+     * @param key a key
+     * @return {@code true} iff. this map contains the given key
+     */
+    public boolean containsKey(final long key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key a key
+     * @return the value of the given key, or {@code null} if this map does not contain the key
+     */
+    @SuppressWarnings("unchecked") // Only values of type V are stored
+    public @Nullable V get(final long key) {
+        final int slot = findSlot(key);
+        return slot < 0 ? null : (V) valueArray[slots[slot]];
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param key   a key
+     * @param value the value to associate with the key
+     * @return the previous value of the key, or {@code null} if this map did not contain the key
+     */
+    @SuppressWarnings("unchecked") // Only values of type V are stored
+    public @Nullable V put(final long key, final V value) {
+        final int slot = findSlot(key);
+        if (slot >= 0) {
+            final V oldValue = (V) valueArray[slots[slot]];
+            valueArray[slots[slot]] = value;
+            return oldValue;
+        }
+
+        if (entryCount == keys.length) {
+            allocate(Math.max(DEFAULT_CAPACITY, 2 * count + 1));
+        }
+        append(key, value);
+        return null;
+    }
+
+    /**
+     * Removes the given key and its value from this map.
+     *
+     * @param key a key
+     * @return the value of the key, or {@code null} if this map did not contain the key
+     */
+    @SuppressWarnings("unchecked") // Only values of type V are stored
+    public @Nullable V remove(final long key) {
+        final int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        final int entry = slots[slot];
+        final V oldValue = (V) valueArray[entry];
+        valueArray[entry] = null;
+        slots[slot] = REMOVED;
+        count--;
+        modificationCount++;
+        return oldValue;
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(slots, FREE);
+        Arrays.fill(valueArray, 0, entryCount, null);
+        entryCount = 0;
+        count = 0;
+        modificationCount++;
+    }
+
+    /**
+     * Returns a view of the values in this map, in insertion order.
+     * <p>
+     * The view reflects later changes to the map. Its iterators fail with a {@link ConcurrentModificationException}
+     * if entries are added or removed while iterating.
+     *
+     * @return a view of the values in this map
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the hash slot containing the given key.
+     *
+     * @param key a key
+     * @return the hash slot containing the given key, or {@code -1} if this map does not contain the key
+     */
+    private int findSlot(final long key) {
+        final int mask = slots.length - 1;
+        for (int slot = LongHashing.hash(key) & mask; slots[slot] != FREE; slot = (slot + 1) & mask) {
+            final int entry = slots[slot];
+            if (entry >= 0 && keys[entry] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends an entry for a key that is not in this map, assuming there is room for it.
+     *
+     * @param key   a key that is not in this map
+     * @param value the value of the key
+     */
+    private void append(final long key, final Object value) {
+        final int mask = slots.length - 1;
+        int slot = LongHashing.hash(key) & mask;
+        while (slots[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        keys[entryCount] = key;
+        valueArray[entryCount] = value;
+        slots[slot] = entryCount;
+        entryCount++;
+        count++;
+        modificationCount++;
+    }
+
+    /**
+     * Replaces the arrays by arrays with room for the given number of entries, closing the gaps of removed entries.
+     *
+     * @param capacity the number of entries the new arrays can hold, which must be at least {@link #size()}
+     */
+    private void allocate(final int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = valueArray;
+        final int oldEntryCount = entryCount;
+
+        slots = createSlots(capacity);
+        keys = new long[capacity];
+        valueArray = new Object[capacity];
+        entryCount = 0;
+        count = 0;
+
+        for (int entry = 0; entry < oldEntryCount; entry++) {
+            final Object value = oldValues[entry];
+            if (value != null) {
+                append(oldKeys[entry], value);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty hash table for the given number of entries.
+     *
+     * @param capacity the number of entries
+     * @return an empty hash table for the given number of entries
+     */
+    private static int[] createSlots(final int capacity) {
+        final int[] slots = new int[LongHashing.getSlotCount(capacity)];
+        Arrays.fill(slots, FREE);
+        return slots;
+    }
+
+
+    /**
+     * Iterates over the values of this map in insertion order.
+     */
+    private final class ValueIterator implements Iterator<V> {
+        private final int expectedModificationCount = modificationCount;
+        private int nextEntry = findEntryFrom(0);
+
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry < entryCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked") // Only values of type V are stored
+        public V next() {
+            if (modificationCount != expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final V value = (V) valueArray[nextEntry];
+            nextEntry = findEntryFrom(nextEntry + 1);
+            return value;
+        }
+
+
+        /**
+         * Returns the first entry at or after the given entry that has not been removed.
+         *
+         * @param from the index of an entry
+         * @return the first entry at or after the given entry that has not been removed, or {@link #entryCount} if
+         * there is none
+         */
+        private int findEntryFrom(final int from) {
+            int entry = from;
+            while (entry < entryCount && valueArray[entry] == null) {
+                entry++;
+            }
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.dnacronym.hygene.core;
+
+
+/**
+ * Hashing of {@code long} keys for the open-addressing hash tables of the primitive maps in this package.
+ */
+final class LongHashing {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+
+    /**
+     * Hides public implicit constructor.
+     */
+    private LongHashing() {
+    }
+
+
+    /**
+     * Spreads the bits of the given key over an {@code int}.
+     *
+     * @param key a key
+     * @return the hash of the key
+     */
+    static int hash(final long key) {
+        final long hash = key * HASH_MULTIPLIER;
+        return (int) (hash ^ hash >>> Integer.SIZE);
+    }
+
+    /**
+     * Returns the number of slots needed for the given number of entries.
+     * <p>
+     * The hash table has at least twice as many slots as there are entries, so that probe sequences stay short.
+     *
+     * @param capacity the number of entries
+     * @return the number of slots needed for the given number of entries, which is a power of two
+     */
+    static int getSlotCount(final int capacity) {
+        return Integer.highestOneBit(2 * capacity - 1) << 1;
+    }
+}
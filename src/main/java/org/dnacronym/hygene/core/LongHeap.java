@@ -0,0 +1,168 @@
+package org.dnacronym.hygene.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/**
+ * A min-heap of {@code long}s backed by an array, without boxing its values.
+ * <p>
+ * To use the heap as a priority queue of {@code int}s, a value can be encoded with its non-negative priority in the
+ * upper half of a {@code long}, as done by {@link #encode(int, int)}. The buffer grows as values are added and is
+ * kept when the heap is cleared, so that a heap can be reused for many traversals without allocating.
+ */
+public final class LongHeap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int count;
+
+
+    /**
+     * Constructs a new, empty {@link LongHeap} with a default capacity.
+     */
+    public LongHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link LongHeap} with the given initial capacity.
+     *
+     * @param capacity the initial capacity
+     */
+    public LongHeap(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        this.values = new long[Math.max(1, capacity)];
+    }
+
+
+    /**
+     * Encodes the given value and priority in a single {@code long}, such that encoded values are ordered by priority
+     * first and by value second.
+     *
+     * @param priority a non-negative priority
+     * @param value    a non-negative value
+     * @return the encoded value
+     * @see #decodePriority(long)
+     * @see #decodeValue(long)
+     */
+    public static long encode(final int priority, final int value) {
+        return (long) priority << Integer.SIZE | value;
+    }
+
+    /**
+     * Returns the priority of an encoded value.
+     *
+     * @param encoded a value encoded by {@link #encode(int, int)}
+     * @return the priority of the encoded value
+     */
+    public static int decodePriority(final long encoded) {
+        return (int) (encoded >>> Integer.SIZE);
+    }
+
+    /**
+     * Returns the value of an encoded value.
+     *
+     * @param encoded a value encoded by {@link #encode(int, int)}
+     * @return the value of the encoded value
+     */
+    public static int decodeValue(final long encoded) {
+        return (int) encoded;
+    }
+
+    /**
+     * Adds the given value to the heap.
+     *
+     * @param value the value to add
+     */
+    public void add(final long value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        int index = count;
+        count++;
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (values[parent] <= value) {
+                break;
+            }
+
+            values[index] = values[parent];
+            index = parent;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Returns the smallest value in the heap without removing it.
+     *
+     * @return the smallest value in the heap
+     */
+    public long peek() {
+        if (count == 0) {
+            throw new NoSuchElementException("Cannot peek at an empty heap.");
+        }
+
+        return values[0];
+    }
+
+    /**
+     * Removes and returns the smallest value in the heap.
+     *
+     * @return the smallest value in the heap
+     */
+    public long remove() {
+        final long smallest = peek();
+
+        count--;
+        final long last = values[count];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (last <= values[child]) {
+                break;
+            }
+
+            values[index] = values[child];
+            index = child;
+        }
+        values[index] = last;
+
+        return smallest;
+    }
+
+    /**
+     * Returns the number of values in the heap.
+     *
+     * @return the number of values in the heap
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns {@code true} iff. the heap contains no values.
+     *
+     * @return {@code true} iff. the heap contains no values
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Removes all values from the heap, keeping its capacity.
+     */
+    public void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,150 @@
+package org.dnacronym.hygene.core;
+
+import java.util.Arrays;
+
+
+/**
+ * A map from {@code long} keys to {@code int} values, without boxing its keys or values.
+ * <p>
+ * Entries are stored in an open-addressing hash table with linear probing. Entries cannot be removed individually,
+ * which keeps lookups free of tombstones. This class is not thread-safe.
+ */
+public final class LongIntMap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    /**
+     * Per hash slot, whether {@link #keys} and {@link #values} hold an entry.
+     */
+    private boolean[] used;
+    private int count;
+
+
+    /**
+     * Constructs a new, empty {@link LongIntMap} with a default capacity.
+     */
+    public LongIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link LongIntMap} with room for the given number of entries.
+     *
+     * @param capacity the initial capacity
+     */
+    public LongIntMap(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        final int slotCount = LongHashing.getSlotCount(Math.max(DEFAULT_CAPACITY, capacity));
+        this.keys = new long[slotCount];
+        this.values = new int[slotCount];
+        this.used = new boolean[slotCount];
+    }
+
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return the number of entries in this map
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns {@code true} iff. this map contains the given key.
+     *
+     * @param key a key
+     * @return {@code true} iff. this map contains the given key
+     */
+    public boolean containsKey(final long key) {
+        return used[findSlot(key)];
+    }
+
+    /**
+     * Returns the value of the given key, or the given default value if this map does not contain the key.
+     *
+     * @param key          a key
+     * @param defaultValue the value to return if this map does not contain the key
+     * @return the value of the given key, or the given default value if this map does not contain the key
+     */
+    public int getOrDefault(final long key, final int defaultValue) {
+        final int slot = findSlot(key);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param key   a key
+     * @param value the value to associate with the key
+     */
+    public void put(final long key, final int value) {
+        int slot = findSlot(key);
+        if (used[slot]) {
+            values[slot] = value;
+            return;
+        }
+
+        if (2 * (count + 1) > keys.length) {
+            rehash(2 * keys.length);
+            slot = findSlot(key);
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        count++;
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        count = 0;
+    }
+
+
+    /**
+     * Returns the slot that contains the given key, or the free slot at which it would be inserted.
+     *
+     * @param key a key
+     * @return the slot that contains the given key, or the free slot at which it would be inserted
+     */
+    private int findSlot(final long key) {
+        final int mask = keys.length - 1;
+        int slot = LongHashing.hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Moves all entries into a hash table with the given number of slots.
+     *
+     * @param slotCount the new number of slots, which must be a power of two
+     */
+    private void rehash(final int slotCount) {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        final boolean[] oldUsed = used;
+
+        keys = new long[slotCount];
+        values = new int[slotCount];
+        used = new boolean[slotCount];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                final int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+            }
+        }
+    }
+}
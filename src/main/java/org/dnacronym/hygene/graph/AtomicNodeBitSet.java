@@ -0,0 +1,55 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A set of node identifiers stored as a bitset over all nodes of a {@link Graph}, to which nodes can be added
+ * concurrently.
+ */
+final class AtomicNodeBitSet {
+    private final AtomicLongArray words;
+
+
+    /**
+     * Constructs a new, empty {@link AtomicNodeBitSet}.
+     *
+     * @param nodeCount the number of nodes in the graph
+     */
+    AtomicNodeBitSet(final int nodeCount) {
+        this.words = new AtomicLongArray((nodeCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+
+    /**
+     * Returns {@code true} iff. the given node is in this set.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the given node is in this set
+     */
+    boolean contains(final int id) {
+        return (words.get(id / Long.SIZE) & 1L << id) != 0;
+    }
+
+    /**
+     * Adds the given node to this set.
+     * <p>
+     * If several threads add the same node at the same time, exactly one of them is told that the node was added.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the node was not yet in this set
+     */
+    boolean add(final int id) {
+        final int word = id / Long.SIZE;
+        final long mask = 1L << id;
+
+        long current = words.get(word);
+        while ((current & mask) == 0) {
+            if (words.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+            current = words.get(word);
+        }
+        return false;
+    }
+}
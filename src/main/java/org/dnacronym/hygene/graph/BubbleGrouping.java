@@ -0,0 +1,127 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.Arrays;
+
+
+/**
+ * Groups the chains of a {@link Graph} that consist of members of the same superbubble without nested superbubbles,
+ * so that each group can be merged into a single node of level 2 of the {@link GraphHierarchy}.
+ * <p>
+ * Chains that also contain the entrance or exit of their superbubble are not grouped, and neither are the chains of
+ * superbubbles whose members form a single chain. The members of a superbubble are only entered from its entrance and
+ * only left to its exit, so merging them cannot introduce cycles.
+ */
+final class BubbleGrouping {
+    /**
+     * The groups of a level in which no nodes are grouped.
+     */
+    static final int[] NO_GROUPS = new int[0];
+
+    private final BubbleIndex bubbleIndex;
+    private final int[] chainIds;
+    private final int[] memberOrder;
+    private final int[] groups;
+    private int groupCount;
+
+
+    /**
+     * Constructs a new {@link BubbleGrouping} in which no chains are grouped yet.
+     *
+     * @param bubbleIndex the superbubbles of the graph
+     * @param chainLevel  level 1 of the hierarchy
+     */
+    private BubbleGrouping(final BubbleIndex bubbleIndex, final HierarchyLevel chainLevel) {
+        this.bubbleIndex = bubbleIndex;
+        this.chainIds = chainLevel.getParentIds();
+        this.memberOrder = bubbleIndex.getMemberOrder();
+        this.groups = new int[chainLevel.getGraph().getNodeCount()];
+
+        Arrays.fill(groups, LevelBuilder.UNASSIGNED);
+    }
+
+
+    /**
+     * Groups the chains that consist of members of the same superbubble without nested superbubbles.
+     *
+     * @param graph      the {@link Graph} at level 0
+     * @param chainLevel level 1 of the hierarchy
+     * @return the group of each chain, or {@value LevelBuilder#UNASSIGNED} for chains that are not grouped, or an empty
+     * array if the superbubbles of the graph have not been detected
+     */
+    static int[] group(final Graph graph, final HierarchyLevel chainLevel) {
+        final BubbleIndex bubbleIndex = graph.getBubbleIndex();
+        if (bubbleIndex == null) {
+            return NO_GROUPS;
+        }
+
+        final BubbleGrouping grouping = new BubbleGrouping(bubbleIndex, chainLevel);
+        final int[] memberStarts = bubbleIndex.getMemberStarts();
+        final int[] memberEnds = bubbleIndex.getMemberEnds();
+        final int[] sortedMemberStarts = memberStarts.clone();
+        Arrays.sort(sortedMemberStarts);
+
+        for (int bubble = 0; bubble < bubbleIndex.getBubbleCount(); bubble++) {
+            if (!containsNestedBubble(sortedMemberStarts, memberStarts[bubble], memberEnds[bubble])) {
+                grouping.groupMembers(bubble, memberStarts[bubble], memberEnds[bubble]);
+            }
+        }
+        return grouping.groups;
+    }
+
+
+    /**
+     * Puts the chains of the members of the given superbubble in a new group, unless there is only one such chain.
+     *
+     * @param bubble      the index of a superbubble without nested superbubbles
+     * @param memberStart the index in the member order of the first member of the superbubble (inclusive)
+     * @param memberEnd   the index in the member order after the last member of the superbubble (exclusive)
+     */
+    private void groupMembers(final int bubble, final int memberStart, final int memberEnd) {
+        final int entranceChain = chainIds[bubbleIndex.getEntrance(bubble)];
+        final int exitChain = chainIds[bubbleIndex.getExit(bubble)];
+
+        int chainCount = 0;
+        for (int index = memberStart; index < memberEnd; index++) {
+            final int chain = chainIds[memberOrder[index]];
+            if (chain != entranceChain && chain != exitChain && groups[chain] != groupCount) {
+                groups[chain] = groupCount;
+                chainCount++;
+            }
+        }
+
+        if (chainCount > 1) {
+            groupCount++;
+            return;
+        }
+
+        for (int index = memberStart; index < memberEnd; index++) {
+            final int chain = chainIds[memberOrder[index]];
+            if (groups[chain] == groupCount) {
+                groups[chain] = LevelBuilder.UNASSIGNED;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} iff. the members of another superbubble lie within the given range of members.
+     * <p>
+     * The member ranges of superbubbles are either nested or disjoint, and the members of a nested superbubble start
+     * after its entrance, so a superbubble contains another iff. the member range of another superbubble starts after
+     * the start of its own member range but before its end.
+     *
+     * @param sortedMemberStarts the start of the member range of each superbubble, sorted in ascending order
+     * @param memberStart        the start of the member range of a superbubble (inclusive)
+     * @param memberEnd          the end of the member range of that superbubble (exclusive)
+     * @return {@code true} iff. the members of another superbubble lie within the given range of members
+     */
+    private static boolean containsNestedBubble(final int[] sortedMemberStarts, final int memberStart,
+                                                final int memberEnd) {
+        int next = Arrays.binarySearch(sortedMemberStarts, memberStart);
+        next = next >= 0 ? next + 1 : -next - 1;
+        while (next < sortedMemberStarts.length && sortedMemberStarts[next] == memberStart) {
+            next++;
+        }
+
+        return next < sortedMemberStarts.length && sortedMemberStarts[next] < memberEnd;
+    }
+}
@@ -0,0 +1,294 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * The superbubbles of a {@link Graph}.
+ * <p>
+ * A superbubble is a subgraph between an entrance and an exit node, such that all paths from the entrance lead to the
+ * exit, all paths to the exit come from the entrance, and no smaller subgraph with the same entrance has this
+ * property. Superbubbles without members between their entrance and exit, such as the edges in a chain, are not
+ * included.
+ * <p>
+ * All bubbles are stored in primitive arrays. The members of the bubbles are stored in a single array of node
+ * identifiers, ordered such that the members of each bubble, including those of nested bubbles, form a contiguous
+ * range. Each node is the entrance of at most one bubble, so bubbles can be looked up by their entrance in constant
+ * time.
+ *
+ * @see SuperbubbleDetector
+ */
+public final class BubbleIndex {
+    private static final int NO_BUBBLE = -1;
+
+    private final int[] entrances;
+    private final int[] exits;
+    private final int[] memberStarts;
+    private final int[] memberEnds;
+    private final int[] memberOrder;
+    private final int[] bubblesByEntrance;
+    private final BitSet snps;
+
+
+    /**
+     * Constructs a new {@link BubbleIndex}.
+     *
+     * @param graph        the {@link Graph} the bubbles are in
+     * @param entrances    the entrance of each bubble
+     * @param exits        the exit of each bubble
+     * @param memberStarts the index in {@code memberOrder} of the first member of each bubble (inclusive)
+     * @param memberEnds   the index in {@code memberOrder} after the last member of each bubble (exclusive)
+     * @param memberOrder  the identifiers of all nodes, ordered such that the members of each bubble are contiguous
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public BubbleIndex(final Graph graph, final int[] entrances, final int[] exits, final int[] memberStarts,
+                       final int[] memberEnds, final int[] memberOrder) {
+        if (exits.length != entrances.length || memberStarts.length != entrances.length
+                || memberEnds.length != entrances.length) {
+            throw new IllegalArgumentException("Each bubble must have an entrance, exit, and range of members.");
+        }
+        final int nodeCount = graph.getNodeCount();
+        if (memberOrder.length != nodeCount) {
+            throw new IllegalArgumentException("Member order must contain each of the " + nodeCount + " nodes.");
+        }
+        for (final int id : memberOrder) {
+            checkNode(id, nodeCount);
+        }
+
+        this.entrances = entrances;
+        this.exits = exits;
+        this.memberStarts = memberStarts;
+        this.memberEnds = memberEnds;
+        this.memberOrder = memberOrder;
+        this.bubblesByEntrance = indexByEntrance(nodeCount);
+        this.snps = classifySnps(graph);
+    }
+
+
+    /**
+     * Returns the number of bubbles.
+     *
+     * @return the number of bubbles
+     */
+    public int getBubbleCount() {
+        return entrances.length;
+    }
+
+    /**
+     * Returns the bubble of which the given node is the entrance.
+     *
+     * @param id the node's identifier
+     * @return the bubble of which the given node is the entrance, or {@code -1} if there is no such bubble
+     */
+    public int getBubbleByEntrance(final int id) {
+        return bubblesByEntrance[id];
+    }
+
+    /**
+     * Returns the entrance of the given bubble.
+     *
+     * @param bubble the index of the bubble
+     * @return the identifier of the entrance of the given bubble
+     */
+    public int getEntrance(final int bubble) {
+        return entrances[bubble];
+    }
+
+    /**
+     * Returns the exit of the given bubble.
+     *
+     * @param bubble the index of the bubble
+     * @return the identifier of the exit of the given bubble
+     */
+    public int getExit(final int bubble) {
+        return exits[bubble];
+    }
+
+    /**
+     * Returns the number of members of the given bubble, excluding its entrance and exit.
+     *
+     * @param bubble the index of the bubble
+     * @return the number of members of the given bubble
+     */
+    public int getMemberCount(final int bubble) {
+        return memberEnds[bubble] - memberStarts[bubble];
+    }
+
+    /**
+     * Returns the members of the given bubble, excluding its entrance and exit.
+     *
+     * @param bubble the index of the bubble
+     * @return the identifiers of the members of the given bubble
+     */
+    public int[] getMembers(final int bubble) {
+        return Arrays.copyOfRange(memberOrder, memberStarts[bubble], memberEnds[bubble]);
+    }
+
+    /**
+     * Returns whether the given bubble is a SNP; a single-nucleotide polymorphism.
+     * <p>
+     * A SNP consists of exactly two members of one base each, which are the only right neighbours of the entrance,
+     * and of which the exit is the only right neighbour.
+     *
+     * @param bubble the index of the bubble
+     * @return {@code true} iff the given bubble is a SNP
+     */
+    public boolean isSnp(final int bubble) {
+        return snps.get(bubble);
+    }
+
+    /**
+     * Returns the entrance of each bubble.
+     *
+     * @return the entrance of each bubble
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getEntrances() {
+        return entrances;
+    }
+
+    /**
+     * Returns the exit of each bubble.
+     *
+     * @return the exit of each bubble
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getExits() {
+        return exits;
+    }
+
+    /**
+     * Returns the index in the member order of the first member of each bubble.
+     *
+     * @return the index in the member order of the first member of each bubble
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getMemberStarts() {
+        return memberStarts;
+    }
+
+    /**
+     * Returns the index in the member order after the last member of each bubble.
+     *
+     * @return the index in the member order after the last member of each bubble
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getMemberEnds() {
+        return memberEnds;
+    }
+
+    /**
+     * Returns the identifiers of all nodes, ordered such that the members of each bubble are contiguous.
+     *
+     * @return the identifiers of all nodes, ordered such that the members of each bubble are contiguous
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getMemberOrder() {
+        return memberOrder;
+    }
+
+
+    /**
+     * Checks the entrance, exit and range of members of each bubble, and maps each entrance to its bubble.
+     *
+     * @param nodeCount the number of nodes
+     * @return the bubble of which each node is the entrance, or {@code -1} if there is no such bubble
+     */
+    private int[] indexByEntrance(final int nodeCount) {
+        final int[] bubbles = new int[nodeCount];
+        Arrays.fill(bubbles, NO_BUBBLE);
+
+        for (int bubble = 0; bubble < entrances.length; bubble++) {
+            checkNode(entrances[bubble], nodeCount);
+            checkNode(exits[bubble], nodeCount);
+            if (memberStarts[bubble] < 0 || memberStarts[bubble] > memberEnds[bubble]
+                    || memberEnds[bubble] > nodeCount) {
+                throw new IllegalArgumentException("Members of bubble " + bubble + " are out of bounds.");
+            }
+            if (bubbles[entrances[bubble]] != NO_BUBBLE) {
+                throw new IllegalArgumentException("Node " + entrances[bubble] + " is the entrance of two bubbles.");
+            }
+
+            bubbles[entrances[bubble]] = bubble;
+        }
+        return bubbles;
+    }
+
+    /**
+     * Determines which bubbles are SNPs.
+     *
+     * @param graph the {@link Graph} the bubbles are in
+     * @return the set of bubbles that are SNPs
+     */
+    private BitSet classifySnps(final Graph graph) {
+        final BitSet snpBubbles = new BitSet(entrances.length);
+        for (int bubble = 0; bubble < entrances.length; bubble++) {
+            snpBubbles.set(bubble, isSnp(graph, bubble));
+        }
+        return snpBubbles;
+    }
+
+    /**
+     * Checks whether the given bubble is a SNP.
+     *
+     * @param graph  the {@link Graph} the bubble is in
+     * @param bubble the index of the bubble
+     * @return {@code true} iff the given bubble is a SNP
+     */
+    private boolean isSnp(final Graph graph, final int bubble) {
+        final int entrance = entrances[bubble];
+        if (getMemberCount(bubble) != 2 || graph.getNeighbourCount(entrance, SequenceDirection.RIGHT) != 2) {
+            return false;
+        }
+
+        for (int index = memberStarts[bubble]; index < memberEnds[bubble]; index++) {
+            final int member = memberOrder[index];
+            if (graph.getSequenceLength(member) != 1
+                    || graph.getNeighbourCount(member, SequenceDirection.LEFT) != 1
+                    || graph.getNeighbourCount(member, SequenceDirection.RIGHT) != 1
+                    || graph.getNeighbour(graph.getEdgeStart(member, SequenceDirection.LEFT)) != entrance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the given identifier refers to a node.
+     *
+     * @param id        an identifier
+     * @param nodeCount the number of nodes
+     */
+    private static void checkNode(final int id, final int nodeCount) {
+        if (id < 0 || id >= nodeCount) {
+            throw new IllegalArgumentException("Node " + id + " is out of bounds.");
+        }
+    }
+}
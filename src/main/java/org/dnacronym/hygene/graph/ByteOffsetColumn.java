@@ -0,0 +1,160 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.dnacronym.hygene.core.UnsignedInteger;
+
+
+/**
+ * Stores the upper bits of the byte offsets of the nodes and edges of a {@link Graph}.
+ * <p>
+ * The {@link Graph} holds the lower 32 bits of each byte offset as an {@link UnsignedInteger}. For files larger than
+ * 4 GB, this column holds the 8 bits above those, so that offsets of up to 40 bits can be stored. Graphs of smaller
+ * files do not have a column at all, so they use no more memory than before.
+ * <p>
+ * Edges are identified by their index in the edge arrays of the {@link Graph}, in which the outgoing and then the
+ * incoming edges of each node follow those of the previous node.
+ */
+public final class ByteOffsetColumn {
+    /**
+     * The largest byte offset that can be stored.
+     */
+    public static final long MAX_BYTE_OFFSET = (1L << 40) - 1;
+
+    private static final int LOWER_BITS = 32;
+    private static final long LOWER_BITS_MASK = (1L << LOWER_BITS) - 1;
+    private static final int UPPER_BITS_MASK = 0xFF;
+
+    private final byte[] nodeUpperBits;
+    private final byte[] edgeUpperBits;
+
+
+    /**
+     * Constructs a new, zeroed {@link ByteOffsetColumn}.
+     *
+     * @param nodeCount the number of nodes
+     * @param edgeCount the total number of incoming and outgoing edges of all nodes
+     */
+    public ByteOffsetColumn(final int nodeCount, final int edgeCount) {
+        this(new byte[nodeCount], new byte[edgeCount]);
+    }
+
+    /**
+     * Constructs a new {@link ByteOffsetColumn} containing the given upper bits.
+     *
+     * @param nodeUpperBits the upper bits of the byte offset of each node
+     * @param edgeUpperBits the upper bits of the byte offset of each edge, in the order of the edge arrays
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public ByteOffsetColumn(final byte[] nodeUpperBits, final byte[] edgeUpperBits) {
+        this.nodeUpperBits = nodeUpperBits;
+        this.edgeUpperBits = edgeUpperBits;
+    }
+
+
+    /**
+     * Returns whether a byte offset does not fit in 32 bits.
+     *
+     * @param byteOffset a byte offset
+     * @return {@code true} iff the byte offset needs a {@link ByteOffsetColumn}
+     */
+    public static boolean requiresColumn(final long byteOffset) {
+        return byteOffset > UnsignedInteger.MAX_VALUE;
+    }
+
+    /**
+     * Returns the lower 32 bits of a byte offset as an {@link UnsignedInteger}.
+     *
+     * @param byteOffset a byte offset of at most {@link #MAX_BYTE_OFFSET}
+     * @return the lower 32 bits of the byte offset
+     */
+    public static int toLowerBits(final long byteOffset) {
+        if (byteOffset > MAX_BYTE_OFFSET) {
+            throw new IllegalArgumentException("Byte offset cannot be higher than " + MAX_BYTE_OFFSET + ".");
+        }
+        return UnsignedInteger.fromLong(byteOffset & LOWER_BITS_MASK);
+    }
+
+    /**
+     * Combines lower bits with upper bits into a byte offset.
+     *
+     * @param lowerBits the lower bits, as an {@link UnsignedInteger}
+     * @param upperBits the upper bits
+     * @return the byte offset
+     */
+    static long toByteOffset(final int lowerBits, final int upperBits) {
+        return (long) upperBits << LOWER_BITS | UnsignedInteger.toLong(lowerBits);
+    }
+
+
+    /**
+     * Returns the upper bits of the byte offset of a node.
+     *
+     * @param id the node's id
+     * @return the upper bits of the byte offset of the node
+     */
+    public int getNodeUpperBits(final int id) {
+        return nodeUpperBits[id] & UPPER_BITS_MASK;
+    }
+
+    /**
+     * Sets the upper bits of the byte offset of a node.
+     *
+     * @param id         the node's id
+     * @param byteOffset the complete byte offset of the node
+     */
+    public void setNodeUpperBits(final int id, final long byteOffset) {
+        nodeUpperBits[id] = (byte) (byteOffset >>> LOWER_BITS);
+    }
+
+    /**
+     * Returns the upper bits of the byte offset of an edge.
+     *
+     * @param edge the index of the edge in the edge arrays
+     * @return the upper bits of the byte offset of the edge
+     */
+    public int getEdgeUpperBits(final int edge) {
+        return edgeUpperBits[edge] & UPPER_BITS_MASK;
+    }
+
+    /**
+     * Sets the upper bits of the byte offset of an edge.
+     *
+     * @param edge       the index of the edge in the edge arrays
+     * @param byteOffset the complete byte offset of the edge
+     */
+    public void setEdgeUpperBits(final int edge, final long byteOffset) {
+        edgeUpperBits[edge] = (byte) (byteOffset >>> LOWER_BITS);
+    }
+
+    /**
+     * Returns the upper bits of the byte offsets of all nodes.
+     *
+     * @return the upper bits of the byte offsets of all nodes
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public byte[] getNodeUpperBits() {
+        return nodeUpperBits;
+    }
+
+    /**
+     * Returns the upper bits of the byte offsets of all edges, in the order of the edge arrays.
+     *
+     * @return the upper bits of the byte offsets of all edges
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public byte[] getEdgeUpperBits() {
+        return edgeUpperBits;
+    }
+}
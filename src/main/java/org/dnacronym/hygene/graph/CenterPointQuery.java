@@ -4,15 +4,11 @@ import org.dnacronym.hygene.core.HygeneEventBus;
 import org.dnacronym.hygene.core.ThrottledDefaultExecutor;
 import org.dnacronym.hygene.event.CenterPointQueryChangeEvent;
 import org.dnacronym.hygene.event.LayoutDoneEvent;
-import org.dnacronym.hygene.graph.edge.Edge;
-import org.dnacronym.hygene.graph.edge.SimpleEdge;
 import org.dnacronym.hygene.graph.layout.Layout;
 import org.dnacronym.hygene.graph.layout.SugiyamaLayout;
 import org.dnacronym.hygene.graph.metadata.NodeMetadataCache;
-import org.dnacronym.hygene.graph.node.Node;
-import org.dnacronym.hygene.graph.node.Segment;
-
-import java.util.Optional;
+import org.dnacronym.hygene.graph.node.ChainSegment;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
 
 
 /**
@@ -23,6 +19,17 @@ import java.util.Optional;
  * This class functions lazily, which means that the cache is only approximately correct. While the intended nodes
  * will always be in the cache, the cache may contain more nodes. The excessive nodes are flushed from the cache by
  * rebuilding the cache after a number of calls.
+ * <p>
+ * By default, queries run on the {@link ChainCompaction} of the {@link Graph}, so that each chain of nodes costs a
+ * single step and is added to the cache as a single {@link ChainSegment}. Range queries over a range that is expected
+ * to contain more than {@value #MAX_RANGE_NODE_COUNT} nodes run on a coarser level of the {@link GraphHierarchy}
+ * instead, in which case each node of that level is added as a single {@link ClusterSegment}. The segments of a
+ * cluster are only created once they are requested, so that the cost of such a query does not depend on the number of
+ * nodes of the original graph in the range. Node ids passed to and returned by this class always refer to the
+ * original {@link Graph}.
+ * <p>
+ * The traversal of the current level of the hierarchy is delegated to a {@link LevelQuery}, while this class keeps
+ * track of the centre and radius and decides when the cache needs to be rebuilt.
  */
 public final class CenterPointQuery {
     /**
@@ -34,11 +41,6 @@ public final class CenterPointQuery {
      * The minimum number of milliseconds that must be between recalculating this subgraph's layout.
      */
     private static final int LAYOUT_TIMEOUT = 10;
-    /**
-     * The width of an edge.
-     */
-    // TODO Move this constant to the layout algorithm.
-    private static final int EDGE_WIDTH = 1000;
     /**
      * The maximal acceptable difference between the preferred radius and the cached radius.
      */
@@ -52,27 +54,30 @@ public final class CenterPointQuery {
      * deemed necessary to rebuild the cache.
      */
     private static final int MAX_SET_RADIUS_INCREASE = 5;
+    /**
+     * The number of nodes a range query should return at most, on which the level of the {@link GraphHierarchy} to
+     * query is based.
+     */
+    static final int MAX_RANGE_NODE_COUNT = 1000;
 
     /**
      * The queried {@link Graph}.
      */
     private final Graph graph;
-    /**
-     * The iterator with which to iterate over the {@link Graph}.
-     */
-    private final GraphIterator iterator;
     /**
      * The backing cache.
      */
     private final Subgraph subgraph;
+    /**
+     * The traversal of the current level of the {@link GraphHierarchy}, which fills the cache.
+     */
+    private final LevelQuery levelQuery;
     /**
      * The cache for metadata of nodes.
      */
-    @SuppressWarnings({"PMD.SingularField", "PMD.UnusedPrivateField", "squid:S1068"})
-    // Receives layout events, so must be declared somewhere to prevent garbage collection
     private final NodeMetadataCache nodeMetadataCache;
     /**
-     * Maps each node id in the cache to the distance from the centre point of the query.
+     * Maps each node id in the traversed graph to the distance from the centre point of the query.
      */
     private final NodeDistanceMap distanceMap;
     /**
@@ -96,6 +101,14 @@ public final class CenterPointQuery {
      * Determines whether to aggregate nodes.
      */
     private boolean aggregateNodes = true;
+    /**
+     * Determines whether to query the compaction of the {@link Graph}.
+     */
+    private boolean compactChains = true;
+    /**
+     * Determines whether the radius is measured in base pairs instead of hops.
+     */
+    private boolean radiusInBasePairs;
 
 
     /**
@@ -105,10 +118,11 @@ public final class CenterPointQuery {
      */
     public CenterPointQuery(final Graph graph) {
         this.graph = graph;
-        this.iterator = new GraphIterator(graph);
         this.subgraph = new Subgraph();
+        this.levelQuery = new LevelQuery(graph, subgraph);
         this.nodeMetadataCache = new NodeMetadataCache(graph.getGfaFile());
-        this.distanceMap = new NodeDistanceMap();
+        this.distanceMap = new NodeDistanceMap(
+                graph.getHierarchy().getGraph(LevelQuery.CHAIN_LEVEL).getNodeCount());
         this.layoutExecutor = new ThrottledDefaultExecutor(LAYOUT_TIMEOUT, () -> {
             if (this.subgraph == null) {
                 return;
@@ -116,7 +130,7 @@ public final class CenterPointQuery {
 
             final Subgraph subgraphCopy = new Subgraph(subgraph);
             if (aggregateNodes) {
-                SegmentAggregator.aggregate(subgraphCopy);
+                SegmentAggregator.aggregate(subgraphCopy, graph.getBubbleIndex());
             }
             LAYOUT.layOut(subgraphCopy);
 
@@ -147,17 +161,17 @@ public final class CenterPointQuery {
 
     /**
      * Clears the cache and rebuilds the query.
+     * <p>
+     * If the radius is measured in base pairs, the cache is filled with the nodes that are separated from the centre
+     * by at most that many base pairs, as visited by
+     * {@link GraphIterator#visitIndirectNeighboursWithinDistance(int, int, org.dnacronym.hygene.core.IntBiConsumer)}.
+     * Otherwise, it is filled with the nodes that are at most that many hops away from the centre.
      *
      * @param centre the centre of the query
      * @param radius the radius of the query
      */
     public void query(final int centre, final int radius) {
-        if (centre < 0) {
-            throw new IllegalArgumentException("Centre point node id cannot be negative.");
-        }
-        if (centre >= graph.getNodeArrays().length) {
-            throw new IllegalArgumentException("Centre point node id cannot exceed graph size.");
-        }
+        checkCentre(centre);
         if (radius < 0) {
             throw new IllegalArgumentException("Radius cannot be negative.");
         }
@@ -166,20 +180,47 @@ public final class CenterPointQuery {
         this.radius = radius;
         this.cacheRadius = radius;
 
+        useLevel(getBaseLevel());
         clear();
 
-        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, nodeId) -> {
-            if (nodeId == 0 || nodeId == graph.getNodeArrays().length - 1) {
-                return;
-            }
+        final int queryCentre = levelQuery.toLevelId(centre);
+        if (radiusInBasePairs) {
+            levelQuery.addWithinBasePairs(queryCentre, radius);
+        } else {
+            levelQuery.addWithinHops(queryCentre, radius, distanceMap);
+        }
 
-            distanceMap.setDistance(nodeId, depth);
+        layoutExecutor.run();
 
-            final Node node = new Segment(nodeId, graph.getByteOffset(nodeId), graph.getSequenceLength(nodeId));
-            node.setXPosition((long) graph.getUnscaledXPosition(nodeId) * EDGE_WIDTH);
-            subgraph.add(node);
-        });
-        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, nodeId) -> addEdges(nodeId));
+        postEvent();
+    }
+
+    /**
+     * Clears the cache and fills it with the nodes and edges that intersect the given horizontal range.
+     * <p>
+     * Unlike {@link #query(int, int)}, which fetches nodes by their distance in edges from the centre, this query
+     * fetches exactly the nodes that occupy part of the range, regardless of their length or the number of bubbles in
+     * the range. Edges that cross the range are included as well, together with the nodes at their ends, so that they
+     * can be drawn. The distances of the fetched nodes are not computed, so moving the centre or increasing the radius
+     * afterwards rebuilds the cache.
+     * <p>
+     * The query runs on the finest level of the {@link GraphHierarchy} at which the range is expected to contain at
+     * most {@value #MAX_RANGE_NODE_COUNT} nodes, and visits the {@link NodeIntervalIndex} of that level, so that the
+     * number of nodes to visit and lay out stays bounded as the range grows.
+     *
+     * @param minX the leftmost position of the range, inclusive
+     * @param maxX the rightmost position of the range, inclusive
+     * @see NodeIntervalIndex
+     */
+    public void queryRange(final long minX, final long maxX) {
+        if (minX > maxX) {
+            throw new IllegalArgumentException("Minimum x position cannot exceed maximum x position.");
+        }
+
+        useLevel(levelQuery.getRangeLevel(minX, maxX, getBaseLevel()));
+        clear();
+
+        levelQuery.addRange(minX, maxX);
 
         layoutExecutor.run();
 
@@ -192,12 +233,7 @@ public final class CenterPointQuery {
      * @param centre a node id
      */
     public void setCenter(final int centre) {
-        if (centre < 0) {
-            throw new IllegalArgumentException("Centre point node id cannot be negative.");
-        }
-        if (centre >= graph.getNodeArrays().length) {
-            throw new IllegalArgumentException("Centre point node id cannot exceed graph size.");
-        }
+        checkCentre(centre);
 
         this.centre = centre;
         fixCentre();
@@ -213,10 +249,18 @@ public final class CenterPointQuery {
      * @param radius the new radius
      */
     public void setRadius(final int radius) {
-        if (radius > this.radius) {
-            incrementRadius(radius - this.radius);
-        } else if (radius < this.radius) {
-            decrementRadius(this.radius - Math.max(0, radius));
+        final int newRadius = Math.max(0, radius);
+        if (newRadius == this.radius) {
+            return;
+        }
+
+        if (radiusInBasePairs) {
+            // Distances in base pairs are not cached, but the cost of a query is bounded by its radius
+            query(centre, newRadius);
+        } else if (newRadius > this.radius) {
+            incrementRadius(newRadius - this.radius);
+        } else {
+            decrementRadius(this.radius - newRadius);
         }
     }
 
@@ -229,6 +273,15 @@ public final class CenterPointQuery {
         return subgraph;
     }
 
+    /**
+     * Returns the {@link ThrottledDefaultExecutor} used to lay out the cache.
+     *
+     * @return the {@link ThrottledDefaultExecutor} used to lay out the cache
+     */
+    ThrottledDefaultExecutor getLayoutExecutor() {
+        return layoutExecutor;
+    }
+
 
     /*
      * Query methods
@@ -238,31 +291,27 @@ public final class CenterPointQuery {
      * Ensures that the query on the cached centre and radius are a superset of the preferred centre and radius.
      */
     private void fixCentre() {
-        final Integer centreDistance = distanceMap.getDistance(centre);
-        if (centreDistance == null || cacheRadius >= radius * MAX_RADIUS_FACTOR) {
+        final int centreDistance = distanceMap.getDistance(levelQuery.toLevelId(centre));
+        if (centreDistance == NodeDistanceMap.NO_DISTANCE || cacheRadius >= radius * MAX_RADIUS_FACTOR) {
             query(centre, radius);
             return;
         }
 
-        int offset = radius - (cacheRadius - centreDistance);
-        while (offset > 0) {
-            incrementCacheRadius();
-            offset--;
-        }
+        growCacheRadius(radius + centreDistance);
     }
 
     /**
-     * Increments the cached radius and adds the nodes that are now within range.
+     * Increments the cached radius until it reaches the given target, adding the nodes that are now within range.
+     *
+     * @param cacheRadiusTarget the new cached radius
      */
-    private void incrementCacheRadius() {
-        cacheRadius++;
+    private void growCacheRadius(final int cacheRadiusTarget) {
+        while (cacheRadius < cacheRadiusTarget) {
+            cacheRadius++;
+            levelQuery.addNeighbours(distanceMap.getNodes(cacheRadius - 1), cacheRadius, distanceMap);
 
-        distanceMap.getNodes(cacheRadius - 1).forEach(nodeId -> {
-            iterator.visitDirectNeighbours(nodeId, neighbour -> distanceMap.setDistance(neighbour, cacheRadius));
-            addEdges(nodeId);
-        });
-
-        layoutExecutor.run();
+            layoutExecutor.run();
+        }
     }
 
     /**
@@ -274,9 +323,9 @@ public final class CenterPointQuery {
         final int newRadius = radius + increment;
         assert newRadius >= radius;
 
-        final Integer centreDistance = distanceMap.getDistance(centre);
-        if (centreDistance == null) {
-            // This branch should be unreachable, but is required by the Checker Framework
+        final int centreDistance = distanceMap.getDistance(levelQuery.toLevelId(centre));
+        if (centreDistance == NodeDistanceMap.NO_DISTANCE) {
+            // This branch is only reachable after a range query or a query in base pairs
             query(centre, newRadius);
             return;
         }
@@ -287,11 +336,7 @@ public final class CenterPointQuery {
         } else if (newRadius - effectiveCacheRadius > MAX_SET_RADIUS_INCREASE) {
             query(centre, newRadius);
         } else {
-            final int cacheRadiusTarget = newRadius + effectiveCacheRadius;
-            while (cacheRadius < cacheRadiusTarget) {
-                incrementCacheRadius();
-            }
-
+            growCacheRadius(newRadius + effectiveCacheRadius);
             this.radius = newRadius;
         }
     }
@@ -318,6 +363,20 @@ public final class CenterPointQuery {
      * Helper methods
      */
 
+    /**
+     * Checks that the given centre is a node of the queried {@link Graph}.
+     *
+     * @param centre a node id
+     */
+    private void checkCentre(final int centre) {
+        if (centre < 0) {
+            throw new IllegalArgumentException("Centre point node id cannot be negative.");
+        }
+        if (centre >= graph.getNodeCount()) {
+            throw new IllegalArgumentException("Centre point node id cannot exceed graph size.");
+        }
+    }
+
     /**
      * Empties the {@link CenterPointQuery}.
      */
@@ -327,27 +386,12 @@ public final class CenterPointQuery {
     }
 
     /**
-     * Adds all edges from the specified node to the corresponding {@link Node} if both ends of the edge are in the
-     * cache.
+     * Returns the {@link NodeMetadataCache} that retrieves the metadata of the nodes in the cache.
      *
-     * @param nodeId a node id, as given by the {@link Graph}
+     * @return the {@link NodeMetadataCache} that retrieves the metadata of the nodes in the cache
      */
-    private void addEdges(final int nodeId) {
-        final Optional<Segment> node = subgraph.getSegment(nodeId);
-        if (!node.isPresent()) {
-            return;
-        }
-
-        iterator.visitDirectNeighbours(nodeId, SequenceDirection.RIGHT, neighbourId -> {
-            final Optional<Segment> neighbour = subgraph.getSegment(neighbourId);
-            if (!neighbour.isPresent()) {
-                return;
-            }
-
-            final Edge edge = new SimpleEdge(node.get(), neighbour.get());
-            node.get().getOutgoingEdges().add(edge);
-            neighbour.get().getIncomingEdges().add(edge);
-        });
+    public NodeMetadataCache getNodeMetadataCache() {
+        return nodeMetadataCache;
     }
 
     /**
@@ -359,6 +403,81 @@ public final class CenterPointQuery {
         this.aggregateNodes = aggregateNodes;
     }
 
+    /**
+     * Returns the level of the {@link GraphHierarchy} that is currently traversed.
+     *
+     * @return the level of the {@link GraphHierarchy} that is currently traversed
+     */
+    public int getLevel() {
+        return levelQuery.getLevel();
+    }
+
+    /**
+     * Returns {@code true} iff. queries run on the compaction of the {@link Graph}.
+     *
+     * @return {@code true} iff. queries run on the compaction of the {@link Graph}
+     */
+    public boolean isCompactChains() {
+        return compactChains;
+    }
+
+    /**
+     * Sets the field deciding whether queries run on the compaction of the {@link Graph}.
+     * <p>
+     * The new setting is used from the next query onwards.
+     *
+     * @param compactChains whether queries run on the compaction of the {@link Graph}
+     */
+    public void setCompactChains(final boolean compactChains) {
+        this.compactChains = compactChains;
+        useLevel(getBaseLevel());
+    }
+
+    /**
+     * Returns {@code true} iff. the radius is measured in base pairs instead of hops.
+     *
+     * @return {@code true} iff. the radius is measured in base pairs instead of hops
+     */
+    public boolean isRadiusInBasePairs() {
+        return radiusInBasePairs;
+    }
+
+    /**
+     * Sets the field deciding whether the radius is measured in base pairs instead of hops.
+     * <p>
+     * The new unit is used from the next query onwards.
+     *
+     * @param radiusInBasePairs whether the radius is measured in base pairs instead of hops
+     */
+    public void setRadiusInBasePairs(final boolean radiusInBasePairs) {
+        if (radiusInBasePairs != this.radiusInBasePairs) {
+            // The cached distances are measured in the old unit
+            distanceMap.clear();
+        }
+        this.radiusInBasePairs = radiusInBasePairs;
+    }
+
+    /**
+     * Returns the finest level of the {@link GraphHierarchy} that queries may run on.
+     *
+     * @return the finest level of the {@link GraphHierarchy} that queries may run on
+     */
+    private int getBaseLevel() {
+        return compactChains ? LevelQuery.CHAIN_LEVEL : 0;
+    }
+
+    /**
+     * Switches the traversed {@link Graph} to the given level of the {@link GraphHierarchy}.
+     *
+     * @param newLevel a level of the {@link GraphHierarchy}
+     */
+    private void useLevel(final int newLevel) {
+        if (levelQuery.useLevel(newLevel)) {
+            // The cached distances are stored by the ids of the other level
+            distanceMap.clear();
+        }
+    }
+
     /**
      * Posts event indicating a change in the center point query to the event bus.
      */
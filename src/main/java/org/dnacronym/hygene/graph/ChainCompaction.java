@@ -0,0 +1,359 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+
+/**
+ * A compacted version of a {@link Graph}, in which each chain of nodes is collapsed into a single node.
+ * <p>
+ * A node continues into its right neighbour if it is the only neighbour of that node and vice versa, and neither of
+ * them is a sentinel. Each maximal chain of such nodes becomes one node in the compacted graph, which has the byte
+ * offset and position of the first node of the chain, the total sequence length of the chain, and the outgoing edges
+ * of the last node of the chain. The sentinels keep their roles, so the first node of the compacted graph is the
+ * source and the last node is the sink.
+ * <p>
+ * The original ids of the nodes in each chain are kept in chain order, so that each node in the compacted graph can
+ * be mapped back to the segments it represents, and each segment to the node that contains it. These chains can be
+ * stored together with the graph, so that they do not need to be found again when the graph is restored.
+ */
+public final class ChainCompaction {
+    private static final int UNASSIGNED = -1;
+
+    private final Graph graph;
+    private final Graph compactedGraph;
+    /**
+     * The id in the compacted graph of each node in the original graph.
+     */
+    private final int[] compactedIds;
+    /**
+     * The index in {@link #members} of the first member of each node in the compacted graph, followed by the total
+     * number of members.
+     */
+    private final int[] memberOffsets;
+    /**
+     * The ids in the original graph of the members of each node in the compacted graph, in chain order.
+     */
+    private final int[] members;
+
+
+    /**
+     * Constructs a new {@link ChainCompaction} of the given {@link Graph}.
+     * <p>
+     * The compacted graph reflects the horizontal positions of the given graph at the time of construction.
+     *
+     * @param graph the {@link Graph} to compact
+     */
+    public ChainCompaction(final Graph graph) {
+        this.graph = graph;
+
+        final int nodeCount = graph.getNodeCount();
+        this.compactedIds = new int[nodeCount];
+        this.members = new int[nodeCount];
+        Arrays.fill(compactedIds, UNASSIGNED);
+
+        final int[] offsets = new int[nodeCount + 1];
+        int chainCount = 0;
+
+        // Chains are numbered by the id of their first node, with the sink last to keep it at the end
+        for (int id = 0; id < nodeCount - 1; id++) {
+            if (isChainHead(id)) {
+                offsets[chainCount + 1] = assignChain(id, chainCount, offsets[chainCount]);
+                chainCount++;
+            }
+        }
+        chainCount = assignHeadlessChains(offsets, chainCount);
+        if (nodeCount > 0) {
+            offsets[chainCount + 1] = assignChain(nodeCount - 1, chainCount, offsets[chainCount]);
+            chainCount++;
+        }
+
+        this.memberOffsets = Arrays.copyOf(offsets, chainCount + 1);
+        this.compactedGraph = buildCompactedGraph();
+    }
+
+    /**
+     * Constructs a new {@link ChainCompaction} of the given {@link Graph} from chains that have been found before.
+     * <p>
+     * The compacted graph reflects the horizontal positions of the given graph at the time of construction.
+     *
+     * @param graph         the {@link Graph} to compact
+     * @param memberOffsets the index in {@code members} of the first member of each chain, followed by the total
+     *                      number of members
+     * @param members       the ids of the members of each chain, in chain order
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public ChainCompaction(final Graph graph, final int[] memberOffsets, final int[] members) {
+        final int nodeCount = graph.getNodeCount();
+        if (members.length != nodeCount) {
+            throw new IllegalArgumentException("Members must contain each of the " + nodeCount + " nodes.");
+        }
+        if (memberOffsets.length == 0 || memberOffsets[0] != 0
+                || memberOffsets[memberOffsets.length - 1] != nodeCount) {
+            throw new IllegalArgumentException("Member offsets must range from 0 to " + nodeCount + ".");
+        }
+
+        this.graph = graph;
+        this.compactedIds = new int[nodeCount];
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        Arrays.fill(compactedIds, UNASSIGNED);
+
+        assignMembers();
+        this.compactedGraph = buildCompactedGraph();
+    }
+
+
+    /**
+     * Returns the original {@link Graph}.
+     *
+     * @return the original {@link Graph}
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the compacted {@link Graph}.
+     *
+     * @return the compacted {@link Graph}
+     */
+    public Graph getCompactedGraph() {
+        return compactedGraph;
+    }
+
+    /**
+     * Returns the id of the node in the compacted graph that contains the given node.
+     *
+     * @param id the id of a node in the original graph
+     * @return the id of the node in the compacted graph that contains the given node
+     */
+    public int getCompactedId(final int id) {
+        return compactedIds[id];
+    }
+
+    /**
+     * Returns the number of nodes in the original graph that the given node in the compacted graph represents.
+     *
+     * @param compactedId the id of a node in the compacted graph
+     * @return the number of nodes in the original graph that the given node in the compacted graph represents
+     */
+    public int getMemberCount(final int compactedId) {
+        return memberOffsets[compactedId + 1] - memberOffsets[compactedId];
+    }
+
+    /**
+     * Returns the id in the original graph of a member of the given node in the compacted graph.
+     *
+     * @param compactedId the id of a node in the compacted graph
+     * @param index       the index of the member in the chain, starting at zero
+     * @return the id in the original graph of a member of the given node in the compacted graph
+     */
+    public int getMember(final int compactedId, final int index) {
+        if (index < 0 || index >= getMemberCount(compactedId)) {
+            throw new IndexOutOfBoundsException("Member index " + index + " is out of bounds.");
+        }
+
+        return members[memberOffsets[compactedId] + index];
+    }
+
+    /**
+     * Returns the byte offset of a member of the given node in the compacted graph.
+     *
+     * @param compactedId the id of a node in the compacted graph
+     * @param index       the index of the member in the chain, starting at zero
+     * @return the byte offset of a member of the given node in the compacted graph
+     */
+    public long getMemberByteOffset(final int compactedId, final int index) {
+        return graph.getByteOffset(getMember(compactedId, index));
+    }
+
+    /**
+     * Returns the index in the members of the first member of each node in the compacted graph, followed by the total
+     * number of members.
+     *
+     * @return the index in the members of the first member of each node in the compacted graph
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getMemberOffsets() {
+        return memberOffsets;
+    }
+
+    /**
+     * Returns the ids in the original graph of the members of each node in the compacted graph, in chain order.
+     *
+     * @return the ids in the original graph of the members of each node in the compacted graph
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getMembers() {
+        return members;
+    }
+
+
+    /**
+     * Returns {@code true} iff. the given node continues into its only right neighbour.
+     *
+     * @param id the id of a node in the original graph
+     * @return {@code true} iff. the given node continues into its only right neighbour
+     */
+    private boolean continues(final int id) {
+        if (isSentinel(id) || graph.getNeighbourCount(id, SequenceDirection.RIGHT) != 1) {
+            return false;
+        }
+
+        final int neighbour = graph.getNeighbour(graph.getEdgeStart(id, SequenceDirection.RIGHT));
+        return neighbour != id && !isSentinel(neighbour)
+                && graph.getNeighbourCount(neighbour, SequenceDirection.LEFT) == 1;
+    }
+
+    /**
+     * Returns {@code true} iff. the given node is the first node of its chain.
+     *
+     * @param id the id of a node in the original graph
+     * @return {@code true} iff. the given node is the first node of its chain
+     */
+    private boolean isChainHead(final int id) {
+        return graph.getNeighbourCount(id, SequenceDirection.LEFT) != 1
+                || !continues(graph.getNeighbour(graph.getEdgeStart(id, SequenceDirection.LEFT)));
+    }
+
+    /**
+     * Returns {@code true} iff. the given node is the source or the sink of the graph.
+     *
+     * @param id the id of a node in the original graph
+     * @return {@code true} iff. the given node is the source or the sink of the graph
+     */
+    private boolean isSentinel(final int id) {
+        return id == 0 || id == graph.getNodeCount() - 1;
+    }
+
+    /**
+     * Assigns the chain starting at the given node to the given node in the compacted graph.
+     *
+     * @param head        the id of the first node of the chain in the original graph
+     * @param compactedId the id of the node in the compacted graph
+     * @param offset      the index in {@link #members} at which to store the members of the chain
+     * @return the index in {@link #members} after the last member of the chain
+     */
+    private int assignChain(final int head, final int compactedId, final int offset) {
+        int memberIndex = offset;
+        int id = head;
+        while (true) {
+            compactedIds[id] = compactedId;
+            members[memberIndex] = id;
+            memberIndex++;
+
+            if (!continues(id)) {
+                break;
+            }
+            id = graph.getNeighbour(graph.getEdgeStart(id, SequenceDirection.RIGHT));
+            if (compactedIds[id] != UNASSIGNED) {
+                break;
+            }
+        }
+        return memberIndex;
+    }
+
+    /**
+     * Assigns the nodes on cycles without a chain head to chains, each starting at the smallest id on its cycle.
+     *
+     * @param offsets    the index in {@link #members} of the first member of each chain assigned so far, followed by
+     *                   the number of members assigned so far
+     * @param chainCount the number of chains assigned so far
+     * @return the number of chains assigned after this pass
+     */
+    private int assignHeadlessChains(final int[] offsets, final int chainCount) {
+        int count = chainCount;
+        for (int id = 1; id < graph.getNodeCount() - 1; id++) {
+            if (compactedIds[id] == UNASSIGNED) {
+                offsets[count + 1] = assignChain(id, count, offsets[count]);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Assigns each node to the chain it is a member of according to the given member offsets and members.
+     *
+     * @throws IllegalArgumentException if a chain has no members, or a node is not a member of exactly one chain
+     */
+    private void assignMembers() {
+        final int nodeCount = graph.getNodeCount();
+        for (int chain = 0; chain < memberOffsets.length - 1; chain++) {
+            if (memberOffsets[chain] >= memberOffsets[chain + 1]) {
+                throw new IllegalArgumentException("Chain " + chain + " has no members.");
+            }
+            for (int member = memberOffsets[chain]; member < memberOffsets[chain + 1]; member++) {
+                final int id = members[member];
+                if (id < 0 || id >= nodeCount || compactedIds[id] != UNASSIGNED) {
+                    throw new IllegalArgumentException("Node " + id + " is not a member of exactly one chain.");
+                }
+                compactedIds[id] = chain;
+            }
+        }
+    }
+
+    /**
+     * Builds the compacted {@link Graph} from the assigned chains.
+     *
+     * @return the compacted {@link Graph}
+     */
+    private Graph buildCompactedGraph() {
+        final int chainCount = memberOffsets.length - 1;
+
+        final int[] outgoingEdgeCounts = new int[chainCount];
+        final int[] incomingEdgeCounts = new int[chainCount];
+        for (int chain = 0; chain < chainCount; chain++) {
+            outgoingEdgeCounts[chain] = graph.getNeighbourCount(getLastMember(chain), SequenceDirection.RIGHT);
+            incomingEdgeCounts[chain] = graph.getNeighbourCount(getMember(chain, 0), SequenceDirection.LEFT);
+        }
+
+        final GraphBuilder builder = new GraphBuilder(outgoingEdgeCounts, incomingEdgeCounts);
+        for (int chain = 0; chain < chainCount; chain++) {
+            final int first = getMember(chain, 0);
+            final int last = getLastMember(chain);
+
+            long sequenceLength = 0;
+            for (int member = memberOffsets[chain]; member < memberOffsets[chain + 1]; member++) {
+                sequenceLength += graph.getSequenceLength(members[member]);
+            }
+            builder.setSegment(chain, graph.getByteOffset(first), (int) Math.min(Integer.MAX_VALUE, sequenceLength));
+
+            final int edgeStart = graph.getEdgeStart(last, SequenceDirection.RIGHT);
+            for (int edge = 0; edge < outgoingEdgeCounts[chain]; edge++) {
+                builder.addEdge(chain, compactedIds[graph.getNeighbour(edgeStart + edge)],
+                        graph.getEdgeByteOffset(last, edge));
+            }
+        }
+
+        final Graph compacted = builder.build(graph.getGfaFile());
+        for (int chain = 0; chain < chainCount; chain++) {
+            compacted.setUnscaledXPosition(chain, graph.getUnscaledXPosition(getMember(chain, 0)));
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns the id in the original graph of the last member of the given node in the compacted graph.
+     *
+     * @param compactedId the id of a node in the compacted graph
+     * @return the id in the original graph of the last member of the given node in the compacted graph
+     */
+    private int getLastMember(final int compactedId) {
+        return members[memberOffsets[compactedId + 1] - 1];
+    }
+}
@@ -0,0 +1,92 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.IntBiConsumer;
+import org.dnacronym.hygene.core.LongHeap;
+
+
+/**
+ * Expands the frontier of a search of a {@link Graph} by distance in base pairs, with a variant of Dijkstra's
+ * algorithm.
+ * <p>
+ * The frontier is a heap of nodes encoded with their distance. An instance keeps its heap and visited set between
+ * searches, so that a {@link GraphIterator} can pool it and searches do not allocate per visited node. An instance
+ * runs a single search at a time.
+ *
+ * @see FrontierExpansion
+ */
+final class DistanceFrontierExpansion {
+    private final Graph graph;
+    private final LongHeap heap;
+    private final NodeBitSet visited;
+
+
+    /**
+     * Constructs a new {@link DistanceFrontierExpansion}.
+     *
+     * @param graph the {@link Graph} to search
+     */
+    DistanceFrontierExpansion(final Graph graph) {
+        this.graph = graph;
+        this.heap = new LongHeap();
+        this.visited = new NodeBitSet(graph.getNodeCount());
+    }
+
+
+    /**
+     * Applies the given {@link IntBiConsumer} to the nodes that can be reached within the given number of base pairs
+     * in both directions, in order of increasing distance.
+     * <p>
+     * The distance of a neighbour is the smallest total sequence length of the nodes between the given node and the
+     * neighbour, so that direct neighbours have distance zero. Nodes beyond the maximum distance are not expanded.
+     *
+     * @param id          the identifier of the node to start from
+     * @param maxDistance the maximum number of base pairs between the node and a neighbour
+     * @param action      the function to apply to each neighbour's distance and identifier
+     */
+    void visit(final int id, final int maxDistance, final IntBiConsumer action) {
+        try {
+            heap.add(LongHeap.encode(0, id));
+
+            while (!heap.isEmpty()) {
+                final long head = heap.remove();
+                final int node = LongHeap.decodeValue(head);
+
+                // A node may have been added several times before its smallest distance was known
+                if (!visited.add(node)) {
+                    continue;
+                }
+
+                final int distance = LongHeap.decodePriority(head);
+                action.accept(distance, node);
+
+                final long neighbourDistance = node == id ? 0 : (long) distance + graph.getSequenceLength(node);
+                if (neighbourDistance <= maxDistance) {
+                    addUnvisitedNeighbours(node, SequenceDirection.LEFT, (int) neighbourDistance);
+                    addUnvisitedNeighbours(node, SequenceDirection.RIGHT, (int) neighbourDistance);
+                }
+            }
+        } finally {
+            heap.clear();
+            visited.clear();
+        }
+    }
+
+
+    /**
+     * Adds the direct neighbours in the given direction that have not been visited yet to the heap with the given
+     * distance.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to add
+     * @param distance  the distance of the neighbours
+     */
+    private void addUnvisitedNeighbours(final int id, final SequenceDirection direction, final int distance) {
+        final int edgeEnd = graph.getEdgeEnd(id, direction);
+        for (int edge = graph.getEdgeStart(id, direction); edge < edgeEnd; edge++) {
+            final int neighbour = graph.getNeighbour(edge);
+            if (!visited.contains(neighbour)) {
+                heap.add(LongHeap.encode(distance, neighbour));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.Arrays;
+
+
+/**
+ * A matching of the edges of a {@link Graph} that can be contracted without introducing cycles.
+ * <p>
+ * Nodes are visited in topological order, and each node is matched with at most one right neighbour of the next
+ * topological rank. A node and its neighbour are only matched if the node has no other right neighbours, or the
+ * neighbour has no other left neighbours. The sentinels and grouped nodes are never matched.
+ */
+final class EdgeMatching {
+    private final Graph graph;
+    private final TopologicalOrder order;
+    private final int[] groups;
+    private final int[] partners;
+
+
+    /**
+     * Constructs a new {@link EdgeMatching} and matches the nodes of the given {@link Graph}.
+     *
+     * @param graph       the {@link Graph} to match the nodes of
+     * @param order       the {@link TopologicalOrder} of the graph
+     * @param nodesByRank the ids of the nodes in topological order
+     * @param groups      the group of each node, or {@value LevelBuilder#UNASSIGNED} for nodes that are not grouped,
+     *                    or an empty array if no nodes are grouped
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // The groups are only read
+    EdgeMatching(final Graph graph, final TopologicalOrder order, final int[] nodesByRank, final int[] groups) {
+        this.graph = graph;
+        this.order = order;
+        this.groups = groups;
+        this.partners = new int[graph.getNodeCount()];
+
+        Arrays.fill(partners, LevelBuilder.UNASSIGNED);
+        for (final int node : nodesByRank) {
+            if (isMatchable(node)) {
+                matchRightNeighbour(node);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the node the given node is matched with.
+     *
+     * @param node the id of a node
+     * @return the id of the node the given node is matched with, or {@value LevelBuilder#UNASSIGNED} if the node is
+     * unmatched
+     */
+    int getPartner(final int node) {
+        return partners[node];
+    }
+
+    /**
+     * Returns {@code true} iff. the given node is in a group.
+     *
+     * @param groups the group of each node, or {@value LevelBuilder#UNASSIGNED} for nodes that are not grouped, or an
+     *               empty array if no nodes are grouped
+     * @param node   the id of a node
+     * @return {@code true} iff. the given node is in a group
+     */
+    static boolean isGrouped(final int[] groups, final int node) {
+        return groups.length > 0 && groups[node] != LevelBuilder.UNASSIGNED;
+    }
+
+
+    /**
+     * Returns {@code true} iff. the given node is unmatched, is not a sentinel, and is not in a group.
+     *
+     * @param node the id of a node
+     * @return {@code true} iff. the given node may still be matched
+     */
+    private boolean isMatchable(final int node) {
+        return partners[node] == LevelBuilder.UNASSIGNED && node != 0 && node != graph.getNodeCount() - 1
+                && !isGrouped(groups, node);
+    }
+
+    /**
+     * Matches the given node with the first right neighbour of the next topological rank that may be matched.
+     *
+     * @param node the id of an unmatched node
+     */
+    private void matchRightNeighbour(final int node) {
+        final boolean onlyRightNeighbour = graph.getNeighbourCount(node, SequenceDirection.RIGHT) == 1;
+        final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.RIGHT);
+        for (int edge = graph.getEdgeStart(node, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+            final int neighbour = graph.getNeighbour(edge);
+            // The rank check also excludes the node itself
+            if (isMatchable(neighbour) && order.getRank(neighbour) == order.getRank(node) + 1
+                    && (onlyRightNeighbour || graph.getNeighbourCount(neighbour, SequenceDirection.LEFT) == 1)) {
+                partners[node] = neighbour;
+                partners[neighbour] = node;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.dnacronym.hygene.graph;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Expands the frontiers of a level-synchronous breadth-first search of a {@link Graph} with fork/join.
+ * <p>
+ * The frontiers are stored one after another in a single visit order, as each node is claimed in the visited set
+ * exactly once. The current frontier is divided into chunks of {@value #CHUNK_SIZE} nodes. The task splits its range
+ * of chunks in half until a single chunk remains, which is then expanded in the current thread: the action is applied
+ * to each node in the chunk, and the neighbours that are claimed in the shared visited set are collected in that
+ * chunk's buffer. Once all chunks have been expanded, the buffers are appended to the visit order as the next
+ * frontier.
+ * <p>
+ * The root task is reused for every frontier, so that the chunk buffers are allocated only once per traversal.
+ */
+final class FrontierExpansion extends RecursiveAction {
+    /**
+     * The number of frontier nodes that are expanded by a single task.
+     */
+    static final int CHUNK_SIZE = 1024;
+    private static final long serialVersionUID = 1L;
+
+    private final transient Graph graph;
+    private final SequenceDirection direction;
+    private final transient AtomicNodeBitSet visited;
+    private final transient IntConsumer action;
+    private final int[] visitOrder;
+    private final transient @Nullable GrowableIntArray[] chunkBuffers;
+    private int frontierStart;
+    private int frontierEnd;
+    private int fromChunk;
+    private int toChunk;
+
+
+    /**
+     * Constructs a new root {@link FrontierExpansion}.
+     *
+     * @param graph     the {@link Graph} to traverse
+     * @param direction the direction of neighbours to visit
+     * @param action    the function to apply to each node's identifier, which must be thread-safe
+     */
+    FrontierExpansion(final Graph graph, final SequenceDirection direction, final IntConsumer action) {
+        super();
+
+        final int nodeCount = graph.getNodeCount();
+        this.graph = graph;
+        this.direction = direction;
+        this.visited = new AtomicNodeBitSet(nodeCount);
+        this.action = action;
+        this.visitOrder = new int[nodeCount];
+        this.chunkBuffers = new GrowableIntArray[getChunkCount(nodeCount)];
+    }
+
+    /**
+     * Constructs a new {@link FrontierExpansion} for a range of the chunks of the given task.
+     *
+     * @param parent    the task of which to expand a range of chunks
+     * @param fromChunk the first chunk to expand (inclusive)
+     * @param toChunk   the last chunk to expand (exclusive)
+     */
+    private FrontierExpansion(final FrontierExpansion parent, final int fromChunk, final int toChunk) {
+        super();
+
+        this.graph = parent.graph;
+        this.direction = parent.direction;
+        this.visited = parent.visited;
+        this.action = parent.action;
+        this.visitOrder = parent.visitOrder;
+        this.chunkBuffers = parent.chunkBuffers;
+        this.frontierStart = parent.frontierStart;
+        this.frontierEnd = parent.frontierEnd;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+
+    /**
+     * Returns the number of chunks into which a frontier of the given size is divided.
+     *
+     * @param frontierSize the number of nodes in the frontier
+     * @return the number of chunks into which the frontier is divided
+     */
+    static int getChunkCount(final int frontierSize) {
+        return (frontierSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Returns the cleared buffer of the given chunk, and creates it first if it does not exist yet.
+     * <p>
+     * Each chunk index is only ever expanded by one task at a time, so its buffer is not shared.
+     *
+     * @param chunkBuffers the buffers of the chunks
+     * @param chunk        the index of the chunk
+     * @return the cleared buffer of the given chunk
+     */
+    static GrowableIntArray clearChunkBuffer(final @Nullable GrowableIntArray[] chunkBuffers, final int chunk) {
+        GrowableIntArray buffer = chunkBuffers[chunk];
+        if (buffer == null) {
+            buffer = new GrowableIntArray();
+            chunkBuffers[chunk] = buffer;
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Appends the contents of the buffers of the given number of chunks to the given order.
+     *
+     * @param chunkBuffers the buffers of the chunks
+     * @param chunkCount   the number of chunks that have been expanded
+     * @param order        the order to append to
+     * @param end          the index in the order after its last node
+     * @return the index in the order after its last node, after appending
+     */
+    static int appendChunkBuffers(final @Nullable GrowableIntArray[] chunkBuffers, final int chunkCount,
+                                  final int[] order, final int end) {
+        int newEnd = end;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final GrowableIntArray buffer = chunkBuffers[chunk];
+            if (buffer == null) {
+                continue;
+            }
+
+            for (int i = 0; i < buffer.size(); i++) {
+                order[newEnd] = buffer.get(i);
+                newEnd++;
+            }
+        }
+        return newEnd;
+    }
+
+    /**
+     * Applies the action to the given node and to the nodes that can be reached from it, one frontier at a time.
+     * <p>
+     * The frontiers are expanded in the current thread, so that narrow frontiers do not have to be handed to a pool.
+     *
+     * @param id the identifier of the node to start from
+     */
+    void traverse(final int id) {
+        visited.add(id);
+        visitOrder[0] = id;
+
+        int start = 0;
+        int end = 1;
+        while (start < end) {
+            frontierStart = start;
+            frontierEnd = end;
+            fromChunk = 0;
+            toChunk = getChunkCount(end - start);
+
+            reinitialize();
+            invoke();
+
+            start = end;
+            end = appendChunkBuffers(chunkBuffers, toChunk, visitOrder, end);
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk <= 1) {
+            expandChunk(fromChunk);
+            return;
+        }
+
+        final int middleChunk = (fromChunk + toChunk) >>> 1;
+        invokeAll(
+                new FrontierExpansion(this, fromChunk, middleChunk),
+                new FrontierExpansion(this, middleChunk, toChunk)
+        );
+    }
+
+
+    /**
+     * Applies the action to the nodes in the given chunk and collects their unvisited neighbours.
+     *
+     * @param chunk the index of the chunk
+     */
+    private void expandChunk(final int chunk) {
+        final int start = frontierStart + chunk * CHUNK_SIZE;
+        final int end = Math.min(start + CHUNK_SIZE, frontierEnd);
+        final GrowableIntArray discovered = clearChunkBuffer(chunkBuffers, chunk);
+
+        for (int i = start; i < end; i++) {
+            final int node = visitOrder[i];
+            action.accept(node);
+
+            final int edgeEnd = graph.getEdgeEnd(node, direction);
+            for (int edge = graph.getEdgeStart(node, direction); edge < edgeEnd; edge++) {
+                final int neighbour = graph.getNeighbour(edge);
+                if (visited.add(neighbour)) {
+                    discovered.add(neighbour);
+                }
+            }
+        }
+    }
+}
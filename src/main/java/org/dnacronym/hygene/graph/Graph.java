@@ -1,21 +1,27 @@
 package org.dnacronym.hygene.graph;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.core.UnsignedInteger;
 import org.dnacronym.hygene.graph.layout.FafospLayerer;
 import org.dnacronym.hygene.parser.GfaFile;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.nio.IntBuffer;
 
 
 /**
- * Class wraps around the graph data represented as a nested array and provides utility methods.
+ * Class wraps around the graph data and provides utility methods.
  * <p>
- * Node array format:
- * [[nodeByteOffset, sequenceLength, outgoingEdges, xPosition, edge1, edge1ByteOffset...]]
+ * The graph is stored in compressed sparse row form, as described in {@link GraphColumns}. The columns either live on
+ * the heap or are mapped from a cache file.
+ * <p>
+ * The graph can also be converted from and to node arrays. Node array format:
+ * [[nodeByteOffset, sequenceLength, xPosition, outgoingEdges, edge1, edge1ByteOffset...]]
+ * <p>
+ * Byte offsets are stored as {@link UnsignedInteger}s. Graphs of files larger than 4 GB also have a
+ * {@link ByteOffsetColumn} with the upper bits of each offset.
  */
+@SuppressWarnings("PMD.TooManyMethods") // All methods are simple accessors of the columns
 public final class Graph {
     public static final int NODE_BYTE_OFFSET_INDEX = 0;
     public static final int NODE_SEQUENCE_LENGTH_INDEX = 1;
@@ -26,10 +32,21 @@ public final class Graph {
     public static final int EDGE_DATA_SIZE = 2;
     static final int MINIMUM_SEQUENCE_LENGTH = 500;
 
-    private final int[][] nodeArrays;
+    private final GraphColumns columns;
+    private final IntBuffer edgeOffsets; // 2 * id => first outgoing edge, 2 * id + 1 => first incoming edge
+    private final IntBuffer neighbours; // edge => neighbour's id
+    private final IntBuffer edgeByteOffsets; // edge => byte offset
+    private final IntBuffer nodeByteOffsets;
+    private final IntBuffer sequenceLengths;
+    private final IntBuffer unscaledXPositions;
+    private final @Nullable ByteOffsetColumn byteOffsetColumn;
     private final GfaFile gfaFile;
-    @SuppressWarnings("PMD.LooseCoupling")
-    private @MonotonicNonNull TreeMap<Long, Integer> nodePositions;
+    private @MonotonicNonNull NodePositionIndex nodePositions;
+    private @Nullable NodeIntervalIndex nodeIntervals;
+    private @Nullable ChainCompaction chainCompaction;
+    private @Nullable GraphHierarchy hierarchy;
+    private @MonotonicNonNull TopologicalOrder topologicalOrder;
+    private @MonotonicNonNull BubbleIndex bubbleIndex;
 
 
     /**
@@ -38,13 +55,38 @@ public final class Graph {
      * @param nodeArrays nested array containing the graph's data
      * @param gfaFile    a reference to the GFA file from which the graph is created
      */
-    @SuppressFBWarnings(
-            value = "EI_EXPOSE_REP2",
-            justification = "For performance reasons, we don't want to create a copy here"
-    )
-    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
     public Graph(final int[][] nodeArrays, final GfaFile gfaFile) {
-        this.nodeArrays = nodeArrays;
+        this(nodeArrays, null, gfaFile);
+    }
+
+    /**
+     * Constructs a graph from array based data structure with byte offsets of more than 32 bits.
+     * <p>
+     * The node arrays are copied into columns on the heap, so later changes to them are not reflected in the graph.
+     *
+     * @param nodeArrays       nested array containing the graph's data
+     * @param byteOffsetColumn the upper bits of the byte offsets, or {@code null} if all offsets fit in 32 bits
+     * @param gfaFile          a reference to the GFA file from which the graph is created
+     */
+    public Graph(final int[][] nodeArrays, final @Nullable ByteOffsetColumn byteOffsetColumn, final GfaFile gfaFile) {
+        this(GraphColumns.fromNodeArrays(nodeArrays, byteOffsetColumn), gfaFile);
+    }
+
+    /**
+     * Constructs a graph from its columns.
+     *
+     * @param columns the columns containing the graph's data
+     * @param gfaFile a reference to the GFA file from which the graph is created
+     */
+    public Graph(final GraphColumns columns, final GfaFile gfaFile) {
+        this.columns = columns;
+        this.edgeOffsets = columns.getEdgeOffsets();
+        this.neighbours = columns.getNeighbours();
+        this.edgeByteOffsets = columns.getEdgeByteOffsets();
+        this.nodeByteOffsets = columns.getNodeByteOffsets();
+        this.sequenceLengths = columns.getSequenceLengths();
+        this.unscaledXPositions = columns.getUnscaledXPositions();
+        this.byteOffsetColumn = columns.getByteOffsetColumn();
         this.gfaFile = gfaFile;
     }
 
@@ -59,28 +101,63 @@ public final class Graph {
     }
 
 
+    /**
+     * Returns the number of nodes in the graph, including the source and sink.
+     *
+     * @return the number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return columns.getNodeCount();
+    }
+
+    /**
+     * Returns the columns in which the graph is stored.
+     *
+     * @return the columns in which the graph is stored
+     */
+    public GraphColumns getColumns() {
+        return columns;
+    }
+
     /**
      * Getter for the array representing a {@link Node}'s metadata.
+     * <p>
+     * The array is created on every call, and changes to it are not reflected in the graph.
      *
      * @param id the {@link Node}'s id
      * @return the array representing a {@link Node}'s metadata
      */
-    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
     public int[] getNodeArray(final int id) {
-        return nodeArrays[id];
+        final int firstEdge = edgeOffsets.get(2 * id);
+        final int edgeCount = edgeOffsets.get(2 * id + 2) - firstEdge;
+
+        final int[] nodeArray = new int[NODE_EDGE_DATA_OFFSET + edgeCount * EDGE_DATA_SIZE];
+        nodeArray[NODE_BYTE_OFFSET_INDEX] = nodeByteOffsets.get(id);
+        nodeArray[NODE_SEQUENCE_LENGTH_INDEX] = sequenceLengths.get(id);
+        nodeArray[UNSCALED_X_POSITION_INDEX] = unscaledXPositions.get(id);
+        nodeArray[NODE_OUTGOING_EDGES_INDEX] = edgeOffsets.get(2 * id + 1) - firstEdge;
+        for (int i = 0; i < edgeCount; i++) {
+            nodeArray[NODE_EDGE_DATA_OFFSET + i * EDGE_DATA_SIZE] = neighbours.get(firstEdge + i);
+            nodeArray[NODE_EDGE_DATA_OFFSET + i * EDGE_DATA_SIZE + EDGE_BYTE_OFFSET_OFFSET]
+                    = edgeByteOffsets.get(firstEdge + i);
+        }
+
+        return nodeArray;
     }
 
     /**
      * Gets the array representation of all node arrays.
+     * <p>
+     * The arrays are created on every call, and changes to them are not reflected in the graph.
      *
      * @return the array representation of all node arrays
      */
-    @SuppressFBWarnings(
-            value = "EI_EXPOSE_REP",
-            justification = "For performance reasons, we don't want to create a copy here"
-    )
-    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Each node needs its own array
     public int[][] getNodeArrays() {
+        final int[][] nodeArrays = new int[getNodeCount()][];
+        for (int id = 0; id < nodeArrays.length; id++) {
+            nodeArrays[id] = getNodeArray(id);
+        }
         return nodeArrays;
     }
 
@@ -91,7 +168,36 @@ public final class Graph {
      * @return the {@link Node}'s byte offset
      */
     public long getByteOffset(final int id) {
-        return UnsignedInteger.toLong(nodeArrays[id][NODE_BYTE_OFFSET_INDEX]);
+        final int lowerBits = nodeByteOffsets.get(id);
+        if (byteOffsetColumn == null) {
+            return UnsignedInteger.toLong(lowerBits);
+        }
+        return ByteOffsetColumn.toByteOffset(lowerBits, byteOffsetColumn.getNodeUpperBits(id));
+    }
+
+    /**
+     * Getter for the byte offset where the metadata of an edge of a {@link Node} resides.
+     *
+     * @param id        the {@link Node}'s id
+     * @param edgeIndex the index of the edge among the edges of the node, counting outgoing edges first
+     * @return the edge's byte offset
+     */
+    public long getEdgeByteOffset(final int id, final int edgeIndex) {
+        final int edge = edgeOffsets.get(2 * id) + edgeIndex;
+        final int lowerBits = edgeByteOffsets.get(edge);
+        if (byteOffsetColumn == null) {
+            return UnsignedInteger.toLong(lowerBits);
+        }
+        return ByteOffsetColumn.toByteOffset(lowerBits, byteOffsetColumn.getEdgeUpperBits(edge));
+    }
+
+    /**
+     * Returns the upper bits of the byte offsets, if the file is too large for the node arrays alone.
+     *
+     * @return the {@link ByteOffsetColumn}, or {@code null} if all offsets fit in 32 bits
+     */
+    public @Nullable ByteOffsetColumn getByteOffsetColumn() {
+        return byteOffsetColumn;
     }
 
     /**
@@ -101,10 +207,10 @@ public final class Graph {
      * @return the {@link Node}'s (capped) sequence length
      */
     public int getLength(final int id) {
-        if (nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX] < MINIMUM_SEQUENCE_LENGTH) {
+        if (sequenceLengths.get(id) < MINIMUM_SEQUENCE_LENGTH) {
             return MINIMUM_SEQUENCE_LENGTH;
         }
-        return nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX];
+        return sequenceLengths.get(id);
     }
 
     /**
@@ -114,7 +220,7 @@ public final class Graph {
      * @return the {@link Node}'s sequence length
      */
     public int getSequenceLength(final int id) {
-        return nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX];
+        return sequenceLengths.get(id);
     }
 
     /**
@@ -124,7 +230,7 @@ public final class Graph {
      * @return the unscaled x position
      */
     public int getUnscaledXPosition(final int id) {
-        return nodeArrays[id][UNSCALED_X_POSITION_INDEX];
+        return unscaledXPositions.get(id);
     }
 
     public long getRealStartXPosition(final int id) {
@@ -142,7 +248,7 @@ public final class Graph {
      * @param unscaledXPosition the unscaled x position
      */
     public void setUnscaledXPosition(final int id, final int unscaledXPosition) {
-        nodeArrays[id][UNSCALED_X_POSITION_INDEX] = unscaledXPosition;
+        unscaledXPositions.put(id, unscaledXPosition);
     }
 
     /**
@@ -153,34 +259,221 @@ public final class Graph {
      * @return the number of neighbours of a node in the given direction
      */
     public int getNeighbourCount(final int id, final SequenceDirection direction) {
-        return direction.ternary(
-                (nodeArrays[id].length
-                        - nodeArrays[id][NODE_OUTGOING_EDGES_INDEX] * EDGE_DATA_SIZE
-                        - (NODE_OUTGOING_EDGES_INDEX + 1)
-                ) / EDGE_DATA_SIZE,
-                nodeArrays[id][NODE_OUTGOING_EDGES_INDEX]
-        );
+        return getEdgeEnd(id, direction) - getEdgeStart(id, direction);
+    }
+
+    /**
+     * Returns the index in the edge arrays of the first edge of a node in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the edges
+     * @return the index of the first edge of a node in the given direction
+     */
+    int getEdgeStart(final int id, final SequenceDirection direction) {
+        return edgeOffsets.get(2 * id + direction.ternary(1, 0));
+    }
+
+    /**
+     * Returns the index in the edge arrays after the last edge of a node in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the edges
+     * @return the index after the last edge of a node in the given direction
+     */
+    int getEdgeEnd(final int id, final SequenceDirection direction) {
+        return edgeOffsets.get(2 * id + direction.ternary(2, 1));
+    }
+
+    /**
+     * Returns the neighbour at the other end of an edge.
+     *
+     * @param edge the index of the edge in the edge arrays
+     * @return the identifier of the neighbour
+     */
+    int getNeighbour(final int edge) {
+        return neighbours.get(edge);
     }
 
-    @SuppressWarnings({"PMD.LooseCoupling", "squid:S1319"}) // I need a TreeMap
-    public void setNodePositions(final TreeMap<Long, Integer> nodePositions) {
+    /**
+     * Sets the index of nodes by horizontal position.
+     *
+     * @param nodePositions the index of nodes by horizontal position
+     */
+    public synchronized void setNodePositions(final NodePositionIndex nodePositions) {
         this.nodePositions = nodePositions;
+        this.nodeIntervals = null;
+        this.chainCompaction = null;
+        this.hierarchy = null;
+    }
+
+    /**
+     * Returns the index of nodes by horizontal position, or {@code null} if the layout has not been computed yet.
+     *
+     * @return the index of nodes by horizontal position, or {@code null} if the layout has not been computed yet
+     */
+    public @Nullable NodePositionIndex getNodePositions() {
+        return nodePositions;
     }
 
+    /**
+     * Returns the node at the greatest position less than or equal to the given position, or the leftmost node if
+     * there is no such position.
+     *
+     * @param position a horizontal position
+     * @return the identifier of the node at or before the given position
+     * @see NodePositionIndex#getNodeAtPosition(long)
+     */
     public int getNodeAtPosition(final long position) {
         if (nodePositions == null) {
-            throw new IllegalStateException("Cannot give node position while TreeMap was not set.");
+            throw new IllegalStateException("Cannot give node position while the index was not set.");
         }
 
-        Map.Entry<Long, Integer> myEntry = nodePositions.floorEntry(position);
-        if (myEntry == null) {
-            myEntry = nodePositions.ceilingEntry(position);
-            if (myEntry == null) {
-                throw new IllegalStateException("Could not find that kind of node.");
-            }
+        return nodePositions.getNodeAtPosition(position);
+    }
+
+    /**
+     * Sets the topological rank of each node.
+     *
+     * @param topologicalOrder the topological rank of each node
+     */
+    public void setTopologicalOrder(final TopologicalOrder topologicalOrder) {
+        this.topologicalOrder = topologicalOrder;
+    }
+
+    /**
+     * Returns the topological rank of each node, or {@code null} if it has not been computed yet.
+     *
+     * @return the topological rank of each node, or {@code null} if it has not been computed yet
+     */
+    public @Nullable TopologicalOrder getTopologicalOrder() {
+        return topologicalOrder;
+    }
+
+    /**
+     * Returns the topological rank of the node with the given identifier.
+     *
+     * @param id the node's identifier
+     * @return the topological rank of the node with the given identifier
+     * @see TopologicalOrder#getRank(int)
+     */
+    public int getTopologicalRank(final int id) {
+        if (topologicalOrder == null) {
+            throw new IllegalStateException("Cannot give topological rank while the order was not set.");
         }
 
-        return myEntry.getValue();
+        return topologicalOrder.getRank(id);
+    }
+
+    /**
+     * Sets the superbubbles in this graph.
+     *
+     * @param bubbleIndex the superbubbles in this graph
+     */
+    public void setBubbleIndex(final BubbleIndex bubbleIndex) {
+        this.bubbleIndex = bubbleIndex;
+    }
+
+    /**
+     * Returns the superbubbles in this graph, or {@code null} if they have not been detected yet.
+     *
+     * @return the superbubbles in this graph, or {@code null} if they have not been detected yet
+     */
+    public @Nullable BubbleIndex getBubbleIndex() {
+        return bubbleIndex;
+    }
+
+    /**
+     * Returns the index of nodes and edges by the horizontal range they occupy.
+     * <p>
+     * The index is built on first use, and rebuilt after the horizontal positions have been replaced through
+     * {@link #setNodePositions(NodePositionIndex)}.
+     *
+     * @return the index of nodes and edges by the horizontal range they occupy
+     */
+    public synchronized NodeIntervalIndex getNodeIntervals() {
+        NodeIntervalIndex intervals = nodeIntervals;
+        if (intervals == null) {
+            intervals = new NodeIntervalIndex(this);
+            nodeIntervals = intervals;
+        }
+        return intervals;
+    }
+
+    /**
+     * Returns the compaction of this graph in which each chain of nodes is collapsed into a single node.
+     * <p>
+     * Unless it has been restored from a cache through {@link #setChainCompaction(ChainCompaction)}, the compaction is
+     * built on first use, and rebuilt after the horizontal positions have been replaced through
+     * {@link #setNodePositions(NodePositionIndex)}.
+     *
+     * @return the compaction of this graph in which each chain of nodes is collapsed into a single node
+     */
+    public synchronized ChainCompaction getChainCompaction() {
+        ChainCompaction compaction = chainCompaction;
+        if (compaction == null) {
+            compaction = new ChainCompaction(this);
+            chainCompaction = compaction;
+        }
+        return compaction;
+    }
+
+    /**
+     * Sets the compaction of this graph in which each chain of nodes is collapsed into a single node.
+     * <p>
+     * As the compaction reflects the horizontal positions, it should be set after the positions.
+     *
+     * @param chainCompaction the compaction of this graph
+     */
+    public synchronized void setChainCompaction(final ChainCompaction chainCompaction) {
+        this.chainCompaction = chainCompaction;
+        this.hierarchy = null;
+    }
+
+    /**
+     * Returns whether the compaction of this graph has been built or set.
+     *
+     * @return {@code true} iff the compaction of this graph has been built or set
+     */
+    public synchronized boolean hasChainCompaction() {
+        return chainCompaction != null;
+    }
+
+    /**
+     * Returns the hierarchy of increasingly coarse versions of this graph.
+     * <p>
+     * Unless it has been restored from a cache through {@link #setHierarchy(GraphHierarchy)}, the hierarchy is built
+     * on first use, and rebuilt after the horizontal positions or the compaction have been replaced through
+     * {@link #setNodePositions(NodePositionIndex)} or {@link #setChainCompaction(ChainCompaction)}.
+     *
+     * @return the hierarchy of increasingly coarse versions of this graph
+     */
+    public synchronized GraphHierarchy getHierarchy() {
+        GraphHierarchy graphHierarchy = hierarchy;
+        if (graphHierarchy == null) {
+            graphHierarchy = new GraphHierarchy(this);
+            hierarchy = graphHierarchy;
+        }
+        return graphHierarchy;
+    }
+
+    /**
+     * Sets the hierarchy of increasingly coarse versions of this graph.
+     * <p>
+     * As the hierarchy reflects the horizontal positions and the compaction, it should be set after both.
+     *
+     * @param hierarchy the hierarchy of increasingly coarse versions of this graph
+     */
+    public synchronized void setHierarchy(final GraphHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Returns whether the hierarchy of this graph has been built or set.
+     *
+     * @return {@code true} iff the hierarchy of this graph has been built or set
+     */
+    public synchronized boolean hasHierarchy() {
+        return hierarchy != null;
     }
 
     /**
@@ -191,4 +484,5 @@ public final class Graph {
     public GfaFile getGfaFile() {
         return gfaFile;
     }
+
 }
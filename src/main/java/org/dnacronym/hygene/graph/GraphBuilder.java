@@ -0,0 +1,130 @@
+package org.dnacronym.hygene.graph;
+
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.dnacronym.hygene.parser.GfaFile;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Builds the compressed representation of a {@link Graph} directly, without creating node arrays.
+ * <p>
+ * As the number of edges of each node must be known in advance, all arrays are allocated exactly once with their
+ * final size. The edges of each node retain the order in which they are added.
+ */
+public final class GraphBuilder {
+    private final int[] edgeOffsets;
+    private final int[] outgoingEdgesAdded;
+    private final int[] incomingEdgesAdded;
+    private final int[] neighbours;
+    private final int[] edgeByteOffsets;
+    private final int[] nodeByteOffsets;
+    private final int[] sequenceLengths;
+    private @MonotonicNonNull ByteOffsetColumn byteOffsetColumn;
+
+
+    /**
+     * Constructs a new {@link GraphBuilder} for a graph with nodes of which the number of edges is known.
+     *
+     * @param outgoingEdgeCounts the number of outgoing edges per node
+     * @param incomingEdgeCounts the number of incoming edges per node
+     */
+    public GraphBuilder(final int[] outgoingEdgeCounts, final int[] incomingEdgeCounts) {
+        if (outgoingEdgeCounts.length != incomingEdgeCounts.length) {
+            throw new IllegalArgumentException("Expected the same number of nodes for outgoing and incoming edges.");
+        }
+
+        final int nodeCount = outgoingEdgeCounts.length;
+        this.edgeOffsets = new int[2 * nodeCount + 1];
+        for (int id = 0; id < nodeCount; id++) {
+            edgeOffsets[2 * id + 1] = edgeOffsets[2 * id] + outgoingEdgeCounts[id];
+            edgeOffsets[2 * id + 2] = edgeOffsets[2 * id + 1] + incomingEdgeCounts[id];
+        }
+
+        this.outgoingEdgesAdded = new int[nodeCount];
+        this.incomingEdgesAdded = new int[nodeCount];
+        this.neighbours = new int[edgeOffsets[2 * nodeCount]];
+        this.edgeByteOffsets = new int[neighbours.length];
+        this.nodeByteOffsets = new int[nodeCount];
+        this.sequenceLengths = new int[nodeCount];
+    }
+
+
+    /**
+     * Sets the properties of the node of a segment.
+     *
+     * @param id             the node's identifier
+     * @param byteOffset     the byte offset of the line of the segment
+     * @param sequenceLength the length of the sequence of the segment
+     */
+    public void setSegment(final int id, final long byteOffset, final int sequenceLength) {
+        nodeByteOffsets[id] = ByteOffsetColumn.toLowerBits(byteOffset);
+        sequenceLengths[id] = sequenceLength;
+
+        if (ByteOffsetColumn.requiresColumn(byteOffset)) {
+            getByteOffsetColumn().setNodeUpperBits(id, byteOffset);
+        }
+    }
+
+    /**
+     * Adds an edge as an outgoing edge of its start node and as an incoming edge of its end node.
+     *
+     * @param fromId     the start node of the edge
+     * @param toId       the end node of the edge
+     * @param byteOffset the byte offset of the line of the edge
+     */
+    public void addEdge(final int fromId, final int toId, final long byteOffset) {
+        final int outgoingEdge = edgeOffsets[2 * fromId] + outgoingEdgesAdded[fromId];
+        final int incomingEdge = edgeOffsets[2 * toId + 1] + incomingEdgesAdded[toId];
+        if (outgoingEdge >= edgeOffsets[2 * fromId + 1] || incomingEdge >= edgeOffsets[2 * toId + 2]) {
+            throw new IllegalStateException("Edge from " + fromId + " to " + toId + " exceeds the number of edges.");
+        }
+
+        final int lowerBits = ByteOffsetColumn.toLowerBits(byteOffset);
+        neighbours[outgoingEdge] = toId;
+        edgeByteOffsets[outgoingEdge] = lowerBits;
+        outgoingEdgesAdded[fromId]++;
+
+        neighbours[incomingEdge] = fromId;
+        edgeByteOffsets[incomingEdge] = lowerBits;
+        incomingEdgesAdded[toId]++;
+
+        if (ByteOffsetColumn.requiresColumn(byteOffset)) {
+            getByteOffsetColumn().setEdgeUpperBits(outgoingEdge, byteOffset);
+            getByteOffsetColumn().setEdgeUpperBits(incomingEdge, byteOffset);
+        }
+    }
+
+    /**
+     * Creates the {@link Graph}.
+     * <p>
+     * All nodes start without an x position. The builder should not be used after the graph has been built.
+     *
+     * @param gfaFile a reference to the GFA file from which the graph is created
+     * @return the {@link Graph}
+     */
+    public Graph build(final GfaFile gfaFile) {
+        final int[] unscaledXPositions = new int[sequenceLengths.length];
+        Arrays.fill(unscaledXPositions, Graph.createEmptyNodeArray()[Graph.UNSCALED_X_POSITION_INDEX]);
+
+        return new Graph(new GraphColumns(IntBuffer.wrap(edgeOffsets), IntBuffer.wrap(neighbours),
+                IntBuffer.wrap(edgeByteOffsets), IntBuffer.wrap(nodeByteOffsets), IntBuffer.wrap(sequenceLengths),
+                IntBuffer.wrap(unscaledXPositions), byteOffsetColumn), gfaFile);
+    }
+
+
+    /**
+     * Returns the {@link ByteOffsetColumn}, creating it the first time an offset does not fit in 32 bits.
+     * <p>
+     * Offsets that were added before the column was created fit in 32 bits, so their upper bits are zero.
+     *
+     * @return the {@link ByteOffsetColumn}
+     */
+    private ByteOffsetColumn getByteOffsetColumn() {
+        if (byteOffsetColumn == null) {
+            byteOffsetColumn = new ByteOffsetColumn(sequenceLengths.length, neighbours.length);
+        }
+        return byteOffsetColumn;
+    }
+}
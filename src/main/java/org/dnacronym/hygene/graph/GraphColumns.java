@@ -0,0 +1,240 @@
+package org.dnacronym.hygene.graph;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.IntBuffer;
+
+
+/**
+ * The columns in which a {@link Graph} is stored in compressed sparse row form.
+ * <p>
+ * The neighbours of all nodes are stored in a single column, in which the outgoing and then the incoming neighbours
+ * of each node follow those of the previous node. The edge offsets column contains, for each node, the index in the
+ * edge columns of its first outgoing and first incoming edge, followed by the total number of edges. All other
+ * columns are indexed by node id.
+ * <p>
+ * The columns are {@link IntBuffer}s so that they can either wrap arrays on the heap or be mapped from a file, in
+ * which case the graph lives off-heap and is paged in by the operating system. Values are only accessed by index, so
+ * the positions of the buffers are irrelevant.
+ */
+public final class GraphColumns {
+    private final IntBuffer edgeOffsets;
+    private final IntBuffer neighbours;
+    private final IntBuffer edgeByteOffsets;
+    private final IntBuffer nodeByteOffsets;
+    private final IntBuffer sequenceLengths;
+    private final IntBuffer unscaledXPositions;
+    private final @Nullable ByteOffsetColumn byteOffsetColumn;
+
+
+    /**
+     * Constructs a new {@link GraphColumns} instance.
+     *
+     * @param edgeOffsets        the index of the first outgoing and first incoming edge of each node, followed by the
+     *                           total number of edges
+     * @param neighbours         the neighbour of each edge
+     * @param edgeByteOffsets    the byte offset of each edge, as an {@link org.dnacronym.hygene.core.UnsignedInteger}
+     * @param nodeByteOffsets    the byte offset of each node, as an {@link org.dnacronym.hygene.core.UnsignedInteger}
+     * @param sequenceLengths    the sequence length of each node
+     * @param unscaledXPositions the unscaled x position of each node
+     * @param byteOffsetColumn   the upper bits of the byte offsets, or {@code null} if all offsets fit in 32 bits
+     */
+    @SuppressWarnings("squid:S00107") // These are all columns
+    public GraphColumns(final IntBuffer edgeOffsets, final IntBuffer neighbours, final IntBuffer edgeByteOffsets,
+                        final IntBuffer nodeByteOffsets, final IntBuffer sequenceLengths,
+                        final IntBuffer unscaledXPositions, final @Nullable ByteOffsetColumn byteOffsetColumn) {
+        final int nodeCount = sequenceLengths.capacity();
+        checkSize("edge offsets", edgeOffsets, 2 * nodeCount + 1);
+        final int edgeCount = edgeOffsets.get(2 * nodeCount);
+        checkSize("neighbours", neighbours, edgeCount);
+        checkSize("edge byte offsets", edgeByteOffsets, edgeCount);
+        checkSize("node byte offsets", nodeByteOffsets, nodeCount);
+        checkSize("unscaled x positions", unscaledXPositions, nodeCount);
+        checkByteOffsetColumn(byteOffsetColumn, nodeCount, edgeCount);
+
+        this.edgeOffsets = edgeOffsets;
+        this.neighbours = neighbours;
+        this.edgeByteOffsets = edgeByteOffsets;
+        this.nodeByteOffsets = nodeByteOffsets;
+        this.sequenceLengths = sequenceLengths;
+        this.unscaledXPositions = unscaledXPositions;
+        this.byteOffsetColumn = byteOffsetColumn;
+    }
+
+
+    /**
+     * Converts node arrays to columns on the heap.
+     * <p>
+     * Values missing from a node array that is too short are taken from {@link Graph#createEmptyNodeArray()}.
+     *
+     * @param nodeArrays       nested array containing the graph's data
+     * @param byteOffsetColumn the upper bits of the byte offsets, or {@code null} if all offsets fit in 32 bits
+     * @return the columns containing the same graph
+     */
+    public static GraphColumns fromNodeArrays(final int[][] nodeArrays,
+                                              final @Nullable ByteOffsetColumn byteOffsetColumn) {
+        final int nodeCount = nodeArrays.length;
+        final int[] edgeOffsets = new int[2 * nodeCount + 1];
+        for (int id = 0; id < nodeCount; id++) {
+            final int edgeCount = Math.max(0, nodeArrays[id].length - Graph.NODE_EDGE_DATA_OFFSET)
+                    / Graph.EDGE_DATA_SIZE;
+            final int outgoingEdgeCount = Math.min(edgeCount,
+                    getNodeArrayValue(nodeArrays[id], Graph.NODE_OUTGOING_EDGES_INDEX));
+            edgeOffsets[2 * id + 1] = edgeOffsets[2 * id] + outgoingEdgeCount;
+            edgeOffsets[2 * id + 2] = edgeOffsets[2 * id] + edgeCount;
+        }
+
+        final int[] neighbours = new int[edgeOffsets[2 * nodeCount]];
+        final int[] edgeByteOffsets = new int[neighbours.length];
+        final int[] nodeByteOffsets = new int[nodeCount];
+        final int[] sequenceLengths = new int[nodeCount];
+        final int[] unscaledXPositions = new int[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            final int[] nodeArray = nodeArrays[id];
+            nodeByteOffsets[id] = getNodeArrayValue(nodeArray, Graph.NODE_BYTE_OFFSET_INDEX);
+            sequenceLengths[id] = getNodeArrayValue(nodeArray, Graph.NODE_SEQUENCE_LENGTH_INDEX);
+            unscaledXPositions[id] = getNodeArrayValue(nodeArray, Graph.UNSCALED_X_POSITION_INDEX);
+
+            for (int i = 0; i < edgeOffsets[2 * id + 2] - edgeOffsets[2 * id]; i++) {
+                final int position = Graph.NODE_EDGE_DATA_OFFSET + i * Graph.EDGE_DATA_SIZE;
+                neighbours[edgeOffsets[2 * id] + i] = nodeArray[position];
+                edgeByteOffsets[edgeOffsets[2 * id] + i] = nodeArray[position + Graph.EDGE_BYTE_OFFSET_OFFSET];
+            }
+        }
+
+        return new GraphColumns(IntBuffer.wrap(edgeOffsets), IntBuffer.wrap(neighbours),
+                IntBuffer.wrap(edgeByteOffsets), IntBuffer.wrap(nodeByteOffsets), IntBuffer.wrap(sequenceLengths),
+                IntBuffer.wrap(unscaledXPositions), byteOffsetColumn);
+    }
+
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return sequenceLengths.capacity();
+    }
+
+    /**
+     * Returns the total number of incoming and outgoing edges of all nodes.
+     *
+     * @return the total number of edges
+     */
+    public int getEdgeCount() {
+        return neighbours.capacity();
+    }
+
+    /**
+     * Returns the index of the first outgoing and first incoming edge of each node, followed by the number of edges.
+     *
+     * @return the edge offsets column
+     */
+    public IntBuffer getEdgeOffsets() {
+        return edgeOffsets;
+    }
+
+    /**
+     * Returns the neighbour of each edge.
+     *
+     * @return the neighbours column
+     */
+    public IntBuffer getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * Returns the lower bits of the byte offset of each edge.
+     *
+     * @return the edge byte offsets column
+     */
+    public IntBuffer getEdgeByteOffsets() {
+        return edgeByteOffsets;
+    }
+
+    /**
+     * Returns the lower bits of the byte offset of each node.
+     *
+     * @return the node byte offsets column
+     */
+    public IntBuffer getNodeByteOffsets() {
+        return nodeByteOffsets;
+    }
+
+    /**
+     * Returns the sequence length of each node.
+     *
+     * @return the sequence lengths column
+     */
+    public IntBuffer getSequenceLengths() {
+        return sequenceLengths;
+    }
+
+    /**
+     * Returns the unscaled x position of each node.
+     *
+     * @return the unscaled x positions column
+     */
+    public IntBuffer getUnscaledXPositions() {
+        return unscaledXPositions;
+    }
+
+    /**
+     * Returns the upper bits of the byte offsets, if the file is too large for 32-bit offsets.
+     *
+     * @return the {@link ByteOffsetColumn}, or {@code null} if all offsets fit in 32 bits
+     */
+    public @Nullable ByteOffsetColumn getByteOffsetColumn() {
+        return byteOffsetColumn;
+    }
+
+
+    /**
+     * Checks that a column has the expected number of values.
+     *
+     * @param name     the name of the column
+     * @param column   the column
+     * @param expected the expected number of values
+     */
+    private static void checkSize(final String name, final IntBuffer column, final int expected) {
+        if (column.capacity() != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " " + name + ", but got "
+                    + column.capacity() + ".");
+        }
+    }
+
+    /**
+     * Checks that a {@link ByteOffsetColumn}, if any, has upper bits for all nodes and edges.
+     *
+     * @param byteOffsetColumn a {@link ByteOffsetColumn}, or {@code null}
+     * @param nodeCount        the number of nodes
+     * @param edgeCount        the number of edges
+     */
+    private static void checkByteOffsetColumn(final @Nullable ByteOffsetColumn byteOffsetColumn, final int nodeCount,
+                                              final int edgeCount) {
+        if (byteOffsetColumn == null) {
+            return;
+        }
+
+        if (byteOffsetColumn.getNodeUpperBits().length != nodeCount) {
+            throw new IllegalArgumentException("Expected upper bits for " + nodeCount + " nodes, but got "
+                    + byteOffsetColumn.getNodeUpperBits().length + ".");
+        }
+        if (byteOffsetColumn.getEdgeUpperBits().length != edgeCount) {
+            throw new IllegalArgumentException("Expected upper bits for " + edgeCount + " edges, but got "
+                    + byteOffsetColumn.getEdgeUpperBits().length + ".");
+        }
+    }
+
+    /**
+     * Returns a value from a node array, or the value of an empty node array if the node array is too short.
+     *
+     * @param nodeArray a node array
+     * @param index     the index of the value
+     * @return the value at the given index
+     */
+    private static int getNodeArrayValue(final int[] nodeArray, final int index) {
+        return index < nodeArray.length ? nodeArray[index] : Graph.createEmptyNodeArray()[index];
+    }
+}
@@ -0,0 +1,284 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+
+/**
+ * A hierarchy of increasingly coarse versions of a {@link Graph}, for views that show a large part of the graph.
+ * <p>
+ * Level 0 is the graph itself, and level 1 is its {@link ChainCompaction}. Each further level is built from the
+ * previous one by contracting a matching of its edges: each node is merged with at most one right neighbour of the
+ * next topological rank, provided that the node has no other right neighbours or the neighbour has no other left
+ * neighbours. Such contractions cannot introduce cycles, and they merge both the halves of chains and the branches of
+ * bubbles into their ends, so that each level has roughly half as many nodes as the previous one. Levels are added
+ * until the coarsest level has at most {@value #TARGET_NODE_COUNT} nodes, or until a level hardly shrinks any more.
+ * <p>
+ * If the superbubbles of the graph have been detected, level 2 first merges the members of each superbubble without
+ * nested superbubbles into a single node, as found in the {@link BubbleIndex}, and only matches the remaining nodes.
+ * The members of a superbubble are only entered from its entrance and only left to its exit, so merging them cannot
+ * introduce cycles either.
+ * <p>
+ * Each level only stores which nodes of the previous level each of its nodes contains and the range its nodes occupy,
+ * so that the hierarchy takes about twice the memory of a single level. The nodes of the original graph that a node
+ * represents are found by descending through the levels. Each level has its own {@link NodeIntervalIndex}, so that a
+ * range query at a coarse level costs time proportional to the number of nodes of that level in the range.
+ * <p>
+ * As the matchings that determine the levels take a topological sort per level to find, the parent and children
+ * arrays of the levels above level 1 can be stored with the graph, and the hierarchy can be restored from them with
+ * only the coarse graphs to rebuild.
+ */
+public final class GraphHierarchy {
+    /**
+     * The number of nodes below which no coarser level is built.
+     */
+    static final int TARGET_NODE_COUNT = 1000;
+    /**
+     * The largest fraction of the nodes of the previous level a level may have to be kept.
+     */
+    private static final double MAX_SHRINK_RATIO = 0.9;
+
+    private final Graph graph;
+    /**
+     * The levels above level 0, starting at level 1.
+     */
+    private final List<HierarchyLevel> levels;
+
+
+    /**
+     * Constructs a new {@link GraphHierarchy} of the given {@link Graph}.
+     * <p>
+     * The coarse graphs reflect the horizontal positions of the given graph at the time of construction.
+     *
+     * @param graph the {@link Graph} to coarsen
+     */
+    public GraphHierarchy(final Graph graph) {
+        this.graph = graph;
+        this.levels = new ArrayList<>();
+
+        final LevelBuilder builder = new LevelBuilder(graph);
+        HierarchyLevel level = builder.createChainLevel();
+        levels.add(level);
+        while (level.getGraph().getNodeCount() > TARGET_NODE_COUNT) {
+            final int[] groups = levels.size() == 1
+                    ? BubbleGrouping.group(graph, level)
+                    : BubbleGrouping.NO_GROUPS;
+            final HierarchyLevel coarserLevel = builder.coarsen(level, groups);
+            if (coarserLevel.getGraph().getNodeCount() > level.getGraph().getNodeCount() * MAX_SHRINK_RATIO) {
+                break;
+            }
+
+            levels.add(coarserLevel);
+            level = coarserLevel;
+        }
+    }
+
+    /**
+     * Constructs a {@link GraphHierarchy} of the given {@link Graph} from the parent and children arrays of its levels
+     * above level 1, as returned by {@link #getParentIds(int)} and {@link #getChildren(int)}.
+     * <p>
+     * Level 1 is taken from the {@link ChainCompaction} of the graph, and the graphs of the levels above it are
+     * rebuilt from the arrays.
+     *
+     * @param graph     the {@link Graph} to restore the hierarchy of
+     * @param parentIds the id of the parent of each node at the previous level, for each level from level 2 onwards
+     * @param children  the children of the nodes, grouped by parent, for each level from level 2 onwards
+     * @throws IllegalArgumentException if the arrays do not describe a hierarchy of the graph
+     */
+    public GraphHierarchy(final Graph graph, final int[][] parentIds, final int[][] children) {
+        if (parentIds.length != children.length) {
+            throw new IllegalArgumentException("Each level must have both parent ids and children.");
+        }
+
+        this.graph = graph;
+        this.levels = new ArrayList<>();
+
+        final LevelBuilder builder = new LevelBuilder(graph);
+        HierarchyLevel level = builder.createChainLevel();
+        levels.add(level);
+        for (int i = 0; i < parentIds.length; i++) {
+            level = builder.restore(level, parentIds[i], children[i]);
+            levels.add(level);
+        }
+    }
+
+
+    /**
+     * Returns the number of levels, including level 0.
+     *
+     * @return the number of levels, including level 0
+     */
+    public int getLevelCount() {
+        return levels.size() + 1;
+    }
+
+    /**
+     * Returns the {@link Graph} at the given level.
+     *
+     * @param level a level
+     * @return the {@link Graph} at the given level
+     */
+    public Graph getGraph(final int level) {
+        return level == 0 ? graph : getCoarseLevel(level).getGraph();
+    }
+
+    /**
+     * Returns the finest level at which a horizontal range of the given width is expected to contain at most the
+     * given number of nodes, or the coarsest level if there is no such level.
+     * <p>
+     * The number of nodes in a range is estimated by assuming that the nodes are spread evenly over the width of the
+     * graph.
+     *
+     * @param rangeWidth   the width of a horizontal range
+     * @param maxNodeCount the maximum number of nodes in the range
+     * @return the finest level at which the range is expected to contain at most the given number of nodes
+     */
+    public int getLevel(final long rangeWidth, final int maxNodeCount) {
+        final long graphWidth = Math.max(1, graph.getRealEndXPosition(graph.getNodeCount() - 1));
+        for (int level = 0; level < getLevelCount(); level++) {
+            if ((double) getGraph(level).getNodeCount() * rangeWidth / graphWidth <= maxNodeCount) {
+                return level;
+            }
+        }
+        return getLevelCount() - 1;
+    }
+
+    /**
+     * Returns the id of the node at the given level that contains the given node.
+     *
+     * @param level a level
+     * @param id    the id of a node in the original graph
+     * @return the id of the node at the given level that contains the given node
+     */
+    public int getLevelId(final int level, final int id) {
+        int levelId = id;
+        for (int i = 1; i <= level; i++) {
+            levelId = getCoarseLevel(i).getParentId(levelId);
+        }
+        return levelId;
+    }
+
+    /**
+     * Returns the number of nodes in the original graph that the given node at the given level represents.
+     *
+     * @param level   a level
+     * @param levelId the id of a node at the given level
+     * @return the number of nodes in the original graph that the given node represents
+     */
+    public int getMemberCount(final int level, final int levelId) {
+        return level == 0 ? 1 : getCoarseLevel(level).getMemberCount(levelId);
+    }
+
+    /**
+     * Returns the id in the original graph of the first node that the given node at the given level represents.
+     *
+     * @param level   a level
+     * @param levelId the id of a node at the given level
+     * @return the id in the original graph of the first node that the given node represents
+     */
+    public int getFirstMember(final int level, final int levelId) {
+        int id = levelId;
+        for (int i = level; i > 0; i--) {
+            final HierarchyLevel current = getCoarseLevel(i);
+            id = current.getChild(current.getChildStart(id));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the rightmost position occupied by the nodes in the original graph that the given node at the given
+     * level represents.
+     *
+     * @param level   a level
+     * @param levelId the id of a node at the given level
+     * @return the rightmost position occupied by the nodes that the given node represents
+     */
+    public long getEndXPosition(final int level, final int levelId) {
+        return level == 0 ? graph.getRealEndXPosition(levelId) : getCoarseLevel(level).getEndXPosition(levelId);
+    }
+
+    /**
+     * Returns the index of the nodes and edges at the given level by the horizontal range they occupy.
+     * <p>
+     * Each node occupies the range from its leftmost to its rightmost member in the original graph. The index of a
+     * level is only built when it is first requested.
+     *
+     * @param level a level
+     * @return the index of the nodes and edges at the given level by the horizontal range they occupy
+     */
+    public NodeIntervalIndex getNodeIntervals(final int level) {
+        return level == 0 ? graph.getNodeIntervals() : getCoarseLevel(level).getNodeIntervals();
+    }
+
+    /**
+     * Returns the id at the given level of each node at the previous level.
+     *
+     * @param level a level above level 0
+     * @return the id at the given level of each node at the previous level
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray")
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    public int[] getParentIds(final int level) {
+        return getCoarseLevel(level).getParentIds();
+    }
+
+    /**
+     * Returns the ids at the previous level of the nodes merged into each node at the given level, grouped by the
+     * node that contains them in order of id.
+     *
+     * @param level a level above level 0
+     * @return the ids at the previous level of the nodes merged into each node at the given level
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray")
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    public int[] getChildren(final int level) {
+        return getCoarseLevel(level).getChildren();
+    }
+
+    /**
+     * Applies the given action to the ids in the original graph of the nodes that the given node at the given level
+     * represents.
+     * <p>
+     * At level 1, the nodes are visited in chain order. At coarser levels, the nodes merged into a node are visited
+     * in topological order of the nodes they belonged to at the previous level.
+     *
+     * @param level   a level
+     * @param levelId the id of a node at the given level
+     * @param action  the function to apply to the id of each node in the original graph
+     */
+    public void visitMembers(final int level, final int levelId, final IntConsumer action) {
+        if (level == 0) {
+            action.accept(levelId);
+            return;
+        }
+
+        final HierarchyLevel current = getCoarseLevel(level);
+        for (int child = current.getChildStart(levelId); child < current.getChildEnd(levelId); child++) {
+            visitMembers(level - 1, current.getChild(child), action);
+        }
+    }
+
+
+    /**
+     * Returns the given level.
+     *
+     * @param level a level above level 0
+     * @return the given level
+     */
+    private HierarchyLevel getCoarseLevel(final int level) {
+        if (level < 1 || level >= getLevelCount()) {
+            throw new IndexOutOfBoundsException("Level " + level + " is out of bounds.");
+        }
+
+        return levels.get(level - 1);
+    }
+}
@@ -1,10 +1,12 @@
 package org.dnacronym.hygene.graph;
 
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
+import org.dnacronym.hygene.core.IntBiConsumer;
+import org.dnacronym.hygene.core.IntQueue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 
 /**
@@ -12,12 +14,21 @@ import java.util.function.Predicate;
  * <p>
  * A direct neighbour is a node that can be reached over a single edge. An indirect neighbour is a node that can be
  * reached over at least one edge.
+ * <p>
+ * Node identifiers are passed as primitives, and the queues, visited sets, and {@link DistanceFrontierExpansion}s used
+ * by the traversals are pooled by the iterator and reused between calls, so that traversals do not box identifiers or
+ * allocate per visited node.
+ * <p>
+ * Traversals of the whole graph can also be run in parallel mode, in which each level of the breadth-first search is
+ * expanded by a {@link FrontierExpansion}. In that mode the action is applied from several threads at once.
  */
 // All methods are closely related and cannot be refactored further
 @SuppressWarnings("PMD.TooManyMethods")
 public final class GraphIterator {
     private final Graph graph;
-    private final int[][] nodeArrays;
+    private final Deque<IntQueue> queuePool;
+    private final Deque<DistanceFrontierExpansion> distanceExpansionPool;
+    private final Deque<NodeBitSet> visitedSetPool;
 
 
     /**
@@ -27,73 +38,74 @@ public final class GraphIterator {
      */
     public GraphIterator(final Graph graph) {
         this.graph = graph;
-        this.nodeArrays = graph.getNodeArrays();
+        this.queuePool = new ArrayDeque<>();
+        this.distanceExpansionPool = new ArrayDeque<>();
+        this.visitedSetPool = new ArrayDeque<>();
     }
 
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the direct neighbours in either direction.
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in either direction.
      *
      * @param id     the node's identifier
      * @param action the function to apply to each neighbour's identifier
      */
-    public void visitDirectNeighbours(final int id, final Consumer<Integer> action) {
+    public void visitDirectNeighbours(final int id, final IntConsumer action) {
         visitDirectNeighbours(id, SequenceDirection.LEFT, action);
         visitDirectNeighbours(id, SequenceDirection.RIGHT, action);
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the direct neighbours in the given direction.
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction.
      *
      * @param id        the node's identifier
      * @param direction the direction of neighbours to visit
      * @param action    the function to apply to each neighbour's identifier
      */
-    public void visitDirectNeighbours(final int id, final SequenceDirection direction, final Consumer<Integer> action) {
-        final int neighbourOffset = getNeighbourOffset(id, direction);
+    public void visitDirectNeighbours(final int id, final SequenceDirection direction, final IntConsumer action) {
+        final int edgeEnd = graph.getEdgeEnd(id, direction);
 
-        for (int i = 0; i < graph.getNeighbourCount(id, direction); i++) {
-            final int neighbourIndex = neighbourOffset + Graph.EDGE_DATA_SIZE * i;
-            action.accept(nodeArrays[id][neighbourIndex]);
+        for (int edge = graph.getEdgeStart(id, direction); edge < edgeEnd; edge++) {
+            action.accept(graph.getNeighbour(edge));
         }
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the direct neighbours in the given direction until the
-     * given {@link Predicate} returns {@code false} for that neighbour's identifier or until there are no more
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction until
+     * the given {@link IntPredicate} returns {@code false} for that neighbour's identifier or until there are no more
      * neighbours.
      *
      * @param id        the node's identifier
      * @param direction the direction of neighbours to visit
-     * @param condition the {@link Predicate} that holds until no more neighbours should be visited
+     * @param condition the {@link IntPredicate} that holds until no more neighbours should be visited
      * @param action    the function to apply to each neighbour's identifier
      */
     public void visitDirectNeighboursWhile(final int id, final SequenceDirection direction,
-                                           final Predicate<Integer> condition, final Consumer<Integer> action) {
-        final Consumer<Integer> emptyCatchAction = ignored -> {
+                                           final IntPredicate condition, final IntConsumer action) {
+        final IntConsumer emptyCatchAction = ignored -> {
             // Do nothing
         };
         visitDirectNeighboursWhile(id, direction, condition, emptyCatchAction, action);
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the direct neighbours in the given direction until the
-     * given {@link Predicate} returns {@code false} for that neighbour's identifier or until there are no more
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction until
+     * the given {@link IntPredicate} returns {@code false} for that neighbour's identifier or until there are no more
      * neighbours.
      *
      * @param id          the node's identifier
      * @param direction   the direction of neighbours to visit
-     * @param condition   the {@link Predicate} that holds until no more neighbours should be visited
-     * @param catchAction the {@link Consumer} to execute as soon as the condition no longer holds
+     * @param condition   the {@link IntPredicate} that holds until no more neighbours should be visited
+     * @param catchAction the {@link IntConsumer} to execute as soon as the condition no longer holds
      * @param action      the function to apply to each neighbour's identifier
      */
     public void visitDirectNeighboursWhile(final int id, final SequenceDirection direction,
-                                           final Predicate<Integer> condition, final Consumer<Integer> catchAction,
-                                           final Consumer<Integer> action) {
-        final int neighbourOffset = getNeighbourOffset(id, direction);
+                                           final IntPredicate condition, final IntConsumer catchAction,
+                                           final IntConsumer action) {
+        final int edgeEnd = graph.getEdgeEnd(id, direction);
 
-        for (int i = 0; i < graph.getNeighbourCount(id, direction); i++) {
-            final int neighbour = nodeArrays[id][neighbourOffset + Graph.EDGE_DATA_SIZE * i];
+        for (int edge = graph.getEdgeStart(id, direction); edge < edgeEnd; edge++) {
+            final int neighbour = graph.getNeighbour(edge);
 
             if (!condition.test(neighbour)) {
                 catchAction.accept(neighbour);
@@ -105,23 +117,39 @@ public final class GraphIterator {
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the indirect neighbours in the given direction.
+     * Applies the given {@link IntConsumer} to the identifiers of the indirect neighbours in the given direction.
      *
      * @param id        the node's identifier
      * @param direction the direction of neighbours to visit
      * @param action    the function to apply to each neighbour's identifier
      */
-    public void visitIndirectNeighbours(final int id, final SequenceDirection direction,
-                                        final Consumer<Integer> action) {
-        final boolean[] visited = new boolean[nodeArrays.length];
-        visitIndirectNeighbours(id, direction, node -> visited[node], node -> {
-            visited[node] = true;
-            action.accept(node);
-        });
+    public void visitIndirectNeighbours(final int id, final SequenceDirection direction, final IntConsumer action) {
+        final IntQueue queue = acquireQueue();
+        final NodeBitSet visited = acquireVisitedSet();
+        try {
+            visited.add(id);
+            queue.add(id);
+
+            while (!queue.isEmpty()) {
+                final int head = queue.remove();
+                action.accept(head);
+
+                final int edgeEnd = graph.getEdgeEnd(head, direction);
+                for (int edge = graph.getEdgeStart(head, direction); edge < edgeEnd; edge++) {
+                    final int neighbour = graph.getNeighbour(edge);
+                    if (visited.add(neighbour)) {
+                        queue.add(neighbour);
+                    }
+                }
+            }
+        } finally {
+            releaseVisitedSet(visited);
+            releaseQueue(queue);
+        }
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the indirect neighbours in the given direction.
+     * Applies the given {@link IntConsumer} to the identifiers of the indirect neighbours in the given direction.
      *
      * @param id        the node's identifier
      * @param direction the direction of neighbours to visit
@@ -130,27 +158,51 @@ public final class GraphIterator {
      * @param action    the function to apply to each neighbour's identifier
      */
     public void visitIndirectNeighbours(final int id, final SequenceDirection direction,
-                                        final Predicate<Integer> visited, final Consumer<Integer> action) {
-        final Queue<Integer> queue = new LinkedList<>();
-        queue.add(id);
-
-        while (!queue.isEmpty()) {
-            final int head = queue.remove();
-            if (visited.test(head)) {
-                continue;
-            }
+                                        final IntPredicate visited, final IntConsumer action) {
+        final IntQueue queue = acquireQueue();
+        try {
+            queue.add(id);
 
-            action.accept(head);
-            visitDirectNeighbours(head, direction, index -> {
-                if (!visited.test(index)) {
-                    queue.add(index);
+            while (!queue.isEmpty()) {
+                final int head = queue.remove();
+                if (visited.test(head)) {
+                    continue;
                 }
-            });
+
+                action.accept(head);
+
+                final int edgeEnd = graph.getEdgeEnd(head, direction);
+                for (int edge = graph.getEdgeStart(head, direction); edge < edgeEnd; edge++) {
+                    final int neighbour = graph.getNeighbour(edge);
+                    if (!visited.test(neighbour)) {
+                        queue.add(neighbour);
+                    }
+                }
+            }
+        } finally {
+            releaseQueue(queue);
         }
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the indirect neighbours that can be reached within
+     * Applies the given {@link IntConsumer} to the identifiers of the indirect neighbours in the given direction,
+     * expanding each level of the breadth-first search in parallel.
+     * <p>
+     * A level is only expanded once the previous level has been visited completely, but the order in which the nodes
+     * within a level are visited is undefined. The action is applied from several threads at once, so it must be
+     * thread-safe.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to visit
+     * @param action    the thread-safe function to apply to each neighbour's identifier
+     */
+    public void visitIndirectNeighboursInParallel(final int id, final SequenceDirection direction,
+                                                  final IntConsumer action) {
+        new FrontierExpansion(graph, direction, action).traverse(id);
+    }
+
+    /**
+     * Applies the given {@link IntBiConsumer} to the identifiers of the indirect neighbours that can be reached within
      * the given number of hops in both directions.
      * <p>
      * Visits left neighbours first.
@@ -159,82 +211,175 @@ public final class GraphIterator {
      * @param maxDepth the maximum number of hops a neighbour can be removed from the node
      * @param action   the function to apply to each neighbour's depth and identifier
      */
-    public void visitIndirectNeighboursWithinRange(final int id, final int maxDepth,
-                                                   final BiConsumer<Integer, Integer> action) {
-        final boolean[] visited = new boolean[nodeArrays.length];
-        final Queue<Integer> queue = new LinkedList<>();
-        queue.add(id);
-
-        int currentDepth = 0;
-        final int[] depthIncreaseTimes = {1, 0};
-
-        final Consumer<Integer> visitDirectNeighbourAction = neighbour -> {
-            if (!visited[neighbour]) {
-                depthIncreaseTimes[1]++;
-                queue.add(neighbour);
-            }
-        };
+    public void visitIndirectNeighboursWithinRange(final int id, final int maxDepth, final IntBiConsumer action) {
+        final IntQueue queue = acquireQueue();
+        final NodeBitSet visited = acquireVisitedSet();
+        try {
+            visited.add(id);
+            queue.add(id);
 
-        while (!queue.isEmpty()) {
-            final int head = queue.remove();
-
-            if (!visited[head]) {
-                visited[head] = true;
+            int currentDepth = 0;
+            int remainingAtCurrentDepth = 1;
+            while (!queue.isEmpty()) {
+                final int head = queue.remove();
                 action.accept(currentDepth, head);
 
-                if (currentDepth >= maxDepth) {
-                    continue;
+                if (currentDepth < maxDepth) {
+                    enqueueUnvisitedNeighbours(head, SequenceDirection.LEFT, queue, visited);
+                    enqueueUnvisitedNeighbours(head, SequenceDirection.RIGHT, queue, visited);
                 }
 
-                visitDirectNeighbours(head, SequenceDirection.LEFT, visitDirectNeighbourAction);
-                visitDirectNeighbours(head, SequenceDirection.RIGHT, visitDirectNeighbourAction);
+                remainingAtCurrentDepth--;
+                if (remainingAtCurrentDepth == 0) {
+                    currentDepth++;
+                    remainingAtCurrentDepth = queue.size();
+                }
             }
+        } finally {
+            releaseVisitedSet(visited);
+            releaseQueue(queue);
+        }
+    }
 
-            depthIncreaseTimes[0]--;
-            if (depthIncreaseTimes[0] <= 0) {
-                currentDepth++;
-
-                depthIncreaseTimes[0] = depthIncreaseTimes[1];
-                depthIncreaseTimes[1] = 0;
-            }
+    /**
+     * Applies the given {@link IntBiConsumer} to the identifiers of the indirect neighbours that can be reached within
+     * the given number of base pairs in both directions.
+     * <p>
+     * The distance of a neighbour is the smallest total sequence length of the nodes between the given node and the
+     * neighbour, so that direct neighbours have distance zero. Nodes are visited in order of increasing distance by a
+     * variant of Dijkstra's algorithm that does not expand nodes beyond the maximum distance.
+     *
+     * @param id          the node's identifier
+     * @param maxDistance the maximum number of base pairs between the node and a neighbour
+     * @param action      the function to apply to each neighbour's distance and identifier
+     */
+    public void visitIndirectNeighboursWithinDistance(final int id, final int maxDistance,
+                                                      final IntBiConsumer action) {
+        final DistanceFrontierExpansion expansion = acquireDistanceExpansion();
+        try {
+            expansion.visit(id, maxDistance, action);
+        } finally {
+            releaseDistanceExpansion(expansion);
         }
     }
 
     /**
-     * Visits all nodes in this {@link Graph} and applies the given {@link Consumer} to their identifiers.
+     * Visits all nodes in this {@link Graph} and applies the given {@link IntConsumer} to their identifiers.
      *
      * @param direction the direction to visit the nodes in
      * @param action    the function to apply to each node's identifier
      */
-    public void visitAll(final SequenceDirection direction, final Consumer<Integer> action) {
-        final int sentinelId = direction.ternary(nodeArrays.length - 1, 0);
+    public void visitAll(final SequenceDirection direction, final IntConsumer action) {
+        final int sentinelId = direction.ternary(graph.getNodeCount() - 1, 0);
         visitIndirectNeighbours(sentinelId, direction, action);
     }
 
+    /**
+     * Visits all nodes in this {@link Graph} in parallel and applies the given {@link IntConsumer} to their
+     * identifiers.
+     *
+     * @param direction the direction to visit the nodes in
+     * @param action    the thread-safe function to apply to each node's identifier
+     * @see #visitIndirectNeighboursInParallel(int, SequenceDirection, IntConsumer)
+     */
+    public void visitAllInParallel(final SequenceDirection direction, final IntConsumer action) {
+        final int sentinelId = direction.ternary(graph.getNodeCount() - 1, 0);
+        visitIndirectNeighboursInParallel(sentinelId, direction, action);
+    }
+
     /**
      * Visits all nodes in this {@link Graph} that can be reached within the given number of hops from the sentinel
-     * node and, applies the given {@link Consumer} to their identifiers.
+     * node and, applies the given {@link IntBiConsumer} to their identifiers.
      *
      * @param direction the direction to visit the nodes in
      * @param maxDepth  the maximum number of hops a neighbour can be removed from the node
      * @param action    the function to apply to each node's depth and identifier
      */
     public void visitAllWithinRange(final SequenceDirection direction, final int maxDepth,
-                                    final BiConsumer<Integer, Integer> action) {
-        final int sentinelId = direction.ternary(nodeArrays.length - 1, 0);
+                                    final IntBiConsumer action) {
+        final int sentinelId = direction.ternary(graph.getNodeCount() - 1, 0);
         visitIndirectNeighboursWithinRange(sentinelId, maxDepth, action);
     }
 
 
     /**
-     * Returns the offset within a node array where the neighbours in the given direction begin.
+     * Adds the direct neighbours in the given direction that were not yet visited to the queue, and marks them as
+     * visited.
      *
      * @param id        the node's identifier
-     * @param direction the direction of the neighbours
-     * @return the offset within a node array where the neighbours in the given direction begin
+     * @param direction the direction of neighbours to add
+     * @param queue     the queue of nodes to visit
+     * @param visited   the set of nodes that have been added to the queue before
+     */
+    private void enqueueUnvisitedNeighbours(final int id, final SequenceDirection direction, final IntQueue queue,
+                                            final NodeBitSet visited) {
+        final int edgeEnd = graph.getEdgeEnd(id, direction);
+        for (int edge = graph.getEdgeStart(id, direction); edge < edgeEnd; edge++) {
+            final int neighbour = graph.getNeighbour(edge);
+            if (visited.add(neighbour)) {
+                queue.add(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Takes an empty queue from the pool, or creates one if the pool is empty.
+     * <p>
+     * A traversal may start another traversal from its action, so each traversal takes its own queue.
+     *
+     * @return an empty queue
+     */
+    private synchronized IntQueue acquireQueue() {
+        final IntQueue queue = queuePool.poll();
+        return queue == null ? new IntQueue() : queue;
+    }
+
+    /**
+     * Clears the given queue and returns it to the pool.
+     *
+     * @param queue a queue taken from the pool
+     */
+    private synchronized void releaseQueue(final IntQueue queue) {
+        queue.clear();
+        queuePool.push(queue);
+    }
+
+    /**
+     * Takes a {@link DistanceFrontierExpansion} from the pool, or creates one if the pool is empty.
+     *
+     * @return a {@link DistanceFrontierExpansion} that is not running a search
+     */
+    private synchronized DistanceFrontierExpansion acquireDistanceExpansion() {
+        final DistanceFrontierExpansion expansion = distanceExpansionPool.poll();
+        return expansion == null ? new DistanceFrontierExpansion(graph) : expansion;
+    }
+
+    /**
+     * Returns the given {@link DistanceFrontierExpansion} to the pool.
+     *
+     * @param expansion a {@link DistanceFrontierExpansion} taken from the pool
+     */
+    private synchronized void releaseDistanceExpansion(final DistanceFrontierExpansion expansion) {
+        distanceExpansionPool.push(expansion);
+    }
+
+    /**
+     * Takes an empty visited set from the pool, or creates one if the pool is empty.
+     *
+     * @return an empty set of nodes
+     */
+    private synchronized NodeBitSet acquireVisitedSet() {
+        final NodeBitSet visited = visitedSetPool.poll();
+        return visited == null ? new NodeBitSet(graph.getNodeCount()) : visited;
+    }
+
+    /**
+     * Clears the given visited set and returns it to the pool.
+     *
+     * @param visited a set of nodes taken from the pool
      */
-    private int getNeighbourOffset(final int id, final SequenceDirection direction) {
-        return 1 + Graph.NODE_OUTGOING_EDGES_INDEX + direction.ternary(
-                graph.getNeighbourCount(id, direction.opposite()) * Graph.EDGE_DATA_SIZE, 0);
+    private synchronized void releaseVisitedSet(final NodeBitSet visited) {
+        visited.clear();
+        visitedSetPool.push(visited);
     }
 }
@@ -0,0 +1,166 @@
+package org.dnacronym.hygene.graph;
+
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+
+/**
+ * A level of a {@link GraphHierarchy} above level 0.
+ * <p>
+ * A level only stores which nodes of the previous level each of its nodes contains and the range its nodes occupy.
+ * Its {@link NodeIntervalIndex} is only built when it is first requested.
+ *
+ * @see LevelBuilder
+ */
+final class HierarchyLevel {
+    private final Graph graph;
+    /**
+     * The id at this level of each node at the previous level.
+     */
+    private final int[] parentIds;
+    /**
+     * The index in {@link #children} of the first child of each node at this level, followed by the total number of
+     * children.
+     */
+    private final int[] childOffsets;
+    /**
+     * The ids at the previous level of the nodes merged into each node at this level.
+     */
+    private final int[] children;
+    /**
+     * The number of nodes in the original graph that each node at this level represents.
+     */
+    private final int[] memberCounts;
+    /**
+     * The rightmost position occupied by the nodes in the original graph that each node at this level represents.
+     */
+    private final long[] endXPositions;
+    private @MonotonicNonNull NodeIntervalIndex intervals;
+
+
+    /**
+     * Constructs a new {@link HierarchyLevel}.
+     *
+     * @param graph         the {@link Graph} at this level
+     * @param parentIds     the id at this level of each node at the previous level
+     * @param childOffsets  the index in the children of the first child of each node at this level
+     * @param children      the ids at the previous level of the nodes merged into each node at this level
+     * @param memberCounts  the number of nodes in the original graph that each node at this level represents
+     * @param endXPositions the rightmost position occupied by the nodes that each node at this level represents
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // The arrays are created for this level only
+    HierarchyLevel(final Graph graph, final int[] parentIds, final int[] childOffsets, final int[] children,
+                   final int[] memberCounts, final long[] endXPositions) {
+        this.graph = graph;
+        this.parentIds = parentIds;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.memberCounts = memberCounts;
+        this.endXPositions = endXPositions;
+    }
+
+
+    /**
+     * Returns the {@link Graph} at this level.
+     *
+     * @return the {@link Graph} at this level
+     */
+    Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the id at this level of the given node at the previous level.
+     *
+     * @param id the id of a node at the previous level
+     * @return the id at this level of the given node at the previous level
+     */
+    int getParentId(final int id) {
+        return parentIds[id];
+    }
+
+    /**
+     * Returns the id at this level of each node at the previous level.
+     *
+     * @return the id at this level of each node at the previous level
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    int[] getParentIds() {
+        return parentIds;
+    }
+
+    /**
+     * Returns the index in the children of the first child of the given node.
+     *
+     * @param id the id of a node at this level
+     * @return the index in the children of the first child of the given node (inclusive)
+     */
+    int getChildStart(final int id) {
+        return childOffsets[id];
+    }
+
+    /**
+     * Returns the index in the children after the last child of the given node.
+     *
+     * @param id the id of a node at this level
+     * @return the index in the children after the last child of the given node (exclusive)
+     */
+    int getChildEnd(final int id) {
+        return childOffsets[id + 1];
+    }
+
+    /**
+     * Returns the child at the given index in the children.
+     *
+     * @param index an index in the children
+     * @return the id at the previous level of the child at the given index
+     */
+    int getChild(final int index) {
+        return children[index];
+    }
+
+    /**
+     * Returns the ids at the previous level of the nodes merged into each node at this level, grouped by the node
+     * that contains them.
+     *
+     * @return the ids at the previous level of the nodes merged into each node at this level
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    int[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns the number of nodes in the original graph that the given node represents.
+     *
+     * @param id the id of a node at this level
+     * @return the number of nodes in the original graph that the given node represents
+     */
+    int getMemberCount(final int id) {
+        return memberCounts[id];
+    }
+
+    /**
+     * Returns the rightmost position occupied by the nodes in the original graph that the given node represents.
+     *
+     * @param id the id of a node at this level
+     * @return the rightmost position occupied by the nodes that the given node represents
+     */
+    long getEndXPosition(final int id) {
+        return endXPositions[id];
+    }
+
+    /**
+     * Returns the index of the nodes and edges at this level by the horizontal range they occupy, and builds it if it
+     * has not been built yet.
+     *
+     * @return the index of the nodes and edges at this level by the horizontal range they occupy
+     */
+    synchronized NodeIntervalIndex getNodeIntervals() {
+        NodeIntervalIndex levelIntervals = intervals;
+        if (levelIntervals == null) {
+            levelIntervals = new NodeIntervalIndex(graph, id -> endXPositions[id]);
+            intervals = levelIntervals;
+        }
+        return levelIntervals;
+    }
+}
@@ -0,0 +1,107 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.graph.node.ChainSegment;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
+import org.dnacronym.hygene.graph.node.Node;
+import org.dnacronym.hygene.graph.node.Segment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Creates the {@link Node}s that represent the nodes of the levels of a {@link GraphHierarchy}.
+ * <p>
+ * A node that represents a single node of the {@link Graph} becomes a {@link Segment}, a node of the chain level
+ * becomes a {@link ChainSegment}, and a node of a coarser level becomes a {@link ClusterSegment}, whose segments are
+ * only created once they are requested.
+ */
+final class HierarchySegmentFactory {
+    /**
+     * The width of an edge.
+     */
+    // TODO Move this constant to the layout algorithm.
+    private static final int EDGE_WIDTH = 1000;
+
+    private final Graph graph;
+    private final GraphHierarchy hierarchy;
+
+
+    /**
+     * Constructs a new {@link HierarchySegmentFactory}.
+     *
+     * @param graph the {@link Graph} at the base of the hierarchy
+     */
+    HierarchySegmentFactory(final Graph graph) {
+        this.graph = graph;
+        this.hierarchy = graph.getHierarchy();
+    }
+
+
+    /**
+     * Creates a {@link Segment} for the specified node if it represents a single node, a {@link ChainSegment} if it
+     * represents a chain of nodes, or a {@link ClusterSegment} if it represents a coarsened region of nodes.
+     *
+     * @param level   a level of the {@link GraphHierarchy}
+     * @param levelId a node id, as given by the graph at the given level
+     * @return a {@link Node} for the specified node
+     */
+    Node createNode(final int level, final int levelId) {
+        final int memberCount = hierarchy.getMemberCount(level, levelId);
+        if (memberCount == 1) {
+            return createSegment(hierarchy.getFirstMember(level, levelId));
+        }
+        if (level == LevelQuery.CHAIN_LEVEL) {
+            final List<Segment> segments = createMemberSegments(level, levelId, memberCount);
+            final Node node = new ChainSegment(segments);
+            node.setXPosition(segments.get(0).getXPosition());
+            return node;
+        }
+        return createClusterSegment(level, levelId, memberCount);
+    }
+
+
+    /**
+     * Creates a {@link ClusterSegment} for the specified node, whose segments are only created once they are
+     * requested.
+     *
+     * @param level       a level of the {@link GraphHierarchy}
+     * @param levelId     a node id, as given by the graph at the given level
+     * @param memberCount the number of nodes in the {@link Graph} that the node represents
+     * @return a {@link ClusterSegment} for the specified node
+     */
+    private ClusterSegment createClusterSegment(final int level, final int levelId, final int memberCount) {
+        final Graph levelGraph = hierarchy.getGraph(level);
+        return new ClusterSegment(levelId, hierarchy.getFirstMember(level, levelId), memberCount,
+                levelGraph.getSequenceLength(levelId), (long) levelGraph.getUnscaledXPosition(levelId) * EDGE_WIDTH,
+                hierarchy.getEndXPosition(level, levelId),
+                nodeId -> nodeId >= 0 && nodeId < graph.getNodeCount() && hierarchy.getLevelId(level, nodeId) == levelId,
+                () -> createMemberSegments(level, levelId, memberCount));
+    }
+
+    /**
+     * Creates a {@link Segment} for each node in the {@link Graph} that the specified node represents.
+     *
+     * @param level       a level of the {@link GraphHierarchy}
+     * @param levelId     a node id, as given by the graph at the given level
+     * @param memberCount the number of nodes in the {@link Graph} that the node represents
+     * @return a {@link Segment} for each node in the {@link Graph} that the specified node represents
+     */
+    private List<Segment> createMemberSegments(final int level, final int levelId, final int memberCount) {
+        final List<Segment> segments = new ArrayList<>(memberCount);
+        hierarchy.visitMembers(level, levelId, nodeId -> segments.add(createSegment(nodeId)));
+        return segments;
+    }
+
+    /**
+     * Creates a {@link Segment} for the specified node.
+     *
+     * @param nodeId a node id, as given by the {@link Graph}
+     * @return a {@link Segment} for the specified node
+     */
+    private Segment createSegment(final int nodeId) {
+        final Segment segment = new Segment(nodeId, graph.getByteOffset(nodeId), graph.getSequenceLength(nodeId));
+        segment.setXPosition((long) graph.getUnscaledXPosition(nodeId) * EDGE_WIDTH);
+        return segment;
+    }
+}
@@ -0,0 +1,271 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+
+/**
+ * Builds the levels of a {@link GraphHierarchy} above level 0.
+ * <p>
+ * Level 1 is taken from the {@link ChainCompaction} of the graph. Each further level is either built by coarsening
+ * the previous level, or restored from its stored parent and children arrays.
+ */
+final class LevelBuilder {
+    /**
+     * The value of a node that has not been assigned a parent, partner or group.
+     */
+    static final int UNASSIGNED = -1;
+
+    private final Graph graph;
+
+
+    /**
+     * Constructs a new {@link LevelBuilder}.
+     *
+     * @param graph the {@link Graph} at level 0
+     */
+    LevelBuilder(final Graph graph) {
+        this.graph = graph;
+    }
+
+
+    /**
+     * Creates level 1 from the {@link ChainCompaction} of the graph.
+     *
+     * @return level 1
+     */
+    HierarchyLevel createChainLevel() {
+        final ChainCompaction compaction = graph.getChainCompaction();
+        final Graph compactedGraph = compaction.getCompactedGraph();
+        final int chainCount = compactedGraph.getNodeCount();
+
+        final int[] parentIds = new int[graph.getNodeCount()];
+        for (int id = 0; id < parentIds.length; id++) {
+            parentIds[id] = compaction.getCompactedId(id);
+        }
+
+        final int[] childOffsets = new int[chainCount + 1];
+        final int[] children = new int[graph.getNodeCount()];
+        final int[] memberCounts = new int[chainCount];
+        for (int chain = 0; chain < chainCount; chain++) {
+            memberCounts[chain] = compaction.getMemberCount(chain);
+            childOffsets[chain + 1] = childOffsets[chain] + memberCounts[chain];
+            for (int member = 0; member < memberCounts[chain]; member++) {
+                children[childOffsets[chain] + member] = compaction.getMember(chain, member);
+            }
+        }
+
+        final long[] endXPositions = computeEndXPositions(graph::getRealEndXPosition, childOffsets, children);
+        return new HierarchyLevel(compactedGraph, parentIds, childOffsets, children, memberCounts, endXPositions);
+    }
+
+    /**
+     * Builds the next level from the given level by merging the given groups of nodes and contracting an
+     * {@link EdgeMatching} of the edges between the other nodes.
+     *
+     * @param previous the level to coarsen
+     * @param groups   the group of each node of the given level, or {@value #UNASSIGNED} for nodes that are not
+     *                 grouped, or an empty array if no nodes are grouped
+     * @return the next level
+     */
+    HierarchyLevel coarsen(final HierarchyLevel previous, final int[] groups) {
+        final Graph previousGraph = previous.getGraph();
+        final TopologicalOrder order = new TopologicalSorter(previousGraph).sort();
+        final int[] nodesByRank = order.getNodesByRank();
+        final EdgeMatching matching = new EdgeMatching(previousGraph, order, nodesByRank, groups);
+
+        final int[] parentIds = assignParents(previousGraph.getNodeCount(), nodesByRank, groups, matching);
+        final int[] childOffsets = computeChildOffsets(parentIds, parentIds[parentIds.length - 1] + 1);
+        final int[] children = new int[parentIds.length];
+        final int[] childrenAdded = new int[childOffsets.length - 1];
+        for (final int node : nodesByRank) {
+            final int parentId = parentIds[node];
+            children[childOffsets[parentId] + childrenAdded[parentId]] = node;
+            childrenAdded[parentId]++;
+        }
+
+        return createLevel(previous, parentIds, childOffsets, children);
+    }
+
+    /**
+     * Restores the next level from the given level and the parent and children arrays of the next level.
+     *
+     * @param previous  the level below the level to restore
+     * @param parentIds the id at the next level of each node at the given level
+     * @param children  the ids of the nodes at the given level, grouped by the node at the next level that contains
+     *                  them
+     * @return the next level
+     * @throws IllegalArgumentException if the arrays do not describe a level above the given level
+     */
+    HierarchyLevel restore(final HierarchyLevel previous, final int[] parentIds, final int[] children) {
+        final int previousCount = previous.getGraph().getNodeCount();
+        if (parentIds.length != previousCount || children.length != previousCount) {
+            throw new IllegalArgumentException("Each of the " + previousCount + " nodes must have a parent and be a"
+                    + " child.");
+        }
+
+        final int[] childOffsets = computeChildOffsets(parentIds, countParents(parentIds));
+        checkChildren(parentIds, childOffsets, children);
+        return createLevel(previous, parentIds, childOffsets, children);
+    }
+
+
+    /**
+     * Assigns each node of a level to a node of the next level.
+     * <p>
+     * Nodes are numbered in topological order, with the sentinels first and last. Each group and each pair of matched
+     * nodes shares a node.
+     *
+     * @param previousCount the number of nodes of the level
+     * @param nodesByRank   the ids of the nodes of the level in topological order
+     * @param groups        the group of each node, or {@value #UNASSIGNED} for nodes that are not grouped, or an
+     *                      empty array if no nodes are grouped
+     * @param matching      the {@link EdgeMatching} of the level
+     * @return the id at the next level of each node of the level
+     */
+    private static int[] assignParents(final int previousCount, final int[] nodesByRank, final int[] groups,
+                                       final EdgeMatching matching) {
+        final int[] parentIds = new int[previousCount];
+        final int[] groupIds = new int[groups.length];
+        Arrays.fill(parentIds, UNASSIGNED);
+        Arrays.fill(groupIds, UNASSIGNED);
+
+        parentIds[0] = 0;
+        int nodeCount = 1;
+        for (final int node : nodesByRank) {
+            if (parentIds[node] != UNASSIGNED || node == previousCount - 1) {
+                continue;
+            }
+
+            if (EdgeMatching.isGrouped(groups, node)) {
+                final int group = groups[node];
+                if (groupIds[group] == UNASSIGNED) {
+                    groupIds[group] = nodeCount;
+                    nodeCount++;
+                }
+                parentIds[node] = groupIds[group];
+            } else {
+                parentIds[node] = nodeCount;
+                final int partner = matching.getPartner(node);
+                if (partner != UNASSIGNED) {
+                    parentIds[partner] = nodeCount;
+                }
+                nodeCount++;
+            }
+        }
+        parentIds[previousCount - 1] = nodeCount;
+
+        return parentIds;
+    }
+
+    /**
+     * Counts the nodes of the next level that the given parent ids refer to.
+     *
+     * @param parentIds the id at the next level of each node at a level
+     * @return the number of nodes of the next level
+     * @throws IllegalArgumentException if a parent id is out of bounds
+     */
+    private static int countParents(final int[] parentIds) {
+        int nodeCount = 0;
+        for (final int parentId : parentIds) {
+            if (parentId < 0 || parentId >= parentIds.length) {
+                throw new IllegalArgumentException("Parent id " + parentId + " is out of bounds.");
+            }
+            nodeCount = Math.max(nodeCount, parentId + 1);
+        }
+        return nodeCount;
+    }
+
+    /**
+     * Computes the index in the children of the first child of each node of a level.
+     *
+     * @param parentIds the id at the level of each node at the previous level
+     * @param nodeCount the number of nodes of the level
+     * @return the index in the children of the first child of each node, followed by the total number of children
+     * @throws IllegalArgumentException if a node of the level has no children
+     */
+    private static int[] computeChildOffsets(final int[] parentIds, final int nodeCount) {
+        final int[] childCounts = new int[nodeCount];
+        for (final int parentId : parentIds) {
+            childCounts[parentId]++;
+        }
+
+        final int[] childOffsets = new int[nodeCount + 1];
+        int offset = 0;
+        for (int id = 0; id < nodeCount; id++) {
+            final int childCount = childCounts[id];
+            if (childCount == 0) {
+                throw new IllegalArgumentException("Node " + id + " has no children.");
+            }
+            offset += childCount;
+            childOffsets[id + 1] = offset;
+        }
+        return childOffsets;
+    }
+
+    /**
+     * Checks that each node at the previous level is a child of exactly the node that is its parent.
+     *
+     * @param parentIds    the id at the level of each node at the previous level
+     * @param childOffsets the index in the children of the first child of each node at the level
+     * @param children     the ids of the nodes at the previous level, grouped by the node that contains them
+     * @throws IllegalArgumentException if a node at the previous level is not a child of exactly its parent
+     */
+    private static void checkChildren(final int[] parentIds, final int[] childOffsets, final int[] children) {
+        final boolean[] seen = new boolean[parentIds.length];
+        for (int id = 0; id < childOffsets.length - 1; id++) {
+            for (int child = childOffsets[id]; child < childOffsets[id + 1]; child++) {
+                final int node = children[child];
+                if (node < 0 || node >= parentIds.length || seen[node] || parentIds[node] != id) {
+                    throw new IllegalArgumentException("Node " + node + " is not a child of exactly node " + id + ".");
+                }
+                seen[node] = true;
+            }
+        }
+    }
+
+    /**
+     * Creates the level above the given level with the given parent and children arrays.
+     *
+     * @param previous     the level below the level to create
+     * @param parentIds    the id at the new level of each node at the given level
+     * @param childOffsets the index in the children of the first child of each node at the new level
+     * @param children     the ids of the nodes at the given level, grouped by the node that contains them
+     * @return the level above the given level
+     */
+    private HierarchyLevel createLevel(final HierarchyLevel previous, final int[] parentIds, final int[] childOffsets,
+                                       final int[] children) {
+        final int[] memberCounts = new int[childOffsets.length - 1];
+        for (int id = 0; id < memberCounts.length; id++) {
+            for (int child = childOffsets[id]; child < childOffsets[id + 1]; child++) {
+                memberCounts[id] += previous.getMemberCount(children[child]);
+            }
+        }
+
+        final Graph coarseGraph = new LevelGraphBuilder(previous.getGraph(), parentIds, childOffsets, children)
+                .build(graph.getGfaFile());
+        final long[] endXPositions = computeEndXPositions(previous::getEndXPosition, childOffsets, children);
+        return new HierarchyLevel(coarseGraph, parentIds, childOffsets, children, memberCounts, endXPositions);
+    }
+
+    /**
+     * Computes the rightmost position occupied by the members of each node of a level.
+     *
+     * @param previousEnds the rightmost position occupied by the members of each node at the previous level
+     * @param childOffsets the index in the children of the first child of each node at the level
+     * @param children     the ids of the nodes at the previous level, grouped by the node that contains them
+     * @return the rightmost position occupied by the members of each node of the level
+     */
+    private static long[] computeEndXPositions(final IntToLongFunction previousEnds, final int[] childOffsets,
+                                               final int[] children) {
+        final long[] endXPositions = new long[childOffsets.length - 1];
+        for (int id = 0; id < endXPositions.length; id++) {
+            long endXPosition = Long.MIN_VALUE;
+            for (int child = childOffsets[id]; child < childOffsets[id + 1]; child++) {
+                endXPosition = Math.max(endXPosition, previousEnds.applyAsLong(children[child]));
+            }
+            endXPositions[id] = endXPosition;
+        }
+        return endXPositions;
+    }
+}
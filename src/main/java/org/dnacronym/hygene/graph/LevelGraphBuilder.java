@@ -0,0 +1,126 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.parser.GfaFile;
+
+import java.util.Arrays;
+
+
+/**
+ * Builds the {@link Graph} of a level of a {@link GraphHierarchy} from the graph of the previous level.
+ * <p>
+ * Each node has the byte offset of its first node at the previous level, the total sequence length and the leftmost
+ * position of its nodes at the previous level. Edges between merged nodes are dropped, and parallel edges are merged.
+ */
+final class LevelGraphBuilder {
+    private final Graph previousGraph;
+    private final int[] parentIds;
+    private final int[] childOffsets;
+    private final int[] children;
+    /**
+     * The last node from which an edge to each node has been found, so that parallel edges are only added once.
+     */
+    private final int[] lastSources;
+
+
+    /**
+     * Constructs a new {@link LevelGraphBuilder}.
+     *
+     * @param previousGraph the {@link Graph} of the previous level
+     * @param parentIds     the id in the new graph of each node of the previous graph
+     * @param childOffsets  the index in the children of the first child of each node in the new graph
+     * @param children      the ids of the nodes of the previous graph, grouped by the node that contains them
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // The arrays are only read
+    LevelGraphBuilder(final Graph previousGraph, final int[] parentIds, final int[] childOffsets,
+                      final int[] children) {
+        this.previousGraph = previousGraph;
+        this.parentIds = parentIds;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.lastSources = new int[childOffsets.length - 1];
+    }
+
+
+    /**
+     * Builds the {@link Graph} of the level.
+     *
+     * @param gfaFile the {@link GfaFile} the graph belongs to
+     * @return the {@link Graph} of the level
+     */
+    Graph build(final GfaFile gfaFile) {
+        final int nodeCount = childOffsets.length - 1;
+        final int[] outgoingEdgeCounts = new int[nodeCount];
+        final int[] incomingEdgeCounts = new int[nodeCount];
+        Arrays.fill(lastSources, LevelBuilder.UNASSIGNED);
+        for (int id = 0; id < nodeCount; id++) {
+            countEdges(id, outgoingEdgeCounts, incomingEdgeCounts);
+        }
+
+        final GraphBuilder builder = new GraphBuilder(outgoingEdgeCounts, incomingEdgeCounts);
+        final int[] unscaledXPositions = new int[nodeCount];
+        Arrays.fill(lastSources, LevelBuilder.UNASSIGNED);
+        for (int id = 0; id < nodeCount; id++) {
+            unscaledXPositions[id] = addNode(builder, id);
+        }
+
+        final Graph coarseGraph = builder.build(gfaFile);
+        for (int id = 0; id < nodeCount; id++) {
+            coarseGraph.setUnscaledXPosition(id, unscaledXPositions[id]);
+        }
+        return coarseGraph;
+    }
+
+
+    /**
+     * Counts the distinct outgoing edges of the given node to other nodes.
+     *
+     * @param id                 the id of a node in the new graph
+     * @param outgoingEdgeCounts the number of outgoing edges of each node, which is updated
+     * @param incomingEdgeCounts the number of incoming edges of each node, which is updated
+     */
+    private void countEdges(final int id, final int[] outgoingEdgeCounts, final int[] incomingEdgeCounts) {
+        for (int child = childOffsets[id]; child < childOffsets[id + 1]; child++) {
+            final int node = children[child];
+            final int edgeEnd = previousGraph.getEdgeEnd(node, SequenceDirection.RIGHT);
+            for (int edge = previousGraph.getEdgeStart(node, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+                final int neighbourId = parentIds[previousGraph.getNeighbour(edge)];
+                if (neighbourId != id && lastSources[neighbourId] != id) {
+                    lastSources[neighbourId] = id;
+                    outgoingEdgeCounts[id]++;
+                    incomingEdgeCounts[neighbourId]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the given node and its distinct outgoing edges to other nodes to the builder.
+     *
+     * @param builder the {@link GraphBuilder} of the new graph
+     * @param id      the id of a node in the new graph
+     * @return the leftmost unscaled x position of the nodes of the previous graph that the node contains
+     */
+    private int addNode(final GraphBuilder builder, final int id) {
+        long sequenceLength = 0;
+        int unscaledXPosition = Integer.MAX_VALUE;
+        for (int child = childOffsets[id]; child < childOffsets[id + 1]; child++) {
+            final int node = children[child];
+            sequenceLength += previousGraph.getSequenceLength(node);
+            unscaledXPosition = Math.min(unscaledXPosition, previousGraph.getUnscaledXPosition(node));
+
+            final int edgeStart = previousGraph.getEdgeStart(node, SequenceDirection.RIGHT);
+            final int edgeEnd = previousGraph.getEdgeEnd(node, SequenceDirection.RIGHT);
+            for (int edge = edgeStart; edge < edgeEnd; edge++) {
+                final int neighbourId = parentIds[previousGraph.getNeighbour(edge)];
+                if (neighbourId != id && lastSources[neighbourId] != id) {
+                    lastSources[neighbourId] = id;
+                    builder.addEdge(id, neighbourId, previousGraph.getEdgeByteOffset(node, edge - edgeStart));
+                }
+            }
+        }
+
+        builder.setSegment(id, previousGraph.getByteOffset(children[childOffsets[id]]),
+                (int) Math.min(Integer.MAX_VALUE, sequenceLength));
+        return unscaledXPosition;
+    }
+}
@@ -0,0 +1,237 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.edge.SimpleEdge;
+import org.dnacronym.hygene.graph.node.GfaNode;
+
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Fills a {@link Subgraph} with the nodes of a single level of the {@link GraphHierarchy} of a {@link Graph}, and
+ * with the edges between them.
+ * <p>
+ * Nodes are selected either by their distance to a centre node, in hops or in base pairs, or by the horizontal range
+ * they occupy, in which case the level is chosen such that the range is expected to contain a bounded number of nodes.
+ * The first and last node of each level are sentinels, and are never added.
+ *
+ * @see CenterPointQuery
+ */
+final class LevelQuery {
+    /**
+     * The level of the {@link GraphHierarchy} that contains the {@link ChainCompaction} of the {@link Graph}.
+     */
+    static final int CHAIN_LEVEL = 1;
+
+    private final GraphHierarchy hierarchy;
+    private final HierarchySegmentFactory segmentFactory;
+    private final Subgraph subgraph;
+
+    /**
+     * The level of the {@link GraphHierarchy} that is traversed.
+     */
+    private int level;
+    /**
+     * The {@link Graph} that is traversed, which is the graph at the current level of the hierarchy.
+     */
+    private Graph levelGraph;
+    /**
+     * The iterator with which to iterate over the traversed {@link Graph}.
+     */
+    private GraphIterator iterator;
+
+
+    /**
+     * Constructs a new {@link LevelQuery}, which starts at the chain level of the hierarchy.
+     *
+     * @param graph    the {@link Graph} at the base of the hierarchy
+     * @param subgraph the {@link Subgraph} to add nodes to
+     */
+    LevelQuery(final Graph graph, final Subgraph subgraph) {
+        this.hierarchy = graph.getHierarchy();
+        this.segmentFactory = new HierarchySegmentFactory(graph);
+        this.subgraph = subgraph;
+        this.level = CHAIN_LEVEL;
+        this.levelGraph = hierarchy.getGraph(level);
+        this.iterator = new GraphIterator(levelGraph);
+    }
+
+
+    /**
+     * Returns the level of the {@link GraphHierarchy} that is currently traversed.
+     *
+     * @return the level of the {@link GraphHierarchy} that is currently traversed
+     */
+    int getLevel() {
+        return level;
+    }
+
+    /**
+     * Switches the traversed {@link Graph} to the given level of the {@link GraphHierarchy}.
+     *
+     * @param newLevel a level of the {@link GraphHierarchy}
+     * @return {@code true} iff. the traversed level changed, in which case node ids of the previous level are no
+     * longer valid
+     */
+    boolean useLevel(final int newLevel) {
+        if (newLevel == level) {
+            return false;
+        }
+
+        this.level = newLevel;
+        this.levelGraph = hierarchy.getGraph(newLevel);
+        this.iterator = new GraphIterator(levelGraph);
+        return true;
+    }
+
+    /**
+     * Returns the level of the {@link GraphHierarchy} that a query over the given range should traverse.
+     * <p>
+     * This is the finest level, but no finer than the given base level, at which the range is expected to contain at
+     * most {@value CenterPointQuery#MAX_RANGE_NODE_COUNT} nodes.
+     *
+     * @param minX      the leftmost position of the range, inclusive
+     * @param maxX      the rightmost position of the range, inclusive
+     * @param baseLevel the finest level that may be traversed
+     * @return the level of the {@link GraphHierarchy} that a query over the given range should traverse
+     */
+    int getRangeLevel(final long minX, final long maxX, final int baseLevel) {
+        return Math.max(baseLevel, hierarchy.getLevel(maxX - minX, CenterPointQuery.MAX_RANGE_NODE_COUNT));
+    }
+
+    /**
+     * Returns the id in the traversed graph of the node with the given id in the queried graph.
+     *
+     * @param nodeId a node id, as given by the queried {@link Graph}
+     * @return the id in the traversed graph of the node with the given id in the queried graph
+     */
+    int toLevelId(final int nodeId) {
+        return hierarchy.getLevelId(level, nodeId);
+    }
+
+    /**
+     * Adds the nodes that are at most the given number of hops away from the centre, and records their distances.
+     *
+     * @param centre      a node id, as given by the traversed {@link Graph}
+     * @param radius      the maximum number of hops
+     * @param distanceMap the map in which to record the distance of each added node
+     */
+    void addWithinHops(final int centre, final int radius, final NodeDistanceMap distanceMap) {
+        final int sink = levelGraph.getNodeCount() - 1;
+        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, levelId) -> {
+            if (levelId != 0 && levelId != sink) {
+                distanceMap.setDistance(levelId, depth);
+                addNode(levelId);
+            }
+        });
+        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, levelId) -> addEdges(levelId));
+    }
+
+    /**
+     * Adds the nodes that are separated from the centre by at most the given number of base pairs, as visited by
+     * {@link GraphIterator#visitIndirectNeighboursWithinDistance(int, int, org.dnacronym.hygene.core.IntBiConsumer)}.
+     *
+     * @param centre a node id, as given by the traversed {@link Graph}
+     * @param radius the maximum number of base pairs
+     */
+    void addWithinBasePairs(final int centre, final int radius) {
+        final int sink = levelGraph.getNodeCount() - 1;
+        final GrowableIntArray levelIds = new GrowableIntArray();
+        iterator.visitIndirectNeighboursWithinDistance(centre, radius, (distance, levelId) -> {
+            if (levelId != 0 && levelId != sink) {
+                addNode(levelId);
+                levelIds.add(levelId);
+            }
+        });
+        addEdges(levelIds);
+    }
+
+    /**
+     * Adds the nodes that intersect the given horizontal range, and the nodes at the ends of the edges that cross it,
+     * by visiting the {@link NodeIntervalIndex} of the traversed level.
+     *
+     * @param minX the leftmost position of the range, inclusive
+     * @param maxX the rightmost position of the range, inclusive
+     */
+    void addRange(final long minX, final long maxX) {
+        final int sink = levelGraph.getNodeCount() - 1;
+        final GrowableIntArray levelIds = new GrowableIntArray();
+        final IntConsumer addNode = levelId -> {
+            if (levelId != 0 && levelId != sink
+                    && !subgraph.containsSegment(hierarchy.getFirstMember(level, levelId))) {
+                addNode(levelId);
+                levelIds.add(levelId);
+            }
+        };
+
+        final NodeIntervalIndex intervals = hierarchy.getNodeIntervals(level);
+        intervals.visitNodes(minX, maxX, addNode);
+        intervals.visitEdges(minX, maxX, (left, right) -> {
+            addNode.accept(left);
+            addNode.accept(right);
+        });
+        addEdges(levelIds);
+    }
+
+    /**
+     * Records the given distance for the direct neighbours of each of the specified nodes, and adds the edges from the
+     * specified nodes.
+     *
+     * @param levelIds    node ids, as given by the traversed {@link Graph}
+     * @param distance    the distance to record for the neighbours
+     * @param distanceMap the map in which to record the distances
+     */
+    void addNeighbours(final int[] levelIds, final int distance, final NodeDistanceMap distanceMap) {
+        for (final int levelId : levelIds) {
+            iterator.visitDirectNeighbours(levelId, neighbour -> distanceMap.setDistance(neighbour, distance));
+            addEdges(levelId);
+        }
+    }
+
+    /**
+     * Adds all edges from the specified node to the corresponding {@link GfaNode} if both ends of the edge have been
+     * added.
+     *
+     * @param levelId a node id, as given by the traversed {@link Graph}
+     */
+    void addEdges(final int levelId) {
+        final Optional<GfaNode> node = subgraph.getGfaNode(hierarchy.getFirstMember(level, levelId));
+        if (!node.isPresent()) {
+            return;
+        }
+
+        iterator.visitDirectNeighbours(levelId, SequenceDirection.RIGHT, neighbourId -> {
+            final Optional<GfaNode> neighbour = subgraph.getGfaNode(hierarchy.getFirstMember(level, neighbourId));
+            if (!neighbour.isPresent()) {
+                return;
+            }
+
+            final Edge edge = new SimpleEdge(node.get(), neighbour.get());
+            node.get().getOutgoingEdges().add(edge);
+            neighbour.get().getIncomingEdges().add(edge);
+        });
+    }
+
+
+    /**
+     * Adds the {@link org.dnacronym.hygene.graph.node.Node} that represents the specified node.
+     *
+     * @param levelId a node id, as given by the traversed {@link Graph}
+     */
+    private void addNode(final int levelId) {
+        subgraph.add(segmentFactory.createNode(level, levelId));
+    }
+
+    /**
+     * Adds all edges from each of the specified nodes.
+     *
+     * @param levelIds node ids, as given by the traversed {@link Graph}
+     */
+    private void addEdges(final GrowableIntArray levelIds) {
+        for (int i = 0; i < levelIds.size(); i++) {
+            addEdges(levelIds.get(i));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+
+/**
+ * A set of node identifiers stored as a bitset over all nodes of a {@link Graph}.
+ * <p>
+ * The set remembers which of its words were written to, so that clearing it costs time proportional to the number
+ * of nodes that were added rather than to the size of the graph. This allows a single set to be reused for many small
+ * traversals of a large graph.
+ */
+final class NodeBitSet {
+    private final long[] words;
+    private final GrowableIntArray dirtyWords;
+
+
+    /**
+     * Constructs a new, empty {@link NodeBitSet}.
+     *
+     * @param nodeCount the number of nodes in the graph
+     */
+    NodeBitSet(final int nodeCount) {
+        this.words = new long[(nodeCount + Long.SIZE - 1) / Long.SIZE];
+        this.dirtyWords = new GrowableIntArray();
+    }
+
+
+    /**
+     * Returns {@code true} iff. the given node is in this set.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the given node is in this set
+     */
+    boolean contains(final int id) {
+        return (words[id / Long.SIZE] & 1L << id) != 0;
+    }
+
+    /**
+     * Adds the given node to this set.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the node was not yet in this set
+     */
+    boolean add(final int id) {
+        final int word = id / Long.SIZE;
+        final long mask = 1L << id;
+        if ((words[word] & mask) != 0) {
+            return false;
+        }
+
+        if (words[word] == 0) {
+            dirtyWords.add(word);
+        }
+        words[word] |= mask;
+        return true;
+    }
+
+    /**
+     * Removes all nodes from this set.
+     */
+    void clear() {
+        for (int i = 0; i < dirtyWords.size(); i++) {
+            words[dirtyWords.get(i)] = 0;
+        }
+        dirtyWords.clear();
+    }
+}
@@ -1,39 +1,69 @@
 package org.dnacronym.hygene.graph;
 
-import com.google.common.collect.SetMultimap;
-import com.google.common.collect.TreeMultimap;
-import org.checkerframework.checker.nullness.qual.KeyFor;
-import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.core.IntBiConsumer;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 /**
  * Stores the distance for each node, and the nodes for each distance.
  * <p>
- * Functions similar to a map, but does not extend the {@link Map} interface to allow for a more fine-tuned interface.
+ * Distances are stored per node id in arrays that are reused between queries. Each entry is stamped with the epoch in
+ * which it was written, and {@link #clear()} starts a new epoch instead of erasing the arrays. The nodes per distance
+ * are kept in primitive bucket lists. As a result, filling and clearing this map costs time proportional to the number
+ * of nodes that were touched, rather than to the size of the graph.
  */
 public final class NodeDistanceMap {
     /**
-     * The nodes per distance.
+     * The distance returned for nodes that are not in this map.
      */
-    private final SetMultimap<Integer, Integer> distanceNodes;
+    public static final int NO_DISTANCE = -1;
+
     /**
-     * The distance per node.
+     * The distance per node, valid only if the node's stamp equals {@link #epoch}.
+     */
+    private int[] distances;
+    /**
+     * The position of each node in the bucket of its distance, valid only if the node's stamp equals {@link #epoch}.
+     */
+    private int[] bucketPositions;
+    /**
+     * The epoch in which the distance of each node was last set.
+     */
+    private int[] stamps;
+    private int epoch;
+    /**
+     * The nodes per distance.
      */
-    private final Map<Integer, Integer> nodeDistances;
+    private final List<GrowableIntArray> buckets;
+    private int entryCount;
 
 
     /**
-     * Constructs a new {@link NodeDistanceMap}.
+     * Constructs a new {@link NodeDistanceMap} that grows as nodes are added.
      */
     public NodeDistanceMap() {
-        distanceNodes = TreeMultimap.create();
-        nodeDistances = new HashMap<>();
+        this(0);
+    }
+
+    /**
+     * Constructs a new {@link NodeDistanceMap} with room for the given number of nodes.
+     *
+     * @param nodeCount the number of nodes in the graph
+     */
+    public NodeDistanceMap(final int nodeCount) {
+        if (nodeCount < 0) {
+            throw new IllegalArgumentException("Node count cannot be negative.");
+        }
+
+        this.distances = new int[nodeCount];
+        this.bucketPositions = new int[nodeCount];
+        this.stamps = new int[nodeCount];
+        this.epoch = 1;
+        this.buckets = new ArrayList<>();
     }
 
 
@@ -43,7 +73,7 @@ public final class NodeDistanceMap {
      * @return the number of nodes in this map
      */
     public int size() {
-        return nodeDistances.size();
+        return entryCount;
     }
 
     /**
@@ -61,18 +91,18 @@ public final class NodeDistanceMap {
      * @param node a node id
      * @return {@code true} iff. the node with the given id is in this map
      */
-    public boolean containsNode(final Integer node) {
-        return nodeDistances.containsKey(node);
+    public boolean containsNode(final int node) {
+        return node >= 0 && node < stamps.length && stamps[node] == epoch;
     }
 
     /**
      * Returns the distance of the given node.
      *
      * @param node a node id
-     * @return the distance of the given node, or {@code null} if the node is not in this map
+     * @return the distance of the given node, or {@link #NO_DISTANCE} if the node is not in this map
      */
-    public @Nullable Integer getDistance(final Integer node) {
-        return nodeDistances.get(node);
+    public int getDistance(final int node) {
+        return containsNode(node) ? distances[node] : NO_DISTANCE;
     }
 
     /**
@@ -81,80 +111,129 @@ public final class NodeDistanceMap {
      * If the node was registered to have another distance, the old distance pair will be removed.
      *
      * @param node     a node id
-     * @param distance a distance
-     * @return the previous distance of the given node, or {@code null} if there was none or the current distance is
-     * smaller
+     * @param distance a non-negative distance
+     * @return the previous distance of the given node, or {@link #NO_DISTANCE} if there was none or the current
+     * distance is smaller
      */
-    public @Nullable Integer setDistance(final Integer node, final Integer distance) {
-        final Integer oldDistance = getDistance(node);
-        if (oldDistance != null && oldDistance < distance) {
-            return null;
+    public int setDistance(final int node, final int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Distance cannot be negative.");
+        }
+
+        final int oldDistance = getDistance(node);
+        if (oldDistance != NO_DISTANCE && oldDistance < distance) {
+            return NO_DISTANCE;
         }
 
         removeNode(node);
-        distanceNodes.put(distance, node);
-        nodeDistances.put(node, distance);
+        ensureCapacity(node + 1);
+
+        final GrowableIntArray bucket = getBucket(distance);
+        distances[node] = distance;
+        bucketPositions[node] = bucket.size();
+        stamps[node] = epoch;
+        bucket.add(node);
+        entryCount++;
+
         return oldDistance;
     }
 
     /**
-     * Returns a {@link Set} of all nodes with a given distance.
+     * Returns the ids of all nodes with a given distance.
      *
      * @param distance a distance
-     * @return a {@link Set} of all nodes with a given distance
+     * @return the ids of all nodes with a given distance
      */
-    public Set<Integer> getNodes(final Integer distance) {
-        return Collections.unmodifiableSet(distanceNodes.get(distance));
+    public int[] getNodes(final int distance) {
+        if (distance < 0 || distance >= buckets.size()) {
+            return new int[0];
+        }
+
+        return buckets.get(distance).toArray();
     }
 
     /**
      * Removes the given node from this map.
      *
      * @param node a node id
-     * @return the distance of the given node, or {@code null} if the node was not in this map
+     * @return the distance of the given node, or {@link #NO_DISTANCE} if the node was not in this map
      */
-    public @Nullable Integer removeNode(final Integer node) {
-        final Integer distance = getDistance(node);
-        if (distance == null) {
-            return null;
+    public int removeNode(final int node) {
+        final int distance = getDistance(node);
+        if (distance == NO_DISTANCE) {
+            return NO_DISTANCE;
+        }
+
+        final GrowableIntArray bucket = buckets.get(distance);
+        final int lastNode = bucket.removeLast();
+        if (lastNode != node) {
+            bucket.set(bucketPositions[node], lastNode);
+            bucketPositions[lastNode] = bucketPositions[node];
         }
 
-        return distanceNodes.remove(distance, node) && nodeDistances.remove(node, distance) ? distance : null;
+        stamps[node] = 0;
+        entryCount--;
+        return distance;
     }
 
     /**
      * Removes all node-distance pairs from this map.
+     * <p>
+     * This takes time proportional to the number of distinct distances, regardless of the number of nodes.
      */
     public void clear() {
-        distanceNodes.clear();
-        nodeDistances.clear();
-    }
+        buckets.forEach(GrowableIntArray::clear);
+        entryCount = 0;
 
+        epoch++;
+        if (epoch == 0) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
 
     /**
-     * Returns a {@link Set} of the node ids present in this map.
+     * Performs the given action for each node-distance pair in this map, in order of increasing distance.
      *
-     * @return a {@link Set} of the node ids present in this map
+     * @param action the action to perform on each node id and its distance
      */
-    public Set<@KeyFor("this.nodeDistances") Integer> keySet() {
-        return nodeDistances.keySet();
+    public void forEach(final IntBiConsumer action) {
+        for (int distance = 0; distance < buckets.size(); distance++) {
+            final GrowableIntArray bucket = buckets.get(distance);
+            for (int i = 0; i < bucket.size(); i++) {
+                action.accept(bucket.get(i), distance);
+            }
+        }
     }
 
+
     /**
-     * Returns a {@link Collection} of the distances present in this map.
+     * Returns the bucket of nodes with the given distance, creating it and all smaller buckets if necessary.
      *
-     * @return a {@link Collection} of the distances present in this map
+     * @param distance a non-negative distance
+     * @return the bucket of nodes with the given distance
      */
-    public Collection<Integer> values() {
-        return nodeDistances.values();
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Buckets are created once and reused afterwards
+    private GrowableIntArray getBucket(final int distance) {
+        while (buckets.size() <= distance) {
+            buckets.add(new GrowableIntArray());
+        }
+        return buckets.get(distance);
     }
 
     /**
-     * Returns a {@link Set} of the node-distance entries in this map.
+     * Grows the arrays so that they can hold at least the given number of nodes.
      *
-     * @return a {@link Set} of the node-distance entries in this map
+     * @param nodeCount the number of nodes the arrays should be able to hold
      */
-    public Set<Map.Entry<@KeyFor("this.nodeDistances") Integer, Integer>> entrySet() {
-        return nodeDistances.entrySet();
+    private void ensureCapacity(final int nodeCount) {
+        if (nodeCount <= stamps.length) {
+            return;
+        }
+
+        final int newLength = Math.max(nodeCount, stamps.length + (stamps.length >> 1));
+        distances = Arrays.copyOf(distances, newLength);
+        bucketPositions = Arrays.copyOf(bucketPositions, newLength);
+        stamps = Arrays.copyOf(stamps, newLength);
     }
 }
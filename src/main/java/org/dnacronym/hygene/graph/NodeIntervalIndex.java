@@ -0,0 +1,287 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.IntBiConsumer;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+
+/**
+ * An index of the nodes and edges of a {@link Graph} by the horizontal range they occupy.
+ * <p>
+ * A node occupies the range from its {@link Graph#getRealStartXPosition(int) start} to its
+ * {@link Graph#getRealEndXPosition(int) end}, and an edge the range from the end of its left node to the start of its
+ * right node. Each node is stored together with its reach: the rightmost position occupied by the node or one of its
+ * outgoing edges. The nodes are sorted by start position and form an implicit binary search tree, in which the node at
+ * index {@code i} has level {@code k} if {@code i} ends with exactly {@code k} one bits. Each node of the tree stores
+ * the greatest reach in its subtree, so that subtrees that end before a queried range can be skipped. A query
+ * therefore takes logarithmic time plus time proportional to the number of nodes that are reported.
+ * <p>
+ * The index reflects the horizontal positions at the time of its construction. A node may be given an end other than
+ * the end of its own sequence, so that a node of a coarse level of a {@link GraphHierarchy} occupies the range of the
+ * nodes it represents.
+ */
+public final class NodeIntervalIndex {
+    /**
+     * The highest level of subtrees that are scanned linearly instead of being descended into.
+     */
+    private static final int SCAN_LEVEL = 3;
+
+    private final Graph graph;
+    private final IntToLongFunction endXPositions;
+    private final int[] nodeIds;
+    private final long[] starts;
+    private final long[] reaches;
+    /**
+     * The greatest reach in the subtree of each node of the implicit tree.
+     */
+    private final long[] maxReaches;
+    private final int rootLevel;
+
+
+    /**
+     * Constructs a new {@link NodeIntervalIndex} over all nodes in the given {@link Graph}.
+     *
+     * @param graph the {@link Graph} whose nodes to index
+     */
+    public NodeIntervalIndex(final Graph graph) {
+        this(graph, graph::getRealEndXPosition);
+    }
+
+    /**
+     * Constructs a new {@link NodeIntervalIndex} over all nodes in the given {@link Graph}, in which each node ends at
+     * the given position.
+     *
+     * @param graph         the {@link Graph} whose nodes to index
+     * @param endXPositions the rightmost position occupied by each node, by node id
+     */
+    NodeIntervalIndex(final Graph graph, final IntToLongFunction endXPositions) {
+        this.graph = graph;
+        this.endXPositions = endXPositions;
+
+        final int nodeCount = graph.getNodeCount();
+        this.nodeIds = sortByStart(graph);
+        this.starts = new long[nodeCount];
+        this.reaches = new long[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            starts[i] = graph.getRealStartXPosition(nodeIds[i]);
+            reaches[i] = computeReach(nodeIds[i]);
+        }
+
+        // The leaves keep their own reach, and every other node is overwritten with the reach of its subtree
+        this.maxReaches = Arrays.copyOf(reaches, nodeCount);
+        this.rootLevel = computeMaxReaches();
+    }
+
+
+    /**
+     * Returns the number of nodes in the index.
+     *
+     * @return the number of nodes in the index
+     */
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /**
+     * Visits each node that intersects the given horizontal range.
+     * <p>
+     * Nodes are visited in order of start position.
+     *
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the id of each node in the range
+     */
+    public void visitNodes(final long minX, final long maxX, final IntConsumer action) {
+        visitReaching(minX, maxX, index -> {
+            final int nodeId = nodeIds[index];
+            if (endXPositions.applyAsLong(nodeId) >= minX) {
+                action.accept(nodeId);
+            }
+        });
+    }
+
+    /**
+     * Visits each edge that intersects the given horizontal range, including edges that cross the range without
+     * either of their nodes being in it.
+     * <p>
+     * Edges are visited in order of the start position of their left node.
+     *
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the ids of the left and right node of each edge in the range
+     */
+    public void visitEdges(final long minX, final long maxX, final IntBiConsumer action) {
+        visitReaching(minX, maxX, index -> {
+            final int nodeId = nodeIds[index];
+            final long end = endXPositions.applyAsLong(nodeId);
+            if (end > maxX) {
+                return;
+            }
+
+            final int edgeEnd = graph.getEdgeEnd(nodeId, SequenceDirection.RIGHT);
+            for (int edge = graph.getEdgeStart(nodeId, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+                final int neighbour = graph.getNeighbour(edge);
+                if (graph.getRealStartXPosition(neighbour) >= minX) {
+                    action.accept(nodeId, neighbour);
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Visits the index of each node that starts at or before the end of the given range and whose reach is at or after
+     * the start of the given range.
+     *
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the index of each node
+     */
+    private void visitReaching(final long minX, final long maxX, final IntConsumer action) {
+        if (nodeIds.length == 0 || minX > maxX) {
+            return;
+        }
+
+        visitSubtree((1 << rootLevel) - 1, rootLevel, minX, maxX, action);
+    }
+
+    /**
+     * Visits the index of each node in the given subtree that starts at or before the end of the given range and
+     * whose reach is at or after the start of the given range.
+     * <p>
+     * Small subtrees are scanned linearly. The recursion depth is bounded by the height of the tree, which is at most
+     * {@value Integer#SIZE}.
+     *
+     * @param root   the index of the root of the subtree
+     * @param level  the level of the root of the subtree
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the index of each node
+     */
+    private void visitSubtree(final int root, final int level, final long minX, final long maxX,
+                              final IntConsumer action) {
+        if (level <= SCAN_LEVEL) {
+            final int first = root >> level << level;
+            final int last = Math.min(first + (1 << (level + 1)) - 1, nodeIds.length);
+            for (int index = first; index < last && starts[index] <= maxX; index++) {
+                if (reaches[index] >= minX) {
+                    action.accept(index);
+                }
+            }
+            return;
+        }
+
+        visitLeftSubtree(root, level, minX, maxX, action);
+        visitRootAndRightSubtree(root, level, minX, maxX, action);
+    }
+
+    /**
+     * Visits the left subtree of the given subtree, unless no node in it reaches the start of the range.
+     *
+     * @param root   the index of the root of the subtree
+     * @param level  the level of the root of the subtree
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the index of each node
+     */
+    private void visitLeftSubtree(final int root, final int level, final long minX, final long maxX,
+                                  final IntConsumer action) {
+        final int left = root - (1 << (level - 1));
+        if (left >= nodeIds.length || maxReaches[left] >= minX) {
+            visitSubtree(left, level - 1, minX, maxX, action);
+        }
+    }
+
+    /**
+     * Visits the root and the right subtree of the given subtree, unless the root starts after the end of the range.
+     *
+     * @param root   the index of the root of the subtree
+     * @param level  the level of the root of the subtree
+     * @param minX   the leftmost position of the range, inclusive
+     * @param maxX   the rightmost position of the range, inclusive
+     * @param action the function to apply to the index of each node
+     */
+    private void visitRootAndRightSubtree(final int root, final int level, final long minX, final long maxX,
+                                          final IntConsumer action) {
+        if (root >= nodeIds.length || starts[root] > maxX) {
+            return;
+        }
+
+        if (reaches[root] >= minX) {
+            action.accept(root);
+        }
+        visitSubtree(root + (1 << (level - 1)), level - 1, minX, maxX, action);
+    }
+
+    /**
+     * Computes the greatest reach in the subtree of each node of the implicit tree.
+     * <p>
+     * Subtrees on the right edge of the tree may extend beyond the last node, in which case only the nodes that exist
+     * are taken into account.
+     *
+     * @return the level of the root of the tree
+     */
+    private int computeMaxReaches() {
+        final int nodeCount = nodeIds.length;
+
+        int level = 1;
+        for (; nodeCount >> level > 0; level++) {
+            final int childOffset = 1 << (level - 1);
+            for (int index = (1 << level) - 1; index < nodeCount; index += 1 << (level + 1)) {
+                long maxReach = Math.max(reaches[index], maxReaches[index - childOffset]);
+                if (index + childOffset < nodeCount) {
+                    maxReach = Math.max(maxReach, maxReaches[index + childOffset]);
+                } else {
+                    for (int right = index + 1; right < nodeCount; right++) {
+                        maxReach = Math.max(maxReach, reaches[right]);
+                    }
+                }
+                maxReaches[index] = maxReach;
+            }
+        }
+
+        return level - 1;
+    }
+
+    /**
+     * Returns the rightmost position occupied by the given node or one of its outgoing edges.
+     *
+     * @param nodeId the id of a node
+     * @return the rightmost position occupied by the given node or one of its outgoing edges
+     */
+    private long computeReach(final int nodeId) {
+        long reach = endXPositions.applyAsLong(nodeId);
+
+        final int edgeEnd = graph.getEdgeEnd(nodeId, SequenceDirection.RIGHT);
+        for (int edge = graph.getEdgeStart(nodeId, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+            reach = Math.max(reach, graph.getRealStartXPosition(graph.getNeighbour(edge)));
+        }
+
+        return reach;
+    }
+
+    /**
+     * Returns the ids of the nodes in the given {@link Graph} sorted by start position.
+     * <p>
+     * As start positions are multiples of the layer width, each node is encoded as its unscaled position in the upper
+     * half of a {@code long} and its id in the lower half, so that the nodes can be sorted as primitives.
+     *
+     * @param graph a {@link Graph}
+     * @return the ids of the nodes in the given {@link Graph} sorted by start position
+     */
+    private static int[] sortByStart(final Graph graph) {
+        final long[] keys = new long[graph.getNodeCount()];
+        for (int id = 0; id < keys.length; id++) {
+            keys[id] = (long) graph.getUnscaledXPosition(id) << Integer.SIZE | id;
+        }
+        Arrays.sort(keys);
+
+        final int[] nodeIds = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            nodeIds[i] = (int) keys[i];
+        }
+        return nodeIds;
+    }
+}
@@ -0,0 +1,101 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+
+/**
+ * An index of nodes by horizontal position.
+ * <p>
+ * The index consists of two parallel arrays: the positions in ascending order, and the identifier of the node at each
+ * position. Lookups use binary search and do not allocate.
+ */
+public final class NodePositionIndex {
+    private final long[] positions;
+    private final int[] nodeIds;
+
+
+    /**
+     * Constructs a new {@link NodePositionIndex}.
+     *
+     * @param positions the positions in ascending order
+     * @param nodeIds   the identifier of the node at each position
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public NodePositionIndex(final long[] positions, final int[] nodeIds) {
+        if (positions.length != nodeIds.length) {
+            throw new IllegalArgumentException("Expected " + positions.length + " node identifiers, but got "
+                    + nodeIds.length + ".");
+        }
+
+        this.positions = positions;
+        this.nodeIds = nodeIds;
+    }
+
+
+    /**
+     * Returns the number of positions in the index.
+     *
+     * @return the number of positions in the index
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the positions in ascending order.
+     *
+     * @return the positions in ascending order
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public long[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Returns the identifier of the node at each position.
+     *
+     * @return the identifier of the node at each position
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Returns the node at the greatest position less than or equal to the given position, or the node at the least
+     * position if there is no such position.
+     *
+     * @param position a horizontal position
+     * @return the identifier of the node at or before the given position
+     */
+    public int getNodeAtPosition(final long position) {
+        if (positions.length == 0) {
+            throw new IllegalStateException("Could not find that kind of node.");
+        }
+
+        int low = 0;
+        int high = positions.length - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (positions[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return nodeIds[low];
+    }
+}
@@ -1,26 +1,27 @@
 package org.dnacronym.hygene.graph;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.core.IntQueue;
 import org.dnacronym.hygene.graph.edge.DummyEdge;
 import org.dnacronym.hygene.graph.edge.Edge;
-import org.dnacronym.hygene.graph.edge.SimpleEdge;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Segment;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 
 /**
  * Calculates genome paths and edge thickness.
+ * <p>
+ * The nodes of the subgraph are visited in the {@link TopologicalOrder} of the graph they belong to, so that no order
+ * has to be computed per subgraph. Only if that order does not sort the nodes of the subgraph topologically, which can
+ * happen for {@link ClusterSegment}s that are entered at a later rank than their first segment, is an order computed
+ * for the subgraph itself.
  */
 public final class PathCalculator {
     /**
@@ -29,149 +30,202 @@ public final class PathCalculator {
      * @param subgraph the {@link Subgraph} for which to compute the paths
      */
     public void computePaths(final Subgraph subgraph) {
-        final Multimap<GfaNode, Edge> incomingEdges = buildEdgeMap(subgraph, SequenceDirection.LEFT);
-        final Multimap<GfaNode, Edge> outgoingEdges = buildEdgeMap(subgraph, SequenceDirection.RIGHT);
+        final SubgraphAdjacency adjacency = buildAdjacency(subgraph);
 
-        final Map<GfaNode, Set<String>> genomeStore = new HashMap<>();
-
-        final List<GfaNode> topologicalOrder = computeTopologicalOrder(subgraph, genomeStore, incomingEdges,
-                outgoingEdges);
-
-        final Map<Edge, Set<String>> paths = topologicalPathGeneration(topologicalOrder, incomingEdges, genomeStore);
+        topologicalPathGeneration(adjacency, computeTopologicalOrder(adjacency));
+    }
 
-        addPathsToEdges(paths);
+    /**
+     * Computes the genomes in which each {@link Edge} in the given {@link Subgraph} is, using the
+     * {@link TopologicalOrder} of the graph the subgraph belongs to.
+     *
+     * @param subgraph the {@link Subgraph} for which to compute the paths
+     * @param order    the {@link TopologicalOrder} of the graph the subgraph belongs to
+     */
+    public void computePaths(final Subgraph subgraph, final TopologicalOrder order) {
+        final SubgraphAdjacency adjacency = buildAdjacency(subgraph);
+        final int[] topologicalOrder = sortByRank(adjacency, order);
+
+        if (isTopological(adjacency, topologicalOrder)) {
+            topologicalPathGeneration(adjacency, topologicalOrder);
+        } else {
+            topologicalPathGeneration(adjacency, computeTopologicalOrder(adjacency));
+        }
     }
 
     /**
-     * Builds a map of {@link Segment}s and their edges in the {@link Subgraph} for either the incoming or
-     * outgoing {@link Edge}s.
+     * Builds a snapshot of the {@link Segment}s in the {@link Subgraph} and their edges.
      * <p>
      * {@link DummyEdge}s will not be added but their original edge, for which they are a diversion, will be added.
      *
-     * @param subgraph          the {@link Subgraph}
-     * @param sequenceDirection the {@link SequenceDirection}
-     * @return map of {@link Edge}s for each {@link Segment}
+     * @param subgraph the {@link Subgraph}
+     * @return a snapshot of the {@link Segment}s in the {@link Subgraph} and their edges
      */
-    private Multimap<GfaNode, Edge> buildEdgeMap(final Subgraph subgraph,
-                                                 final SequenceDirection sequenceDirection) {
-        final Multimap<GfaNode, Edge> edgeMap = HashMultimap.create();
-
-        subgraph.getGfaNodes().forEach(segment -> {
-            final Set<Edge> edges = sequenceDirection.ternary(segment.getIncomingEdges(), segment.getOutgoingEdges());
-
-            edges.forEach(edge -> {
-                if (edge instanceof DummyEdge) {
-                    edgeMap.put(segment, ((DummyEdge) edge).getOriginalEdge());
-                } else {
-                    edgeMap.put(segment, edge);
-                }
-            });
-        });
-
-        return edgeMap;
+    private SubgraphAdjacency buildAdjacency(final Subgraph subgraph) {
+        return new SubgraphAdjacency(subgraph.getGfaNodes(),
+                edge -> edge instanceof DummyEdge ? ((DummyEdge) edge).getOriginalEdge() : edge);
     }
 
     /**
-     * Computes a topological ordering for iterating the given {@link Subgraph}.
+     * Sorts the nodes of the given {@link SubgraphAdjacency} by the rank of their first segment in the given
+     * {@link TopologicalOrder}.
      *
-     * @param subgraph      the {@link Subgraph}
-     * @param genomeStore   the genome store
-     * @param incomingEdges map of incoming {@link Edge}s for each {@link Segment}
-     * @param outgoingEdges map of outgoing {@link Edge}s for each {@link Segment}
-     * @return a topologically sorted list of the {@link Segment}s in the given {@link Subgraph}
+     * @param adjacency the {@link SubgraphAdjacency}
+     * @param order     the {@link TopologicalOrder} of the graph the nodes belong to
+     * @return the indices of the nodes in the given {@link SubgraphAdjacency}, sorted by rank
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    private List<GfaNode> computeTopologicalOrder(final Subgraph subgraph, final Map<GfaNode, Set<String>> genomeStore,
-                                                  final Multimap<GfaNode, Edge> incomingEdges,
-                                                  final Multimap<GfaNode, Edge> outgoingEdges) {
-        final Queue<Edge> toVisit = new LinkedList<>();
-
-        final GfaNode origin = new Segment(-1, -1, 0);
-        genomeStore.put(origin, new HashSet<>());
+    private int[] sortByRank(final SubgraphAdjacency adjacency, final TopologicalOrder order) {
+        final int nodeCount = adjacency.getNodeCount();
+        final long[] keys = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            final int rank = order.getRank(getFirstSegmentId((GfaNode) adjacency.getNode(node)));
+            keys[node] = (long) rank << Integer.SIZE | node;
+        }
+        Arrays.sort(keys);
 
-        final List<GfaNode> sourceConnectedNodes = getNodesWithNoIncomingEdges(subgraph);
+        final int[] sorted = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
 
-        sourceConnectedNodes.forEach(sourceConnectedNode -> {
-            toVisit.add(new SimpleEdge(origin, sourceConnectedNode));
-            Optional.ofNullable(genomeStore.get(origin))
-                    .ifPresent(originGenomes -> originGenomes.addAll(sourceConnectedNode.getMetadata().getGenomes()));
-        });
+    /**
+     * Returns {@code true} iff. each node in the given order comes after its left neighbours in the subgraph.
+     *
+     * @param adjacency        the {@link SubgraphAdjacency}
+     * @param topologicalOrder an order of the indices of all nodes in the given {@link SubgraphAdjacency}
+     * @return {@code true} iff. each node in the given order comes after its left neighbours in the subgraph
+     */
+    private boolean isTopological(final SubgraphAdjacency adjacency, final int[] topologicalOrder) {
+        final boolean[] visited = new boolean[adjacency.getNodeCount()];
+        for (final int node : topologicalOrder) {
+            final int edgeCount = adjacency.getEdgeCount(node, SequenceDirection.LEFT);
+            for (int i = 0; i < edgeCount; i++) {
+                final int origin = adjacency.getNeighbour(node, i, SequenceDirection.LEFT);
+                if (origin != SubgraphAdjacency.NOT_IN_SUBGRAPH && !visited[origin]) {
+                    return false;
+                }
+            }
+            visited[node] = true;
+        }
+        return true;
+    }
 
-        final List<GfaNode> topologicalOrder = new LinkedList<>();
-        final HashSet<Edge> visitedEdges = new HashSet<>();
-        final HashSet<GfaNode> visitedNodes = new HashSet<>();
+    /**
+     * Computes a topological ordering for iterating the given {@link SubgraphAdjacency}.
+     * <p>
+     * A {@link Segment} is added to the ordering as soon as all of its incoming edges have been visited, starting at
+     * the {@link Segment}s without incoming edges, which are considered to be connected to the theoretical source node
+     * of the {@link Graph}. {@link Segment}s with an incoming edge from outside the snapshot are never added.
+     *
+     * @param adjacency the {@link SubgraphAdjacency}
+     * @return a topologically sorted array of the indices of {@link Segment}s in the given {@link SubgraphAdjacency}
+     */
+    private int[] computeTopologicalOrder(final SubgraphAdjacency adjacency) {
+        final int nodeCount = adjacency.getNodeCount();
+        final int[] unvisitedIncomingEdges = new int[nodeCount];
+        final IntQueue toVisit = new IntQueue(nodeCount);
+
+        for (int node = 0; node < nodeCount; node++) {
+            unvisitedIncomingEdges[node] = adjacency.getEdgeCount(node, SequenceDirection.LEFT);
+            if (unvisitedIncomingEdges[node] == 0) {
+                toVisit.add(node);
+            }
+        }
 
+        final GrowableIntArray topologicalOrder = new GrowableIntArray(nodeCount);
         while (!toVisit.isEmpty()) {
-            final GfaNode current = toVisit.remove().getToSegment();
-            visitedNodes.add(current);
+            final int current = toVisit.remove();
             topologicalOrder.add(current);
 
-            visitedEdges.addAll(outgoingEdges.get(current));
-            outgoingEdges.get(current).stream()
-                    .filter(edge -> !visitedNodes.contains(edge.getTo()))
-                    .filter(edge -> incomingEdges.get((GfaNode) edge.getTo()).stream()
-                            .allMatch(visitedEdges::contains))
-                    .forEach(toVisit::add);
+            final int edgeCount = adjacency.getEdgeCount(current, SequenceDirection.RIGHT);
+            for (int i = 0; i < edgeCount; i++) {
+                final int neighbour = adjacency.getNeighbour(current, i, SequenceDirection.RIGHT);
+                if (neighbour == SubgraphAdjacency.NOT_IN_SUBGRAPH) {
+                    continue;
+                }
 
-            genomeStore.put(current, new HashSet<>(current.getMetadata().getGenomes()));
+                unvisitedIncomingEdges[neighbour]--;
+                if (unvisitedIncomingEdges[neighbour] == 0) {
+                    toVisit.add(neighbour);
+                }
+            }
         }
 
-        return topologicalOrder;
+        return topologicalOrder.toArray();
     }
 
     /**
-     * Determines which {@link Segment}s do not have any incoming edges.
+     * Uses a topologically ordered set of {@link Segment}s to compute the edges' paths, and adds each computed path to
+     * its corresponding {@link Edge}.
      * <p>
-     * These {@link Segment}s are considered to be connected to the theoretical source node of the {@link Graph}.
+     * {@link Segment}s with an incoming edge from outside the snapshot, or from a {@link Segment} that was skipped for
+     * that reason, are skipped.
      *
-     * @param subgraph the subgraph
-     * @return a list of nodes with no incoming edges
+     * @param adjacency        the {@link SubgraphAdjacency}
+     * @param topologicalOrder a topologically ordered array of the indices of {@link Segment}s
      */
-    private List<GfaNode> getNodesWithNoIncomingEdges(final Subgraph subgraph) {
-        return subgraph.getGfaNodes().stream()
-                .filter(segment -> segment.getIncomingEdges().isEmpty())
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Uses a topologically ordered set of {@link Segment}s to compute the edges' paths.
-     *
-     * @param topologicalOrder a topologically ordered list of {@link Segment}s
-     * @param incomingEdges    map of incoming {@link Edge}s for each {@link Segment}
-     * @param genomeStore      a map mapping each {@link Segment} to the genomes it is in
-     * @return a mapping from {@link Edge}s to each of the genomes they're in
-     */
-    private Map<Edge, Set<String>> topologicalPathGeneration(final List<GfaNode> topologicalOrder,
-                                                             final Multimap<GfaNode, Edge> incomingEdges,
-                                                             final Map<GfaNode, Set<String>> genomeStore) {
-        final Map<Edge, Set<String>> paths = new HashMap<>();
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Each edge gets its own set of genomes
+    private void topologicalPathGeneration(final SubgraphAdjacency adjacency, final int[] topologicalOrder) {
+        final int[] orderPositions = new int[adjacency.getNodeCount()];
+        Arrays.fill(orderPositions, -1);
+        final List<Set<String>> genomeStore = new ArrayList<>(topologicalOrder.length);
 
         // Go over topological order and assign genomes
-        topologicalOrder.forEach(node -> incomingEdges.get(node).forEach(e -> {
-            final Set<String> nodeGenomes = genomeStore.get(node);
-            final Set<String> originGenomes = genomeStore.get(e.getFrom());
-
-            if (originGenomes == null || nodeGenomes == null) {
-                throw new IllegalStateException("Missing genome data");
+        for (final int node : topologicalOrder) {
+            if (!hasGenomeData(adjacency, node, orderPositions)) {
+                continue;
             }
 
-            final Set<String> intersection = new HashSet<>(originGenomes);
-            intersection.retainAll(nodeGenomes);
+            final Set<String> nodeGenomes = new HashSet<>(adjacency.getNode(node).getMetadata().getGenomes());
+            orderPositions[node] = genomeStore.size();
+            genomeStore.add(nodeGenomes);
 
-            paths.put(e, intersection);
+            final int edgeCount = adjacency.getEdgeCount(node, SequenceDirection.LEFT);
+            for (int i = 0; i < edgeCount; i++) {
+                final int origin = adjacency.getNeighbour(node, i, SequenceDirection.LEFT);
+                final Set<String> originGenomes = genomeStore.get(orderPositions[origin]);
 
-            originGenomes.removeAll(intersection);
-        }));
+                final Set<String> intersection = new HashSet<>(originGenomes);
+                intersection.retainAll(nodeGenomes);
 
-        return paths;
+                adjacency.getEdge(node, i, SequenceDirection.LEFT).setGenomes(intersection);
+
+                originGenomes.removeAll(intersection);
+            }
+        }
     }
 
     /**
-     * Adds a set of computed path to its corresponding {@link Edge}.
+     * Returns {@code true} iff. the genomes of all left neighbours of the given node have been computed.
      *
-     * @param paths the paths
+     * @param adjacency      the {@link SubgraphAdjacency}
+     * @param node           the index of a node in the given {@link SubgraphAdjacency}
+     * @param orderPositions the index in the genome store of each node, or {@code -1} if it has not been computed
+     * @return {@code true} iff. the genomes of all left neighbours of the given node have been computed
      */
-    private void addPathsToEdges(final Map<Edge, Set<String>> paths) {
-        paths.forEach(Edge::setGenomes);
+    private boolean hasGenomeData(final SubgraphAdjacency adjacency, final int node, final int[] orderPositions) {
+        final int edgeCount = adjacency.getEdgeCount(node, SequenceDirection.LEFT);
+        for (int i = 0; i < edgeCount; i++) {
+            final int origin = adjacency.getNeighbour(node, i, SequenceDirection.LEFT);
+            if (origin == SubgraphAdjacency.NOT_IN_SUBGRAPH || orderPositions[origin] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the id of the first segment of the given {@link GfaNode}, which has the lowest rank of its segments.
+     *
+     * @param node a {@link GfaNode}
+     * @return the id of the first segment of the given {@link GfaNode}
+     */
+    private static int getFirstSegmentId(final GfaNode node) {
+        if (node instanceof ClusterSegment) {
+            return ((ClusterSegment) node).getFirstSegmentId();
+        }
+        return node.getSegments().get(0).getId();
     }
 }
@@ -0,0 +1,146 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Expands one frontier of Kahn's algorithm over a {@link Graph} with fork/join.
+ * <p>
+ * The frontiers are stored one after another in a single release order, as each node is released exactly once. The
+ * current frontier is divided into chunks of {@value FrontierExpansion#CHUNK_SIZE} nodes, as in
+ * {@link FrontierExpansion}. Each node in a chunk is given the rank of the frontier, and the number of unranked left
+ * neighbours of each of its right neighbours is decremented. The neighbours for which this number drops to zero are
+ * collected in that chunk's buffer, and are appended to the release order as the next frontier.
+ * <p>
+ * The root task is reused for every frontier with {@link #expand(int, int, int)}, so that the chunk buffers are
+ * allocated only once per sort.
+ */
+final class RankFrontierExpansion extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Graph graph;
+    private final transient AtomicIntegerArray unrankedLeftNeighbours;
+    private final int[] ranks;
+    private final int[] releaseOrder;
+    private final transient @Nullable GrowableIntArray[] chunkBuffers;
+    private int rank;
+    private int frontierStart;
+    private int frontierEnd;
+    private int fromChunk;
+    private int toChunk;
+
+
+    /**
+     * Constructs a new root {@link RankFrontierExpansion}.
+     *
+     * @param graph                  the {@link Graph} to rank
+     * @param unrankedLeftNeighbours the number of unranked left neighbours of each node
+     * @param ranks                  the rank of each node, which is written for the nodes in the frontier
+     * @param releaseOrder           the released nodes, to which the next frontier is appended
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "The tasks of a sort share their arrays by design"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Shared by design
+    RankFrontierExpansion(final Graph graph, final AtomicIntegerArray unrankedLeftNeighbours, final int[] ranks,
+                          final int[] releaseOrder) {
+        super();
+
+        this.graph = graph;
+        this.unrankedLeftNeighbours = unrankedLeftNeighbours;
+        this.ranks = ranks;
+        this.releaseOrder = releaseOrder;
+        this.chunkBuffers = new GrowableIntArray[FrontierExpansion.getChunkCount(releaseOrder.length)];
+    }
+
+    /**
+     * Constructs a new {@link RankFrontierExpansion} for a range of the chunks of the given task.
+     *
+     * @param parent    the task of which to expand a range of chunks
+     * @param fromChunk the first chunk to expand (inclusive)
+     * @param toChunk   the last chunk to expand (exclusive)
+     */
+    private RankFrontierExpansion(final RankFrontierExpansion parent, final int fromChunk, final int toChunk) {
+        super();
+
+        this.graph = parent.graph;
+        this.unrankedLeftNeighbours = parent.unrankedLeftNeighbours;
+        this.ranks = parent.ranks;
+        this.releaseOrder = parent.releaseOrder;
+        this.chunkBuffers = parent.chunkBuffers;
+        this.rank = parent.rank;
+        this.frontierStart = parent.frontierStart;
+        this.frontierEnd = parent.frontierEnd;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+
+    /**
+     * Expands the given frontier, and appends the next frontier to the release order.
+     * <p>
+     * The frontier is expanded in the current thread, so that narrow frontiers do not have to be handed to a pool.
+     *
+     * @param frontierRank the rank of the nodes in the frontier
+     * @param start        the index in the release order of the first node in the frontier (inclusive)
+     * @param end          the index in the release order of the last node in the frontier (exclusive)
+     * @return the index in the release order of the last node in the next frontier (exclusive)
+     */
+    int expand(final int frontierRank, final int start, final int end) {
+        rank = frontierRank;
+        frontierStart = start;
+        frontierEnd = end;
+        fromChunk = 0;
+        toChunk = FrontierExpansion.getChunkCount(end - start);
+
+        reinitialize();
+        invoke();
+
+        return FrontierExpansion.appendChunkBuffers(chunkBuffers, toChunk, releaseOrder, end);
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk <= 1) {
+            expandChunk(fromChunk);
+            return;
+        }
+
+        final int middleChunk = (fromChunk + toChunk) >>> 1;
+        invokeAll(
+                new RankFrontierExpansion(this, fromChunk, middleChunk),
+                new RankFrontierExpansion(this, middleChunk, toChunk)
+        );
+    }
+
+
+    /**
+     * Ranks the nodes in the given chunk and collects the right neighbours that have no unranked left neighbours left.
+     *
+     * @param chunk the index of the chunk
+     */
+    private void expandChunk(final int chunk) {
+        final int start = frontierStart + chunk * FrontierExpansion.CHUNK_SIZE;
+        final int end = Math.min(start + FrontierExpansion.CHUNK_SIZE, frontierEnd);
+        final GrowableIntArray released = FrontierExpansion.clearChunkBuffer(chunkBuffers, chunk);
+
+        for (int i = start; i < end; i++) {
+            final int node = releaseOrder[i];
+            ranks[node] = rank;
+
+            final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.RIGHT);
+            for (int edge = graph.getEdgeStart(node, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+                final int neighbour = graph.getNeighbour(edge);
+                if (unrankedLeftNeighbours.decrementAndGet(neighbour) == 0) {
+                    released.add(neighbour);
+                }
+            }
+        }
+    }
+}
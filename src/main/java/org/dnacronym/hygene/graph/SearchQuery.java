@@ -2,30 +2,35 @@ package org.dnacronym.hygene.graph;
 
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaTokenizer;
 import org.dnacronym.hygene.parser.MetadataParseException;
 import org.dnacronym.hygene.parser.MetadataParser;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 /**
  * Class to be used for a query on node metadata of a graph.
+ * <p>
+ * Queries scan the segments of the GFA file once using a {@link GfaTokenizer}. The {@code k}th segment in the file
+ * corresponds to the node with ID {@code k}.
  */
 public final class SearchQuery {
-    private static final int BATCH_SIZE = 1000;
+    private static final byte[] GENOME_LIST_PREFIX =
+            MetadataParser.GENOME_LIST_HEADER_PREFIX.getBytes(StandardCharsets.UTF_8);
+    private static final int NAME_FIELD = 1;
+    private static final int SEQUENCE_FIELD = 2;
+    private static final int GENOME_FIELD = 4;
 
     private final GfaFile gfaFile;
-    private final Graph graph;
-    private final int numberOfNodesInGraph;
 
 
     /**
@@ -35,8 +40,6 @@ public final class SearchQuery {
      */
     public SearchQuery(final GfaFile gfaFile) {
         this.gfaFile = gfaFile;
-        this.graph = gfaFile.getGraph();
-        this.numberOfNodesInGraph = graph.getNodeArrays().length;
     }
 
 
@@ -48,7 +51,7 @@ public final class SearchQuery {
      * @throws MetadataParseException if the GFA file is invalid in some form
      */
     public Set<Integer> executeNameRegexQuery(final String regex) throws MetadataParseException {
-        return executeQuery(nodeMetadata -> Pattern.compile(regex).matcher(nodeMetadata.getName()).matches());
+        return executeFieldRegexQuery(NAME_FIELD, Pattern.compile(regex));
     }
 
 
@@ -60,7 +63,7 @@ public final class SearchQuery {
      * @throws MetadataParseException if the GFA file is invalid in some form
      */
     public Set<Integer> executeSequenceRegexQuery(final String regex) throws MetadataParseException {
-        return executeQuery(nodeMetadata -> Pattern.compile(regex).matcher(nodeMetadata.getSequence()).matches());
+        return executeFieldRegexQuery(SEQUENCE_FIELD, Pattern.compile(regex));
     }
 
     /**
@@ -71,41 +74,102 @@ public final class SearchQuery {
      * @throws MetadataParseException if the GFA file is invalid in some form
      */
     public Set<Integer> executeQuery(final Predicate<NodeMetadata> isInQuery) throws MetadataParseException {
-        final MetadataParser metadataParser = new MetadataParser();
-        final int numBatches = numberOfNodesInGraph / BATCH_SIZE + 1;
+        return scanSegments(tokenizer -> isInQuery.test(parseNodeMetadata(tokenizer)));
+    }
+
+
+    /**
+     * Matches a regex against a field of each segment, without decoding the field to a {@link String}.
+     *
+     * @param field   the index of the field to match against
+     * @param pattern the compiled regex
+     * @return the IDs of nodes of which the field matches the regex
+     * @throws MetadataParseException if the GFA file is invalid in some form
+     */
+    private Set<Integer> executeFieldRegexQuery(final int field, final Pattern pattern)
+            throws MetadataParseException {
+        return scanSegments(tokenizer -> {
+            if (tokenizer.getFieldCount() <= field) {
+                throw new MetadataParseException("Not enough parameters for segment at position "
+                        + tokenizer.getLineOffset() + ".");
+            }
+            return pattern.matcher(tokenizer.getFieldChars(field)).matches();
+        });
+    }
+
+    /**
+     * Scans all segments in the GFA file and collects the IDs of those accepted by the given test.
+     *
+     * @param isInQuery the test to apply to a {@link GfaTokenizer} positioned at each segment
+     * @return the IDs of accepted nodes
+     * @throws MetadataParseException if the GFA file cannot be read or is invalid in some form
+     */
+    private Set<Integer> scanSegments(final SegmentTest isInQuery) throws MetadataParseException {
         final Set<Integer> nodeIds = new HashSet<>();
 
-        for (int batchIndex = 0; batchIndex < numBatches; batchIndex++) {
-            final Map<Integer, Long> sortedNodeIds = getByteOffsetsBatch(batchIndex);
-            final Map<Integer, NodeMetadata> batchMetadata = metadataParser.parseNodeMetadata(gfaFile, sortedNodeIds);
-            nodeIds.addAll(batchMetadata.entrySet().stream()
-                    .filter(entry -> isInQuery.test(entry.getValue()))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toSet()));
+        try (FileChannel channel = gfaFile.getFileChannel()) {
+            final GfaTokenizer tokenizer = GfaTokenizer.fromFileChannel(channel, 0, channel.size());
+
+            int nodeId = 0;
+            while (tokenizer.next()) {
+                if (tokenizer.getRecordType() != 'S') {
+                    continue;
+                }
+                nodeId++;
+
+                if (isInQuery.test(tokenizer)) {
+                    nodeIds.add(nodeId);
+                }
+            }
+        } catch (final IOException e) {
+            throw new MetadataParseException("File '" + gfaFile.getFileName() + "' cannot be read.", e);
         }
 
         return nodeIds;
     }
 
     /**
-     * Returns a map of node IDs to byte offsets, sorted by byte offset.
+     * Decodes the metadata of the segment the given {@link GfaTokenizer} is positioned at.
      *
-     * @param batchIndex the index of the batch to generate mappings for
-     * @return the sorted map of node IDs to byte offsets
+     * @param tokenizer a {@link GfaTokenizer} positioned at a segment
+     * @return the metadata of the segment
+     * @throws MetadataParseException if the segment is invalid
+     */
+    private static NodeMetadata parseNodeMetadata(final GfaTokenizer tokenizer) throws MetadataParseException {
+        if (tokenizer.getFieldCount() <= GENOME_FIELD) {
+            throw new MetadataParseException("Not enough parameters for segment at position "
+                    + tokenizer.getLineOffset() + ".");
+        }
+        if (!tokenizer.fieldStartsWith(GENOME_FIELD, GENOME_LIST_PREFIX)) {
+            throw new MetadataParseException("Expected genome header at position " + tokenizer.getLineOffset() + ".");
+        }
+
+        final List<String> genomes = new ArrayList<>();
+        for (final String genome : tokenizer.getFieldString(GENOME_FIELD)
+                .substring(GENOME_LIST_PREFIX.length).split(";")) {
+            if (!genome.isEmpty()) {
+                genomes.add(genome);
+            }
+        }
+
+        // The sequence is packed straight from the tokenizer's view, without decoding it to a String first
+        return new NodeMetadata(tokenizer.getFieldString(NAME_FIELD), tokenizer.getFieldChars(SEQUENCE_FIELD),
+                genomes);
+    }
+
+
+    /**
+     * A test on the segment a {@link GfaTokenizer} is positioned at.
      */
-    private Map<Integer, Long> getByteOffsetsBatch(final int batchIndex) {
-        final List<Integer> batchNodeIds = IntStream
-                .rangeClosed(batchIndex * BATCH_SIZE + 1,
-                        Math.max(batchIndex * (BATCH_SIZE + 1), numberOfNodesInGraph - 2))
-                .boxed().collect(Collectors.toList());
-
-        return batchNodeIds.stream()
-                .sorted(Comparator.comparingLong(graph::getByteOffset))
-                .collect(Collectors.toMap(
-                        nodeId -> nodeId,
-                        graph::getByteOffset,
-                        (oldValue, newValue) -> oldValue,
-                        LinkedHashMap::new
-                ));
+    @FunctionalInterface
+    private interface SegmentTest {
+        /**
+         * Tests the current segment.
+         *
+         * @param tokenizer a {@link GfaTokenizer} positioned at a segment
+         * @return {@code true} iff the segment should be in the query results
+         * @throws MetadataParseException if the segment is invalid
+         */
+        boolean test(GfaTokenizer tokenizer) throws MetadataParseException;
     }
 }
@@ -2,9 +2,11 @@ package org.dnacronym.hygene.graph;
 
 import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.graph.edge.AggregateEdge;
 import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.node.AggregateSegment;
+import org.dnacronym.hygene.graph.node.ChainSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
@@ -20,20 +22,25 @@ import java.util.stream.Collectors;
  * Aggregator of nodes to achieve semantic zooming.
  * <p>
  * Aggregation only happens when the given node has exactly two right neighbours, these neighbours have a sequence
- * length of {@code 1}, and these neighbours have exactly one right neighbour which is shared between them.
+ * length of {@code 1}, and these neighbours have exactly one right neighbour which is shared between them. The given
+ * node and the shared neighbour may be either a {@link Segment} or a {@link ChainSegment}.
+ * <p>
+ * If the superbubbles of the graph have been detected, the shape of the neighbours is not derived again for each
+ * layout. Instead, whether the given node is the entrance of a SNP is looked up in the {@link BubbleIndex}, and the
+ * exit of the SNP is looked up once in the subgraph.
  */
 public final class SegmentAggregator {
-    private final Segment startSegment;
+    private final GfaNode startSegment;
     private final List<Segment> neighbours;
-    private @MonotonicNonNull Segment endSegment;
+    private @MonotonicNonNull GfaNode endSegment;
 
 
     /**
-     * Constructs a new {@link SegmentAggregator} for a particular {@link Segment}.
+     * Constructs a new {@link SegmentAggregator} for a particular {@link GfaNode}.
      *
-     * @param segment the {@link Segment} to aggregate
+     * @param segment the {@link GfaNode} to aggregate
      */
-    private SegmentAggregator(final Segment segment) {
+    private SegmentAggregator(final GfaNode segment) {
         this.startSegment = segment;
         this.neighbours = segment.getOutgoingEdges().stream()
                 .map(Edge::getTo)
@@ -49,8 +56,18 @@ public final class SegmentAggregator {
      * @param subgraph a {@link Subgraph}
      */
     public static void aggregate(final Subgraph subgraph) {
+        aggregate(subgraph, null);
+    }
+
+    /**
+     * Aggregates as many nodes as possible, looking up the SNPs in the given {@link BubbleIndex}.
+     *
+     * @param subgraph    a {@link Subgraph}
+     * @param bubbleIndex the superbubbles of the graph, or {@code null} to derive the SNPs from the subgraph
+     */
+    public static void aggregate(final Subgraph subgraph, final @Nullable BubbleIndex bubbleIndex) {
         final List<AggregateSegment> aggregateSegments = subgraph.getNodes().stream()
-                .map(SegmentAggregator::aggregate)
+                .map(node -> bubbleIndex == null ? aggregate(node) : aggregate(node, subgraph, bubbleIndex))
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toList());
@@ -68,11 +85,11 @@ public final class SegmentAggregator {
      * @return the {@link AggregateSegment} the neighbours are now part of, or {@code null} if no aggregation occurred
      */
     public static Optional<AggregateSegment> aggregate(final Node node) {
-        if (!(node instanceof Segment)) {
+        if (!(node instanceof Segment || node instanceof ChainSegment)) {
             return Optional.empty();
         }
 
-        final SegmentAggregator aggregator = new SegmentAggregator((Segment) node);
+        final SegmentAggregator aggregator = new SegmentAggregator((GfaNode) node);
 
         if (!aggregator.segmentHasValidNumberOfNeighbours()) {
             return Optional.empty();
@@ -93,6 +110,25 @@ public final class SegmentAggregator {
         return Optional.of(aggregator.aggregate());
     }
 
+    /**
+     * Aggregates the given node's neighbours, if possible, looking up the SNPs in the given {@link BubbleIndex}.
+     *
+     * @param node        a node
+     * @param subgraph    the {@link Subgraph} the node is in
+     * @param bubbleIndex the superbubbles of the graph
+     * @return the {@link AggregateSegment} the neighbours are now part of, or {@code null} if no aggregation occurred
+     */
+    public static Optional<AggregateSegment> aggregate(final Node node, final Subgraph subgraph,
+                                                       final BubbleIndex bubbleIndex) {
+        if (!(node instanceof Segment || node instanceof ChainSegment)) {
+            return Optional.empty();
+        }
+
+        final SegmentAggregator aggregator = new SegmentAggregator((GfaNode) node);
+
+        return aggregator.isIndexedSnp(subgraph, bubbleIndex) ? Optional.of(aggregator.aggregate()) : Optional.empty();
+    }
+
     /**
      * Aggregates the node's neighbours into an {@link AggregateSegment}, and rewires the edges from and to that node.
      *
@@ -121,6 +157,34 @@ public final class SegmentAggregator {
     }
 
 
+    /**
+     * Returns {@code true} iff. the node is the entrance of a SNP according to the {@link BubbleIndex}, and the SNP
+     * and its exit are present in the subgraph.
+     * <p>
+     * The members of a SNP are the only right neighbours of its entrance, and edges are only present in the subgraph
+     * if both of their ends are, so the members are present iff. the node has as many neighbours as the SNP has
+     * members. If so, the exit is taken from the subgraph as the end of the aggregate.
+     *
+     * @param subgraph    the {@link Subgraph} the node is in
+     * @param bubbleIndex the superbubbles of the graph
+     * @return {@code true} iff. the node is the entrance of a SNP of which all nodes are present in the subgraph
+     */
+    private boolean isIndexedSnp(final Subgraph subgraph, final BubbleIndex bubbleIndex) {
+        final List<Segment> segments = startSegment.getSegments();
+        final int bubble = bubbleIndex.getBubbleByEntrance(segments.get(segments.size() - 1).getId());
+        if (bubble < 0 || !bubbleIndex.isSnp(bubble) || neighbours.size() != bubbleIndex.getMemberCount(bubble)) {
+            return false;
+        }
+
+        final Optional<GfaNode> exit = subgraph.getGfaNode(bubbleIndex.getExit(bubble));
+        if (!exit.isPresent() || exit.get() instanceof AggregateSegment) {
+            return false;
+        }
+
+        endSegment = exit.get();
+        return true;
+    }
+
     /**
      * Returns {@code true} iff. the node has exactly two neighbours to its right.
      *
@@ -183,14 +247,14 @@ public final class SegmentAggregator {
      * @return the node's first neighbour's first neighbour
      */
     @EnsuresNonNull("endSegment")
-    private Segment getEndSegment() {
+    private GfaNode getEndSegment() {
         if (endSegment == null) {
             final GfaNode endNode = neighbours.get(0).getOutgoingEdges().iterator().next().getToSegment();
-            if (!(endNode instanceof Segment)) {
-                throw new IllegalStateException("End node cannot not be a Segment at this point.");
+            if (endNode instanceof AggregateSegment) {
+                throw new IllegalStateException("End node cannot be an AggregateSegment at this point.");
             }
 
-            endSegment = (Segment) endNode;
+            endSegment = endNode;
         }
 
         return endSegment;
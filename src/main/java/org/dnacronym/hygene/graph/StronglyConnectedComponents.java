@@ -0,0 +1,159 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.Arrays;
+
+
+/**
+ * The strongly connected components of a {@link Graph}, computed with an iterative version of Tarjan's algorithm.
+ * <p>
+ * The components are numbered in reverse topological order, which is the order in which Tarjan's algorithm completes
+ * them. The nodes are also available grouped by component, with the components in topological order.
+ */
+final class StronglyConnectedComponents {
+    private final Graph graph;
+    private final int[] components;
+    private final int[] componentOrder;
+
+    private final int[] indices;
+    private final int[] lowLinks;
+    private final int[] edgeCursors;
+    private final int[] callStack;
+    private final int[] componentStack;
+    private final boolean[] onComponentStack;
+    private int index;
+    private int componentCount;
+    private int componentStackSize;
+    private int orderStart;
+
+
+    /**
+     * Constructs a new {@link StronglyConnectedComponents} and computes the components of the given {@link Graph}.
+     *
+     * @param graph a {@link Graph}
+     */
+    StronglyConnectedComponents(final Graph graph) {
+        this.graph = graph;
+
+        final int nodeCount = graph.getNodeCount();
+        this.components = new int[nodeCount];
+        this.componentOrder = new int[nodeCount];
+        this.indices = new int[nodeCount];
+        this.lowLinks = new int[nodeCount];
+        this.edgeCursors = new int[nodeCount];
+        this.callStack = new int[nodeCount];
+        this.componentStack = new int[nodeCount];
+        this.onComponentStack = new boolean[nodeCount];
+        // Components are completed in reverse topological order, so the order is filled backwards
+        this.orderStart = nodeCount;
+
+        Arrays.fill(indices, -1);
+        for (int root = 0; root < nodeCount; root++) {
+            if (indices[root] < 0) {
+                visit(root);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the component of the given node.
+     *
+     * @param node the identifier of a node
+     * @return the component of the given node
+     */
+    int getComponent(final int node) {
+        return components[node];
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    int getNodeCount() {
+        return componentOrder.length;
+    }
+
+    /**
+     * Returns the node at the given index when the nodes are grouped by component, with the components in topological
+     * order.
+     *
+     * @param orderIndex an index in the component order
+     * @return the node at the given index in the component order
+     */
+    int getNodeInOrder(final int orderIndex) {
+        return componentOrder[orderIndex];
+    }
+
+
+    /**
+     * Completes the components of all nodes reachable from the given unvisited node.
+     *
+     * @param root the identifier of an unvisited node
+     */
+    private void visit(final int root) {
+        int callDepth = 0;
+        callStack[0] = root;
+        discover(root);
+
+        while (callDepth >= 0) {
+            final int node = callStack[callDepth];
+            if (edgeCursors[node] < graph.getEdgeEnd(node, SequenceDirection.RIGHT)) {
+                final int neighbour = graph.getNeighbour(edgeCursors[node]);
+                edgeCursors[node]++;
+
+                if (indices[neighbour] < 0) {
+                    callDepth++;
+                    callStack[callDepth] = neighbour;
+                    discover(neighbour);
+                } else if (onComponentStack[neighbour]) {
+                    lowLinks[node] = Math.min(lowLinks[node], indices[neighbour]);
+                }
+                continue;
+            }
+
+            if (lowLinks[node] == indices[node]) {
+                completeComponent(node);
+            }
+
+            callDepth--;
+            if (callDepth >= 0) {
+                final int parent = callStack[callDepth];
+                lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+            }
+        }
+    }
+
+    /**
+     * Gives the given node its index and pushes it onto the component stack.
+     *
+     * @param node the identifier of an unvisited node
+     */
+    private void discover(final int node) {
+        indices[node] = index;
+        lowLinks[node] = index;
+        index++;
+        edgeCursors[node] = graph.getEdgeStart(node, SequenceDirection.RIGHT);
+        componentStack[componentStackSize] = node;
+        componentStackSize++;
+        onComponentStack[node] = true;
+    }
+
+    /**
+     * Pops the component of which the given node is the root off the component stack.
+     *
+     * @param root the identifier of the root of a component
+     */
+    private void completeComponent(final int root) {
+        int member;
+        do {
+            componentStackSize--;
+            member = componentStack[componentStackSize];
+            onComponentStack[member] = false;
+            components[member] = componentCount;
+            orderStart--;
+            componentOrder[orderStart] = member;
+        } while (member != root);
+        componentCount++;
+    }
+}
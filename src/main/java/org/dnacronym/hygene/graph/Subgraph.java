@@ -1,45 +1,53 @@
 package org.dnacronym.hygene.graph;
 
+import org.dnacronym.hygene.core.IntQueue;
+import org.dnacronym.hygene.core.LinkedLongMap;
 import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
-import java.util.UUID;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 
 /**
  * Class representing a subgraph.
+ * <p>
+ * Nodes are stored by their unique identifier and segments by their id, both in primitive maps that keep the order in
+ * which nodes were added. Changes to the subgraph are synchronized on the subgraph.
+ * <p>
+ * A {@link ClusterSegment} is only stored by the id of its first segment, so that adding it does not require its
+ * segments to be created. The other segments in a cluster are resolved by testing the membership of each cluster in
+ * the subgraph, which takes constant time per cluster.
  */
 public final class Subgraph {
     /**
-     * A mapping from {@link UUID}s to their respective {@link Node}s.
+     * A mapping from unique identifiers to their respective {@link Node}s.
      */
-    private final Map<UUID, Node> nodes;
+    private final LinkedLongMap<Node> nodes;
     /**
      * A mapping from ids to their respective {@link Segment}s.
      */
-    private final Map<Integer, GfaNode> segments;
+    private final LinkedLongMap<GfaNode> segments;
+    /**
+     * A mapping from unique identifiers to the {@link ClusterSegment}s among the nodes.
+     */
+    private final LinkedLongMap<ClusterSegment> clusters;
 
 
     /**
      * Constructs a new, empty {@link Subgraph} instance.
      */
     public Subgraph() {
-        this.segments = Collections.synchronizedMap(new LinkedHashMap<>());
-        this.nodes = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.segments = new LinkedLongMap<>();
+        this.nodes = new LinkedLongMap<>();
+        this.clusters = new LinkedLongMap<>();
     }
 
     /**
@@ -48,28 +56,31 @@ public final class Subgraph {
      * @param subgraph an existing {@link Subgraph}
      */
     public Subgraph(final Subgraph subgraph) {
-        this.nodes = Collections.synchronizedMap(new LinkedHashMap<>(subgraph.nodes));
-        this.segments = Collections.synchronizedMap(new LinkedHashMap<>(subgraph.segments));
+        synchronized (subgraph) {
+            this.nodes = new LinkedLongMap<>(subgraph.nodes);
+            this.segments = new LinkedLongMap<>(subgraph.segments);
+            this.clusters = new LinkedLongMap<>(subgraph.clusters);
+        }
     }
 
 
     /**
-     * Returns the {@link Node} with the given {@link UUID}, or {code null} if no such node exists.
+     * Returns the {@link Node} with the given unique identifier, or {code null} if no such node exists.
      *
-     * @param nodeUuid a {@link UUID}
-     * @return the {@link Node} with the given {@link UUID}, or {code null} if no such node exists
+     * @param uniqueId the unique identifier of a {@link Node}
+     * @return the {@link Node} with the given unique identifier, or {code null} if no such node exists
      */
-    public Optional<Node> getNode(final UUID nodeUuid) {
-        return Optional.ofNullable(nodes.get(nodeUuid));
+    public synchronized Optional<Node> getNode(final long uniqueId) {
+        return Optional.ofNullable(nodes.get(uniqueId));
     }
 
     /**
-     * Returns the nodes.
+     * Returns a snapshot of the nodes, in the order in which they were added.
      *
-     * @return the nodes
+     * @return a snapshot of the nodes
      */
-    public Collection<Node> getNodes() {
-        return nodes.values();
+    public synchronized Collection<Node> getNodes() {
+        return new ArrayList<>(nodes.values());
     }
 
     /**
@@ -78,73 +89,105 @@ public final class Subgraph {
      * @param segmentId a segment id
      * @return the {@link Segment} with the given id, or {code null} if no such segment exists
      */
-    public Optional<Segment> getSegment(final int segmentId) {
+    public synchronized Optional<Segment> getSegment(final int segmentId) {
+        return getGfaNode(segmentId).flatMap(gfaNode -> gfaNode.getSegment(segmentId));
+    }
+
+    /**
+     * Returns the {@link GfaNode} that contains the segment with the given id, if present.
+     * <p>
+     * This includes segments inside a {@link ClusterSegment} that have not been created yet.
+     *
+     * @param segmentId a segment id
+     * @return the {@link GfaNode} that contains the segment with the given id, if present
+     */
+    public synchronized Optional<GfaNode> getGfaNode(final int segmentId) {
         final GfaNode gfaNode = segments.get(segmentId);
-        if (gfaNode == null) {
-            return Optional.empty();
+        if (gfaNode != null) {
+            return Optional.of(gfaNode);
+        }
+
+        for (final ClusterSegment cluster : clusters.values()) {
+            if (cluster.containsSegment(segmentId)) {
+                return Optional.of(cluster);
+            }
         }
+        return Optional.empty();
+    }
 
-        return gfaNode.getSegment(segmentId);
+    /**
+     * Returns a snapshot of all nodes that are {@link Segment}s, in the order in which they were added.
+     *
+     * @return a snapshot of all nodes that are {@link Segment}s
+     */
+    public synchronized Collection<GfaNode> getGfaNodes() {
+        return new ArrayList<>(segments.values());
     }
 
     /**
-     * Returns all nodes that are {@link Segment}s.
+     * Returns an array-backed snapshot of the {@link Node}s in this {@link Subgraph} and the edges between them.
      *
-     * @return all nodes that are {@link Segment}s
+     * @return an array-backed snapshot of the {@link Node}s in this {@link Subgraph} and the edges between them
      */
-    public Collection<GfaNode> getGfaNodes() {
-        return segments.values();
+    public synchronized SubgraphAdjacency getAdjacency() {
+        return new SubgraphAdjacency(nodes.values());
     }
 
     /**
      * Returns a {@link Collection} of all the {@link Node}s in this {@link Subgraph} in breadth-first order.
+     * <p>
+     * The traversal starts at the nodes that have no neighbours in this subgraph in the opposite direction.
      *
      * @param direction the direction to traverse in
      * @return a {@link Collection} of all the {@link Node}s in this {@link Subgraph} in breadth-first order
      */
-    public Collection<Node> getNodesBFS(final SequenceDirection direction) {
-        final Queue<Node> queue = new LinkedList<>();
-        nodes.values().forEach(node -> {
-            if (direction.ternary(isSinkNeighbour(node), isSourceNeighbour(node))) {
-                queue.add(node);
+    public synchronized Collection<Node> getNodesBFS(final SequenceDirection direction) {
+        final SubgraphAdjacency adjacency = getAdjacency();
+        final int nodeCount = adjacency.getNodeCount();
+
+        final IntQueue queue = new IntQueue(nodeCount);
+        final boolean[] visited = new boolean[nodeCount];
+        for (int index = 0; index < nodeCount; index++) {
+            if (!adjacency.hasNeighbour(index, direction.opposite())) {
+                queue.add(index);
+                visited[index] = true;
             }
-        });
+        }
 
-        final Set<Node> visited = new LinkedHashSet<>();
+        final List<Node> order = new ArrayList<>(nodeCount);
         while (!queue.isEmpty()) {
-            final Node head = queue.remove();
-            if (visited.contains(head)) {
-                continue;
-            }
+            final int head = queue.remove();
+            order.add(adjacency.getNode(head));
 
-            visited.add(head);
-
-            getNeighbours(head, direction).forEach(neighbour -> {
-                if (!visited.contains(neighbour) && nodes.containsValue(neighbour)) {
+            final int edgeCount = adjacency.getEdgeCount(head, direction);
+            for (int i = 0; i < edgeCount; i++) {
+                final int neighbour = adjacency.getNeighbour(head, i, direction);
+                if (neighbour != SubgraphAdjacency.NOT_IN_SUBGRAPH && !visited[neighbour]) {
                     queue.add(neighbour);
+                    visited[neighbour] = true;
                 }
-            });
+            }
         }
 
-        return visited;
+        return order;
     }
 
     /**
-     * Returns a {@link Set} of the given node's neighbours.
+     * Returns a {@link Set} of the given node's neighbours in this subgraph.
      *
      * @param node      a {@link Node}
      * @param direction the direction of the neighbours
-     * @return a {@link Set} of the given node's neighbours.
+     * @return a {@link Set} of the given node's neighbours in this subgraph
      */
-    public Collection<Node> getNeighbours(final Node node, final SequenceDirection direction) {
-        final Predicate<Edge> filter = direction.ternary(
-                edge -> nodes.containsValue(edge.getFrom()),
-                edge -> nodes.containsValue(edge.getTo()));
-        final Function<Edge, Node> mapper = direction.ternary(Edge::getFrom, Edge::getTo);
-        return direction.ternary(node.getIncomingEdges(), node.getOutgoingEdges()).stream()
-                .filter(filter)
-                .map(mapper)
-                .collect(Collectors.toSet());
+    public synchronized Collection<Node> getNeighbours(final Node node, final SequenceDirection direction) {
+        final Set<Node> neighbours = new LinkedHashSet<>();
+        for (final Edge edge : direction.ternary(node.getIncomingEdges(), node.getOutgoingEdges())) {
+            final Node neighbour = direction.ternary(edge.getFrom(), edge.getTo());
+            if (nodes.containsKey(neighbour.getUniqueId())) {
+                neighbours.add(neighbour);
+            }
+        }
+        return neighbours;
     }
 
     /**
@@ -152,7 +195,7 @@ public final class Subgraph {
      *
      * @param node the node to be added
      */
-    public void add(final Node node) {
+    public synchronized void add(final Node node) {
         idempotentAdd(node);
     }
 
@@ -161,7 +204,7 @@ public final class Subgraph {
      *
      * @param nodes the nodes to be added
      */
-    public void addAll(final Collection<? extends Node> nodes) {
+    public synchronized void addAll(final Collection<? extends Node> nodes) {
         nodes.forEach(this::idempotentAdd);
     }
 
@@ -170,7 +213,7 @@ public final class Subgraph {
      *
      * @param node a {@link Node}
      */
-    public void remove(final Node node) {
+    public synchronized void remove(final Node node) {
         idempotentRemove(node);
     }
 
@@ -179,18 +222,18 @@ public final class Subgraph {
      *
      * @param nodes the nodes to be removed
      */
-    public void removeAll(final Collection<? extends Node> nodes) {
+    public synchronized void removeAll(final Collection<? extends Node> nodes) {
         nodes.forEach(this::idempotentRemove);
     }
 
     /**
-     * Returns {@code true} iff. this subgraph contains a {@link Node} with the given {@link UUID}.
+     * Returns {@code true} iff. this subgraph contains a {@link Node} with the given unique identifier.
      *
-     * @param uuid a {@link UUID}
-     * @return {@code true} iff. this subgraph contains a {@link Node} with the given {@link UUID}
+     * @param uniqueId the unique identifier of a {@link Node}
+     * @return {@code true} iff. this subgraph contains a {@link Node} with the given unique identifier
      */
-    public boolean contains(final UUID uuid) {
-        return nodes.containsKey(uuid);
+    public synchronized boolean contains(final long uniqueId) {
+        return nodes.containsKey(uniqueId);
     }
 
     /**
@@ -199,8 +242,8 @@ public final class Subgraph {
      * @param node a {@link Node}
      * @return {@code true} iff. this subgraph contains the given {@link Node}
      */
-    public boolean containsNode(final Node node) {
-        return nodes.containsKey(node.getUuid());
+    public synchronized boolean containsNode(final Node node) {
+        return nodes.containsKey(node.getUniqueId());
     }
 
     /**
@@ -209,39 +252,20 @@ public final class Subgraph {
      * @param segmentId the id of a {@link Segment}
      * @return {@code true} iff. a {@link Segment} with the given id is present in this subgraph
      */
-    public boolean containsSegment(final int segmentId) {
-        return segments.containsKey(segmentId);
+    public synchronized boolean containsSegment(final int segmentId) {
+        return getGfaNode(segmentId).isPresent();
     }
 
     /**
      * Clears all nodes from this subgraph.
      */
-    public void clear() {
+    public synchronized void clear() {
         nodes.clear();
         segments.clear();
+        clusters.clear();
     }
 
 
-    /**
-     * Checks whether the given node is a neighbour of the subgraph source.
-     *
-     * @param node the node to be checked
-     * @return {@code true} iff. the node is a neighbour of the subgraph source
-     */
-    private boolean isSourceNeighbour(final Node node) {
-        return getNeighbours(node, SequenceDirection.LEFT).isEmpty();
-    }
-
-    /**
-     * Checks whether the given node is a neighbour of the subgraph sink.
-     *
-     * @param node the node to be checked
-     * @return {@code true} iff. the node is a neighbour of the subgraph sink
-     */
-    private boolean isSinkNeighbour(final Node node) {
-        return getNeighbours(node, SequenceDirection.RIGHT).isEmpty();
-    }
-
     /**
      * Adds a {@link Node} without any other side effects.
      * <p>
@@ -251,9 +275,12 @@ public final class Subgraph {
      * @param node a {@link Node}
      */
     private void idempotentAdd(final Node node) {
-        nodes.put(node.getUuid(), node);
+        nodes.put(node.getUniqueId(), node);
 
-        if (node instanceof GfaNode) {
+        if (node instanceof ClusterSegment) {
+            segments.put(((ClusterSegment) node).getFirstSegmentId(), (GfaNode) node);
+            clusters.put(node.getUniqueId(), (ClusterSegment) node);
+        } else if (node instanceof GfaNode) {
             ((GfaNode) node).getSegments().forEach(segment -> segments.put(segment.getId(), (GfaNode) node));
         }
     }
@@ -267,9 +294,12 @@ public final class Subgraph {
      * @param node a {@link Node}
      */
     private void idempotentRemove(final Node node) {
-        nodes.remove(node.getUuid());
+        nodes.remove(node.getUniqueId());
 
-        if (node instanceof GfaNode) {
+        if (node instanceof ClusterSegment) {
+            segments.remove(((ClusterSegment) node).getFirstSegmentId());
+            clusters.remove(node.getUniqueId());
+        } else if (node instanceof GfaNode) {
             ((GfaNode) node).getSegments().forEach(segment -> segments.remove(segment.getId()));
         }
     }
@@ -0,0 +1,230 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.core.LongIntMap;
+import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * An array-backed snapshot of the {@link Edge}s between a collection of {@link Node}s.
+ * <p>
+ * Each node in the snapshot has a dense index, starting at {@code 0} in the order in which the nodes were given. Per
+ * direction, the edges of all nodes are stored consecutively in one array, together with the index of the neighbour
+ * each edge leads to. This allows the neighbourhood of the nodes to be traversed repeatedly without hashing nodes or
+ * allocating streams and collections.
+ * <p>
+ * Later changes to the nodes or their edges are not reflected in the snapshot.
+ */
+public final class SubgraphAdjacency {
+    /**
+     * The neighbour index of edges that lead to a node that is not in the snapshot.
+     */
+    public static final int NOT_IN_SUBGRAPH = -1;
+
+    private final Node[] nodes;
+    private final LongIntMap indices;
+    private final EdgeArrays leftEdges;
+    private final EdgeArrays rightEdges;
+
+
+    /**
+     * Constructs a new {@link SubgraphAdjacency} of the given {@link Node}s.
+     *
+     * @param nodes a collection of {@link Node}s, in which each node occurs at most once
+     */
+    public SubgraphAdjacency(final Collection<? extends Node> nodes) {
+        this(nodes, UnaryOperator.identity());
+    }
+
+    /**
+     * Constructs a new {@link SubgraphAdjacency} of the given {@link Node}s, in which each {@link Edge} is replaced by
+     * the result of the given mapper.
+     * <p>
+     * Nodes that occur more than once in the collection are included only once. Likewise, if several edges of a node
+     * are mapped to the same {@link Edge}, that edge is included only once.
+     *
+     * @param nodes      a collection of {@link Node}s
+     * @param edgeMapper maps each {@link Edge} to the {@link Edge} to store in its place
+     */
+    public SubgraphAdjacency(final Collection<? extends Node> nodes, final UnaryOperator<Edge> edgeMapper) {
+        final LongIntMap nodeIndices = new LongIntMap(nodes.size());
+        final Node[] uniqueNodes = new Node[nodes.size()];
+        int nodeCount = 0;
+        for (final Node node : nodes) {
+            if (!nodeIndices.containsKey(node.getUniqueId())) {
+                nodeIndices.put(node.getUniqueId(), nodeCount);
+                uniqueNodes[nodeCount] = node;
+                nodeCount++;
+            }
+        }
+
+        this.indices = nodeIndices;
+        this.nodes = Arrays.copyOf(uniqueNodes, nodeCount);
+        this.leftEdges = new EdgeArrays(this.nodes, nodeIndices, SequenceDirection.LEFT, edgeMapper);
+        this.rightEdges = new EdgeArrays(this.nodes, nodeIndices, SequenceDirection.RIGHT, edgeMapper);
+    }
+
+
+    /**
+     * Returns the number of {@link Node}s in this snapshot.
+     *
+     * @return the number of {@link Node}s in this snapshot
+     */
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the {@link Node} with the given index.
+     *
+     * @param index the index of a {@link Node}
+     * @return the {@link Node} with the given index
+     */
+    public Node getNode(final int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the given {@link Node}.
+     *
+     * @param node a {@link Node}
+     * @return the index of the given {@link Node}, or {@link #NOT_IN_SUBGRAPH} if it is not in this snapshot
+     */
+    public int indexOf(final Node node) {
+        return indices.getOrDefault(node.getUniqueId(), NOT_IN_SUBGRAPH);
+    }
+
+    /**
+     * Returns the number of {@link Edge}s of the given {@link Node} in the given direction.
+     *
+     * @param index     the index of a {@link Node}
+     * @param direction the direction of the edges
+     * @return the number of {@link Edge}s of the given {@link Node} in the given direction
+     */
+    public int getEdgeCount(final int index, final SequenceDirection direction) {
+        final EdgeArrays edges = getEdgeArrays(direction);
+        return edges.offsets[index + 1] - edges.offsets[index];
+    }
+
+    /**
+     * Returns an {@link Edge} of the given {@link Node} in the given direction.
+     *
+     * @param index     the index of a {@link Node}
+     * @param edgeIndex the index of the {@link Edge} among the node's edges in the given direction
+     * @param direction the direction of the edge
+     * @return an {@link Edge} of the given {@link Node} in the given direction
+     */
+    public Edge getEdge(final int index, final int edgeIndex, final SequenceDirection direction) {
+        final EdgeArrays edges = getEdgeArrays(direction);
+        return edges.edges[edges.offsets[index] + edgeIndex];
+    }
+
+    /**
+     * Returns the index of the neighbour an {@link Edge} of the given {@link Node} leads to.
+     *
+     * @param index     the index of a {@link Node}
+     * @param edgeIndex the index of the {@link Edge} among the node's edges in the given direction
+     * @param direction the direction of the edge
+     * @return the index of the neighbour the {@link Edge} leads to, or {@link #NOT_IN_SUBGRAPH} if that neighbour is
+     * not in this snapshot
+     */
+    public int getNeighbour(final int index, final int edgeIndex, final SequenceDirection direction) {
+        final EdgeArrays edges = getEdgeArrays(direction);
+        return edges.neighbours[edges.offsets[index] + edgeIndex];
+    }
+
+    /**
+     * Returns {@code true} iff. the given {@link Node} has a neighbour in this snapshot in the given direction.
+     *
+     * @param index     the index of a {@link Node}
+     * @param direction the direction of the neighbour
+     * @return {@code true} iff. the given {@link Node} has a neighbour in this snapshot in the given direction
+     */
+    public boolean hasNeighbour(final int index, final SequenceDirection direction) {
+        final EdgeArrays edges = getEdgeArrays(direction);
+        for (int i = edges.offsets[index]; i < edges.offsets[index + 1]; i++) {
+            if (edges.neighbours[i] != NOT_IN_SUBGRAPH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Returns the {@link EdgeArrays} of the given direction.
+     *
+     * @param direction a direction
+     * @return the {@link EdgeArrays} of the given direction
+     */
+    private EdgeArrays getEdgeArrays(final SequenceDirection direction) {
+        return direction.ternary(leftEdges, rightEdges);
+    }
+
+
+    /**
+     * The {@link Edge}s of all nodes in one direction, in compressed sparse row form.
+     */
+    private static final class EdgeArrays {
+        /**
+         * Per node, the position of its first edge in {@link #edges}, followed by the total number of edges.
+         */
+        private final int[] offsets;
+        private final Edge[] edges;
+        private final int[] neighbours;
+
+
+        /**
+         * Constructs a new {@link EdgeArrays}.
+         *
+         * @param nodes      the {@link Node}s by index
+         * @param indices    the indices of the {@link Node}s by unique identifier
+         * @param direction  the direction of the edges to store
+         * @param edgeMapper maps each {@link Edge} to the {@link Edge} to store in its place
+         */
+        EdgeArrays(final Node[] nodes, final LongIntMap indices, final SequenceDirection direction,
+                   final UnaryOperator<Edge> edgeMapper) {
+            final List<Edge> edgeList = new ArrayList<>();
+            final GrowableIntArray neighbourList = new GrowableIntArray();
+
+            offsets = new int[nodes.length + 1];
+            for (int i = 0; i < nodes.length; i++) {
+                for (final Edge edge : getEdges(nodes[i], direction)) {
+                    final Edge mappedEdge = edgeMapper.apply(edge);
+                    if (edgeList.subList(offsets[i], edgeList.size()).contains(mappedEdge)) {
+                        continue;
+                    }
+
+                    final Node neighbour = direction.ternary(mappedEdge.getFrom(), mappedEdge.getTo());
+
+                    edgeList.add(mappedEdge);
+                    neighbourList.add(indices.getOrDefault(neighbour.getUniqueId(), NOT_IN_SUBGRAPH));
+                }
+                offsets[i + 1] = edgeList.size();
+            }
+
+            edges = edgeList.toArray(new Edge[edgeList.size()]);
+            neighbours = neighbourList.toArray();
+        }
+
+
+        /**
+         * Returns the {@link Edge}s of the given {@link Node} in the given direction.
+         *
+         * @param node      a {@link Node}
+         * @param direction a direction
+         * @return the {@link Edge}s of the given {@link Node} in the given direction
+         */
+        private static Set<Edge> getEdges(final Node node, final SequenceDirection direction) {
+            return direction.ternary(node.getIncomingEdges(), node.getOutgoingEdges());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+
+/**
+ * Detects all superbubbles in a {@link Graph} in linear time, and stores them in a {@link BubbleIndex}.
+ * <p>
+ * First, the nodes are ordered by reverse postorder of a depth-first search from the nodes without left neighbours.
+ * In this order, the entrance, members and exit of each superbubble form a contiguous range, and a range of nodes
+ * forms a superbubble iff all right neighbours of the nodes before the last lie in the range after the first, and all
+ * left neighbours of the nodes after the first lie in the range before the last. The ranges are then found in a
+ * single scan over this order, in which a stack holds the nodes that may still be the entrance of a superbubble,
+ * together with the furthest right neighbour of the nodes between them.
+ * <p>
+ * Nodes on a cycle cannot be part of a superbubble. An edge that does not point forward in the order is on a cycle,
+ * and excludes both its nodes from being the entrance, exit or a member of any superbubble.
+ */
+public final class SuperbubbleDetector {
+    private final Graph graph;
+    private final int nodeCount;
+
+
+    /**
+     * Constructs a new {@link SuperbubbleDetector}.
+     *
+     * @param graph the {@link Graph} to detect the superbubbles in
+     */
+    public SuperbubbleDetector(final Graph graph) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+    }
+
+
+    /**
+     * Detects the superbubbles in the {@link Graph}.
+     *
+     * @return the superbubbles in the {@link Graph}
+     */
+    public BubbleIndex detect() {
+        final int[] order = computeOrder();
+        final int[] positions = new int[nodeCount];
+        for (int position = 0; position < nodeCount; position++) {
+            positions[order[position]] = position;
+        }
+        final boolean[] cyclic = findCyclicNodes(positions);
+
+        final GrowableIntArray entrances = new GrowableIntArray();
+        final GrowableIntArray exits = new GrowableIntArray();
+        final GrowableIntArray memberStarts = new GrowableIntArray();
+        final GrowableIntArray memberEnds = new GrowableIntArray();
+
+        // Candidate entrances, and the furthest right neighbour of the nodes from each candidate up to the next one
+        final int[] candidates = new int[nodeCount];
+        final int[] furthestNeighbours = new int[nodeCount];
+        int candidateCount = 0;
+
+        for (int position = 0; position < nodeCount; position++) {
+            final int node = order[position];
+
+            // A candidate after the furthest left neighbour of the node cannot enclose it
+            final int furthestLeftNeighbour = getFurthestLeftNeighbour(positions, cyclic, node);
+            while (candidateCount > 0 && candidates[candidateCount - 1] > furthestLeftNeighbour) {
+                candidateCount = popCandidate(furthestNeighbours, candidateCount);
+            }
+
+            if (candidateCount > 0 && furthestNeighbours[candidateCount - 1] <= position) {
+                final int entrance = candidates[candidateCount - 1];
+                if (position - entrance > 1) {
+                    entrances.add(order[entrance]);
+                    exits.add(node);
+                    memberStarts.add(entrance + 1);
+                    memberEnds.add(position);
+                }
+                candidateCount = popCandidate(furthestNeighbours, candidateCount);
+            }
+
+            candidates[candidateCount] = position;
+            furthestNeighbours[candidateCount] = getFurthestRightNeighbour(positions, cyclic, node);
+            candidateCount++;
+        }
+
+        return new BubbleIndex(graph, entrances.toArray(), exits.toArray(), memberStarts.toArray(),
+                memberEnds.toArray(), order);
+    }
+
+
+    /**
+     * Orders the nodes by reverse postorder of a depth-first search, starting from the nodes without left neighbours
+     * and then from the nodes on cycles that are not reachable from those.
+     *
+     * @return the identifiers of all nodes in reverse postorder
+     */
+    private int[] computeOrder() {
+        final int[] order = new int[nodeCount];
+        final boolean[] visited = new boolean[nodeCount];
+        final int[] stack = new int[nodeCount];
+        final int[] nextEdges = new int[nodeCount];
+        int orderStart = nodeCount;
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < nodeCount; root++) {
+                if (visited[root] || pass == 0 && graph.getNeighbourCount(root, SequenceDirection.LEFT) > 0) {
+                    continue;
+                }
+
+                visited[root] = true;
+                stack[0] = root;
+                nextEdges[0] = graph.getEdgeStart(root, SequenceDirection.RIGHT);
+                int depth = 1;
+
+                while (depth > 0) {
+                    final int node = stack[depth - 1];
+                    final int edge = nextEdges[depth - 1];
+
+                    if (edge < graph.getEdgeEnd(node, SequenceDirection.RIGHT)) {
+                        nextEdges[depth - 1]++;
+
+                        final int neighbour = graph.getNeighbour(edge);
+                        if (!visited[neighbour]) {
+                            visited[neighbour] = true;
+                            stack[depth] = neighbour;
+                            nextEdges[depth] = graph.getEdgeStart(neighbour, SequenceDirection.RIGHT);
+                            depth++;
+                        }
+                    } else {
+                        depth--;
+                        orderStart--;
+                        order[orderStart] = node;
+                    }
+                }
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Marks the nodes at either end of an edge that does not point forward in the order as being on a cycle.
+     *
+     * @param positions the position of each node in the order
+     * @return whether each node is on a cycle
+     */
+    private boolean[] findCyclicNodes(final int[] positions) {
+        final boolean[] cyclic = new boolean[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.RIGHT);
+            for (int edge = graph.getEdgeStart(node, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+                final int neighbour = graph.getNeighbour(edge);
+                if (positions[neighbour] <= positions[node]) {
+                    cyclic[node] = true;
+                    cyclic[neighbour] = true;
+                }
+            }
+        }
+        return cyclic;
+    }
+
+    /**
+     * Returns the position of the furthest left neighbour of the given node.
+     *
+     * @param positions the position of each node in the order
+     * @param cyclic    whether each node is on a cycle
+     * @param node      the node's identifier
+     * @return the position of the furthest left neighbour, or {@code -1} if the node has no left neighbours or is on
+     * a cycle
+     */
+    private int getFurthestLeftNeighbour(final int[] positions, final boolean[] cyclic, final int node) {
+        final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.LEFT);
+        if (cyclic[node] || graph.getEdgeStart(node, SequenceDirection.LEFT) == edgeEnd) {
+            return -1;
+        }
+
+        int furthest = nodeCount;
+        for (int edge = graph.getEdgeStart(node, SequenceDirection.LEFT); edge < edgeEnd; edge++) {
+            furthest = Math.min(furthest, positions[graph.getNeighbour(edge)]);
+        }
+        return furthest;
+    }
+
+    /**
+     * Returns the position of the furthest right neighbour of the given node.
+     *
+     * @param positions the position of each node in the order
+     * @param cyclic    whether each node is on a cycle
+     * @param node      the node's identifier
+     * @return the position of the furthest right neighbour, or the number of nodes if the node has no right
+     * neighbours or is on a cycle
+     */
+    private int getFurthestRightNeighbour(final int[] positions, final boolean[] cyclic, final int node) {
+        final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.RIGHT);
+        if (cyclic[node] || graph.getEdgeStart(node, SequenceDirection.RIGHT) == edgeEnd) {
+            return nodeCount;
+        }
+
+        int furthest = -1;
+        for (int edge = graph.getEdgeStart(node, SequenceDirection.RIGHT); edge < edgeEnd; edge++) {
+            furthest = Math.max(furthest, positions[graph.getNeighbour(edge)]);
+        }
+        return furthest;
+    }
+
+    /**
+     * Removes the top candidate entrance from the stack, and extends the range of the candidate below it.
+     *
+     * @param furthestNeighbours the furthest right neighbour of the range of each candidate
+     * @param candidateCount     the number of candidates on the stack
+     * @return the new number of candidates on the stack
+     */
+    private static int popCandidate(final int[] furthestNeighbours, final int candidateCount) {
+        if (candidateCount > 1) {
+            furthestNeighbours[candidateCount - 2] = Math.max(furthestNeighbours[candidateCount - 2],
+                    furthestNeighbours[candidateCount - 1]);
+        }
+        return candidateCount - 1;
+    }
+}
@@ -0,0 +1,134 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+
+/**
+ * The topological rank of each node in a {@link Graph}.
+ * <p>
+ * Ranks are small, non-negative integers such that the left neighbours of a node have a lower rank than the node
+ * itself, except for edges on a cycle. As there are at most as many ranks as nodes, a set of nodes can be ordered
+ * topologically by sorting it by rank, or by bucketing it by rank in linear time.
+ *
+ * @see TopologicalSorter
+ */
+public final class TopologicalOrder {
+    private final int[] ranks;
+    private final int rankCount;
+
+
+    /**
+     * Constructs a new {@link TopologicalOrder}.
+     *
+     * @param ranks the rank of each node, indexed by node id
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public TopologicalOrder(final int[] ranks) {
+        int maxRank = -1;
+        for (final int rank : ranks) {
+            if (rank < 0 || rank >= ranks.length) {
+                throw new IllegalArgumentException("Rank " + rank + " is out of bounds.");
+            }
+            maxRank = Math.max(maxRank, rank);
+        }
+
+        this.ranks = ranks;
+        this.rankCount = maxRank + 1;
+    }
+
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return ranks.length;
+    }
+
+    /**
+     * Returns the number of distinct ranks, which is one more than the highest rank.
+     *
+     * @return the number of distinct ranks
+     */
+    public int getRankCount() {
+        return rankCount;
+    }
+
+    /**
+     * Returns the rank of the given node.
+     *
+     * @param id the node's identifier
+     * @return the rank of the given node
+     */
+    public int getRank(final int id) {
+        return ranks[id];
+    }
+
+    /**
+     * Returns the rank of each node, indexed by node id.
+     *
+     * @return the rank of each node, indexed by node id
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getRanks() {
+        return ranks;
+    }
+
+    /**
+     * Returns the identifiers of all nodes in topological order.
+     * <p>
+     * The nodes are bucketed by rank in linear time, and nodes of the same rank are ordered by identifier.
+     *
+     * @return the identifiers of all nodes in topological order
+     */
+    public int[] getNodesByRank() {
+        final int[] rankOffsets = new int[rankCount + 1];
+        for (final int rank : ranks) {
+            rankOffsets[rank + 1]++;
+        }
+        for (int rank = 0; rank < rankCount; rank++) {
+            rankOffsets[rank + 1] += rankOffsets[rank];
+        }
+
+        final int[] nodeIds = new int[ranks.length];
+        for (int id = 0; id < ranks.length; id++) {
+            nodeIds[rankOffsets[ranks[id]]] = id;
+            rankOffsets[ranks[id]]++;
+        }
+        return nodeIds;
+    }
+
+    /**
+     * Returns the given node identifiers in topological order.
+     * <p>
+     * Each node is encoded as its rank in the upper half of a {@code long} and its identifier in the lower half, so
+     * that the nodes can be sorted as primitives. Nodes of the same rank are ordered by identifier.
+     *
+     * @param nodeIds the identifiers of some nodes
+     * @return a sorted copy of the given node identifiers
+     */
+    public int[] sortByRank(final int[] nodeIds) {
+        final long[] keys = new long[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            keys[i] = (long) ranks[nodeIds[i]] << Integer.SIZE | nodeIds[i];
+        }
+        Arrays.sort(keys);
+
+        final int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+}
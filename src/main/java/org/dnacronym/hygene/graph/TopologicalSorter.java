@@ -0,0 +1,160 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Computes the {@link TopologicalOrder} of a {@link Graph} with a level-synchronous, parallel version of Kahn's
+ * algorithm.
+ * <p>
+ * The first frontier consists of the nodes without left neighbours. Each frontier is expanded with fork/join by
+ * {@link RankFrontierExpansion}, which gives its nodes the rank of the frontier and releases the right neighbours of
+ * which all left neighbours have been ranked into the next frontier. The rank of a node is thus the length of the
+ * longest path to it from a node without left neighbours.
+ * <p>
+ * If the frontier runs empty while some nodes have not been ranked, the graph contains a cycle. The strongly connected
+ * components of the graph are then computed once, in topological order. Each cycle is broken in the first component
+ * that still contains unranked nodes, as all left neighbours outside that component have been ranked. Within the
+ * component, a node with a ranked left neighbour is released, regardless of its unranked left neighbours, so that the
+ * cycle is entered where the ranked part of the graph leads into it. This way, nodes downstream of a cycle are not
+ * ranked before the cycle itself.
+ */
+public final class TopologicalSorter {
+    private final Graph graph;
+
+
+    /**
+     * Constructs a new {@link TopologicalSorter}.
+     *
+     * @param graph the {@link Graph} to sort
+     */
+    public TopologicalSorter(final Graph graph) {
+        this.graph = graph;
+    }
+
+
+    /**
+     * Computes the topological rank of each node in the {@link Graph}.
+     *
+     * @return the topological rank of each node in the {@link Graph}
+     */
+    public TopologicalOrder sort() {
+        final int nodeCount = graph.getNodeCount();
+        final int[] ranks = new int[nodeCount];
+        final boolean[] released = new boolean[nodeCount];
+        final AtomicIntegerArray unrankedLeftNeighbours = new AtomicIntegerArray(nodeCount);
+        // Each node is released exactly once, so the frontiers are stored one after another
+        final int[] releaseOrder = new int[nodeCount];
+
+        int frontierEnd = 0;
+        for (int id = 0; id < nodeCount; id++) {
+            final int leftNeighbourCount = graph.getNeighbourCount(id, SequenceDirection.LEFT);
+            unrankedLeftNeighbours.set(id, leftNeighbourCount);
+            if (leftNeighbourCount == 0) {
+                releaseOrder[frontierEnd] = id;
+                frontierEnd++;
+            }
+        }
+
+        final RankFrontierExpansion expansion =
+                new RankFrontierExpansion(graph, unrankedLeftNeighbours, ranks, releaseOrder);
+        final CycleBreaker cycleBreaker = new CycleBreaker(graph, released);
+        int frontierStart = 0;
+        int rank = 0;
+        while (frontierStart < nodeCount) {
+            if (frontierStart == frontierEnd) {
+                final int node = cycleBreaker.findEntrance();
+                // Later decrements drop below zero, so the node is never released a second time
+                unrankedLeftNeighbours.set(node, 0);
+                releaseOrder[frontierEnd] = node;
+                frontierEnd++;
+            }
+
+            for (int i = frontierStart; i < frontierEnd; i++) {
+                released[releaseOrder[i]] = true;
+            }
+
+            final int nextFrontierEnd = expansion.expand(rank, frontierStart, frontierEnd);
+            frontierStart = frontierEnd;
+            frontierEnd = nextFrontierEnd;
+            rank++;
+        }
+
+        return new TopologicalOrder(ranks);
+    }
+
+
+    /**
+     * Finds the nodes at which to break the cycles of a {@link Graph} when the frontier runs empty.
+     * <p>
+     * The strongly connected components are only computed when the first cycle is encountered.
+     */
+    private static final class CycleBreaker {
+        private final Graph graph;
+        private final boolean[] released;
+        private @MonotonicNonNull StronglyConnectedComponents components;
+        private int nextCandidate;
+
+
+        /**
+         * Constructs a new {@link CycleBreaker}.
+         *
+         * @param graph    the {@link Graph} being sorted
+         * @param released whether each node has been ranked, which is updated by the sorter
+         */
+        @SuppressFBWarnings(
+                value = "EI_EXPOSE_REP2",
+                justification = "The sorter marks the ranked nodes in this array by design"
+        )
+        @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Shared by design
+        CycleBreaker(final Graph graph, final boolean[] released) {
+            this.graph = graph;
+            this.released = released;
+        }
+
+
+        /**
+         * Finds an unranked node with a ranked left neighbour in the topologically first component that still
+         * contains unranked nodes, or the first unranked node in that component if there is none.
+         *
+         * @return the identifier of the node at which to break the cycle
+         */
+        int findEntrance() {
+            if (components == null) {
+                components = new StronglyConnectedComponents(graph);
+            }
+            while (released[components.getNodeInOrder(nextCandidate)]) {
+                nextCandidate++;
+            }
+
+            final int component = components.getComponent(components.getNodeInOrder(nextCandidate));
+            for (int index = nextCandidate; index < components.getNodeCount()
+                    && components.getComponent(components.getNodeInOrder(index)) == component; index++) {
+                final int node = components.getNodeInOrder(index);
+                if (!released[node] && hasReleasedLeftNeighbour(node)) {
+                    return node;
+                }
+            }
+            return components.getNodeInOrder(nextCandidate);
+        }
+
+        /**
+         * Returns true iff the given node has a left neighbour that has been ranked.
+         *
+         * @param node the identifier of a node
+         * @return true iff the given node has a left neighbour that has been ranked
+         */
+        private boolean hasReleasedLeftNeighbour(final int node) {
+            final int edgeEnd = graph.getEdgeEnd(node, SequenceDirection.LEFT);
+            for (int edge = graph.getEdgeStart(node, SequenceDirection.LEFT); edge < edgeEnd; edge++) {
+                if (released[graph.getNeighbour(edge)]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
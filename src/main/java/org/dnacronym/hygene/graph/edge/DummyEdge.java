@@ -11,7 +11,7 @@ import java.util.Set;
 /**
  * Class representing a dummy edge, to be used for graph layout.
  */
-@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use UUID, which is unique enough
+@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use the unique identifier
 public final class DummyEdge extends Edge {
     private final Edge originalEdge;
 
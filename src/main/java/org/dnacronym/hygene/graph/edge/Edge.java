@@ -4,16 +4,20 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 
-import java.util.Objects;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
  * Class representing a generic edge.
  */
 public abstract class Edge {
-    private final UUID uuid;
+    /**
+     * The source of unique identifiers for edges.
+     */
+    private static final AtomicLong NEXT_UNIQUE_ID = new AtomicLong();
+
+    private final long uniqueId;
     private final Node from;
     private final Node to;
     private @Nullable Set<String> genomes;
@@ -26,7 +30,7 @@ public abstract class Edge {
      * @param to   the destination of the edge
      */
     public Edge(final Node from, final Node to) {
-        this.uuid = UUID.randomUUID();
+        this.uniqueId = NEXT_UNIQUE_ID.getAndIncrement();
         this.from = from;
         this.to = to;
         this.genomes = null;
@@ -120,17 +124,17 @@ public abstract class Edge {
             return false;
         }
         final Edge edge = (Edge) o;
-        return Objects.equals(uuid, edge.uuid);
+        return uniqueId == edge.uniqueId;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(uuid);
+        return Long.hashCode(uniqueId);
     }
 
     @Override
     public final String toString() {
-        return "Edge{" + "uuid=" + uuid
+        return "Edge{" + "uniqueId=" + uniqueId
                 + ",\n    from=" + from
                 + ", to=" + to + "}\n";
     }
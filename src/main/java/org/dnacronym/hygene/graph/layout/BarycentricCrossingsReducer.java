@@ -1,14 +1,14 @@
 package org.dnacronym.hygene.graph.layout;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.node.FillNode;
 import org.dnacronym.hygene.graph.node.LayoutableNode;
 import org.dnacronym.hygene.graph.node.Node;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -17,7 +17,6 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 /**
@@ -86,19 +85,17 @@ public final class BarycentricCrossingsReducer implements SugiyamaCrossingsReduc
         final List<@Nullable LayoutableNode> newLayer2 = new ArrayList<>();
         enlargeList(newLayer2, layer2.length);
 
-        final Map<Integer, LayoutableNode> lengthy = giveLengthyNodesSamePosition(layer1, layer2, newLayer2);
-        final List<LayoutableNode> nonLengthy = Arrays.stream(layer2)
-                .filter(node -> !lengthy.containsValue(node))
-                .collect(Collectors.toList());
+        final Map<LayoutableNode, Integer> layer1Positions = getPositions(layer1);
 
-        final Map<LayoutableNode, Double> positions = new LinkedHashMap<>(); // Maps nodes to ordinal positions
-
-        for (final LayoutableNode node : nonLengthy) {
-            final int[] neighboursInLayer1 = neighboursInLayer1(node, layer1);
+        final Map<Integer, LayoutableNode> lengthy = giveLengthyNodesSamePosition(layer1Positions, layer2, newLayer2);
+        final Set<LayoutableNode> lengthyNodesInLayer2 = new HashSet<>(lengthy.values());
 
-            final double averageOfParents = (double) IntStream.of(neighboursInLayer1).sum() / neighboursInLayer1.length;
+        final Map<LayoutableNode, Double> positions = new LinkedHashMap<>(); // Maps nodes to ordinal positions
 
-            positions.put(node, averageOfParents);
+        for (final LayoutableNode node : layer2) {
+            if (!lengthyNodesInLayer2.contains(node)) {
+                positions.put(node, averageOfParents(node, layer1Positions));
+            }
         }
 
         final Map<LayoutableNode, Double> sortedNonLengthy = positions.entrySet().stream()
@@ -113,44 +110,62 @@ public final class BarycentricCrossingsReducer implements SugiyamaCrossingsReduc
     }
 
     /**
-     * Returns the sorted ordinal positions of nodes in layer 1 that are in the intersection between the neighbours
-     * of the given node and layer 1.
+     * Returns the average of the ordinal positions of the nodes in layer 1 that are in the intersection between the
+     * neighbours of the given node and layer 1.
+     *
+     * @param node            a node from layer 2
+     * @param layer1Positions the positions of the nodes in layer 1
+     * @return the average ordinal position of neighbours in layer 1, or {@link Double#NaN} if there are none
+     */
+    private double averageOfParents(final LayoutableNode node, final Map<LayoutableNode, Integer> layer1Positions) {
+        int sum = 0;
+        int count = 0;
+        for (final Edge edge : node.getIncomingEdges()) {
+            final Integer position = layer1Positions.get(edge.getFrom());
+            if (position != null) {
+                sum += position + 1;
+                count++;
+            }
+        }
+
+        return (double) sum / count;
+    }
+
+    /**
+     * Maps each node in the given layer to its first position in that layer.
      *
-     * @param node   a node from layer 2
-     * @param layer1 the nodes in layer 1
-     * @return the sorted ordinal position of neighbours in layer 1
+     * @param layer a layer
+     * @return a map from each node in the given layer to its first position in that layer
      */
-    private int[] neighboursInLayer1(final LayoutableNode node, final LayoutableNode[] layer1) {
-        return node.getIncomingEdges().stream()
-                .filter(neighbour -> Arrays.stream(layer1)
-                        .anyMatch(layer1Element -> layer1Element == neighbour.getFrom())
-                )
-                .mapToInt(v -> ArrayUtils.indexOf(layer1, v.getFrom()) + 1)
-                .sorted()
-                .toArray();
+    private Map<LayoutableNode, Integer> getPositions(final LayoutableNode[] layer) {
+        final Map<LayoutableNode, Integer> positions = new HashMap<>();
+        for (int i = layer.length - 1; i >= 0; i--) {
+            positions.put(layer[i], i);
+        }
+        return positions;
     }
 
     /**
      * Puts lengthy nodes in the same position in the results as their parent.
      *
-     * @param layer1    the nodes in layer 1
-     * @param layer2    the nodes in layer 2
-     * @param newLayer2 the results of the current iteration
+     * @param layer1Positions the positions of the nodes in layer 1
+     * @param layer2          the nodes in layer 2
+     * @param newLayer2       the results of the current iteration
      * @return map from position in results to lengthy nodes
      */
-    private Map<Integer, LayoutableNode> giveLengthyNodesSamePosition(final LayoutableNode[] layer1,
-                                                                      final LayoutableNode[] layer2,
-                                                                      final List<@Nullable LayoutableNode> newLayer2) {
+    private Map<Integer, LayoutableNode> giveLengthyNodesSamePosition(
+            final Map<LayoutableNode, Integer> layer1Positions, final LayoutableNode[] layer2,
+            final List<@Nullable LayoutableNode> newLayer2) {
         final Map<Integer, LayoutableNode> lengthy = new LinkedHashMap<>();
 
-        Arrays.stream(layer2).forEach(layer2Node -> {
-            final int layer1Position = ArrayUtils.indexOf(layer1, layer2Node);
-            if (layer1Position > -1) {
+        for (final LayoutableNode layer2Node : layer2) {
+            final Integer layer1Position = layer1Positions.get(layer2Node);
+            if (layer1Position != null) {
                 enlargeList(newLayer2, layer1Position + 1);
                 newLayer2.set(layer1Position, layer2Node);
                 lengthy.put(layer1Position, layer2Node);
             }
-        });
+        }
 
         return lengthy;
     }
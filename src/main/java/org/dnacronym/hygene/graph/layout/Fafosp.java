@@ -2,12 +2,12 @@ package org.dnacronym.hygene.graph.layout;
 
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.GraphIterator;
+import org.dnacronym.hygene.graph.NodePositionIndex;
 import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.TopologicalOrder;
+import org.dnacronym.hygene.graph.TopologicalSorter;
 
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.TreeMap;
 
 
 /**
@@ -18,7 +18,6 @@ public final class Fafosp {
     private static final int COLUMN_WIDTH = 1000;
 
     private final Graph graph;
-    private final int[][] nodeArrays;
     private final GraphIterator iterator;
 
 
@@ -29,44 +28,38 @@ public final class Fafosp {
      */
     public Fafosp(final Graph graph) {
         this.graph = graph;
-        this.nodeArrays = graph.getNodeArrays();
         this.iterator = new GraphIterator(graph);
     }
 
 
     /**
      * Calculates the optimal horizontal position of each node in the {@link Graph}.
+     * <p>
+     * The nodes are positioned in topological order, so that the left neighbours of a node have been positioned
+     * before the node itself. If the {@link Graph} has no {@link TopologicalOrder} yet, it is computed and set first.
+     *
+     * @return the index of the positioned nodes by horizontal position
      */
-    @SuppressWarnings({"PMD.LooseCoupling", "squid:S1319"}) // I need a TreeMap
-    public TreeMap<Long, Integer> horizontal() {
-        final TreeMap<Long, Integer> nodePositions = new TreeMap<>();
+    public NodePositionIndex horizontal() {
+        final int[] placementOrder = new int[graph.getNodeCount()];
+        int placedCount = 0;
 
-        final long[] xPositions = new long[nodeArrays.length];
+        final long[] xPositions = new long[graph.getNodeCount()];
         Arrays.fill(xPositions, -1);
 
-        final Queue<Integer> queue = new LinkedList<>();
-        iterator.visitDirectNeighbours(0, SequenceDirection.RIGHT, queue::add);
         xPositions[0] = 0;
 
-        while (!queue.isEmpty()) {
-            final Integer head = queue.remove();
-
-            // Horizontal position may have been set since it was added to the queue
-            if (xPositions[head] >= 0) {
+        for (final int id : getTopologicalOrder().getNodesByRank()) {
+            if (xPositions[id] >= 0) {
                 continue;
             }
 
-            horizontal(xPositions, head);
+            horizontal(xPositions, id);
 
             // Horizontal position cannot always be determined by FAFOSP-X
-            if (xPositions[head] >= 0) {
-                nodePositions.put(xPositions[head], head);
-                // Add neighbours of which horizontal position was not set
-                iterator.visitDirectNeighbours(head, SequenceDirection.RIGHT, neighbour -> {
-                    if (xPositions[neighbour] < 0) {
-                        queue.add(neighbour);
-                    }
-                });
+            if (xPositions[id] >= 0) {
+                placementOrder[placedCount] = id;
+                placedCount++;
             }
         }
 
@@ -74,7 +67,56 @@ public final class Fafosp {
             graph.setUnscaledXPosition(i, (int) (xPositions[i] / COLUMN_WIDTH));
         }
 
-        return nodePositions;
+        return createNodePositionIndex(xPositions, placementOrder, placedCount);
+    }
+
+    /**
+     * Returns the {@link TopologicalOrder} of the {@link Graph}, computing it first if it has not been set.
+     *
+     * @return the {@link TopologicalOrder} of the {@link Graph}
+     */
+    private TopologicalOrder getTopologicalOrder() {
+        TopologicalOrder order = graph.getTopologicalOrder();
+        if (order == null) {
+            order = new TopologicalSorter(graph).sort();
+            graph.setTopologicalOrder(order);
+        }
+        return order;
+    }
+
+    /**
+     * Creates the index of nodes by horizontal position in bulk.
+     * <p>
+     * As all positions are multiples of the column width, each node is encoded as its column in the upper half of a
+     * {@code long} and its placement rank in the lower half, so that the nodes can be sorted as primitives. If
+     * several nodes share a position, the node that was placed last is kept.
+     *
+     * @param xPositions     array of {@code long}s indicating x positions of nodes, indexed by node id
+     * @param placementOrder the identifiers of the positioned nodes in the order in which they were positioned
+     * @param placedCount    the number of positioned nodes
+     * @return the index of the positioned nodes by horizontal position
+     */
+    private static NodePositionIndex createNodePositionIndex(final long[] xPositions, final int[] placementOrder,
+                                                             final int placedCount) {
+        final long[] keys = new long[placedCount];
+        for (int rank = 0; rank < placedCount; rank++) {
+            keys[rank] = (xPositions[placementOrder[rank]] / COLUMN_WIDTH) << Integer.SIZE | rank;
+        }
+        Arrays.sort(keys);
+
+        final long[] positions = new long[placedCount];
+        final int[] nodeIds = new int[placedCount];
+        int size = 0;
+        for (final long key : keys) {
+            final long position = (key >>> Integer.SIZE) * COLUMN_WIDTH;
+            if (size == 0 || positions[size - 1] != position) {
+                size++;
+            }
+            positions[size - 1] = position;
+            nodeIds[size - 1] = placementOrder[(int) key];
+        }
+
+        return new NodePositionIndex(Arrays.copyOf(positions, size), Arrays.copyOf(nodeIds, size));
     }
 
     /**
@@ -68,13 +68,14 @@ public final class FafospLayerer implements SugiyamaLayerer {
     @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // That is exactly what this method should do
     private void addToLayers(final LayererData data, final LayoutableNode[][] layers) {
         final Set<Node> addLayoutableNodeLater = new HashSet<>();
+        final int[] layerSizes = new int[layers.length];
 
         for (final LayoutableNode node : data.nodes) {
             if (Thread.interrupted()) {
                 return;
             }
 
-            forEachLayer(data, node, layer -> addToLayerSomewhere(layers[layer], node));
+            forEachLayer(data, node, layer -> addToLayer(layers, layerSizes, layer, node));
 
             final Set<Edge> addEdgeLater = new HashSet<>();
             final Set<Edge> removeEdgeLater = new HashSet<>();
@@ -87,7 +88,7 @@ public final class FafospLayerer implements SugiyamaLayerer {
                 edge.getTo().getIncomingEdges().remove(edge);
                 removeEdgeLater.add(edge);
 
-                final List<DummyNode> dummyLayoutableNodes = createDummyNodes(data, layers, edge);
+                final List<DummyNode> dummyLayoutableNodes = createDummyNodes(data, layers, layerSizes, edge);
                 addLayoutableNodeLater.addAll(dummyLayoutableNodes);
 
                 final Edge firstEdge = connectDummies(edge, dummyLayoutableNodes);
@@ -116,10 +117,10 @@ public final class FafospLayerer implements SugiyamaLayerer {
     private int calculateLayerCount(final LayererData data) {
         assert !data.nodes.isEmpty();
 
-        final long maxPosition = data.nodes.stream()
-                .map(node -> node.getXPosition() + node.getLength())
-                .max(Long::compare)
-                .orElseThrow(() -> new IllegalStateException("Non-empty collection has no maximum."));
+        long maxPosition = Long.MIN_VALUE;
+        for (final LayoutableNode node : data.nodes) {
+            maxPosition = Math.max(maxPosition, node.getXPosition() + node.getLength());
+        }
         return data.positionToLayer(maxPosition);
     }
 
@@ -146,12 +147,14 @@ public final class FafospLayerer implements SugiyamaLayerer {
      * Creates a collection of unconnected {@link DummyNode}s, adds them to the correct layer, and sets their
      * horizontal position.
      *
-     * @param data   the {@link LayererData}
-     * @param layers an array of layers
-     * @param edge   the {@link Edge} to replace with {@link DummyNode}s
+     * @param data       the {@link LayererData}
+     * @param layers     an array of layers
+     * @param layerSizes the number of {@link LayoutableNode}s that have been added to each layer
+     * @param edge       the {@link Edge} to replace with {@link DummyNode}s
      * @return a collection of unconnected {@link DummyNode}s
      */
-    private List<DummyNode> createDummyNodes(final LayererData data, final LayoutableNode[][] layers, final Edge edge) {
+    private List<DummyNode> createDummyNodes(final LayererData data, final LayoutableNode[][] layers,
+                                             final int[] layerSizes, final Edge edge) {
         final List<DummyNode> dummyLayoutableNodes = new ArrayList<>();
 
         forEachLayer(data, edge, layer -> {
@@ -159,7 +162,7 @@ public final class FafospLayerer implements SugiyamaLayerer {
             dummy.setXPosition((long) (layer + data.minLayer) * LAYER_WIDTH);
 
             dummyLayoutableNodes.add(dummy);
-            addToLayerSomewhere(layers[layer], dummy);
+            addToLayer(layers, layerSizes, layer, dummy);
         });
 
         return dummyLayoutableNodes;
@@ -248,20 +251,21 @@ public final class FafospLayerer implements SugiyamaLayerer {
     }
 
     /**
-     * Adds the given {@link LayoutableNode} somewhere in the given layer.
+     * Adds the given {@link LayoutableNode} to the first free position in the given layer.
      *
-     * @param layer a layer
-     * @param node  a {@link LayoutableNode}
+     * @param layers     an array of layers
+     * @param layerSizes the number of {@link LayoutableNode}s that have been added to each layer
+     * @param layer      the index of a layer
+     * @param node       a {@link LayoutableNode}
      */
-    private void addToLayerSomewhere(final LayoutableNode[] layer, final LayoutableNode node) {
-        for (int i = 0; i < layer.length; i++) {
-            if (layer[i] == null) {
-                layer[i] = node;
-                return;
-            }
+    private void addToLayer(final LayoutableNode[][] layers, final int[] layerSizes, final int layer,
+                            final LayoutableNode node) {
+        if (layerSizes[layer] >= layers[layer].length) {
+            throw new IllegalStateException("Layer is full, calculateHeights method is erroneous.");
         }
 
-        throw new IllegalStateException("Layer is full, calculateHeights method is erroneous.");
+        layers[layer][layerSizes[layer]] = node;
+        layerSizes[layer]++;
     }
 
 
@@ -283,10 +287,10 @@ public final class FafospLayerer implements SugiyamaLayerer {
             this.subgraph = subgraph;
             this.nodes = subgraph.getNodes();
 
-            final Long minPosition = nodes.stream()
-                    .map(LayoutableNode::getXPosition)
-                    .min(Long::compare)
-                    .orElseThrow(() -> new IllegalStateException("Non-empty collection has no minimum."));
+            long minPosition = Long.MAX_VALUE;
+            for (final LayoutableNode node : nodes) {
+                minPosition = Math.min(minPosition, node.getXPosition());
+            }
             this.minLayer = (int) ((minPosition + LAYER_WIDTH - 1) / LAYER_WIDTH) - 1;
         }
 
@@ -0,0 +1,184 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A least-recently-used cache of {@link NodeMetadata} by node id, bounded by the number of bytes its sequences retain.
+ * <p>
+ * Sequences vary in length by several orders of magnitude, so the number of entries says little about the memory the
+ * cache uses. Instead, each entry is weighed by the size of its sequence, and the least recently used entries are
+ * evicted as soon as the total weight exceeds the byte budget. An entry that is heavier than the budget on its own is
+ * not stored at all.
+ * <p>
+ * All methods are synchronized, so that the budget can be changed while metadata is being retrieved.
+ */
+final class BoundedMetadataCache {
+    private final Map<Integer, NodeMetadata> entries;
+    private long byteBudget;
+    private long retainedBytes;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+
+    /**
+     * Constructs a new {@link BoundedMetadataCache}.
+     *
+     * @param byteBudget the maximum number of bytes the sequences in the cache may retain
+     */
+    BoundedMetadataCache(final long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("The byte budget must be non-negative.");
+        }
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.byteBudget = byteBudget;
+    }
+
+
+    /**
+     * Returns the metadata of the node with the given id, and marks it as most recently used.
+     *
+     * @param nodeId the id of a node
+     * @return the metadata of the node, or {@code null} if it is not in the cache
+     */
+    synchronized @Nullable NodeMetadata get(final int nodeId) {
+        final NodeMetadata metadata = entries.get(nodeId);
+        if (metadata == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return metadata;
+    }
+
+    /**
+     * Adds the metadata of the node with the given id as most recently used, and evicts the least recently used
+     * entries until the cache fits its budget again.
+     *
+     * @param nodeId   the id of a node
+     * @param metadata the metadata of the node
+     */
+    synchronized void put(final int nodeId, final NodeMetadata metadata) {
+        final NodeMetadata previous = entries.remove(nodeId);
+        if (previous != null) {
+            retainedBytes -= getRetainedBytes(previous);
+        }
+
+        final long bytes = getRetainedBytes(metadata);
+        if (bytes > byteBudget) {
+            return;
+        }
+
+        entries.put(nodeId, metadata);
+        retainedBytes += bytes;
+        evict();
+    }
+
+    /**
+     * Adds the metadata of each node in the given map.
+     *
+     * @param metadata a map from node ids to their metadata
+     * @see #put(int, NodeMetadata)
+     */
+    synchronized void putAll(final Map<Integer, NodeMetadata> metadata) {
+        metadata.forEach(this::put);
+    }
+
+    /**
+     * Returns the maximum number of bytes the sequences in the cache may retain.
+     *
+     * @return the maximum number of bytes the sequences in the cache may retain
+     */
+    synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * Sets the maximum number of bytes the sequences in the cache may retain, and evicts entries if it is exceeded.
+     *
+     * @param byteBudget the maximum number of bytes the sequences in the cache may retain
+     */
+    synchronized void setByteBudget(final long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("The byte budget must be non-negative.");
+        }
+
+        this.byteBudget = byteBudget;
+        evict();
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of bytes the sequences in the cache retain.
+     *
+     * @return the number of bytes the sequences in the cache retain
+     */
+    synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return the number of lookups that found an entry
+     */
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry.
+     *
+     * @return the number of lookups that did not find an entry
+     */
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the budget.
+     *
+     * @return the number of entries evicted to stay within the budget
+     */
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+
+    /**
+     * Evicts the least recently used entries until the sequences in the cache fit the budget.
+     */
+    private void evict() {
+        final Iterator<NodeMetadata> iterator = entries.values().iterator();
+        while (retainedBytes > byteBudget && iterator.hasNext()) {
+            retainedBytes -= getRetainedBytes(iterator.next());
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Returns the number of bytes the sequence of the given metadata retains.
+     *
+     * @param metadata a {@link NodeMetadata}
+     * @return the number of bytes the sequence of the given metadata retains
+     */
+    private static long getRetainedBytes(final NodeMetadata metadata) {
+        return metadata.getSequence().getRetainedBytes();
+    }
+}
@@ -9,10 +9,12 @@ import java.util.stream.Collectors;
 
 /**
  * Represents the metadata of a {@link org.dnacronym.hygene.graph.node.Node}.
+ * <p>
+ * The sequence is stored as a {@link PackedSequence}.
  */
 public final class NodeMetadata {
     private final String name;
-    private final String sequence;
+    private final PackedSequence sequence;
     private final List<String> genomes;
 
 
@@ -20,12 +22,12 @@ public final class NodeMetadata {
      * Constructs and initializes a {@link NodeMetadata} object.
      *
      * @param name     the node ID in the GFA file
-     * @param sequence the DNA sequence
+     * @param sequence the DNA sequence, which is packed unless it already is
      * @param genomes  the list of genomes this node belongs to
      */
-    public NodeMetadata(final String name, final String sequence, final List<String> genomes) {
+    public NodeMetadata(final String name, final CharSequence sequence, final List<String> genomes) {
         this.name = name;
-        this.sequence = sequence;
+        this.sequence = PackedSequence.pack(sequence);
         this.genomes = genomes;
     }
 
@@ -36,7 +38,17 @@ public final class NodeMetadata {
      */
     public NodeMetadata(final Collection<NodeMetadata> nodeMetadata) {
         this.name = nodeMetadata.stream().map(NodeMetadata::getName).collect(Collectors.toList()).toString();
-        this.sequence = nodeMetadata.stream().map(NodeMetadata::getSequence).collect(Collectors.toList()).toString();
+
+        final PackedSequence.Builder builder = new PackedSequence.Builder(0).append('[');
+        boolean first = true;
+        for (final NodeMetadata metadata : nodeMetadata) {
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(metadata.getSequence());
+            first = false;
+        }
+        this.sequence = builder.append(']').build();
 
         final Set<String> combinedGenomes = nodeMetadata.stream()
                 .map(NodeMetadata::getGenomes)
@@ -46,6 +58,29 @@ public final class NodeMetadata {
     }
 
 
+    /**
+     * Combines the given sets of {@link NodeMetadata} of consecutive nodes into a single object.
+     * <p>
+     * Unlike {@link #NodeMetadata(Collection)}, the sequences are concatenated in the given order, as the nodes form
+     * a single sequence together.
+     *
+     * @param nodeMetadata the {@link NodeMetadata} of consecutive nodes, in order
+     * @return the combined {@link NodeMetadata}
+     */
+    public static NodeMetadata concatenate(final List<NodeMetadata> nodeMetadata) {
+        final String name = nodeMetadata.stream().map(NodeMetadata::getName).collect(Collectors.toList()).toString();
+        final PackedSequence.Builder builder = new PackedSequence.Builder(
+                nodeMetadata.stream().mapToInt(metadata -> metadata.getSequence().length()).sum());
+        nodeMetadata.forEach(metadata -> builder.append(metadata.getSequence()));
+        final Set<String> combinedGenomes = nodeMetadata.stream()
+                .map(NodeMetadata::getGenomes)
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+
+        return new NodeMetadata(name, builder.build(), new ArrayList<>(combinedGenomes));
+    }
+
+
     /**
      * Gets the original node ID of the GFA file.
      *
@@ -60,7 +95,7 @@ public final class NodeMetadata {
      *
      * @return the DNA sequence of the node
      */
-    public String getSequence() {
+    public PackedSequence getSequence() {
         return sequence;
     }
 
@@ -5,12 +5,16 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dnacronym.hygene.core.HygeneEventBus;
 import org.dnacronym.hygene.core.ThrottledExecutor;
-import org.dnacronym.hygene.event.CenterPointQueryChangeEvent;
 import org.dnacronym.hygene.event.LayoutDoneEvent;
 import org.dnacronym.hygene.event.NodeMetadataCacheUpdateEvent;
 import org.dnacronym.hygene.graph.PathCalculator;
 import org.dnacronym.hygene.graph.Subgraph;
+import org.dnacronym.hygene.graph.TopologicalOrder;
 import org.dnacronym.hygene.graph.node.AggregateSegment;
+import org.dnacronym.hygene.graph.node.ChainSegment;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
+import org.dnacronym.hygene.graph.node.GfaNode;
+import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.MetadataParseException;
@@ -22,31 +26,41 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
  * Represents the cache of {@link org.dnacronym.hygene.graph.node.Node}s with metadata loaded.
+ * <p>
+ * The cache is bounded by the number of bytes its sequences retain, and evicts the least recently used metadata once
+ * its byte budget is exceeded.
  */
 public final class NodeMetadataCache {
     private static final Logger LOGGER = LogManager.getLogger(NodeMetadataCache.class);
 
     /**
-     * Defines the maximum radius for which nodes will be cached.
+     * Defines the maximum total sequence length of the segments in a subgraph for which nodes will be cached.
+     * <p>
+     * Retrieving metadata requires reading the sequences of the segments, so its cost is bounded by this number
+     * regardless of the kind of query that produced the subgraph.
      */
-    private static final int RADIUS_THRESHOLD = 150;
+    private static final long BASE_PAIR_THRESHOLD = 1_000_000;
     /**
      * The minimum number of milliseconds that must be between each retrieval operation.
      */
     private static final int RETRIEVE_METADATA_TIMEOUT = 750;
+    /**
+     * The default maximum number of bytes the sequences in the cache may retain.
+     */
+    public static final long DEFAULT_BYTE_BUDGET = 64L * 1024 * 1024;
 
     private final ThrottledExecutor retrievalExecutor;
     private final GfaFile gfaFile;
-    private final Map<Integer, NodeMetadata> cache;
+    private final BoundedMetadataCache cache;
     private final PathCalculator pathCalculator;
 
-    private int currentRadius;
-
 
     /**
      * Constructs and initializes {@link NodeMetadataCache}.
@@ -56,21 +70,11 @@ public final class NodeMetadataCache {
     public NodeMetadataCache(final GfaFile gfaFile) {
         this.retrievalExecutor = new ThrottledExecutor(RETRIEVE_METADATA_TIMEOUT);
         this.gfaFile = gfaFile;
-        this.cache = new HashMap<>();
+        this.cache = new BoundedMetadataCache(DEFAULT_BYTE_BUDGET);
         this.pathCalculator = new PathCalculator();
     }
 
 
-    /**
-     * Updates the current radius when a {@link org.dnacronym.hygene.graph.CenterPointQuery} changes.
-     *
-     * @param event a {@link CenterPointQueryChangeEvent}
-     */
-    @Subscribe
-    public void centerPointQueryChanged(final CenterPointQueryChangeEvent event) {
-        this.currentRadius = event.getRadius();
-    }
-
     /**
      * Retrieves metadata as soon as the layout is done.
      *
@@ -78,7 +82,7 @@ public final class NodeMetadataCache {
      */
     @Subscribe
     public void layoutDone(final LayoutDoneEvent event) {
-        if (currentRadius >= RADIUS_THRESHOLD) {
+        if (countBasePairs(event.getSubgraph()) > BASE_PAIR_THRESHOLD) {
             retrievalExecutor.stop();
             return;
         }
@@ -88,7 +92,7 @@ public final class NodeMetadataCache {
             if (Thread.interrupted()) {
                 return;
             }
-            pathCalculator.computePaths(event.getSubgraph());
+            computePaths(event.getSubgraph());
             HygeneEventBus.getInstance().post(new NodeMetadataCacheUpdateEvent(event.getSubgraph()));
         });
     }
@@ -102,22 +106,118 @@ public final class NodeMetadataCache {
         return retrievalExecutor;
     }
 
+    /**
+     * Returns the maximum number of bytes the sequences in the cache may retain.
+     *
+     * @return the maximum number of bytes the sequences in the cache may retain
+     */
+    public long getByteBudget() {
+        return cache.getByteBudget();
+    }
+
+    /**
+     * Sets the maximum number of bytes the sequences in the cache may retain, and evicts the least recently used
+     * metadata if it is exceeded.
+     *
+     * @param byteBudget the maximum number of bytes the sequences in the cache may retain
+     */
+    public void setByteBudget(final long byteBudget) {
+        cache.setByteBudget(byteBudget);
+    }
+
+    /**
+     * Returns the number of bytes the sequences in the cache retain.
+     *
+     * @return the number of bytes the sequences in the cache retain
+     */
+    public long getRetainedBytes() {
+        return cache.getRetainedBytes();
+    }
+
+    /**
+     * Returns the number of segments whose metadata was found in the cache.
+     *
+     * @return the number of segments whose metadata was found in the cache
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * Returns the number of segments whose metadata was not found in the cache.
+     *
+     * @return the number of segments whose metadata was not found in the cache
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * Returns the number of segments whose metadata was evicted from the cache.
+     *
+     * @return the number of segments whose metadata was evicted from the cache
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+
+    /**
+     * Returns the total sequence length of the segments in the given subgraph.
+     *
+     * @param subgraph a {@link Subgraph}
+     * @return the total sequence length of the segments in the given subgraph
+     */
+    private static long countBasePairs(final Subgraph subgraph) {
+        long basePairs = 0;
+        for (final Node node : subgraph.getNodes()) {
+            if (node instanceof ClusterSegment) {
+                basePairs += ((ClusterSegment) node).getSequenceLength();
+            } else if (node instanceof GfaNode) {
+                for (final Segment segment : ((GfaNode) node).getSegments()) {
+                    basePairs += segment.getSequenceLength();
+                }
+            }
+        }
+        return basePairs;
+    }
+
+    /**
+     * Computes the genomes of the edges in the given subgraph, in the {@link TopologicalOrder} of the graph if it has
+     * been computed.
+     *
+     * @param subgraph a {@link Subgraph} with metadata
+     */
+    private void computePaths(final Subgraph subgraph) {
+        final TopologicalOrder order = gfaFile.getGraph().getTopologicalOrder();
+        if (order == null) {
+            pathCalculator.computePaths(subgraph);
+        } else {
+            pathCalculator.computePaths(subgraph, order);
+        }
+    }
 
     /**
      * Retrieves metadata for cached nodes that have no metadata yet.
+     * <p>
+     * The metadata is parsed in parallel batches, and each batch is given to its segments as soon as it completes.
+     * Clusters whose segments have not been created yet are skipped, so that retrieving metadata does not create them.
      *
      * @param gfaFile  the {@link GfaFile} that provides the parsing functionality
      * @param subgraph a {@link Subgraph} with metadata
      */
     private void retrieveMetadata(final GfaFile gfaFile, final Subgraph subgraph) {
         final List<Segment> segmentsWithoutMetadata = new ArrayList<>();
+        final Map<Integer, Segment> segmentsById = new HashMap<>();
 
-        subgraph.getGfaNodes().stream()
+        getGfaNodes(subgraph)
+                .filter(NodeMetadataCache::isExpanded)
                 .flatMap(gfaNode -> gfaNode.getSegments().stream())
                 .forEach(segment -> {
                     final NodeMetadata metadata = cache.get(segment.getId());
                     if (metadata == null) {
                         segmentsWithoutMetadata.add(segment);
+                        segmentsById.put(segment.getId(), segment);
                     } else {
                         segment.setMetadata(metadata);
                     }
@@ -126,17 +226,27 @@ public final class NodeMetadataCache {
         try {
             final Map<Integer, Long> sortedSegmentsWithoutMetadata
                     = getSortedSegmentsWithoutMetadata(segmentsWithoutMetadata);
-            final Map<Integer, NodeMetadata> metadata
-                    = gfaFile.parseNodeMetadata(sortedSegmentsWithoutMetadata);
-
-            cache.putAll(metadata);
+            gfaFile.parseNodeMetadata(sortedSegmentsWithoutMetadata, metadata -> {
+                cache.putAll(metadata);
 
-            metadata.forEach((key, value) -> subgraph.getSegment(key)
-                    .ifPresent(segment -> segment.setMetadata(value)));
+                metadata.forEach((key, value) -> {
+                    final Segment segment = segmentsById.get(key);
+                    if (segment != null) {
+                        segment.setMetadata(value);
+                    }
+                });
+            });
 
             setAggregateNodeMetadata(subgraph);
+
+            LOGGER.debug("Node metadata cache retains " + cache.getRetainedBytes() + " bytes in " + cache.size()
+                    + " entries, with " + cache.getHitCount() + " hits, " + cache.getMissCount() + " misses and "
+                    + cache.getEvictionCount() + " evictions");
         } catch (final MetadataParseException e) {
             LOGGER.error("Node metadata could not be retrieved.", e);
+        } catch (final RejectedExecutionException e) {
+            // The retrieval is interrupted whenever a newer layout is done, so this is no error
+            LOGGER.debug("Node metadata retrieval was interrupted.", e);
         }
     }
 
@@ -160,18 +270,53 @@ public final class NodeMetadataCache {
     }
 
     /**
-     * Calculates metadata for all aggregate segments in the given subgraph.
+     * Calculates metadata for all aggregate segments, cluster segments and chain segments in the given subgraph.
+     * <p>
+     * The metadata of a chain segment is only calculated once all of its segments have metadata, as its sequence is
+     * the concatenation of theirs.
      *
      * @param subgraph a subgraph
      */
     private void setAggregateNodeMetadata(final Subgraph subgraph) {
-        subgraph.getGfaNodes().stream()
-                .filter(node -> node instanceof AggregateSegment)
-                .map(node -> (AggregateSegment) node)
+        getGfaNodes(subgraph)
+                .filter(node -> node instanceof AggregateSegment || node instanceof ClusterSegment)
+                .filter(NodeMetadataCache::isExpanded)
                 .forEach(aggregateSegment -> aggregateSegment.setMetadata(
                         new NodeMetadata(aggregateSegment.getSegments().stream()
                                 .filter(Segment::hasMetadata)
                                 .map(Segment::getMetadata)
                                 .collect(Collectors.toList()))));
+
+        getGfaNodes(subgraph)
+                .filter(node -> node instanceof ChainSegment)
+                .filter(node -> node.getSegments().stream().allMatch(Segment::hasMetadata))
+                .forEach(chainSegment -> chainSegment.setMetadata(
+                        NodeMetadata.concatenate(chainSegment.getSegments().stream()
+                                .map(Segment::getMetadata)
+                                .collect(Collectors.toList()))));
+    }
+
+    /**
+     * Returns the {@link GfaNode}s in the given subgraph, each of which is returned once regardless of the number of
+     * segments it contains.
+     *
+     * @param subgraph a subgraph
+     * @return the {@link GfaNode}s in the given subgraph
+     */
+    private static Stream<GfaNode> getGfaNodes(final Subgraph subgraph) {
+        return subgraph.getNodes().stream()
+                .filter(node -> node instanceof GfaNode)
+                .map(node -> (GfaNode) node);
+    }
+
+    /**
+     * Returns {@code true} iff. the segments of the given {@link GfaNode} have been created, which is only ever false
+     * for a {@link ClusterSegment} that has not been expanded yet.
+     *
+     * @param gfaNode a {@link GfaNode}
+     * @return {@code true} iff. the segments of the given {@link GfaNode} have been created
+     */
+    private static boolean isExpanded(final GfaNode gfaNode) {
+        return !(gfaNode instanceof ClusterSegment) || ((ClusterSegment) gfaNode).isExpanded();
     }
 }
@@ -0,0 +1,311 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+import java.util.Arrays;
+
+
+/**
+ * An immutable nucleotide sequence that stores each of the bases {@code A}, {@code C}, {@code G} and {@code T} in two
+ * bits.
+ * <p>
+ * Lowercase letters, as used for soft-masked regions, are stored as their uppercase counterpart, together with a list
+ * of the runs of lowercase positions. Any other character, such as {@code N} or another IUPAC code, is stored in a
+ * list of exceptions. Each exception is a run of the same character, so that long runs of {@code N} take no more space
+ * than a single one. The bits of the positions covered by an exception are left zero.
+ * <p>
+ * A sequence takes a quarter of a byte per base plus a few bytes per run, instead of the one or two bytes per
+ * character of a {@link String}. Characters are decoded on demand, so that only the part of a sequence that is
+ * actually shown needs to be decoded.
+ */
+public final class PackedSequence implements CharSequence {
+    private static final int BITS_PER_BASE = 2;
+    private static final int BASES_PER_WORD = Long.SIZE / BITS_PER_BASE;
+    private static final long BASE_MASK = (1L << BITS_PER_BASE) - 1;
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    /**
+     * The two bits encoding each uppercase ASCII character, or {@code -1} if it must be stored as an exception.
+     */
+    private static final byte[] BASE_CODES = createBaseCodes();
+    private static final int CASE_OFFSET = 'a' - 'A';
+    /**
+     * The number of characters that are decoded at once when a sequence is appended to a {@link Builder}.
+     */
+    private static final int DECODE_BLOCK_SIZE = 1024;
+    /**
+     * An estimate of the number of bytes taken by the headers of this object, its run lists and their arrays.
+     */
+    private static final int OBJECT_OVERHEAD = 144;
+
+    private final int characterCount;
+    private final long[] words;
+    private final RunList exceptions;
+    private final char[] exceptionChars;
+    private final RunList lowerCaseRuns;
+
+
+    /**
+     * Constructs a new {@link PackedSequence} of the characters appended to the given {@link Builder} so far.
+     *
+     * @param builder a {@link Builder}
+     */
+    PackedSequence(final Builder builder) {
+        this.characterCount = builder.characterCount;
+        this.words = Arrays.copyOf(builder.words, (characterCount + BASES_PER_WORD - 1) / BASES_PER_WORD);
+        this.exceptions = new RunList(builder.exceptions);
+        this.lowerCaseRuns = new RunList(builder.lowerCaseRuns);
+
+        this.exceptionChars = new char[builder.exceptionChars.size()];
+        for (int i = 0; i < exceptionChars.length; i++) {
+            exceptionChars[i] = (char) builder.exceptionChars.get(i);
+        }
+    }
+
+
+    /**
+     * Packs the given sequence.
+     *
+     * @param sequence a sequence of characters
+     * @return the packed sequence, or the given sequence if it is already packed
+     */
+    public static PackedSequence pack(final CharSequence sequence) {
+        if (sequence instanceof PackedSequence) {
+            return (PackedSequence) sequence;
+        }
+
+        return new Builder(sequence.length()).append(sequence).build();
+    }
+
+    @Override
+    public int length() {
+        return characterCount;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= characterCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + characterCount
+                    + ".");
+        }
+
+        final int exception = exceptions.findContaining(index);
+        final char character = exception >= 0 ? exceptionChars[exception] : decodeBase(index);
+        return lowerCaseRuns.findContaining(index) >= 0 ? (char) (character + CASE_OFFSET) : character;
+    }
+
+    /**
+     * Decodes the given range of the sequence to a {@link String}.
+     *
+     * @param start the position of the first character (inclusive)
+     * @param end   the position of the last character (exclusive)
+     * @return the decoded range
+     */
+    @Override
+    public String subSequence(final int start, final int end) {
+        if (start < 0 || end > characterCount || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of bounds for length "
+                    + characterCount + ".");
+        }
+
+        final char[] chars = new char[end - start];
+        decode(start, end, chars);
+        return new String(chars);
+    }
+
+    /**
+     * Returns an estimate of the number of bytes this sequence retains on the heap.
+     *
+     * @return an estimate of the number of bytes this sequence retains on the heap
+     */
+    public long getRetainedBytes() {
+        return OBJECT_OVERHEAD + (long) words.length * Long.BYTES
+                + (long) exceptions.size() * (RunList.RUN_SIZE + Character.BYTES)
+                + (long) lowerCaseRuns.size() * RunList.RUN_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, characterCount);
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        // Packing is deterministic, so equal sequences have equal arrays
+        final PackedSequence that = (PackedSequence) other;
+        return characterCount == that.characterCount
+                && Arrays.equals(words, that.words)
+                && exceptions.equals(that.exceptions)
+                && Arrays.equals(exceptionChars, that.exceptionChars)
+                && lowerCaseRuns.equals(that.lowerCaseRuns);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = characterCount;
+        result = 31 * result + Arrays.hashCode(words);
+        result = 31 * result + exceptions.hashCode();
+        result = 31 * result + Arrays.hashCode(exceptionChars);
+        result = 31 * result + lowerCaseRuns.hashCode();
+        return result;
+    }
+
+
+    /**
+     * Decodes the given range of the sequence into the given array in a single pass over the bases and runs.
+     *
+     * @param start the position of the first character (inclusive)
+     * @param end   the position of the last character (exclusive)
+     * @param chars the array in which to store the characters, starting at index zero
+     */
+    private void decode(final int start, final int end, final char[] chars) {
+        for (int index = start; index < end; index++) {
+            chars[index - start] = decodeBase(index);
+        }
+
+        for (int run = Math.max(0, exceptions.find(start)); run < exceptions.size()
+                && exceptions.getStart(run) < end; run++) {
+            final int from = Math.max(start, exceptions.getStart(run));
+            final int to = Math.min(end, exceptions.getEnd(run));
+            if (from < to) {
+                Arrays.fill(chars, from - start, to - start, exceptionChars[run]);
+            }
+        }
+
+        for (int run = Math.max(0, lowerCaseRuns.find(start)); run < lowerCaseRuns.size()
+                && lowerCaseRuns.getStart(run) < end; run++) {
+            final int to = Math.min(end, lowerCaseRuns.getEnd(run));
+            for (int index = Math.max(start, lowerCaseRuns.getStart(run)); index < to; index++) {
+                chars[index - start] += CASE_OFFSET;
+            }
+        }
+    }
+
+    /**
+     * Creates the table of the two bits encoding each uppercase ASCII character.
+     *
+     * @return the two bits encoding each uppercase ASCII character, or {@code -1} if it is not a base
+     */
+    private static byte[] createBaseCodes() {
+        final byte[] codes = new byte[128];
+        Arrays.fill(codes, (byte) -1);
+        for (int base = 0; base < BASES.length; base++) {
+            codes[BASES[base]] = (byte) base;
+        }
+        return codes;
+    }
+
+    /**
+     * Decodes the two bits at the given position, ignoring exceptions.
+     *
+     * @param index a position in the sequence
+     * @return the base encoded at the given position
+     */
+    private char decodeBase(final int index) {
+        final long word = words[index / BASES_PER_WORD];
+        return BASES[(int) (word >>> (BITS_PER_BASE * (index % BASES_PER_WORD)) & BASE_MASK)];
+    }
+
+
+    /**
+     * Builds a {@link PackedSequence} one character at a time.
+     * <p>
+     * This allows sequences to be combined without first building the combination as a {@link String}.
+     */
+    public static final class Builder {
+        private long[] words;
+        private int characterCount;
+        private final RunList.Builder exceptions;
+        private final GrowableIntArray exceptionChars;
+        private final RunList.Builder lowerCaseRuns;
+
+
+        /**
+         * Constructs a new {@link Builder}.
+         *
+         * @param capacity the expected number of characters
+         */
+        public Builder(final int capacity) {
+            this.words = new long[(capacity + BASES_PER_WORD - 1) / BASES_PER_WORD];
+            this.exceptions = new RunList.Builder();
+            this.exceptionChars = new GrowableIntArray();
+            this.lowerCaseRuns = new RunList.Builder();
+        }
+
+
+        /**
+         * Appends a single character.
+         *
+         * @param character a character
+         * @return this {@link Builder}
+         */
+        public Builder append(final char character) {
+            if (characterCount == words.length * BASES_PER_WORD) {
+                words = Arrays.copyOf(words, Math.max(1, 2 * words.length));
+            }
+
+            char upperCase = character;
+            if (character >= 'a' && character <= 'z') {
+                lowerCaseRuns.add(characterCount);
+                upperCase = (char) (character - CASE_OFFSET);
+            }
+
+            final int base = upperCase < BASE_CODES.length ? BASE_CODES[upperCase] : -1;
+            if (base >= 0) {
+                words[characterCount / BASES_PER_WORD] |=
+                        (long) base << (BITS_PER_BASE * (characterCount % BASES_PER_WORD));
+            } else if (exceptions.endsAt(characterCount)
+                    && exceptionChars.get(exceptionChars.size() - 1) == upperCase) {
+                exceptions.add(characterCount);
+            } else {
+                exceptions.addRun(characterCount);
+                exceptionChars.add(upperCase);
+            }
+
+            characterCount++;
+            return this;
+        }
+
+        /**
+         * Appends all characters of the given sequence.
+         *
+         * @param sequence a sequence of characters
+         * @return this {@link Builder}
+         */
+        public Builder append(final CharSequence sequence) {
+            if (sequence instanceof PackedSequence) {
+                final PackedSequence packed = (PackedSequence) sequence;
+                final char[] block = new char[Math.min(packed.characterCount, DECODE_BLOCK_SIZE)];
+                for (int start = 0; start < packed.characterCount; start += block.length) {
+                    final int end = Math.min(start + block.length, packed.characterCount);
+                    packed.decode(start, end, block);
+                    for (int i = 0; i < end - start; i++) {
+                        append(block[i]);
+                    }
+                }
+                return this;
+            }
+
+            for (int index = 0; index < sequence.length(); index++) {
+                append(sequence.charAt(index));
+            }
+            return this;
+        }
+
+        /**
+         * Builds the {@link PackedSequence} of the characters appended so far.
+         *
+         * @return the {@link PackedSequence} of the characters appended so far
+         */
+        public PackedSequence build() {
+            return new PackedSequence(this);
+        }
+    }
+}
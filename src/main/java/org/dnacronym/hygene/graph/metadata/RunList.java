@@ -0,0 +1,157 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+import java.util.Arrays;
+
+
+/**
+ * An immutable, sorted list of disjoint runs of positions in a sequence.
+ * <p>
+ * Each run is stored as its start and end, so that a run of any length takes eight bytes.
+ */
+final class RunList {
+    /**
+     * The number of bytes taken by a single run: its start and its end.
+     */
+    static final int RUN_SIZE = 2 * Integer.BYTES;
+
+    private final int[] starts;
+    private final int[] ends;
+
+
+    /**
+     * Constructs a new {@link RunList} of the runs appended to the given {@link Builder} so far.
+     *
+     * @param builder a {@link Builder}
+     */
+    RunList(final Builder builder) {
+        this.starts = builder.starts.toArray();
+        this.ends = builder.ends.toArray();
+    }
+
+
+    /**
+     * Returns the number of runs.
+     *
+     * @return the number of runs
+     */
+    int size() {
+        return starts.length;
+    }
+
+    /**
+     * Returns the position of the first element of the given run.
+     *
+     * @param run the index of a run
+     * @return the position of the first element of the given run
+     */
+    int getStart(final int run) {
+        return starts[run];
+    }
+
+    /**
+     * Returns the position after the last element of the given run.
+     *
+     * @param run the index of a run
+     * @return the position after the last element of the given run
+     */
+    int getEnd(final int run) {
+        return ends[run];
+    }
+
+    /**
+     * Returns the last run that starts at or before the given position.
+     *
+     * @param position a position in the sequence
+     * @return the index of the last run that starts at or before the given position, or {@code -1} if there is no such
+     * run
+     */
+    int find(final int position) {
+        final int run = Arrays.binarySearch(starts, position);
+        return run >= 0 ? run : -run - 2;
+    }
+
+    /**
+     * Returns the run that contains the given position.
+     *
+     * @param position a position in the sequence
+     * @return the index of the run that contains the given position, or {@code -1} if there is no such run
+     */
+    int findContaining(final int position) {
+        final int run = find(position);
+        return run >= 0 && position < ends[run] ? run : -1;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        final RunList that = (RunList) other;
+        return Arrays.equals(starts, that.starts) && Arrays.equals(ends, that.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+
+    /**
+     * Builds a {@link RunList} one position at a time, in ascending order.
+     */
+    static final class Builder {
+        private final GrowableIntArray starts = new GrowableIntArray();
+        private final GrowableIntArray ends = new GrowableIntArray();
+
+
+        /**
+         * Returns the number of runs appended so far.
+         *
+         * @return the number of runs appended so far
+         */
+        int size() {
+            return starts.size();
+        }
+
+        /**
+         * Returns true iff the last run ends right before the given position.
+         *
+         * @param position a position in the sequence
+         * @return true iff the last run ends right before the given position
+         */
+        boolean endsAt(final int position) {
+            return ends.size() > 0 && ends.get(ends.size() - 1) == position;
+        }
+
+        /**
+         * Appends the given position, extending the last run if it ends right before the position.
+         *
+         * @param position a position after the end of the last run
+         */
+        void add(final int position) {
+            if (endsAt(position)) {
+                ends.set(ends.size() - 1, position + 1);
+            } else {
+                starts.add(position);
+                ends.add(position + 1);
+            }
+        }
+
+        /**
+         * Appends the given position as a new run, even if the last run ends right before the position.
+         *
+         * @param position a position after the end of the last run
+         */
+        void addRun(final int position) {
+            starts.add(position);
+            ends.add(position + 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.dnacronym.hygene.graph.node;
+
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+
+/**
+ * Collapses a chain of segments, each of which is the only neighbour of the next, into a single node.
+ * <p>
+ * The node spans from the start of its first segment to the end of its last segment. The segments keep their own
+ * positions, so that each segment can still be located within the node.
+ */
+public final class ChainSegment extends GfaNode {
+    private final List<Segment> segments;
+    private final int length;
+
+    private @MonotonicNonNull NodeMetadata metadata;
+
+
+    /**
+     * Constructs a new {@link ChainSegment}.
+     * <p>
+     * The segments should have been given their x positions beforehand.
+     *
+     * @param segments the segments in the chain, in order from left to right
+     */
+    public ChainSegment(final List<Segment> segments) {
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("ChainSegment cannot contain an empty chain.");
+        }
+
+        this.segments = new ArrayList<>(segments);
+
+        final Segment first = segments.get(0);
+        final Segment last = segments.get(segments.size() - 1);
+        this.length = (int) Math.max(first.getLength(),
+                last.getXPosition() + last.getLength() - first.getXPosition());
+    }
+
+
+    /**
+     * Returns the segment with the given id, if present.
+     *
+     * @param segmentId the id of a segment
+     * @return the segment with the given id, if present
+     */
+    @Override
+    public Optional<Segment> getSegment(final int segmentId) {
+        return segments.stream()
+                .filter(segment -> segment.getId() == segmentId)
+                .findFirst();
+    }
+
+    /**
+     * Returns the segments in the chain, in order from left to right.
+     *
+     * @return the segments in the chain, in order from left to right
+     */
+    @Override
+    public List<Segment> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Returns the ids of the segments in the chain, in order from left to right.
+     *
+     * @return the ids of the segments in the chain, in order from left to right
+     */
+    @Override
+    public List<Integer> getSegmentIds() {
+        return segments.stream()
+                .map(Segment::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns {@code true} iff. a segment with the given id is in the chain.
+     *
+     * @param segmentId the id of a segment
+     * @return {@code true} iff. a segment with the given id is in the chain
+     */
+    @Override
+    public boolean containsSegment(final int segmentId) {
+        return segments.stream().anyMatch(segment -> segment.getId() == segmentId);
+    }
+
+    /**
+     * Returns the distance from the start of the first segment to the end of the last segment.
+     *
+     * @return the distance from the start of the first segment to the end of the last segment
+     */
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public NodeMetadata getMetadata() {
+        if (metadata == null) {
+            throw new IllegalStateException("Cannot access metadata before it is parsed.");
+        }
+        return metadata;
+    }
+
+    @Override
+    public void setMetadata(final NodeMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public boolean hasMetadata() {
+        return metadata != null;
+    }
+
+    @Override
+    public String toString() {
+        return "ChainSegment{segments=" + getSegmentIds() + "}";
+    }
+}
@@ -0,0 +1,262 @@
+package org.dnacronym.hygene.graph.node;
+
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Collapses a connected region of segments, such as a series of bubbles, into a single node.
+ * <p>
+ * The node spans from the leftmost start to the rightmost end of its segments. The segments keep their own positions,
+ * so that each segment can still be located within the node.
+ * <p>
+ * A region of a coarse level of the graph hierarchy may represent a large part of the graph. Such a region is
+ * described by the id of the node at its level, the range it occupies, its number of segments and their total
+ * sequence length, and its segments are only created once they are requested, for instance when the user inspects the
+ * node.
+ */
+public final class ClusterSegment extends GfaNode {
+    private final int levelId;
+    private final int firstSegmentId;
+    private final int segmentCount;
+    private final long sequenceLength;
+    private final int length;
+    private final IntPredicate membership;
+
+    private @Nullable Supplier<List<Segment>> segmentSupplier;
+    private @MonotonicNonNull List<Segment> segments;
+    private @MonotonicNonNull NodeMetadata metadata;
+
+
+    /**
+     * Constructs a new {@link ClusterSegment} of the given segments.
+     * <p>
+     * The segments should have been given their x positions beforehand. The x position of the node itself is set to
+     * the leftmost start of its segments.
+     *
+     * @param segments the segments in the region
+     */
+    public ClusterSegment(final Collection<Segment> segments) {
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("ClusterSegment cannot contain an empty region.");
+        }
+
+        final List<Segment> segmentList = new ArrayList<>(segments);
+
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        long totalSequenceLength = 0;
+        final BitSet memberIds = new BitSet();
+        for (final Segment segment : segmentList) {
+            start = Math.min(start, segment.getXPosition());
+            end = Math.max(end, segment.getXPosition() + segment.getLength());
+            totalSequenceLength += segment.getSequenceLength();
+            memberIds.set(segment.getId());
+        }
+
+        this.levelId = segmentList.get(0).getId();
+        this.firstSegmentId = segmentList.get(0).getId();
+        this.segmentCount = segmentList.size();
+        this.sequenceLength = totalSequenceLength;
+        this.length = (int) Math.min(Integer.MAX_VALUE, end - start);
+        this.membership = segmentId -> segmentId >= 0 && memberIds.get(segmentId);
+        this.segments = segmentList;
+        setXPosition(start);
+    }
+
+    /**
+     * Constructs a new {@link ClusterSegment} whose segments are created when they are first requested.
+     *
+     * @param levelId         the id of the node at its level of the graph hierarchy that the region represents
+     * @param firstSegmentId  the id of the first segment in the region
+     * @param segmentCount    the number of segments in the region
+     * @param sequenceLength  the total sequence length of the segments in the region
+     * @param startXPosition  the leftmost start of the segments in the region
+     * @param endXPosition    the rightmost end of the segments in the region
+     * @param membership      returns {@code true} iff. the segment with the given id is in the region
+     * @param segmentSupplier creates the segments in the region, which should have been given their x positions
+     */
+    @SuppressWarnings("squid:S00107") // The region is described by its primitives so that no segments are needed
+    public ClusterSegment(final int levelId, final int firstSegmentId, final int segmentCount,
+                          final long sequenceLength, final long startXPosition, final long endXPosition,
+                          final IntPredicate membership, final Supplier<List<Segment>> segmentSupplier) {
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("ClusterSegment cannot contain an empty region.");
+        }
+
+        this.levelId = levelId;
+        this.firstSegmentId = firstSegmentId;
+        this.segmentCount = segmentCount;
+        this.sequenceLength = sequenceLength;
+        this.length = (int) Math.min(Integer.MAX_VALUE, endXPosition - startXPosition);
+        this.membership = membership;
+        this.segmentSupplier = segmentSupplier;
+        setXPosition(startXPosition);
+    }
+
+
+    /**
+     * Returns the id of the node at its level of the graph hierarchy that the region represents.
+     * <p>
+     * A region that was constructed from its segments has the id of its first segment.
+     *
+     * @return the id of the node at its level of the graph hierarchy that the region represents
+     */
+    public int getLevelId() {
+        return levelId;
+    }
+
+    /**
+     * Returns the id of the first segment in the region, without creating the segments.
+     *
+     * @return the id of the first segment in the region
+     */
+    public int getFirstSegmentId() {
+        return firstSegmentId;
+    }
+
+    /**
+     * Returns the number of segments in the region, without creating the segments.
+     *
+     * @return the number of segments in the region
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Returns the total sequence length of the segments in the region, without creating the segments.
+     *
+     * @return the total sequence length of the segments in the region
+     */
+    public long getSequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Returns {@code true} iff. the segments in the region have been created.
+     *
+     * @return {@code true} iff. the segments in the region have been created
+     */
+    public synchronized boolean isExpanded() {
+        return segments != null;
+    }
+
+    /**
+     * Returns the segment with the given id, if present.
+     *
+     * @param segmentId the id of a segment
+     * @return the segment with the given id, if present
+     */
+    @Override
+    public Optional<Segment> getSegment(final int segmentId) {
+        if (!containsSegment(segmentId)) {
+            return Optional.empty();
+        }
+
+        return getSegments().stream()
+                .filter(segment -> segment.getId() == segmentId)
+                .findFirst();
+    }
+
+    /**
+     * Returns the segments in the region, and creates them if they have not been created yet.
+     *
+     * @return the segments in the region
+     */
+    @Override
+    public List<Segment> getSegments() {
+        return Collections.unmodifiableList(expand());
+    }
+
+    /**
+     * Returns the ids of the segments in the region, and creates the segments if they have not been created yet.
+     *
+     * @return the ids of the segments in the region
+     */
+    @Override
+    public List<Integer> getSegmentIds() {
+        return expand().stream()
+                .map(Segment::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns {@code true} iff. a segment with the given id is in the region, without creating the segments.
+     *
+     * @param segmentId the id of a segment
+     * @return {@code true} iff. a segment with the given id is in the region
+     */
+    @Override
+    public boolean containsSegment(final int segmentId) {
+        return membership.test(segmentId);
+    }
+
+    /**
+     * Returns the distance from the leftmost start to the rightmost end of the segments in the region.
+     *
+     * @return the distance from the leftmost start to the rightmost end of the segments in the region
+     */
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public NodeMetadata getMetadata() {
+        if (metadata == null) {
+            throw new IllegalStateException("Cannot access metadata before it is parsed.");
+        }
+        return metadata;
+    }
+
+    @Override
+    public void setMetadata(final NodeMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public boolean hasMetadata() {
+        return metadata != null;
+    }
+
+    @Override
+    public String toString() {
+        if (!isExpanded()) {
+            return "ClusterSegment{levelId=" + levelId + ", segmentCount=" + segmentCount + "}";
+        }
+        return "ClusterSegment{segments=" + getSegmentIds() + "}";
+    }
+
+
+    /**
+     * Returns the segments in the region, and creates them if they have not been created yet.
+     *
+     * @return the segments in the region
+     */
+    private synchronized List<Segment> expand() {
+        List<Segment> regionSegments = segments;
+        if (regionSegments == null) {
+            final Supplier<List<Segment>> supplier = segmentSupplier;
+            if (supplier == null) {
+                throw new IllegalStateException("ClusterSegment has neither segments nor a way to create them.");
+            }
+
+            regionSegments = new ArrayList<>(supplier.get());
+            segments = regionSegments;
+            segmentSupplier = null;
+        }
+        return regionSegments;
+    }
+}
@@ -25,7 +25,7 @@ import org.dnacronym.hygene.graph.metadata.NodeMetadata;
  * and the {@link DummyNode}s they connect (X, Y, and Z).
  * </i>
  */
-@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use UUID, which is unique enough
+@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use the unique identifier
 public final class DummyNode extends Node {
     private final Node diversionSource;
     private final Node diversionDestination;
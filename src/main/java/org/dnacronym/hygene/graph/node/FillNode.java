@@ -9,7 +9,7 @@ import org.dnacronym.hygene.graph.metadata.NodeMetadata;
  * Similar to {@link DummyNode}, but used to fill empty vertical space. {@link FillNode}s have no edges, and no
  * diversion sources or destinations.
  */
-@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use UUID, which is unique enough
+@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use the unique identifier
 public final class FillNode extends Node {
     /**
      * Constructs a new {@link FillNode} instance.
@@ -9,18 +9,21 @@ import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.Objects;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
  * Class representing a generic node.
  */
 public abstract class Node implements LayoutableNode {
+    /**
+     * The source of unique identifiers for nodes.
+     */
+    private static final AtomicLong NEXT_UNIQUE_ID = new AtomicLong();
     private static ColorScheme colorScheme = new FixedColorScheme(Color.BLACK);
 
-    private final UUID uuid;
+    private final long uniqueId;
     private final Set<Edge> incomingEdges;
     private final Set<Edge> outgoingEdges;
 
@@ -34,19 +37,21 @@ public abstract class Node implements LayoutableNode {
      * This class should not be instantiated for regular use, please use {@link Segment} instead.
      */
     protected Node() {
-        this.uuid = UUID.randomUUID();
+        this.uniqueId = NEXT_UNIQUE_ID.getAndIncrement();
         this.incomingEdges = Collections.synchronizedSet(new LinkedHashSet<>());
         this.outgoingEdges = Collections.synchronizedSet(new LinkedHashSet<>());
     }
 
 
     /**
-     * Returns this {@link Node}'s {@link UUID}.
+     * Returns this {@link Node}'s unique identifier.
+     * <p>
+     * Unique identifiers are handed out sequentially, so no two nodes created in the same session share one.
      *
-     * @return this {@link Node}'s {@link UUID}
+     * @return this {@link Node}'s unique identifier
      */
-    public final UUID getUuid() {
-        return uuid;
+    public final long getUniqueId() {
+        return uniqueId;
     }
 
     @Override
@@ -160,11 +165,11 @@ public abstract class Node implements LayoutableNode {
             return false;
         }
         final Node node = (Node) o;
-        return Objects.equals(uuid, node.uuid);
+        return uniqueId == node.uniqueId;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(uuid);
+        return Long.hashCode(uniqueId);
     }
 }
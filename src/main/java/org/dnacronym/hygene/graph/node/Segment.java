@@ -11,7 +11,7 @@ import java.util.Optional;
 /**
  * Class representing a single, non-dummy segment node.
  */
-@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use UUID, which is unique enough
+@SuppressWarnings("squid:S2160") // Superclass equals/hashCode use the unique identifier
 public final class Segment extends GfaNode {
     /**
      * The minimal length of a segment.
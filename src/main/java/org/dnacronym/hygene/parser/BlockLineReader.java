@@ -0,0 +1,124 @@
+package org.dnacronym.hygene.parser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Reads the lines at given byte offsets of a file with positional reads of a {@link FileChannel}.
+ * <p>
+ * The file is read in blocks of {@value BLOCK_SIZE} bytes. A line that lies within the current block is decoded from
+ * memory, so that the lines at ascending, nearby offsets are served by a single large read. A line that does not fit
+ * in a block is read into a buffer that grows as needed.
+ * <p>
+ * Lines end at a line feed, a carriage return or the end of the file, and each byte is decoded as one character, as
+ * in {@link java.io.RandomAccessFile#readLine()}. Positional reads do not move the position of the channel, but
+ * instances are not thread-safe.
+ */
+final class BlockLineReader {
+    /**
+     * The number of bytes read at once.
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private ByteBuffer block;
+    private long blockOffset; // byte offset in the file of the first byte in the block
+    private int blockLimit;
+    private boolean blockContainsEnd;
+
+
+    /**
+     * Constructs a new {@link BlockLineReader}.
+     * <p>
+     * The caller remains responsible for closing the channel.
+     *
+     * @param channel a {@link FileChannel} of the file
+     */
+    BlockLineReader(final FileChannel channel) {
+        this.channel = channel;
+        this.block = ByteBuffer.allocate(BLOCK_SIZE);
+    }
+
+
+    /**
+     * Reads the line starting at the given byte offset.
+     *
+     * @param offset the byte offset in the file at which the line starts
+     * @return the line without its terminator, or {@code null} if the offset lies at or after the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    @Nullable String readLine(final long offset) throws IOException {
+        if (offset < blockOffset || offset >= blockOffset + blockLimit) {
+            readBlock(offset);
+        }
+
+        while (true) {
+            final int start = (int) (offset - blockOffset);
+            final int end = findLineEnd(start);
+            if (end >= 0) {
+                return decode(start, end);
+            }
+            if (blockContainsEnd) {
+                return start == blockLimit ? null : decode(start, blockLimit);
+            }
+
+            if (start == 0) {
+                block = ByteBuffer.allocate(2 * block.capacity());
+            }
+            readBlock(offset);
+        }
+    }
+
+
+    /**
+     * Fills the block with the bytes of the file from the given byte offset.
+     *
+     * @param offset the byte offset in the file at which the block starts
+     * @throws IOException if the file cannot be read
+     */
+    private void readBlock(final long offset) throws IOException {
+        block.clear();
+        blockContainsEnd = false;
+        while (block.hasRemaining()) {
+            if (channel.read(block, offset + block.position()) < 0) {
+                blockContainsEnd = true;
+                break;
+            }
+        }
+
+        blockOffset = offset;
+        blockLimit = block.position();
+    }
+
+    /**
+     * Returns the index in the block of the first line terminator at or after the given index.
+     *
+     * @param start the index in the block at which to start searching
+     * @return the index in the block of the first line terminator, or {@code -1} if the block contains none
+     */
+    private int findLineEnd(final int start) {
+        final byte[] bytes = block.array();
+        for (int index = start; index < blockLimit; index++) {
+            if (bytes[index] == '\n' || bytes[index] == '\r') {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes a range of the block, mapping each byte to one character.
+     *
+     * @param start the index in the block of the first byte (inclusive)
+     * @param end   the index in the block of the last byte (exclusive)
+     * @return the decoded range
+     */
+    private String decode(final int start, final int end) {
+        return new String(block.array(), start, end - start, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,281 @@
+package org.dnacronym.hygene.parser;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.core.GrowableLongArray;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The segments and links of a consecutive range of records of a GFA file.
+ * <p>
+ * Segments are assigned local IDs in the order in which they appear in the chunk. A link endpoint is stored as the
+ * local ID of its segment if that segment appeared earlier in the chunk, and as {@code -(i + 1)} if it refers to the
+ * {@code i}th unresolved name otherwise. The {@link GfaParser} resolves these references once all chunks have been
+ * parsed.
+ * <p>
+ * Segment names are kept as raw bytes in {@link NodeNameTable}s rather than as {@link String}s.
+ */
+final class GfaChunk {
+    private static final byte[] HEADER_GENOME_NAMES_PREFIX = "ORI:Z:".getBytes(StandardCharsets.UTF_8);
+    private static final int SEGMENT_FIELD_COUNT = 3;
+    private static final int LINK_FIELD_COUNT = 4;
+    private static final int INITIAL_NAME_BUFFER_SIZE = 64;
+
+    private final NodeNameTable segmentIds; // segment name => local id
+    private final GrowableIntArray sequenceLengths; // local id => sequence length
+    private final GrowableLongArray segmentByteOffsets; // local id => byte offset
+    private final GrowableIntArray linkFromIds;
+    private final GrowableIntArray linkToIds;
+    private final GrowableLongArray linkByteOffsets;
+    private final NodeNameTable unresolvedNames; // name => index of the unresolved name
+    private final Map<String, String> genomeMapping;
+    private byte[] nameBuffer;
+
+
+    /**
+     * Constructs a new, empty {@link GfaChunk}.
+     */
+    GfaChunk() {
+        this.segmentIds = new NodeNameTable();
+        this.sequenceLengths = new GrowableIntArray();
+        this.segmentByteOffsets = new GrowableLongArray();
+        this.linkFromIds = new GrowableIntArray();
+        this.linkToIds = new GrowableIntArray();
+        this.linkByteOffsets = new GrowableLongArray();
+        this.unresolvedNames = new NodeNameTable();
+        this.genomeMapping = new HashMap<>();
+        this.nameBuffer = new byte[INITIAL_NAME_BUFFER_SIZE];
+    }
+
+
+    /**
+     * Parses the current record of the given {@link GfaTokenizer} and adds it to the segment or link tables.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a record
+     * @throws GfaParseException if the record is not GFA-compliant
+     */
+    void parseRecord(final GfaTokenizer tokenizer) throws GfaParseException {
+        if (tokenizer.getFieldCount() < 2) {
+            return;
+        }
+
+        switch (tokenizer.getRecordType()) {
+            case 'H':
+                parseHeader(tokenizer);
+                break;
+
+            case 'C':
+            case 'P':
+                break;
+
+            case 'S':
+                parseSegment(tokenizer);
+                break;
+
+            case 'L':
+                parseLink(tokenizer);
+                break;
+
+            default:
+                throw new GfaParseException("Unknown record type `" + tokenizer.getRecordType() + "` at position "
+                        + tokenizer.getLineOffset());
+        }
+    }
+
+    /**
+     * Appends a link between two nodes.
+     *
+     * @param fromId     the start node of the link
+     * @param toId       the end node of the link
+     * @param byteOffset the byte offset of the line of the link
+     */
+    void addLink(final int fromId, final int toId, final long byteOffset) {
+        linkFromIds.add(fromId);
+        linkToIds.add(toId);
+        linkByteOffsets.add(byteOffset);
+    }
+
+    /**
+     * Returns the number of segments in this chunk.
+     *
+     * @return the number of segments in this chunk
+     */
+    int getSegmentCount() {
+        return sequenceLengths.size();
+    }
+
+    /**
+     * Returns the local ID of the segment with the given name.
+     *
+     * @param name the name of the segment as specified in the GFA file
+     * @return the local ID of the segment, or {@code -1} if this chunk contains no segment with that name
+     */
+    int getSegmentId(final byte[] name) {
+        return segmentIds.get(name, name.length);
+    }
+
+    /**
+     * Returns the sequence lengths of the segments, indexed by local ID.
+     *
+     * @return the sequence lengths of the segments
+     */
+    GrowableIntArray getSequenceLengths() {
+        return sequenceLengths;
+    }
+
+    /**
+     * Returns the byte offsets of the segments, indexed by local ID.
+     *
+     * @return the byte offsets of the segments
+     */
+    GrowableLongArray getSegmentByteOffsets() {
+        return segmentByteOffsets;
+    }
+
+    /**
+     * Returns the start node of each link.
+     *
+     * @return the start node of each link
+     */
+    GrowableIntArray getLinkFromIds() {
+        return linkFromIds;
+    }
+
+    /**
+     * Returns the end node of each link.
+     *
+     * @return the end node of each link
+     */
+    GrowableIntArray getLinkToIds() {
+        return linkToIds;
+    }
+
+    /**
+     * Returns the byte offset of each link.
+     *
+     * @return the byte offset of each link
+     */
+    GrowableLongArray getLinkByteOffsets() {
+        return linkByteOffsets;
+    }
+
+    /**
+     * Returns the number of distinct names that links in this chunk refer to before the segment was parsed.
+     *
+     * @return the number of unresolved names
+     */
+    int getUnresolvedNameCount() {
+        return unresolvedNames.size();
+    }
+
+    /**
+     * Returns the name belonging to a reference to an unresolved name.
+     *
+     * @param reference a reference {@code -(i + 1)} to the {@code i}th unresolved name
+     * @return the unresolved name
+     */
+    byte[] getUnresolvedName(final int reference) {
+        return unresolvedNames.getName(-reference - 1);
+    }
+
+    /**
+     * Returns the genome names found in the header of this chunk, indexed by their position in the header.
+     *
+     * @return the genome names found in the header of this chunk
+     */
+    Map<String, String> getGenomeMapping() {
+        return genomeMapping;
+    }
+
+
+    /**
+     * Parses a header record in the GFA file format.
+     * <p>
+     * If the type of header field has not been implemented or is not
+     * recognized no failure will occur.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a header record
+     */
+    private void parseHeader(final GfaTokenizer tokenizer) {
+        if (tokenizer.fieldStartsWith(1, HEADER_GENOME_NAMES_PREFIX)) {
+            parseHeaderGenomeNames(tokenizer);
+        }
+    }
+
+    /**
+     * Parses a GFA header field that contains genome names.
+     * <p>
+     * The genomes names are added to {@link GfaChunk#genomeMapping} using a 1-indexing.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a header record containing genome names
+     */
+    private void parseHeaderGenomeNames(final GfaTokenizer tokenizer) {
+        final String[] names = tokenizer.getFieldString(1).substring(HEADER_GENOME_NAMES_PREFIX.length).split(";");
+        for (int i = 0; i < names.length; i++) {
+            genomeMapping.put(Integer.toString(i), names[i]);
+        }
+    }
+
+    /**
+     * Parses a segment record.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a segment record
+     * @throws GfaParseException if the record does not have enough fields
+     */
+    private void parseSegment(final GfaTokenizer tokenizer) throws GfaParseException {
+        if (tokenizer.getFieldCount() < SEGMENT_FIELD_COUNT) {
+            throw new GfaParseException("Not enough parameters for segment at position " + tokenizer.getLineOffset());
+        }
+
+        nameBuffer = tokenizer.getFieldBytes(1, nameBuffer);
+        segmentIds.put(nameBuffer, tokenizer.getFieldLength(1), sequenceLengths.size());
+        sequenceLengths.add(tokenizer.getFieldLength(2));
+        segmentByteOffsets.add(tokenizer.getLineOffset());
+    }
+
+    /**
+     * Parses a link record.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a link record
+     * @throws GfaParseException if the record does not have enough fields
+     */
+    private void parseLink(final GfaTokenizer tokenizer) throws GfaParseException {
+        if (tokenizer.getFieldCount() < LINK_FIELD_COUNT) {
+            throw new GfaParseException("Not enough parameters for link at position " + tokenizer.getLineOffset());
+        }
+
+        final int fromId = getSegmentIdOrReference(tokenizer, 1);
+        final int toId = getSegmentIdOrReference(tokenizer, 3);
+        addLink(fromId, toId, tokenizer.getLineOffset());
+    }
+
+    /**
+     * Returns the local ID belonging to a segment name, or a negative reference to that name if the segment has not
+     * been parsed yet in this chunk.
+     * <p>
+     * Links to the same unresolved name share a reference.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at a link record
+     * @param field     the index of the field containing the name of the segment
+     * @return the local ID of the segment, or {@code -(i + 1)} if it is the {@code i}th unresolved name
+     */
+    private int getSegmentIdOrReference(final GfaTokenizer tokenizer, final int field) {
+        nameBuffer = tokenizer.getFieldBytes(field, nameBuffer);
+        final int length = tokenizer.getFieldLength(field);
+
+        final int segmentId = segmentIds.get(nameBuffer, length);
+        if (segmentId != NodeNameTable.ABSENT) {
+            return segmentId;
+        }
+
+        final int unresolvedIndex = unresolvedNames.get(nameBuffer, length);
+        if (unresolvedIndex != NodeNameTable.ABSENT) {
+            return -unresolvedIndex - 1;
+        }
+
+        return -unresolvedNames.put(nameBuffer, length, unresolvedNames.size()) - 1;
+    }
+}
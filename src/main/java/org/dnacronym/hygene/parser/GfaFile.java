@@ -5,7 +5,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.dnacronym.hygene.graph.Graph;
-import org.dnacronym.hygene.graph.layout.Fafosp;
+import org.dnacronym.hygene.graph.GraphHierarchy;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.parser.factories.GfaParserFactory;
@@ -19,14 +19,16 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 
 /**
@@ -36,7 +38,6 @@ import java.util.Map;
 public final class GfaFile {
     private static final Logger LOGGER = LogManager.getLogger(GfaFile.class);
     private static final int PROGRESS_TOTAL = 100;
-    private static final String RANDOM_ACCESS_FILE_MODE = "r";
 
     private final String fileName;
     private final GfaParser gfaParser;
@@ -46,7 +47,6 @@ public final class GfaFile {
      */
     private Map<String, String> genomeMapping;
     private @MonotonicNonNull Graph graph;
-    private @MonotonicNonNull RandomAccessFile randomAccessFile;
 
 
     /**
@@ -66,6 +66,11 @@ public final class GfaFile {
 
     /**
      * Parses the GFA file into a {@link Graph}.
+     * <p>
+     * If the graph has been cached before, it is restored from the cache together with its layout, topological order,
+     * superbubbles, chains and hierarchy of coarse levels for zoomed-out views. Caches that lack some of these are
+     * completed and rewritten before the graph is restored from them. Otherwise, the file is parsed, the topological
+     * order, layout, superbubbles, chains and hierarchy are computed and the result is cached.
      *
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
      * @return a {@link Graph} based on the contents of the GFA file
@@ -77,22 +82,20 @@ public final class GfaFile {
 
             if (graphLoader.hasGraph()) {
                 genomeMapping = fileDatabase.getFileGenomeMapping().getMappings();
-                graph = new Graph(graphLoader.restoreGraph(progressUpdater, fileName), this);
-                graph.setNodePositions(new Fafosp(graph).horizontal());
+                graph = graphLoader.restoreGraph(progressUpdater, this, fileName, GraphAnalyzer::complete);
             } else {
                 LOGGER.info("Start parsing");
                 graph = gfaParser.parse(this, progressUpdater);
                 LOGGER.info("Finished parsing");
 
-                LOGGER.info("Start fafosp x");
-                graph.setNodePositions(new Fafosp(graph).horizontal());
+                GraphAnalyzer.analyze(graph);
 
                 LOGGER.info("GfaFile parse finished");
 
                 progressUpdater.updateProgress(PROGRESS_TOTAL - 1, "Caching data for faster load next time...");
 
                 LOGGER.info("Start dumping the graph to the database");
-                graphLoader.dumpGraph(graph.getNodeArrays(), fileName);
+                graphLoader.dumpGraph(graph, fileName);
                 if (genomeMapping != null) {
                     fileDatabase.getFileGenomeMapping().addMapping(genomeMapping);
                 }
@@ -103,6 +106,13 @@ public final class GfaFile {
             throw new GfaParseException("Could not open file database to restore graph.", e);
         }
 
+        final int compactedNodeCount = graph.getChainCompaction().getCompactedGraph().getNodeCount();
+        LOGGER.info("Compacted " + graph.getNodeCount() + " nodes into " + compactedNodeCount + " nodes");
+
+        final GraphHierarchy hierarchy = graph.getHierarchy();
+        LOGGER.info("Coarsened the graph into " + hierarchy.getLevelCount() + " levels of at least "
+                + hierarchy.getGraph(hierarchy.getLevelCount() - 1).getNodeCount() + " nodes");
+
         progressUpdater.updateProgress(PROGRESS_TOTAL, "Loading file completed");
 
         return graph;
@@ -132,6 +142,21 @@ public final class GfaFile {
         return metadataParser.parseNodeMetadata(this, byteOffsets);
     }
 
+    /**
+     * Parses the metadata of multiple nodes in parallel, and passes the results to the consumer as they complete.
+     *
+     * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest,
+     *                    results will be given the same key as provided in this map
+     * @param consumer    the consumer of maps in the {@code provided key => node metadata} format, which is called on
+     *                    the calling thread
+     * @throws MetadataParseException if the node metadata cannot be parsed
+     */
+    public void parseNodeMetadata(final Map<Integer, Long> byteOffsets,
+                                  final Consumer<Map<Integer, NodeMetadata>> consumer)
+            throws MetadataParseException {
+        metadataParser.parseNodeMetadata(this, byteOffsets, consumer);
+    }
+
     /**
      * Parses an edge's metadata to a {@link EdgeMetadata} object.
      *
@@ -229,19 +254,28 @@ public final class GfaFile {
     }
 
     /**
-     * Returns a random access file for the GFA file.
+     * Returns the size of the GFA file in bytes.
      *
-     * @return a random access file for the GFA file
-     * @throws MetadataParseException if file could not be found
+     * @return the size of the GFA file in bytes
+     * @throws GfaParseException if the size of the file could not be determined
      */
-    public RandomAccessFile getRandomAccessFile() throws MetadataParseException {
+    public long getFileSize() throws GfaParseException {
         try {
-            if (randomAccessFile == null) {
-                randomAccessFile = new RandomAccessFile(fileName, RANDOM_ACCESS_FILE_MODE);
-            }
-            return randomAccessFile;
-        } catch (final FileNotFoundException e) {
-            throw new MetadataParseException("File '" + fileName + "' could not be found. ", e);
+            return Files.size(Paths.get(fileName));
+        } catch (final IOException e) {
+            throw new GfaParseException("File '" + fileName + "' cannot be read. ", e);
         }
     }
+
+    /**
+     * Opens a new {@link FileChannel} to read the GFA file.
+     * <p>
+     * The caller is responsible for closing the channel.
+     *
+     * @return a new {@link FileChannel} to read the GFA file
+     * @throws IOException if the file could not be opened
+     */
+    public FileChannel getFileChannel() throws IOException {
+        return FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+    }
 }
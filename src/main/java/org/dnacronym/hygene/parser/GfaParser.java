@@ -2,56 +2,76 @@ package org.dnacronym.hygene.parser;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.biojava.nbio.core.sequence.io.BufferedReaderBytesRead;
-import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
-import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.core.GrowableIntArray;
+import org.dnacronym.hygene.core.GrowableLongArray;
+import org.dnacronym.hygene.graph.ByteOffsetColumn;
 import org.dnacronym.hygene.graph.Graph;
-import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.GraphBuilder;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
  * Parses GFA to a {@link Graph}.
+ * <p>
+ * The file is split into chunks of consecutive lines, which are parsed in parallel if the file is large enough and
+ * multiple threads are available. Each chunk assigns local IDs to its segments and buffers its links in primitive
+ * edge lists. Once all chunks have been parsed, segments are assigned internal node IDs in the order in which they
+ * appear in the file, links are resolved to these IDs, and the compressed edge arrays of the {@link Graph} are built
+ * in a single pass over the edge lists.
  *
  * @see <a href="https://github.com/GFA-spec/GFA-spec/">GFA v1 specification</a>
  */
-@SuppressWarnings("PMD.TooManyMethods") // No reasonable refactor possible
+@SuppressWarnings({"PMD.GodClass", "PMD.TooManyMethods"}) // No reasonable refactor possible
 public final class GfaParser {
     private static final Logger LOGGER = LogManager.getLogger(GfaParser.class);
     private static final int PROGRESS_UPDATE_INTERVAL = 1000;
-    private static final int PROGRESS_ALLOCATE_HEURISTIC = 1750000;
-    private static final long PROGRESS_ALLOCATE_TOTAL = 20;
-    private static final long PROGRESS_PARSE_LINE_TOTAL = 80;
-    private static final String SOURCE_NAME = "<source>";
-    private static final String SINK_NAME = "<sink>";
-    private static final String HEADER_GENOME_NAMES_PREFIX = "H\tORI:Z:";
+    private static final long PROGRESS_PARSE_LINE_TOTAL = 90;
+    private static final int PROGRESS_BUILD_GRAPH = 95;
+    private static final long MINIMUM_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int BOUNDARY_BUFFER_SIZE = 64 * 1024;
 
-    private final Map<String, Integer> nodeIds; // node id string => nodeArrays index (internal node id)
-    private final AtomicInteger nodeVectorPosition = new AtomicInteger(0);
-    private int[][] nodeArrays;
-    private int lineCount;
-    private Map<String, String> genomeMapping;
+    private final int threadCount;
+    private final long minimumChunkSize;
 
 
     /**
-     * Constructs and initializes a new instance of {@link GfaParser}.
+     * Constructs and initializes a new instance of {@link GfaParser} that uses all available processors.
      */
     public GfaParser() {
-        this.nodeIds = new ConcurrentHashMap<>();
-        this.nodeArrays = new int[0][];
-        this.genomeMapping = new HashMap<>();
+        this(Runtime.getRuntime().availableProcessors(), MINIMUM_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs and initializes a new instance of {@link GfaParser}.
+     *
+     * @param threadCount      the maximum number of threads to parse with
+     * @param minimumChunkSize the minimum number of bytes each thread should parse
+     */
+    GfaParser(final int threadCount, final long minimumChunkSize) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (minimumChunkSize < 1) {
+            throw new IllegalArgumentException("Minimum chunk size must be positive.");
+        }
+
+        this.threadCount = threadCount;
+        this.minimumChunkSize = minimumChunkSize;
     }
 
 
@@ -63,345 +83,440 @@ public final class GfaParser {
      * @return a {@link Graph}
      * @throws GfaParseException if the given {@link String} is not GFA-compliant
      */
-    @EnsuresNonNull("nodeArrays")
     public Graph parse(final GfaFile gfaFile, final ProgressUpdater progressUpdater) throws GfaParseException {
-        try {
-            LOGGER.info("Start allocating nodes");
-            final BufferedReader nodeAllocationReader = gfaFile.readFile();
-            allocateNodes(nodeAllocationReader, progressUpdater);
-            LOGGER.info("Finished allocating nodes");
+        final long fileSize = gfaFile.getFileSize();
+        if (fileSize > ByteOffsetColumn.MAX_BYTE_OFFSET) {
+            throw new GfaParseException("GFA files larger than " + ByteOffsetColumn.MAX_BYTE_OFFSET
+                    + " bytes are not supported.");
+        }
 
-            nodeArrays = new int[nodeIds.size()][];
-            Arrays.setAll(nodeArrays, i -> Graph.createEmptyNodeArray());
+        LOGGER.info("Start parsing lines");
+        final List<GfaChunk> chunks = fileSize > 0
+                ? parseFile(gfaFile, fileSize, progressUpdater)
+                : parseStream(gfaFile);
+        final int[] chunkOffsets = computeChunkOffsets(chunks);
+        LOGGER.info("Finished parsing lines");
 
-            genomeMapping = new HashMap<>();
+        final int nodeCount = chunkOffsets[chunks.size()] + 1;
+        if (nodeCount == 2) {
+            throw new GfaParseException("The GFA file should contain at least one segment.");
+        }
 
-            LOGGER.info("Start parsing lines");
-            parseLines(gfaFile.getInputStream(), progressUpdater);
-            LOGGER.info("Finished parsing lines");
+        progressUpdater.updateProgress(PROGRESS_BUILD_GRAPH, "Building graph...");
+        final Graph graph = buildGraph(chunks, chunkOffsets, nodeCount, gfaFile);
+        gfaFile.setGenomeMapping(mergeGenomeMappings(chunks));
+
+        return graph;
+    }
+
+
+    /**
+     * Parses a GFA file of which the size is unknown as a single chunk read from a stream, and resolves its links.
+     *
+     * @param gfaFile an instance of {@link GfaFile}
+     * @return a list containing the parsed chunk
+     * @throws GfaParseException if the gfa file could not be read or parsed
+     */
+    private static List<GfaChunk> parseStream(final GfaFile gfaFile) throws GfaParseException {
+        final List<GfaChunk> chunks;
+        try (InputStream inputStream = gfaFile.getInputStream()) {
+            chunks = Collections.singletonList(
+                    parseRecords(GfaTokenizer.fromInputStream(inputStream), 0, 0, ProgressUpdater.DUMMY));
         } catch (final IOException e) {
             throw new GfaParseException("An error while reading the GFA file.", e);
         }
 
-        final Graph graph = new Graph(nodeArrays, gfaFile);
-        gfaFile.setGenomeMapping(genomeMapping);
-
-        addEdgesToSentinelNodes(graph);
-
-        return graph;
+        resolveLinks(chunks, computeChunkOffsets(chunks), 0);
+        return chunks;
     }
 
     /**
-     * Allocates the required internal node IDs.
+     * Splits the GFA file into chunks on line boundaries, and parses these chunks and resolves their links.
      * <p>
-     * This step is necessary because we need to know the internal node IDs
-     * upfront to be able to add edges to the correct node vectors.
+     * If there is more than one chunk, the chunks are parsed and their links are resolved in parallel.
      *
-     * @param gfa             a buffered reader of a GFA file
+     * @param gfaFile         an instance of {@link GfaFile}
+     * @param fileSize        the size of the gfa file in bytes
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
-     * @throws IOException    if the given GFA file is not valid
-     * @throws GfaParseException if a line does not have enough tokens
+     * @return the parsed chunks, in the order in which they appear in the file
+     * @throws GfaParseException if the gfa file could not be read or parsed
      */
-    private void allocateNodes(final BufferedReader gfa, final ProgressUpdater progressUpdater)
-            throws IOException, GfaParseException {
-        addNodeId(SOURCE_NAME);
-        String line;
-        while ((line = gfa.readLine()) != null) {
-            if (lineCount % PROGRESS_UPDATE_INTERVAL == 0) {
-                final int update = lineCount / PROGRESS_ALLOCATE_HEURISTIC;
-                if (update <= PROGRESS_ALLOCATE_TOTAL) {
-                    progressUpdater.updateProgress(update, "Allocating nodes...");
-                }
+    private List<GfaChunk> parseFile(final GfaFile gfaFile, final long fileSize,
+                                     final ProgressUpdater progressUpdater) throws GfaParseException {
+        final int chunkCount = (int) Math.max(1, Math.min(threadCount, fileSize / minimumChunkSize));
+
+        try (FileChannel channel = gfaFile.getFileChannel()) {
+            if (chunkCount == 1) {
+                final List<GfaChunk> chunks = Collections.singletonList(parseRecords(
+                        GfaTokenizer.fromFileChannel(channel, 0, fileSize), 0, fileSize, progressUpdater));
+                resolveLinks(chunks, computeChunkOffsets(chunks), 0);
+                return chunks;
             }
 
-            if (line.startsWith("S\t")) {
-                addNodeId(parseNodeName(line));
+            final long[] boundaries = findChunkBoundaries(channel, fileSize, chunkCount);
+            final ExecutorService executor = Executors.newFixedThreadPool(chunkCount);
+            try {
+                final List<GfaChunk> chunks = parseChunksInParallel(channel, boundaries, executor, progressUpdater);
+                resolveLinks(chunks, computeChunkOffsets(chunks), executor);
+                return chunks;
+            } finally {
+                executor.shutdownNow();
             }
-            lineCount++;
+        } catch (final IOException e) {
+            throw new GfaParseException("An error while reading the GFA file.", e);
         }
-        addNodeId(SINK_NAME);
     }
 
     /**
-     * Add a node ID to the list of node IDs and increment the node vector position.
+     * Parses the chunks of the GFA file in parallel.
+     * <p>
+     * Only the first chunk reports progress. As all chunks have roughly the same size and are parsed at the same time,
+     * this is a good approximation of the overall progress.
      *
-     * @param nodeName The name of the node as specified in the GFA file
+     * @param channel         a {@link FileChannel} of the gfa file
+     * @param boundaries      the start of each chunk, followed by the size of the file
+     * @param executor        the {@link ExecutorService} to parse the chunks with
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @return the parsed chunks, in the order in which they appear in the file
+     * @throws GfaParseException if the gfa file could not be read or parsed
      */
-    private void addNodeId(final String nodeName) {
-        nodeIds.put(nodeName, nodeVectorPosition.get());
-        nodeVectorPosition.incrementAndGet();
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Each chunk needs its own task
+    private static List<GfaChunk> parseChunksInParallel(final FileChannel channel, final long[] boundaries,
+                                                        final ExecutorService executor,
+                                                        final ProgressUpdater progressUpdater)
+            throws GfaParseException {
+        final List<Callable<GfaChunk>> tasks = new ArrayList<>(boundaries.length - 1);
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            final long start = boundaries[i];
+            final long end = boundaries[i + 1];
+            final ProgressUpdater chunkProgressUpdater = i == 0 ? progressUpdater : ProgressUpdater.DUMMY;
+
+            tasks.add(() -> parseRecords(
+                    GfaTokenizer.fromFileChannel(channel, start, end), start, end - start, chunkProgressUpdater));
+        }
+
+        return invokeAll(executor, tasks);
     }
 
     /**
-     * Parses lines of a GFA file to nodes and edges.
+     * Finds the byte offsets at which the chunks start.
+     * <p>
+     * The file is divided into chunks of roughly equal size, after which each boundary is moved forward to the start
+     * of the next line.
      *
-     * @param inputStream     input stream of the gfa file
-     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
-     * @throws IOException    if the gfa file could not be read
-     * @throws GfaParseException if the gfa file could not be parsed
+     * @param channel    a {@link FileChannel} of the gfa file
+     * @param fileSize   the size of the gfa file in bytes
+     * @param chunkCount the number of chunks
+     * @return the start of each chunk, followed by the size of the file
+     * @throws IOException if the gfa file could not be read
      */
-    private void parseLines(final InputStream inputStream, final ProgressUpdater progressUpdater)
-            throws IOException, GfaParseException {
-        try (BufferedReaderBytesRead lineParsingReader = new BufferedReaderBytesRead(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-
-            int iteration = 0;
-            long byteOffset = 0;
-            String line;
-
-            while ((line = lineParsingReader.readLine()) != null) {
-                if (iteration % PROGRESS_UPDATE_INTERVAL == 0) {
-                    progressUpdater.updateProgress(
-                            (int) (PROGRESS_ALLOCATE_TOTAL + PROGRESS_PARSE_LINE_TOTAL * iteration / lineCount),
-                            "Parsing nodes and edges..."
-                    );
-                }
-                parseLine(line, byteOffset);
-
-                byteOffset = lineParsingReader.getBytesRead();
-                iteration++;
-            }
+    private static long[] findChunkBoundaries(final FileChannel channel, final long fileSize, final int chunkCount)
+            throws IOException {
+        final long[] boundaries = new long[chunkCount + 1];
+        boundaries[chunkCount] = fileSize;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        for (int i = 1; i < chunkCount; i++) {
+            final long target = Math.max(boundaries[i - 1], fileSize * i / chunkCount);
+            boundaries[i] = findNextLineStart(channel, target, fileSize, buffer);
         }
+
+        return boundaries;
     }
 
     /**
-     * Parses a line of a GFA-compliant {@link String} and adds it to the node vectors.
+     * Finds the first byte offset at or after the given position at which a line starts.
      *
-     * @param line       a line of a GFA-compliant {@link String}
-     * @param byteOffset the byte offset of the current line
-     * @throws GfaParseException if the given {@link String}s are not GFA-compliant
+     * @param channel  a {@link FileChannel} of the gfa file
+     * @param position the position to start searching at
+     * @param fileSize the size of the gfa file in bytes
+     * @param buffer   a buffer to read into
+     * @return the first byte offset at or after the given position at which a line starts, or the size of the file if
+     * there is no such offset
+     * @throws IOException if the gfa file could not be read
      */
-    private void parseLine(final String line, final long byteOffset) throws GfaParseException {
-        if (line.indexOf('\t') < 0) {
-            return;
+    private static long findNextLineStart(final FileChannel channel, final long position, final long fileSize,
+                                          final ByteBuffer buffer) throws IOException {
+        if (position == 0) {
+            return 0;
         }
 
-        switch (line.charAt(0)) {
-            case 'H':
-                parseHeader(line, byteOffset);
-                break;
-
-            case 'C':
-            case 'P':
-                break;
-
-            case 'S':
-                parseSegment(line, 2, byteOffset);
-                break;
-
-            case 'L':
-                parseLink(line, 2, byteOffset);
+        long offset = position - 1;
+        while (offset < fileSize) {
+            buffer.clear();
+            final int read = channel.read(buffer, offset);
+            if (read < 0) {
                 break;
+            }
 
-            default:
-                throw new GfaParseException("Unknown record type `" + line.charAt(0) + "` at position " + byteOffset);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
         }
+
+        return fileSize;
     }
 
     /**
-     * Parses a header line in the GFA file format.
-     * <p>
-     * If the type of header field has not been implemented or is not
-     * recognized no failure will occur.
+     * Parses all records of the given {@link GfaTokenizer} into a new chunk.
      *
-     * @param line       the line to parse
-     * @param byteOffset the byte offset
-     * @throws GfaParseException if a header field doesn't have the correct format
+     * @param tokenizer       the {@link GfaTokenizer} to read records from
+     * @param start           the byte offset in the gfa file at which the tokenizer starts
+     * @param progressTotal   the number of bytes that correspond to completion, or {@code 0} if progress should not be
+     *                        reported
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @return the parsed chunk
+     * @throws IOException       if the gfa file could not be read
+     * @throws GfaParseException if the gfa file could not be parsed
      */
-    private void parseHeader(final String line, final long byteOffset) throws GfaParseException {
-        if (line.startsWith(HEADER_GENOME_NAMES_PREFIX)) {
-            parseHeaderGenomeNames(line, byteOffset);
+    private static GfaChunk parseRecords(final GfaTokenizer tokenizer, final long start, final long progressTotal,
+                                         final ProgressUpdater progressUpdater) throws IOException, GfaParseException {
+        final GfaChunk chunk = new GfaChunk();
+
+        int iteration = 0;
+        while (tokenizer.next()) {
+            if (iteration % PROGRESS_UPDATE_INTERVAL == 0 && progressTotal > 0) {
+                progressUpdater.updateProgress(
+                        (int) (PROGRESS_PARSE_LINE_TOTAL * (tokenizer.getLineOffset() - start) / progressTotal),
+                        "Parsing nodes and edges..."
+                );
+            }
+
+            chunk.parseRecord(tokenizer);
+            iteration++;
         }
+
+        return chunk;
     }
 
     /**
-     * Parses a GFA header field that contains genome names.
+     * Computes the internal node ID of the first segment of each chunk.
      * <p>
-     * The genomes names are added to {@link GfaParser#genomeMapping} using a 1-indexing.
+     * The source node has internal node ID {@code 0}, after which the segments follow in the order in which they
+     * appear in the file.
      *
-     * @param line       the line to parse
-     * @param byteOffset the byte offset
-     * @throws GfaParseException when this is not a header field containing genome names
+     * @param chunks the parsed chunks
+     * @return the internal node ID of the first segment of each chunk, followed by the internal node ID of the sink
      */
-    private void parseHeaderGenomeNames(final String line, final long byteOffset) throws GfaParseException {
-        final int indexOfGenomeNames = line.indexOf(HEADER_GENOME_NAMES_PREFIX);
-        if (indexOfGenomeNames > -1) {
-            final String[] names = line.substring(indexOfGenomeNames + HEADER_GENOME_NAMES_PREFIX.length()).split(";");
-            for (int i = 0; i < names.length; i++) {
-                genomeMapping.put(Integer.toString(i), names[i]);
-            }
-        } else {
-            throw new GfaParseException("Not an header containing genome names at position " + byteOffset + ".");
+    private static int[] computeChunkOffsets(final List<GfaChunk> chunks) {
+        final int[] chunkOffsets = new int[chunks.size() + 1];
+        chunkOffsets[0] = 1;
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkOffsets[i + 1] = chunkOffsets[i] + chunks.get(i).getSegmentCount();
         }
+        return chunkOffsets;
     }
 
     /**
-     * Parses a line to a node.
+     * Resolves the links of all chunks in parallel.
      *
-     * @param line       a line
-     * @param lineOffset the offset in the line to start parsing the segment at
-     * @param byteOffset the byte offset of the current line
-     * @throws GfaParseException if the line does not have enough tokens
+     * @param chunks       the parsed chunks
+     * @param chunkOffsets the internal node ID of the first segment of each chunk
+     * @param executor     the {@link ExecutorService} to resolve the links with
+     * @throws GfaParseException if a link refers to a node that does not exist
      */
-    private void parseSegment(final String line, final int lineOffset, final long byteOffset) throws GfaParseException {
-        try {
-            final int nameEnd = line.indexOf('\t', lineOffset);
-            final String name = line.substring(lineOffset, nameEnd);
-            final int sequenceEnd = line.indexOf('\t', nameEnd + 1);
-            final String sequence = sequenceEnd < 0
-                    ? line.substring(nameEnd + 1)
-                    : line.substring(nameEnd + 1, sequenceEnd);
-
-            final int nodeId = getNodeId(name);
-
-            nodeArrays[nodeId][Graph.NODE_BYTE_OFFSET_INDEX] = UnsignedInteger.fromLong(byteOffset);
-            nodeArrays[nodeId][Graph.NODE_SEQUENCE_LENGTH_INDEX] = sequence.length();
-
-        } catch (final StringIndexOutOfBoundsException e) {
-            throw new GfaParseException("Not enough parameters for segment at position " + byteOffset, e);
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Each chunk needs its own task
+    private static void resolveLinks(final List<GfaChunk> chunks, final int[] chunkOffsets,
+                                     final ExecutorService executor) throws GfaParseException {
+        final List<Callable<Void>> tasks = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            final int chunkIndex = i;
+            tasks.add(() -> {
+                resolveLinks(chunks, chunkOffsets, chunkIndex);
+                return null;
+            });
         }
+
+        invokeAll(executor, tasks);
     }
 
     /**
-     * Parses a line to an edge.
+     * Replaces the endpoints of the links of a chunk by their internal node IDs.
+     * <p>
+     * Each unresolved name is looked up only once, however many links refer to it.
      *
-     * @param line       a line
-     * @param lineOffset the offset in the line to start parsing the link at
-     * @param byteOffset the byte offset of the current line
-     * @throws GfaParseException if the line does not have enough tokens
+     * @param chunks       the parsed chunks
+     * @param chunkOffsets the internal node ID of the first segment of each chunk
+     * @param chunkIndex   the index of the chunk of which to resolve the links
+     * @throws GfaParseException if a link refers to a node that does not exist
      */
-    private void parseLink(final String line, final int lineOffset, final long byteOffset)
+    private static void resolveLinks(final List<GfaChunk> chunks, final int[] chunkOffsets, final int chunkIndex)
             throws GfaParseException {
-        try {
-            final int fromEnd = line.indexOf('\t', lineOffset);
-            final String from = line.substring(lineOffset, fromEnd);
-            final int toStart = line.indexOf('\t', fromEnd + 1) + 1;
-            final int toEnd = line.indexOf('\t', toStart);
-            final String to = toEnd < 0
-                    ? line.substring(toStart)
-                    : line.substring(toStart, toEnd);
-
-            final int fromId = getNodeId(from);
-            final int toId = getNodeId(to);
-
-            addIncomingEdge(fromId, toId, byteOffset);
-            addOutgoingEdge(fromId, toId, byteOffset);
-        } catch (final StringIndexOutOfBoundsException e) {
-            throw new GfaParseException("Not enough parameters for link at position " + byteOffset, e);
+        final GfaChunk chunk = chunks.get(chunkIndex);
+        final GrowableIntArray fromIds = chunk.getLinkFromIds();
+        final GrowableIntArray toIds = chunk.getLinkToIds();
+
+        final int[] resolvedNames = new int[chunk.getUnresolvedNameCount()];
+        for (int i = 0; i < resolvedNames.length; i++) {
+            resolvedNames[i] = resolveName(chunks, chunkOffsets, chunkIndex, chunk.getUnresolvedName(-i - 1));
+        }
+
+        final int chunkOffset = chunkOffsets[chunkIndex];
+        for (int i = 0; i < fromIds.size(); i++) {
+            final int fromId = fromIds.get(i);
+            final int toId = toIds.get(i);
+            fromIds.set(i, fromId >= 0 ? chunkOffset + fromId : resolvedNames[-fromId - 1]);
+            toIds.set(i, toId >= 0 ? chunkOffset + toId : resolvedNames[-toId - 1]);
         }
     }
 
     /**
-     * Parses the name of the node (the node id) from a GFA file line.
+     * Resolves a name that could not be resolved while parsing a chunk to an internal node ID.
+     * <p>
+     * Unresolved names are looked up in the chunk itself first, as they usually refer to a segment that follows
+     * shortly after the link.
      *
-     * @param line a GFA file line
-     * @return the name of the node (the node id)
-     * @throws GfaParseException if a line does not have enough tokens
+     * @param chunks       the parsed chunks
+     * @param chunkOffsets the internal node ID of the first segment of each chunk
+     * @param chunkIndex   the index of the chunk containing the link
+     * @param name         the name of the segment
+     * @return the internal node ID
+     * @throws GfaParseException if the node name does not exist
      */
-    private String parseNodeName(final String line) throws GfaParseException {
-        try {
-            final int startIndex = line.indexOf('\t');
-            final int endIndex = line.indexOf('\t', startIndex + 1);
+    private static int resolveName(final List<GfaChunk> chunks, final int[] chunkOffsets, final int chunkIndex,
+                                   final byte[] name) throws GfaParseException {
+        final int localId = chunks.get(chunkIndex).getSegmentId(name);
+        if (localId >= 0) {
+            return chunkOffsets[chunkIndex] + localId;
+        }
 
-            return line.substring(startIndex + 1, endIndex);
-        } catch (final StringIndexOutOfBoundsException e) {
-            throw new GfaParseException("Invalid segment line.", e);
+        for (int i = 0; i < chunks.size(); i++) {
+            final int segmentId = chunks.get(i).getSegmentId(name);
+            if (segmentId >= 0) {
+                return chunkOffsets[i] + segmentId;
+            }
         }
+
+        throw new GfaParseException("Link has reference to non existing node "
+                + new String(name, StandardCharsets.UTF_8));
     }
 
     /**
-     * Adds an incoming edge to the node vector.
+     * Builds the {@link Graph} from the segment and link tables of the chunks.
+     * <p>
+     * Nodes without incoming or outgoing edges are connected to the source or sink. The edges of each node retain the
+     * order in which they appear in the file.
      *
-     * @param fromId     node ID of edge start node
-     * @param toId       node ID of edge end node
-     * @param byteOffset the byte offset of the current line
+     * @param chunks       the parsed chunks, of which the links have been resolved
+     * @param chunkOffsets the internal node ID of the first segment of each chunk
+     * @param nodeCount    the number of nodes, including the source and sink
+     * @param gfaFile      the GFA file from which the graph is created
+     * @return the {@link Graph}
      */
-    private void addIncomingEdge(final int fromId, final int toId, final long byteOffset) {
-        nodeArrays[toId] = Arrays.copyOf(nodeArrays[toId], nodeArrays[toId].length + Graph.EDGE_DATA_SIZE);
+    private static Graph buildGraph(final List<GfaChunk> chunks, final int[] chunkOffsets, final int nodeCount,
+                                    final GfaFile gfaFile) {
+        final int[] outgoingEdgeCounts = new int[nodeCount];
+        final int[] incomingEdgeCounts = new int[nodeCount];
+        for (final GfaChunk chunk : chunks) {
+            countEdgesPerNode(chunk.getLinkFromIds(), outgoingEdgeCounts);
+            countEdgesPerNode(chunk.getLinkToIds(), incomingEdgeCounts);
+        }
+
+        final GfaChunk sentinelEdges = new GfaChunk();
+        addEdgesToSentinelNodes(sentinelEdges, outgoingEdgeCounts, incomingEdgeCounts);
+        countEdgesPerNode(sentinelEdges.getLinkFromIds(), outgoingEdgeCounts);
+        countEdgesPerNode(sentinelEdges.getLinkToIds(), incomingEdgeCounts);
+
+        final GraphBuilder graphBuilder = new GraphBuilder(outgoingEdgeCounts, incomingEdgeCounts);
+        for (int i = 0; i < chunks.size(); i++) {
+            final GrowableIntArray sequenceLengths = chunks.get(i).getSequenceLengths();
+            final GrowableLongArray byteOffsets = chunks.get(i).getSegmentByteOffsets();
+            for (int localId = 0; localId < sequenceLengths.size(); localId++) {
+                graphBuilder.setSegment(chunkOffsets[i] + localId, byteOffsets.get(localId),
+                        sequenceLengths.get(localId));
+            }
+        }
+
+        final List<GfaChunk> edgeSources = new ArrayList<>(chunks);
+        edgeSources.add(sentinelEdges);
+        for (final GfaChunk chunk : edgeSources) {
+            final GrowableIntArray fromIds = chunk.getLinkFromIds();
+            final GrowableIntArray toIds = chunk.getLinkToIds();
+            final GrowableLongArray byteOffsets = chunk.getLinkByteOffsets();
 
-        nodeArrays[toId][nodeArrays[toId].length - 2] = fromId;
-        nodeArrays[toId][nodeArrays[toId].length - 1] = UnsignedInteger.fromLong(byteOffset);
+            for (int i = 0; i < fromIds.size(); i++) {
+                graphBuilder.addEdge(fromIds.get(i), toIds.get(i), byteOffsets.get(i));
+            }
+        }
+
+        return graphBuilder.build(gfaFile);
     }
 
     /**
-     * Adds an outgoing edge to the node vector.
+     * Add edges for nodes without incoming or outgoing edges to the source or sink.
      *
-     * @param fromId     node ID of edge start node
-     * @param toId       node ID of edge end node
-     * @param byteOffset the byte offset of the current line
+     * @param sentinelEdges      the chunk to add the edges to
+     * @param outgoingEdgeCounts the number of outgoing edges per node
+     * @param incomingEdgeCounts the number of incoming edges per node
      */
-    private void addOutgoingEdge(final int fromId, final int toId, final long byteOffset) {
-        final int lastOutgoingEdgePosition = Graph.NODE_EDGE_DATA_OFFSET
-                + nodeArrays[fromId][Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE;
-
-        nodeArrays[fromId] = insertAtPosition(
-                nodeArrays[fromId],
-                lastOutgoingEdgePosition,
-                toId,
-                UnsignedInteger.fromLong(byteOffset)
-        );
-        nodeArrays[fromId][Graph.NODE_OUTGOING_EDGES_INDEX]++;
+    private static void addEdgesToSentinelNodes(final GfaChunk sentinelEdges, final int[] outgoingEdgeCounts,
+                                                final int[] incomingEdgeCounts) {
+        final int source = 0;
+        final int sink = outgoingEdgeCounts.length - 1;
+
+        for (int nodeId = 1; nodeId < sink; nodeId++) {
+            if (incomingEdgeCounts[nodeId] == 0) {
+                sentinelEdges.addLink(source, nodeId, 0); // WAS -1, BUT CANNOT IN UINT
+            }
+
+            if (outgoingEdgeCounts[nodeId] == 0) {
+                sentinelEdges.addLink(nodeId, sink, 0); // WAS -1, BUT CANNOT IN UINT
+            }
+        }
     }
 
     /**
-     * Inserts one or more elements at a certain position in a given array.
+     * Increments the count of each node ID that occurs in the given list of edge endpoints.
      *
-     * @param array    array in which new elements need to be added
-     * @param position insertion position
-     * @param inserts  the values that need to be inserted
-     * @return array with the elements inserted
+     * @param endpoints the node IDs of one end of each edge
+     * @param counts    the number of edges per node ID
      */
-    private int[] insertAtPosition(final int[] array, final int position, final int... inserts) {
-        final int[] result = new int[array.length + inserts.length];
-
-        System.arraycopy(array, 0, result, 0, position);
-
-        for (int i = 0; i < inserts.length; i++) {
-            result[position + i] = inserts[i];
+    private static void countEdgesPerNode(final GrowableIntArray endpoints, final int[] counts) {
+        for (int i = 0; i < endpoints.size(); i++) {
+            counts[endpoints.get(i)]++;
         }
-
-        System.arraycopy(array, position, result, position + inserts.length, array.length - position);
-
-        return result;
     }
 
     /**
-     * Add edges for nodes without incoming or outgoing edges to the source or sink.
+     * Merges the genome names found in the headers of all chunks.
      *
-     * @param graph the graph data structure including the source and sink
-     * @throws GfaParseException if the graph has an invalid number of nodes
+     * @param chunks the parsed chunks
+     * @return the genome names, indexed by their position in the header
      */
-    private void addEdgesToSentinelNodes(final Graph graph) throws GfaParseException {
-        if (nodeArrays.length == 2) {
-            throw new GfaParseException("The GFA file should contain at least one segment.");
-        }
-
-        final int source = getNodeId(SOURCE_NAME);
-        final int sink = getNodeId(SINK_NAME);
-
-        IntStream.range(1, nodeArrays.length - 1).forEach(nodeId -> {
-            if (graph.getNeighbourCount(nodeId, SequenceDirection.LEFT) == 0) {
-                addIncomingEdge(source, nodeId, 0); // WAS -1, BUT CANNOT IN UINT
-                addOutgoingEdge(source, nodeId, 0); // WAS -1, BUT CANNOT IN UINT
-            }
-
-            if (graph.getNeighbourCount(nodeId, SequenceDirection.RIGHT) == 0) {
-                addIncomingEdge(nodeId, sink, 0); // WAS -1, BUT CANNOT IN UINT
-                addOutgoingEdge(nodeId, sink, 0); // WAS -1, BUT CANNOT IN UINT
-            }
-        });
+    private static Map<String, String> mergeGenomeMappings(final List<GfaChunk> chunks) {
+        final Map<String, String> genomeMapping = new HashMap<>();
+        chunks.forEach(chunk -> genomeMapping.putAll(chunk.getGenomeMapping()));
+        return genomeMapping;
     }
 
     /**
-     * Gets node id belonging to a node name.
+     * Executes the given tasks and waits for all of them to complete.
      *
-     * @param nodeName name of the node as specified in the GFA file
-     * @return node id belonging to a node name
-     * @throws GfaParseException if the node name does not exist
+     * @param executor the {@link ExecutorService} to execute the tasks with
+     * @param tasks    the tasks to execute
+     * @param <T>      the type of the results of the tasks
+     * @return the results of the tasks, in the same order as the tasks
+     * @throws GfaParseException if one of the tasks failed or the current thread was interrupted
      */
-    private int getNodeId(final String nodeName) throws GfaParseException {
-        return Optional.ofNullable(nodeIds.get(nodeName)).orElseThrow(
-                () -> new GfaParseException("Link has reference to non existing node " + nodeName)
-        );
+    private static <T> List<T> invokeAll(final ExecutorService executor, final List<Callable<T>> tasks)
+            throws GfaParseException {
+        try {
+            final List<T> results = new ArrayList<>(tasks.size());
+            for (final Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GfaParseException("Parsing the GFA file was interrupted.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof GfaParseException) {
+                throw (GfaParseException) e.getCause();
+            }
+            throw new GfaParseException("An error while reading the GFA file.", e);
+        }
     }
 }
@@ -0,0 +1,460 @@
+package org.dnacronym.hygene.parser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Splits the records of a GFA file into tab-separated fields without decoding them to {@link String}s.
+ * <p>
+ * Files are read through memory-mapped windows of a {@link FileChannel}, streams through a growing buffer. Each call
+ * to {@link #next()} moves the tokenizer to the next non-empty line, after which the record type, the byte offset of
+ * the line and the byte ranges of its fields can be inspected. Views returned by {@link #getFieldChars(int)} are only
+ * valid until the next call to {@link #next()}.
+ * <p>
+ * Instances are not thread-safe. Multiple tokenizers can read distinct ranges of the same {@link FileChannel}
+ * concurrently.
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.TooManyMethods"}) // Each method is a different view on the current record
+public final class GfaTokenizer {
+    private static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_FIELD_CAPACITY = 16;
+
+    private final @Nullable FileChannel fileChannel;
+    private final @Nullable ReadableByteChannel streamChannel;
+    private final long end;
+
+    private ByteBuffer window;
+    private long windowOffset; // byte offset in the file of the first byte in the window
+    private int windowLimit;
+    private boolean windowContainsEnd;
+    private int position; // index in the window of the first byte that has not been tokenized
+
+    private long lineOffset;
+    private int[] fieldStarts;
+    private int[] fieldEnds;
+    private int fieldCount;
+
+
+    /**
+     * Constructs a new {@link GfaTokenizer}.
+     *
+     * @param fileChannel   the channel to map the file from, or {@code null} if a stream should be read
+     * @param streamChannel the stream to read from, or {@code null} if a file should be mapped
+     * @param start         the byte offset at which to start reading
+     * @param end           the byte offset at which to stop reading
+     */
+    private GfaTokenizer(final @Nullable FileChannel fileChannel, final @Nullable ReadableByteChannel streamChannel,
+                         final long start, final long end) {
+        this.fileChannel = fileChannel;
+        this.streamChannel = streamChannel;
+        this.end = end;
+
+        this.window = ByteBuffer.allocate(0);
+        this.windowOffset = start;
+        this.fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+        this.fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+    }
+
+
+    /**
+     * Creates a {@link GfaTokenizer} that memory-maps a range of a file.
+     * <p>
+     * The range should start at the start of a line. The caller remains responsible for closing the channel.
+     *
+     * @param channel a {@link FileChannel} of the file
+     * @param start   the byte offset at which to start reading
+     * @param end     the byte offset at which to stop reading
+     * @return a {@link GfaTokenizer} over the given range of the file
+     */
+    public static GfaTokenizer fromFileChannel(final FileChannel channel, final long start, final long end) {
+        if (start < 0 || start > end) {
+            throw new IllegalArgumentException("Range " + start + " to " + end + " is not valid.");
+        }
+
+        return new GfaTokenizer(channel, null, start, end);
+    }
+
+    /**
+     * Creates a {@link GfaTokenizer} that reads a stream.
+     * <p>
+     * The caller remains responsible for closing the stream.
+     *
+     * @param inputStream the stream to read
+     * @return a {@link GfaTokenizer} over the given stream
+     */
+    public static GfaTokenizer fromInputStream(final InputStream inputStream) {
+        return new GfaTokenizer(null, Channels.newChannel(inputStream), 0, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Moves to the next non-empty line.
+     *
+     * @return {@code true} iff there was a next line
+     * @throws IOException if the file could not be read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            final int lineEnd = tokenizeLine();
+            if (lineEnd < 0) {
+                if (windowContainsEnd) {
+                    return false;
+                }
+
+                refill();
+                continue;
+            }
+
+            final int lineStart = position;
+            position = lineEnd < windowLimit ? lineEnd + 1 : windowLimit;
+
+            if (fieldEnds[0] > lineStart || fieldCount > 1) {
+                lineOffset = windowOffset + lineStart;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the record type of the current line, which is its first character.
+     *
+     * @return the record type of the current line
+     */
+    public char getRecordType() {
+        return (char) (window.get(fieldStarts[0]) & 0xFF);
+    }
+
+    /**
+     * Returns the byte offset in the file of the current line.
+     *
+     * @return the byte offset in the file of the current line
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Returns the number of fields on the current line, including the record type.
+     *
+     * @return the number of fields on the current line
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns the length in bytes of a field on the current line.
+     *
+     * @param field the index of the field, where {@code 0} is the record type
+     * @return the length in bytes of the field
+     */
+    public int getFieldLength(final int field) {
+        checkField(field);
+        return fieldEnds[field] - fieldStarts[field];
+    }
+
+    /**
+     * Returns a byte of a field on the current line.
+     *
+     * @param field the index of the field, where {@code 0} is the record type
+     * @param index the index of the byte within the field
+     * @return the byte
+     */
+    public byte getByte(final int field, final int index) {
+        checkField(field);
+        if (index < 0 || index >= fieldEnds[field] - fieldStarts[field]) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for field " + field + ".");
+        }
+        return window.get(fieldStarts[field] + index);
+    }
+
+    /**
+     * Returns the index of the first occurrence of a byte in a field on the current line.
+     *
+     * @param field     the index of the field, where {@code 0} is the record type
+     * @param value     the byte to search for
+     * @param fromIndex the index within the field to start searching at
+     * @return the index within the field of the first occurrence at or after {@code fromIndex}, or {@code -1} if there
+     * is no such occurrence
+     */
+    public int indexOf(final int field, final byte value, final int fromIndex) {
+        checkField(field);
+        for (int i = fieldStarts[field] + Math.max(fromIndex, 0); i < fieldEnds[field]; i++) {
+            if (window.get(i) == value) {
+                return i - fieldStarts[field];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether a region of a field on the current line consists of exactly the given bytes.
+     *
+     * @param field  the index of the field, where {@code 0} is the record type
+     * @param offset the index within the field at which the region starts
+     * @param length the length of the region
+     * @param bytes  the bytes to compare the region to
+     * @return {@code true} iff the region is equal to the given bytes
+     */
+    public boolean regionEquals(final int field, final int offset, final int length, final byte[] bytes) {
+        checkField(field);
+        if (length != bytes.length || offset < 0 || fieldStarts[field] + offset + length > fieldEnds[field]) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (window.get(fieldStarts[field] + offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a field on the current line starts with the given bytes.
+     *
+     * @param field  the index of the field, where {@code 0} is the record type
+     * @param prefix the bytes the field should start with
+     * @return {@code true} iff the field starts with the given bytes
+     */
+    public boolean fieldStartsWith(final int field, final byte[] prefix) {
+        return regionEquals(field, 0, prefix.length, prefix);
+    }
+
+    /**
+     * Copies a field on the current line to the start of an array.
+     * <p>
+     * The given array is used if the field fits in it, and a new array is allocated otherwise.
+     *
+     * @param field  the index of the field, where {@code 0} is the record type
+     * @param buffer the array to copy the field to if it is large enough
+     * @return the array containing the field, starting at index {@code 0}
+     */
+    public byte[] getFieldBytes(final int field, final byte[] buffer) {
+        final int length = getFieldLength(field);
+        final byte[] bytes = buffer.length >= length ? buffer : new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = window.get(fieldStarts[field] + i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a view of a field on the current line as ASCII characters, without copying it.
+     * <p>
+     * The view is only valid until the next call to {@link #next()}.
+     *
+     * @param field the index of the field, where {@code 0} is the record type
+     * @return a view of the field
+     */
+    public CharSequence getFieldChars(final int field) {
+        checkField(field);
+        return new ByteCharSequence(window, fieldStarts[field], fieldEnds[field]);
+    }
+
+    /**
+     * Decodes a field on the current line to a {@link String}.
+     *
+     * @param field the index of the field, where {@code 0} is the record type
+     * @return the decoded field
+     */
+    public String getFieldString(final int field) {
+        checkField(field);
+        final byte[] bytes = new byte[fieldEnds[field] - fieldStarts[field]];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(fieldStarts[field] + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Records the fields of the line starting at {@link #position}.
+     *
+     * @return the index in the window of the line feed terminating the line, or of the end of the window if the line
+     * ends at the end of the input, or {@code -1} if the line is not completely contained in the window
+     */
+    private int tokenizeLine() {
+        fieldCount = 0;
+        int fieldStart = position;
+
+        for (int i = position; i < windowLimit; i++) {
+            final byte value = window.get(i);
+            if (value == '\t') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            } else if (value == '\n') {
+                addField(fieldStart, i > fieldStart && window.get(i - 1) == '\r' ? i - 1 : i);
+                return i;
+            }
+        }
+
+        if (!windowContainsEnd || position == windowLimit) {
+            return -1;
+        }
+
+        final int lastByte = windowLimit - 1;
+        addField(fieldStart, lastByte >= fieldStart && window.get(lastByte) == '\r' ? lastByte : windowLimit);
+        return windowLimit;
+    }
+
+    /**
+     * Appends the byte range of a field.
+     *
+     * @param start the index in the window of the first byte of the field
+     * @param fieldEnd the index in the window after the last byte of the field
+     */
+    private void addField(final int start, final int fieldEnd) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = fieldEnd;
+        fieldCount++;
+    }
+
+    /**
+     * Replaces the window by one that starts at {@link #position} and contains more bytes.
+     *
+     * @throws IOException if the file could not be read
+     */
+    private void refill() throws IOException {
+        final int unfinished = windowLimit - position;
+
+        if (fileChannel == null) {
+            refillStream(unfinished);
+        } else {
+            refillMapped(fileChannel, unfinished);
+        }
+
+        position = 0;
+    }
+
+    /**
+     * Maps the next window of the file, starting at {@link #position}.
+     *
+     * @param channel    the channel to map the file from
+     * @param unfinished the number of bytes of the current window that have not been tokenized
+     * @throws IOException if the file could not be mapped
+     */
+    private void refillMapped(final FileChannel channel, final int unfinished) throws IOException {
+        final long newOffset = windowOffset + position;
+        final int size = (int) Math.min(end - newOffset, Math.max(unfinished * 2L, MAPPED_WINDOW_SIZE));
+
+        window = channel.map(FileChannel.MapMode.READ_ONLY, newOffset, size);
+        windowOffset = newOffset;
+        windowLimit = size;
+        windowContainsEnd = newOffset + size >= end;
+    }
+
+    /**
+     * Moves the bytes that have not been tokenized to the start of the buffer and fills the rest of it from the
+     * stream.
+     *
+     * @param unfinished the number of bytes of the current window that have not been tokenized
+     * @throws IOException if the stream could not be read
+     */
+    private void refillStream(final int unfinished) throws IOException {
+        if (streamChannel == null) {
+            throw new IllegalStateException("Tokenizer has neither a file nor a stream to read from.");
+        }
+
+        final int capacity = Math.max(unfinished * 2, STREAM_BUFFER_SIZE);
+        final ByteBuffer buffer = window.capacity() >= capacity ? window : ByteBuffer.allocate(capacity);
+        final byte[] unfinishedBytes = new byte[unfinished];
+        window.position(position);
+        window.get(unfinishedBytes);
+
+        buffer.clear();
+        buffer.put(unfinishedBytes);
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = streamChannel.read(buffer);
+        }
+
+        window = buffer;
+        windowOffset += position;
+        windowLimit = buffer.position();
+        windowContainsEnd = read < 0;
+    }
+
+    /**
+     * Throws an {@link IndexOutOfBoundsException} if the given field does not exist on the current line.
+     *
+     * @param field the index of a field
+     */
+    private void checkField(final int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " does not exist on line at position "
+                    + lineOffset + ".");
+        }
+    }
+
+
+    /**
+     * A view of a range of a {@link ByteBuffer} as ASCII characters.
+     */
+    private static final class ByteCharSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+
+        /**
+         * Constructs a new {@link ByteCharSequence}.
+         *
+         * @param buffer the buffer containing the bytes
+         * @param start  the index in the buffer of the first byte
+         * @param end    the index in the buffer after the last byte
+         */
+        ByteCharSequence(final ByteBuffer buffer, final int start, final int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds.");
+            }
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int subSequenceStart, final int subSequenceEnd) {
+            if (subSequenceStart < 0 || subSequenceStart > subSequenceEnd || subSequenceEnd > end - start) {
+                throw new IndexOutOfBoundsException("Range " + subSequenceStart + " to " + subSequenceEnd
+                        + " is out of bounds.");
+            }
+            return new ByteCharSequence(buffer, start + subSequenceStart, start + subSequenceEnd);
+        }
+
+        @Override
+        public String toString() {
+            final char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
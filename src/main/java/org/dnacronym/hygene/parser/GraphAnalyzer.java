@@ -0,0 +1,73 @@
+package org.dnacronym.hygene.parser;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.SuperbubbleDetector;
+import org.dnacronym.hygene.graph.TopologicalSorter;
+import org.dnacronym.hygene.graph.layout.Fafosp;
+
+
+/**
+ * Computes the layout, topological order, superbubbles, chains and hierarchy of a {@link Graph} that are cached
+ * together with the graph.
+ */
+final class GraphAnalyzer {
+    private static final Logger LOGGER = LogManager.getLogger(GraphAnalyzer.class);
+
+
+    /**
+     * Hides public implicit constructor.
+     */
+    private GraphAnalyzer() {
+    }
+
+
+    /**
+     * Computes the layout, topological order, superbubbles, chains and hierarchy of a newly parsed graph.
+     *
+     * @param graph a newly parsed graph
+     */
+    static void analyze(final Graph graph) {
+        LOGGER.info("Start fafosp x");
+        // Also computes the topological order, which is cached together with the layout
+        graph.setNodePositions(new Fafosp(graph).horizontal());
+
+        LOGGER.info("Start superbubble detection");
+        graph.setBubbleIndex(new SuperbubbleDetector(graph).detect());
+
+        LOGGER.info("Start compacting chains");
+        graph.getChainCompaction();
+
+        LOGGER.info("Start coarsening the graph");
+        graph.getHierarchy();
+    }
+
+    /**
+     * Computes the sections that are missing from a graph restored from a cache that was written before these
+     * sections were cached.
+     *
+     * @param graph a graph restored from a cache
+     */
+    static void complete(final Graph graph) {
+        if (graph.getNodePositions() == null) {
+            LOGGER.info("Start fafosp x for a cache without layout");
+            graph.setNodePositions(new Fafosp(graph).horizontal());
+        } else if (graph.getTopologicalOrder() == null) {
+            LOGGER.info("Start topological sort for a cache without topological order");
+            graph.setTopologicalOrder(new TopologicalSorter(graph).sort());
+        }
+        if (graph.getBubbleIndex() == null) {
+            LOGGER.info("Start superbubble detection for a cache without superbubbles");
+            graph.setBubbleIndex(new SuperbubbleDetector(graph).detect());
+        }
+        if (!graph.hasChainCompaction()) {
+            LOGGER.info("Start compacting chains for a cache without chains");
+            graph.getChainCompaction();
+        }
+        if (!graph.hasHierarchy()) {
+            LOGGER.info("Start coarsening the graph for a cache without hierarchy");
+            graph.getHierarchy();
+        }
+    }
+}
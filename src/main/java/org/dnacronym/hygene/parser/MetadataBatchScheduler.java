@@ -0,0 +1,137 @@
+package org.dnacronym.hygene.parser;
+
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static com.google.common.util.concurrent.MoreExecutors.getExitingExecutorService;
+
+
+/**
+ * Schedules the batches of nodes of a single {@link MetadataParser} call on the pool of daemon threads shared by all
+ * parsers.
+ * <p>
+ * Batches are cancelled without interrupting their threads, as an interrupt during a read closes the
+ * {@link java.nio.channels.FileChannel} that all batches of the call read from. Instead, a batch checks the
+ * cancellation flag it is given before reading each line.
+ */
+final class MetadataBatchScheduler {
+    /**
+     * The number of threads of the shared pool.
+     */
+    static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private final BatchParser parser;
+    private final AtomicBoolean cancelled;
+
+
+    /**
+     * Constructs a new {@link MetadataBatchScheduler}.
+     *
+     * @param parser the function that parses a single batch of nodes
+     */
+    MetadataBatchScheduler(final BatchParser parser) {
+        this.parser = parser;
+        this.cancelled = new AtomicBoolean();
+    }
+
+
+    /**
+     * Parses the batches of nodes in parallel, and passes the results to the consumer as they complete.
+     * <p>
+     * Once all batches have been passed to the consumer, or parsing fails or is interrupted, the batches that are
+     * still running are cancelled.
+     *
+     * @param entries    the identifiers and byte offsets of the nodes, sorted by byte offset
+     * @param batchCount the number of batches to split the nodes into
+     * @param consumer   the consumer of the parsed batches
+     * @throws MetadataParseException     if a line is invalid
+     * @throws RejectedExecutionException if the calling thread was interrupted or a batch was cancelled
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Each batch needs its own task
+    void run(final List<Map.Entry<Integer, Long>> entries, final int batchCount,
+             final Consumer<Map<Integer, NodeMetadata>> consumer) throws MetadataParseException {
+        final CompletionService<Map<Integer, NodeMetadata>> completionService
+                = new ExecutorCompletionService<>(EXECUTOR);
+        final List<Future<Map<Integer, NodeMetadata>>> futures = new ArrayList<>(batchCount);
+
+        try {
+            for (int i = 0; i < batchCount; i++) {
+                final int start = (int) ((long) entries.size() * i / batchCount);
+                final int end = (int) ((long) entries.size() * (i + 1) / batchCount);
+                final List<Map.Entry<Integer, Long>> batch = entries.subList(start, end);
+
+                futures.add(completionService.submit(() -> parser.parse(batch, cancelled::get)));
+            }
+
+            for (int i = 0; i < batchCount; i++) {
+                consumer.accept(completionService.take().get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(MetadataParser.INTERRUPTED_MESSAGE, e);
+        } catch (final CancellationException e) {
+            throw new RejectedExecutionException(MetadataParser.INTERRUPTED_MESSAGE, e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof MetadataParseException) {
+                throw (MetadataParseException) e.getCause();
+            }
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw (RejectedExecutionException) e.getCause();
+            }
+            throw new MetadataParseException("Node metadata could not be parsed.", e);
+        } finally {
+            cancelled.set(true);
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+
+
+    /**
+     * Creates the pool of daemon threads shared by all parsers, of which the idle threads time out.
+     *
+     * @return the pool of daemon threads shared by all parsers
+     */
+    private static ExecutorService createExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        return getExitingExecutorService(executor);
+    }
+
+
+    /**
+     * Parses the metadata of a batch of nodes.
+     */
+    @FunctionalInterface
+    interface BatchParser {
+        /**
+         * Parses the metadata of the given batch of nodes.
+         *
+         * @param entries   the identifiers and byte offsets of the nodes, sorted by byte offset
+         * @param cancelled returns {@code true} iff. the batch has been cancelled
+         * @return a map in the {@code provided key => node metadata} format
+         * @throws MetadataParseException     if a line is invalid
+         * @throws RejectedExecutionException if the batch was cancelled
+         */
+        Map<Integer, NodeMetadata> parse(List<Map.Entry<Integer, Long>> entries, BooleanSupplier cancelled)
+                throws MetadataParseException;
+    }
+}
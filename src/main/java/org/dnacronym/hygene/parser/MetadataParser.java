@@ -5,7 +5,8 @@ import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -14,15 +15,61 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.StringTokenizer;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 
 /**
  * This class handles parsing of metadata of nodes and edges contained in GFA AppData.
+ * <p>
+ * Lines are read with a {@link BlockLineReader}, so that the lines of a batch of nodes with sorted, nearby byte
+ * offsets are read from the file in a few large blocks. Large batches are split into contiguous parts that are read
+ * in parallel from a single {@link FileChannel}, as its positional reads do not depend on the channel's position.
+ * <p>
+ * All parsers share a single pool of daemon threads, of which there are at most as many as there are processors, on
+ * which the batches are scheduled by a {@link MetadataBatchScheduler}. Retrieval is interrupted whenever the user
+ * moves on to another part of the graph, so an interruption of the calling thread is not an error. It cancels the
+ * remaining batches, and is signalled with a {@link RejectedExecutionException}, with the interrupted status of the
+ * calling thread left set.
  *
  * @see <a href="https://github.com/GFA-spec/GFA-spec/">GFA v1 specification</a>
  */
 public final class MetadataParser {
     public static final String GENOME_LIST_HEADER_PREFIX = "ORI:Z:";
+    /**
+     * The message of the {@link RejectedExecutionException} that signals an interruption.
+     */
+    static final String INTERRUPTED_MESSAGE = "Node metadata retrieval was interrupted.";
+    private static final int MINIMUM_BATCH_SIZE = 256;
+
+    private final int threadCount;
+    private final int minimumBatchSize;
+
+
+    /**
+     * Constructs and initializes a new instance of {@link MetadataParser} that uses all available processors.
+     */
+    public MetadataParser() {
+        this(MetadataBatchScheduler.THREAD_COUNT, MINIMUM_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs and initializes a new instance of {@link MetadataParser}.
+     *
+     * @param threadCount      the maximum number of threads to parse a batch of nodes with
+     * @param minimumBatchSize the minimum number of nodes each thread should parse
+     */
+    MetadataParser(final int threadCount, final int minimumBatchSize) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (minimumBatchSize < 1) {
+            throw new IllegalArgumentException("Minimum batch size must be positive.");
+        }
+
+        this.threadCount = threadCount;
+        this.minimumBatchSize = minimumBatchSize;
+    }
 
 
     /**
@@ -43,6 +90,8 @@ public final class MetadataParser {
 
     /**
      * Parses the metadata of multiple nodes with limited file IO by reading the file only once.
+     * <p>
+     * Nodes whose lines lie within the same block of the file are read with a single read.
      *
      * @param gfa         a reference to the current {@link GfaFile}
      * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest, results
@@ -50,43 +99,97 @@ public final class MetadataParser {
      * @return a map in the {@code provided key => node metadata} format
      * @throws MetadataParseException if the GFA file or given line is invalid
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // The whole purpose of the loop is to instantiate objects
     public Map<Integer, NodeMetadata> parseNodeMetadata(final GfaFile gfa, final Map<Integer, Long> byteOffsets)
             throws MetadataParseException {
-
         final Map<Integer, NodeMetadata> result = new HashMap<>(byteOffsets.size());
+        parseNodeMetadata(gfa, byteOffsets, result::putAll);
+        return result;
+    }
 
-        final RandomAccessFile gfaRandomAccessFile = gfa.getRandomAccessFile();
+    /**
+     * Parses the metadata of multiple nodes in parallel, and passes the results to the consumer as they complete.
+     * <p>
+     * The byte offsets are split into contiguous batches, each of which is parsed by a thread of the shared pool. The
+     * consumer is called on the calling thread once for each batch, in the order in which the batches complete.
+     *
+     * @param gfa         a reference to the current {@link GfaFile}
+     * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest, results
+     *                    will be given the same key as provided in this map
+     * @param consumer    the consumer of maps in the {@code provided key => node metadata} format
+     * @throws MetadataParseException     if the GFA file or given line is invalid
+     * @throws RejectedExecutionException if the calling thread was interrupted
+     */
+    public void parseNodeMetadata(final GfaFile gfa, final Map<Integer, Long> byteOffsets,
+                                  final Consumer<Map<Integer, NodeMetadata>> consumer) throws MetadataParseException {
+        final List<Map.Entry<Integer, Long>> entries = new ArrayList<>(byteOffsets.entrySet());
+        final int batchCount = Math.max(1, Math.min(threadCount, entries.size() / minimumBatchSize));
+
+        try (FileChannel channel = gfa.getFileChannel()) {
+            if (batchCount == 1) {
+                consumer.accept(parseBatch(channel, entries, () -> false));
+                return;
+            }
 
-        for (final Map.Entry<Integer, Long> entry : byteOffsets.entrySet()) {
-            if (Thread.interrupted()) {
-                throw new RejectedExecutionException("Node metadata retrieval was interrupted.");
+            new MetadataBatchScheduler((batch, cancelled) -> parseBatch(channel, batch, cancelled))
+                    .run(entries, batchCount, consumer);
+        } catch (final IOException e) {
+            throw new MetadataParseException("File '" + gfa.getFileName() + "' could not be read.", e);
+        }
+    }
+
+    /**
+     * Parses the metadata of a batch of nodes with a single {@link BlockLineReader}.
+     *
+     * @param channel   a {@link FileChannel} of the GFA file
+     * @param entries   the identifiers and byte offsets of the nodes, sorted by byte offset
+     * @param cancelled returns {@code true} iff. the batch has been cancelled
+     * @return a map in the {@code provided key => node metadata} format
+     * @throws MetadataParseException     if a line is invalid
+     * @throws RejectedExecutionException if the batch was cancelled or the current thread was interrupted
+     */
+    private Map<Integer, NodeMetadata> parseBatch(final FileChannel channel,
+                                                  final List<Map.Entry<Integer, Long>> entries,
+                                                  final BooleanSupplier cancelled)
+            throws MetadataParseException {
+        final Map<Integer, NodeMetadata> result = new HashMap<>(entries.size());
+        final BlockLineReader reader = new BlockLineReader(channel);
+
+        for (final Map.Entry<Integer, Long> entry : entries) {
+            if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                throw new RejectedExecutionException(INTERRUPTED_MESSAGE);
             }
 
             final long byteOffset = entry.getValue();
+            result.put(entry.getKey(), parseNodeLine(getLine(reader, byteOffset), byteOffset));
+        }
 
-            final String line = getLine(gfaRandomAccessFile, byteOffset);
+        return result;
+    }
 
-            validateLine(line, "S", byteOffset);
+    /**
+     * Parses the line of a segment (node) to a {@link NodeMetadata} object.
+     *
+     * @param line       the line of the GFA file belonging to the node
+     * @param byteOffset the byte offset where the node is located
+     * @return a {@link NodeMetadata} object containing the segment's metadata
+     * @throws MetadataParseException if the given line is invalid
+     */
+    private NodeMetadata parseNodeLine(final String line, final long byteOffset) throws MetadataParseException {
+        validateLine(line, "S", byteOffset);
 
-            final StringTokenizer st = initializeStringTokenizer(line, byteOffset);
+        final StringTokenizer st = initializeStringTokenizer(line, byteOffset);
 
-            try {
-                st.nextToken();
-                final String name = st.nextToken();
-                final String sequence = st.nextToken();
-                st.nextToken(); // Ignore asterisk
-                final List<String> genomes = parseGenomes(st.nextToken(), byteOffset);
+        try {
+            st.nextToken();
+            final String name = st.nextToken();
+            final String sequence = st.nextToken();
+            st.nextToken(); // Ignore asterisk
+            final List<String> genomes = parseGenomes(st.nextToken(), byteOffset);
 
-                result.put(entry.getKey(), new NodeMetadata(name, sequence, genomes));
-            } catch (final NoSuchElementException e) {
-                throw new MetadataParseException(
-                        "Not enough parameters for segment at position " + byteOffset + ".", e
-                );
-            }
+            return new NodeMetadata(name, sequence, genomes);
+        } catch (final NoSuchElementException e) {
+            throw new MetadataParseException("Not enough parameters for segment at position " + byteOffset + ".", e);
         }
-
-        return result;
     }
 
     /**
@@ -98,7 +201,12 @@ public final class MetadataParser {
      * @throws MetadataParseException if the GFA file or given line is invalid
      */
     public EdgeMetadata parseEdgeMetadata(final GfaFile gfa, final long byteOffset) throws MetadataParseException {
-        final String line = getLine(gfa.getRandomAccessFile(), byteOffset);
+        final String line;
+        try (FileChannel channel = gfa.getFileChannel()) {
+            line = getLine(new BlockLineReader(channel), byteOffset);
+        } catch (final IOException e) {
+            throw new MetadataParseException("File '" + gfa.getFileName() + "' could not be read.", e);
+        }
 
         validateLine(line, "L", byteOffset);
 
@@ -119,23 +227,24 @@ public final class MetadataParser {
     }
 
     /**
-     * Finds a specific line within the string representation of a GFA file.
+     * Finds a specific line within a GFA file.
      *
-     * @param gfa        string containing the contents of the GFA file
+     * @param reader     a {@link BlockLineReader} of the GFA file
      * @param byteOffset the byte offset where the node or edge should be located
      * @return the line of the file belonging to the node or edge
-     * @throws MetadataParseException if the byte offset is out of bounds
+     * @throws MetadataParseException     if the byte offset is out of bounds
+     * @throws RejectedExecutionException if the current thread was interrupted while reading, which closes the channel
      */
-    private String getLine(final RandomAccessFile gfa, final long byteOffset) throws MetadataParseException {
+    private String getLine(final BlockLineReader reader, final long byteOffset) throws MetadataParseException {
         if (byteOffset < 0) {
             throw new MetadataParseException("Byte offset " + byteOffset + " is not a valid byte offset.");
         }
 
         try {
-            gfa.seek(byteOffset);
-
-            return Optional.ofNullable(gfa.readLine())
+            return Optional.ofNullable(reader.readLine(byteOffset))
                     .orElseThrow(() -> new MetadataParseException("Line was null and could not be read."));
+        } catch (final ClosedByInterruptException e) {
+            throw new RejectedExecutionException(INTERRUPTED_MESSAGE, e);
         } catch (final IOException e) {
             throw new MetadataParseException("Line could not be read.", e);
         }
@@ -0,0 +1,331 @@
+package org.dnacronym.hygene.parser;
+
+import org.dnacronym.hygene.core.GrowableIntArray;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Maps segment names, given as raw bytes, to {@code int} values without creating {@link String}s or boxed values.
+ * <p>
+ * Names are stored in a single byte pool and looked up in an open-addressing hash table with linear probing. Names
+ * that are canonical decimal numbers, which is how most GFA files name their segments, are stored in an array indexed
+ * by that number instead, so that they are found without hashing. As each chunk of a file has its own table, the
+ * array starts just below the first numeric name added to the table rather than at zero. A numeric name only ends up
+ * in the hash table if it lies below the start of the array, or much further beyond it than the number of names in
+ * the table.
+ * <p>
+ * Each name is an entry, and entries are numbered in the order in which they were added.
+ */
+final class NodeNameTable {
+    /**
+     * The value returned for names that are not in the table.
+     */
+    static final int ABSENT = -1;
+
+    private static final int INITIAL_SLOT_COUNT = 16;
+    private static final int INITIAL_NAME_POOL_SIZE = 256;
+    private static final int NUMERIC_NAME = -1; // name length of entries in the direct table
+    private static final int MAXIMUM_NUMERIC_DIGITS = 10;
+    private static final int DIRECT_TABLE_DENSITY = 4;
+    private static final int DIRECT_TABLE_MINIMUM_SIZE = 1024;
+    private static final int MAXIMUM_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private int[] directEntries; // numeric name - directBase => entry + 1, or 0 if absent
+    private int directBase;
+    private int[] slots; // entry + 1, or 0 if the slot is empty
+    private int hashedCount;
+    private int hashedNumericCount;
+
+    private byte[] namePool;
+    private int namePoolLength;
+
+    private final GrowableIntArray nameStarts; // entry => start in the pool, or the number itself for numeric names
+    private final GrowableIntArray nameLengths; // entry => length of the name, or NUMERIC_NAME
+    private final GrowableIntArray nameHashes;
+    private final GrowableIntArray values;
+
+
+    /**
+     * Constructs a new, empty {@link NodeNameTable}.
+     */
+    NodeNameTable() {
+        this.directEntries = new int[0];
+        this.slots = new int[INITIAL_SLOT_COUNT];
+        this.namePool = new byte[INITIAL_NAME_POOL_SIZE];
+
+        this.nameStarts = new GrowableIntArray();
+        this.nameLengths = new GrowableIntArray();
+        this.nameHashes = new GrowableIntArray();
+        this.values = new GrowableIntArray();
+    }
+
+
+    /**
+     * Returns the value of a name.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @return the value of the name, or {@link #ABSENT} if the name is not in the table
+     */
+    int get(final byte[] name, final int length) {
+        final int entry = findEntry(name, length);
+        return entry < 0 ? ABSENT : values.get(entry);
+    }
+
+    /**
+     * Sets the value of a name, adding the name to the table if it is not yet in it.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @param value  the new, non-negative value of the name
+     * @return the entry of the name
+     */
+    int put(final byte[] name, final int length, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative.");
+        }
+
+        final int existingEntry = findEntry(name, length);
+        if (existingEntry >= 0) {
+            values.set(existingEntry, value);
+            return existingEntry;
+        }
+
+        final int entry = values.size();
+        final int number = parseNumber(name, length);
+        if (directEntries.length == 0) {
+            // Until the first numeric name is added, the direct table can still start anywhere
+            directBase = Math.max(0, number - DIRECT_TABLE_MINIMUM_SIZE);
+        }
+
+        final long directTableLimit = Math.min(MAXIMUM_ARRAY_SIZE,
+                (long) DIRECT_TABLE_DENSITY * (values.size() + DIRECT_TABLE_MINIMUM_SIZE));
+        if (number >= directBase && number - directBase < directTableLimit) {
+            addDirectEntry(number, entry);
+        } else {
+            addHashedEntry(name, length, entry);
+            if (number >= 0) {
+                hashedNumericCount++;
+            }
+        }
+        values.add(value);
+
+        return entry;
+    }
+
+    /**
+     * Returns the number of names in the table.
+     *
+     * @return the number of names in the table
+     */
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns the number of names in the hash table rather than in the direct table.
+     *
+     * @return the number of names in the hash table rather than in the direct table
+     */
+    int getHashedCount() {
+        return hashedCount;
+    }
+
+    /**
+     * Returns the value of an entry.
+     *
+     * @param entry an entry between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @return the value of the entry
+     */
+    int getValue(final int entry) {
+        return values.get(entry);
+    }
+
+    /**
+     * Returns a copy of the name of an entry.
+     *
+     * @param entry an entry between {@code 0} (inclusive) and {@link #size()} (exclusive)
+     * @return a copy of the name of the entry
+     */
+    byte[] getName(final int entry) {
+        if (nameLengths.get(entry) == NUMERIC_NAME) {
+            return Integer.toString(nameStarts.get(entry)).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        final int start = nameStarts.get(entry);
+        return Arrays.copyOfRange(namePool, start, start + nameLengths.get(entry));
+    }
+
+
+    /**
+     * Finds the entry of a name.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @return the entry of the name, or {@code -1} if the name is not in the table
+     */
+    private int findEntry(final byte[] name, final int length) {
+        final int number = parseNumber(name, length);
+        if (number >= 0) {
+            final int index = number - directBase;
+            if (index >= 0 && index < directEntries.length && directEntries[index] != 0) {
+                return directEntries[index] - 1;
+            }
+            if (hashedNumericCount == 0) {
+                return -1;
+            }
+        }
+
+        final int mask = slots.length - 1;
+        for (int slot = hash(name, length) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            final int entry = slots[slot] - 1;
+            if (nameEquals(entry, name, length)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds an entry for a numeric name to the direct table.
+     *
+     * @param number the numeric name, which must not lie below the start of the direct table
+     * @param entry  the new entry
+     */
+    private void addDirectEntry(final int number, final int entry) {
+        final int index = number - directBase;
+        if (index >= directEntries.length) {
+            final long grownLength = Math.max(index + 1L, directEntries.length + (directEntries.length >> 1));
+            directEntries = Arrays.copyOf(directEntries, (int) Math.min(MAXIMUM_ARRAY_SIZE, grownLength));
+        }
+
+        directEntries[index] = entry + 1;
+        nameStarts.add(number);
+        nameLengths.add(NUMERIC_NAME);
+        nameHashes.add(0);
+    }
+
+    /**
+     * Adds an entry for a name to the hash table.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @param entry  the new entry
+     */
+    private void addHashedEntry(final byte[] name, final int length, final int entry) {
+        if (namePoolLength + length > namePool.length) {
+            final long grownLength = Math.max((long) namePoolLength + length, namePool.length + (namePool.length >> 1));
+            if (grownLength > MAXIMUM_ARRAY_SIZE) {
+                throw new IllegalStateException("Segment names do not fit in the name table.");
+            }
+            namePool = Arrays.copyOf(namePool, (int) grownLength);
+        }
+        System.arraycopy(name, 0, namePool, namePoolLength, length);
+
+        final int hash = hash(name, length);
+        nameStarts.add(namePoolLength);
+        nameLengths.add(length);
+        nameHashes.add(hash);
+        namePoolLength += length;
+
+        hashedCount++;
+        if (2 * hashedCount > slots.length) {
+            rehash(slots.length * 2);
+        }
+        insertSlot(hash, entry);
+    }
+
+    /**
+     * Rebuilds the hash table with the given number of slots.
+     *
+     * @param slotCount the new number of slots, which must be a power of two
+     */
+    private void rehash(final int slotCount) {
+        slots = new int[slotCount];
+        for (int entry = 0; entry < nameLengths.size(); entry++) {
+            if (nameLengths.get(entry) != NUMERIC_NAME) {
+                insertSlot(nameHashes.get(entry), entry);
+            }
+        }
+    }
+
+    /**
+     * Puts an entry in the first empty slot for its hash.
+     *
+     * @param hash  the hash of the name of the entry
+     * @param entry the entry
+     */
+    private void insertSlot(final int hash, final int entry) {
+        final int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+    }
+
+    /**
+     * Returns whether the name of a hashed entry is equal to the given name.
+     *
+     * @param entry  a hashed entry
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @return {@code true} iff the name of the entry is equal to the given name
+     */
+    private boolean nameEquals(final int entry, final byte[] name, final int length) {
+        if (nameLengths.get(entry) != length) {
+            return false;
+        }
+
+        final int start = nameStarts.get(entry);
+        for (int i = 0; i < length; i++) {
+            if (namePool[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Parses a name that is a canonical decimal number, which is a number without sign or leading zeroes.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @return the number, or {@code -1} if the name is not a canonical decimal number that fits in an {@code int}
+     */
+    static int parseNumber(final byte[] name, final int length) {
+        if (length == 0 || length > MAXIMUM_NUMERIC_DIGITS || name[0] == '0' && length > 1) {
+            return -1;
+        }
+
+        long number = 0;
+        for (int i = 0; i < length; i++) {
+            final int digit = name[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            number = number * 10 + digit;
+        }
+        return number > Integer.MAX_VALUE ? -1 : (int) number;
+    }
+
+    /**
+     * Computes the FNV-1a hash of a name, with its high bits mixed into its low bits.
+     *
+     * @param name   an array containing the name, starting at index {@code 0}
+     * @param length the length of the name in bytes
+     * @return the hash of the name
+     */
+    private static int hash(final byte[] name, final int length) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (name[i] & 0xFF)) * FNV_PRIME;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,220 @@
+package org.dnacronym.hygene.persistence;
+
+import org.dnacronym.hygene.graph.BubbleIndex;
+import org.dnacronym.hygene.graph.ChainCompaction;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphHierarchy;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.TopologicalOrder;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+
+
+/**
+ * Reads and writes the optional sections of a binary cache file, which hold the structures that are computed after
+ * parsing: the index of nodes by horizontal position, the topological order, the superbubbles, the chains and the
+ * levels of the hierarchy above the chains.
+ * <p>
+ * Each section is only present if its flag is set in the {@link GraphFileHeader}, and the sections are stored in the
+ * order listed above.
+ *
+ * @see GraphArrayFile
+ */
+final class ComputedSections {
+    private static final String CORRUPT_MESSAGE = "The cache file is corrupt.";
+
+
+    /**
+     * Prevents instantiation of {@link ComputedSections}.
+     */
+    private ComputedSections() {
+    }
+
+
+    /**
+     * Writes the sections that have been computed for the given graph.
+     *
+     * @param writer the {@link SectionWriter} of the cache file
+     * @param graph  the graph
+     * @return the {@code FLAG_} constants of the sections that were written, combined with {@code |}
+     * @throws IOException if the sections cannot be written
+     */
+    static int write(final SectionWriter writer, final Graph graph) throws IOException {
+        int flags = 0;
+
+        final NodePositionIndex nodePositions = graph.getNodePositions();
+        if (nodePositions != null) {
+            writer.writeInt(nodePositions.size());
+            writer.writeLongs(nodePositions.getPositions());
+            writer.writeInts(IntBuffer.wrap(nodePositions.getNodeIds()));
+            flags |= GraphFileHeader.FLAG_NODE_POSITIONS;
+        }
+        final TopologicalOrder topologicalOrder = graph.getTopologicalOrder();
+        if (topologicalOrder != null) {
+            writer.writeInts(IntBuffer.wrap(topologicalOrder.getRanks()));
+            flags |= GraphFileHeader.FLAG_TOPOLOGICAL_ORDER;
+        }
+        final BubbleIndex bubbleIndex = graph.getBubbleIndex();
+        if (bubbleIndex != null) {
+            writeBubbleIndex(writer, bubbleIndex);
+            flags |= GraphFileHeader.FLAG_BUBBLE_INDEX;
+        }
+        if (graph.hasChainCompaction()) {
+            writeChainCompaction(writer, graph.getChainCompaction());
+            flags |= GraphFileHeader.FLAG_CHAIN_COMPACTION;
+        }
+        if (graph.hasHierarchy()) {
+            writeHierarchy(writer, graph.getHierarchy());
+            flags |= GraphFileHeader.FLAG_HIERARCHY;
+        }
+
+        return flags;
+    }
+
+    /**
+     * Reads the sections that are present according to the given header, and sets them on the given graph.
+     *
+     * @param reader the {@link SectionReader} of the cache file, positioned at the first optional section
+     * @param header the header of the cache file
+     * @param graph  the graph described by the cache file
+     * @throws IOException if the sections cannot be read or are corrupt
+     */
+    static void read(final SectionReader reader, final GraphFileHeader header, final Graph graph)
+            throws IOException {
+        final int nodeCount = header.getNodeCount();
+
+        try {
+            if (header.hasNodePositions()) {
+                final int size = readCount(reader, Integer.MAX_VALUE);
+                graph.setNodePositions(new NodePositionIndex(reader.readLongs(size), reader.readInts(size)));
+            }
+            if (header.hasTopologicalOrder()) {
+                graph.setTopologicalOrder(new TopologicalOrder(reader.readInts(nodeCount)));
+            }
+            if (header.hasBubbleIndex()) {
+                graph.setBubbleIndex(readBubbleIndex(reader, graph));
+            }
+            if (header.hasChainCompaction()) {
+                final int chainCount = readCount(reader, nodeCount);
+                graph.setChainCompaction(new ChainCompaction(graph, reader.readInts(chainCount + 1),
+                        reader.readInts(nodeCount)));
+            }
+            if (header.hasHierarchy()) {
+                graph.setHierarchy(readHierarchy(reader, graph));
+            }
+        } catch (final IllegalArgumentException e) {
+            throw new IOException(CORRUPT_MESSAGE, e);
+        }
+    }
+
+
+    /**
+     * Writes the superbubbles of a graph.
+     *
+     * @param writer      the {@link SectionWriter} of the cache file
+     * @param bubbleIndex the superbubbles of the graph
+     * @throws IOException if the superbubbles cannot be written
+     */
+    private static void writeBubbleIndex(final SectionWriter writer, final BubbleIndex bubbleIndex)
+            throws IOException {
+        writer.writeInt(bubbleIndex.getBubbleCount());
+        writer.writeInts(IntBuffer.wrap(bubbleIndex.getEntrances()));
+        writer.writeInts(IntBuffer.wrap(bubbleIndex.getExits()));
+        writer.writeInts(IntBuffer.wrap(bubbleIndex.getMemberStarts()));
+        writer.writeInts(IntBuffer.wrap(bubbleIndex.getMemberEnds()));
+        writer.writeInts(IntBuffer.wrap(bubbleIndex.getMemberOrder()));
+    }
+
+    /**
+     * Reads the entrances, exits, member starts, member ends and member order of the superbubbles of a graph.
+     *
+     * @param reader the {@link SectionReader} of the cache file
+     * @param graph  the graph the superbubbles are in
+     * @return the superbubbles of the graph
+     * @throws IOException if the superbubbles cannot be read
+     */
+    private static BubbleIndex readBubbleIndex(final SectionReader reader, final Graph graph) throws IOException {
+        final int nodeCount = graph.getNodeCount();
+        final int bubbleCount = readCount(reader, nodeCount);
+
+        return new BubbleIndex(graph, reader.readInts(bubbleCount), reader.readInts(bubbleCount),
+                reader.readInts(bubbleCount), reader.readInts(bubbleCount), reader.readInts(nodeCount));
+    }
+
+    /**
+     * Writes the chains of a graph.
+     *
+     * @param writer          the {@link SectionWriter} of the cache file
+     * @param chainCompaction the chains of the graph
+     * @throws IOException if the chains cannot be written
+     */
+    private static void writeChainCompaction(final SectionWriter writer, final ChainCompaction chainCompaction)
+            throws IOException {
+        writer.writeInt(chainCompaction.getMemberOffsets().length - 1);
+        writer.writeInts(IntBuffer.wrap(chainCompaction.getMemberOffsets()));
+        writer.writeInts(IntBuffer.wrap(chainCompaction.getMembers()));
+    }
+
+    /**
+     * Writes the levels of the hierarchy of a graph above its chains.
+     *
+     * @param writer    the {@link SectionWriter} of the cache file
+     * @param hierarchy the hierarchy of the graph
+     * @throws IOException if the levels cannot be written
+     */
+    private static void writeHierarchy(final SectionWriter writer, final GraphHierarchy hierarchy)
+            throws IOException {
+        writer.writeInt(hierarchy.getLevelCount() - 2);
+        for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+            writer.writeInt(hierarchy.getGraph(level).getNodeCount());
+            writer.writeInts(IntBuffer.wrap(hierarchy.getParentIds(level)));
+            writer.writeInts(IntBuffer.wrap(hierarchy.getChildren(level)));
+        }
+    }
+
+    /**
+     * Reads the parent ids and children of the levels of the hierarchy of a graph above its chains.
+     * <p>
+     * The graph should have its chains set beforehand, if there are any.
+     *
+     * @param reader the {@link SectionReader} of the cache file
+     * @param graph  the graph to read the hierarchy of
+     * @return the hierarchy of the graph
+     * @throws IOException if the levels cannot be read
+     */
+    private static GraphHierarchy readHierarchy(final SectionReader reader, final Graph graph) throws IOException {
+        int previousCount = graph.hasChainCompaction() ? graph.getChainCompaction().getMemberOffsets().length - 1 : 0;
+        final int levelCount = readCount(reader, previousCount);
+
+        final int[][] parentIds = new int[levelCount][];
+        final int[][] children = new int[levelCount][];
+        for (int level = 0; level < levelCount; level++) {
+            final int nodeCount = readCount(reader, previousCount);
+            if (nodeCount == 0) {
+                throw new IOException(CORRUPT_MESSAGE);
+            }
+
+            parentIds[level] = reader.readInts(previousCount);
+            children[level] = reader.readInts(previousCount);
+            previousCount = nodeCount;
+        }
+        return new GraphHierarchy(graph, parentIds, children);
+    }
+
+    /**
+     * Reads the number of elements in a section, and checks that it lies within the given bounds.
+     *
+     * @param reader   the {@link SectionReader} of the cache file
+     * @param maxCount the maximum number of elements in the section
+     * @return the number of elements in the section
+     * @throws IOException if the number cannot be read or is out of bounds
+     */
+    private static int readCount(final SectionReader reader, final int maxCount) throws IOException {
+        final int count = reader.readInt();
+        if (count < 0 || count > maxCount) {
+            throw new IOException(CORRUPT_MESSAGE);
+        }
+        return count;
+    }
+}
@@ -1,31 +1,51 @@
 package org.dnacronym.hygene.persistence;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.ByteOffsetColumn;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphColumns;
+import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.util.StringTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 
 /**
- * Represents a file containing a cached graph array representation of a GFA file.
+ * Represents a file containing a cached graph of a GFA file.
+ * <p>
+ * The file contains the {@link GraphColumns} of the graph in a versioned binary format. It starts with a
+ * {@link GraphFileHeader}, which is followed by the edge offsets, neighbours, edge byte offsets, node byte offsets,
+ * sequence lengths and unscaled x positions as little-endian {@code int}s. If the graph has a
+ * {@link ByteOffsetColumn}, the upper bits of the node and edge byte offsets follow as bytes. If the layout of the
+ * graph has been computed, the index of nodes by horizontal position follows: the number of entries as an
+ * {@code int}, the positions as {@code long}s and the node identifiers as {@code int}s. If the topological order of
+ * the graph has been computed, the rank of each node follows as {@code int}s. If the superbubbles of the graph have
+ * been detected, they follow: the number of bubbles, the entrances, exits, member starts and member ends of the
+ * bubbles, and the order of the members, all as {@code int}s. If the chains of the graph have been compacted, they
+ * follow: the number of chains, the member offsets of the chains and their members, all as {@code int}s. If the graph
+ * has been coarsened, the levels of its hierarchy above the chains follow last: the number of such levels, and for
+ * each level its number of nodes, the parent of each node of the previous level and the children of its nodes grouped
+ * by parent, all as {@code int}s.
+ * <p>
+ * The file can either be read into the heap with bulk reads, or be memory-mapped, in which case the graph lives
+ * off-heap and is paged in by the operating system as it is used.
+ * <p>
+ * Caches of earlier versions, in which each line contains the values of one node array as text, can still be read
+ * into the heap by the {@link TextGraphFileReader}, so that they can be migrated to the binary format.
  */
+@SuppressWarnings("PMD.TooManyMethods") // All methods are small helpers for reading and writing the file format
 public final class GraphArrayFile {
-    private static final int PROGRESS_UPDATE_INTERVAL = 50000;
     private static final int PROGRESS_TOTAL = 100;
 
-    private static final String NODE_VALUE_SEPARATOR = " ";
-    private static final String NODE_ARRAY_SEPARATOR = "\n";
-
-    private static final int WRITE_BUFFER_SIZE = 4 * (int) Math.pow(1024, 2);
-
     private final File file;
 
 
@@ -40,66 +60,117 @@ public final class GraphArrayFile {
 
 
     /**
-     * Reads a cached graph and parses it to the internal graph array data structure.
+     * Returns whether the cache file is in the binary format of the current version.
+     *
+     * @return {@code true} iff the cache file is in the binary format of the current version
+     * @throws IOException if the cache file cannot be read
+     */
+    public boolean isCurrentFormat() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final GraphFileHeader header = GraphFileHeader.read(channel);
+            return header != null && header.isCurrentVersion();
+        }
+    }
+
+    /**
+     * Returns whether the cache file is in the binary format of the current version and contains all sections that
+     * are computed after parsing.
+     * <p>
+     * Caches written before some of these sections were cached lack them, and need to be completed before they are
+     * used.
+     *
+     * @return {@code true} iff the cache file is in the current format and contains all sections
+     * @throws IOException if the cache file cannot be read
+     */
+    public boolean isComplete() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final GraphFileHeader header = GraphFileHeader.read(channel);
+            return header != null && header.isCurrentVersion() && header.isComplete();
+        }
+    }
+
+    /**
+     * Returns the size of the cache file.
+     *
+     * @return the size of the cache file in bytes
+     */
+    public long getSize() {
+        return file.length();
+    }
+
+    /**
+     * Reads a cached graph into the heap.
+     * <p>
+     * Binary caches are read in large blocks, and their checksum is verified. Caches in the old text format are
+     * parsed line by line.
      *
      * @param graphSize       the number of nodes in the graph
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
-     * @return internal graph array data structure from cache file
-     * @throws IOException if the cache file cannot be read
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if the cache file cannot be read or is corrupt
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Unique instance per iteration
-    public int[][] read(final int graphSize, final ProgressUpdater progressUpdater) throws IOException {
-        final int[][] graph = new int[graphSize][];
-
-        try (BufferedReader cache = new BufferedReader(new InputStreamReader(
-                new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String node;
-            int nodeIndex = 0;
-            while ((node = cache.readLine()) != null) {
-                if (nodeIndex % PROGRESS_UPDATE_INTERVAL == 0) {
-                    progressUpdater.updateProgress(
-                            PROGRESS_TOTAL * nodeIndex / graphSize,
-                            "Restoring graph from cache...");
-                }
-
-                final StringTokenizer nodeTokenizer = new StringTokenizer(node, NODE_VALUE_SEPARATOR);
-                graph[nodeIndex] = new int[nodeTokenizer.countTokens()];
-
-                int valueIndex = 0;
-                while (nodeTokenizer.hasMoreTokens()) {
-                    graph[nodeIndex][valueIndex] = Integer.parseInt(nodeTokenizer.nextToken());
-                    valueIndex++;
-                }
-
-                nodeIndex++;
+    public Graph read(final int graphSize, final GfaFile gfaFile, final ProgressUpdater progressUpdater)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final GraphFileHeader header = GraphFileHeader.read(channel);
+            if (header == null) {
+                return TextGraphFileReader.read(channel, graphSize, gfaFile, progressUpdater);
             }
+
+            header.check(graphSize);
+            return readColumns(channel, header, gfaFile, progressUpdater);
         }
+    }
 
-        return graph;
+    /**
+     * Memory-maps a cached graph.
+     * <p>
+     * The cache file is only opened for reading, so that read-only and shared cache files can be mapped as well. The x
+     * positions are the only column that is changed after loading, so they are copied into the heap instead of being
+     * mapped. The checksum is verified over the mapped file, which pages the file in once without using the heap.
+     *
+     * @param graphSize the number of nodes in the graph
+     * @param gfaFile   the {@link GfaFile} the graph belongs to
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if the cache file cannot be mapped, or is not in the binary format of the current version
+     */
+    public Graph map(final int graphSize, final GfaFile gfaFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final GraphFileHeader header = GraphFileHeader.read(channel);
+            if (header == null) {
+                throw new IOException("The cache file is not in the binary format.");
+            }
+
+            header.check(graphSize);
+            return mapColumns(channel, header, gfaFile);
+        }
     }
 
     /**
-     * Writes a representation of the internal graph array data structure to the cache file.
+     * Writes the columns of a graph to the cache file in the binary format of the current version.
+     * <p>
+     * The graph is first written to a temporary file, which then atomically replaces the cache file, so that the cache
+     * file is never left half-written. If writing fails, the temporary file is removed again.
+     * <p>
+     * A cache file should not be written while a graph is mapped from it, as some platforms do not allow a mapped file
+     * to be replaced.
      *
-     * @param graph the internal graph array data structure
+     * @param graph the graph
      * @throws IOException if we cannot write to the cache file
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    public void write(final int[][] graph) throws IOException {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(
-                new FileOutputStream(file), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
-            for (final int[] node : graph) {
-                final StringBuilder stringBuilder = new StringBuilder();
-
-                for (final int value : node) {
-                    stringBuilder.append(value).append(NODE_VALUE_SEPARATOR);
-                }
-                stringBuilder.append(NODE_ARRAY_SEPARATOR);
+    public void write(final Graph graph) throws IOException {
+        final File temporaryFile = new File(file.getPath() + ".tmp");
 
-                bufferedWriter.write(stringBuilder.toString());
+        boolean written = false;
+        try {
+            writeColumns(temporaryFile, graph);
+            moveAtomically(temporaryFile, file);
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temporaryFile.toPath());
             }
-
-            bufferedWriter.flush();
         }
     }
 
@@ -111,4 +182,256 @@ public final class GraphArrayFile {
     public String getAbsolutePath() {
         return file.getAbsolutePath();
     }
+
+
+    /**
+     * Writes the columns of a graph to the given file in the binary format of the current version.
+     *
+     * @param target the file to write to
+     * @param graph  the graph
+     * @throws IOException if we cannot write to the file
+     */
+    private static void writeColumns(final File target, final Graph graph) throws IOException {
+        final GraphColumns columns = graph.getColumns();
+        final ByteOffsetColumn byteOffsetColumn = columns.getByteOffsetColumn();
+
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(GraphFileHeader.SIZE);
+            // Mapped columns are streamed through the writer's buffer, so that they are not copied into the heap
+            final SectionWriter writer = new SectionWriter(channel);
+            writer.writeInts(columns.getEdgeOffsets());
+            writer.writeInts(columns.getNeighbours());
+            writer.writeInts(columns.getEdgeByteOffsets());
+            writer.writeInts(columns.getNodeByteOffsets());
+            writer.writeInts(columns.getSequenceLengths());
+            writer.writeInts(columns.getUnscaledXPositions());
+
+            int flags = 0;
+            if (byteOffsetColumn != null) {
+                writer.writeBytes(byteOffsetColumn.getNodeUpperBits());
+                writer.writeBytes(byteOffsetColumn.getEdgeUpperBits());
+                flags |= GraphFileHeader.FLAG_BYTE_OFFSET_COLUMN;
+            }
+            flags |= ComputedSections.write(writer, graph);
+            writer.flush();
+
+            new GraphFileHeader(columns.getNodeCount(), columns.getEdgeCount(), flags, writer.getChecksum())
+                    .write(channel);
+        }
+    }
+
+    /**
+     * Replaces a file by another file in a single step, if the file system supports this.
+     *
+     * @param source the file to move
+     * @param target the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    private static void moveAtomically(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the columns of a binary cache file into the heap.
+     *
+     * @param channel         a {@link FileChannel} of the cache file
+     * @param header          the header of the cache file
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if the cache file cannot be read or is corrupt
+     */
+    private static Graph readColumns(final FileChannel channel, final GraphFileHeader header, final GfaFile gfaFile,
+                                     final ProgressUpdater progressUpdater) throws IOException {
+        final int nodeCount = header.getNodeCount();
+        final int edgeCount = header.getEdgeCount();
+        channel.position(GraphFileHeader.SIZE);
+        final SectionReader reader = new SectionReader(channel);
+
+        progressUpdater.updateProgress(0, "Restoring graph from cache...");
+        final int[] edgeOffsets = reader.readInts(2 * nodeCount + 1);
+        final int[] neighbours = reader.readInts(edgeCount);
+        final int[] edgeByteOffsets = reader.readInts(edgeCount);
+        progressUpdater.updateProgress(PROGRESS_TOTAL / 2, "Restoring graph from cache...");
+        final int[] nodeByteOffsets = reader.readInts(nodeCount);
+        final int[] sequenceLengths = reader.readInts(nodeCount);
+        final int[] unscaledXPositions = reader.readInts(nodeCount);
+        final ByteOffsetColumn byteOffsetColumn = header.hasByteOffsetColumn()
+                ? new ByteOffsetColumn(reader.readBytes(nodeCount), reader.readBytes(edgeCount))
+                : null;
+
+        final Graph graph = createGraph(new int[][] {edgeOffsets, neighbours, edgeByteOffsets, nodeByteOffsets,
+                sequenceLengths, unscaledXPositions}, byteOffsetColumn, gfaFile);
+        ComputedSections.read(reader, header, graph);
+
+        reader.verifyChecksum(header.getChecksum());
+        return graph;
+    }
+
+    /**
+     * Maps the columns of a binary cache file into memory.
+     *
+     * @param channel a {@link FileChannel} of the cache file
+     * @param header  the header of the cache file
+     * @param gfaFile the {@link GfaFile} the graph belongs to
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if the cache file cannot be mapped or is corrupt
+     */
+    private static Graph mapColumns(final FileChannel channel, final GraphFileHeader header, final GfaFile gfaFile)
+            throws IOException {
+        final int nodeCount = header.getNodeCount();
+        final int edgeCount = header.getEdgeCount();
+        final long intsEnd = GraphFileHeader.SIZE + (long) Integer.BYTES * (5L * nodeCount + 1 + 2L * edgeCount);
+        if (channel.size() < intsEnd) {
+            throw new IOException("Unexpected end of the cache file.");
+        }
+
+        final ByteOffsetColumn byteOffsetColumn = header.hasByteOffsetColumn()
+                ? readByteOffsetColumn(channel, intsEnd, nodeCount, edgeCount)
+                : null;
+
+        final long[] position = {GraphFileHeader.SIZE};
+        final Graph graph;
+        try {
+            graph = new Graph(new GraphColumns(
+                    mapInts(channel, position, 2 * nodeCount + 1),
+                    mapInts(channel, position, edgeCount),
+                    mapInts(channel, position, edgeCount),
+                    mapInts(channel, position, nodeCount),
+                    mapInts(channel, position, nodeCount),
+                    readInts(channel, position, nodeCount),
+                    byteOffsetColumn
+            ), gfaFile);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("The cache file is corrupt.", e);
+        }
+
+        channel.position(intsEnd + (byteOffsetColumn == null ? 0 : (long) nodeCount + edgeCount));
+        ComputedSections.read(new SectionReader(channel), header, graph);
+
+        SectionReader.verifyMappedChecksum(channel, header.getChecksum());
+        return graph;
+    }
+
+    /**
+     * Creates a {@link Graph} from columns on the heap.
+     *
+     * @param columns          the edge offsets, neighbours, edge byte offsets, node byte offsets, sequence lengths and
+     *                         unscaled x positions
+     * @param byteOffsetColumn the upper bits of the byte offsets, or {@code null} if all offsets fit in 32 bits
+     * @param gfaFile          the {@link GfaFile} the graph belongs to
+     * @return the {@link Graph}
+     * @throws IOException if the columns do not describe a valid graph
+     */
+    private static Graph createGraph(final int[][] columns, final @Nullable ByteOffsetColumn byteOffsetColumn,
+                                     final GfaFile gfaFile) throws IOException {
+        try {
+            return new Graph(new GraphColumns(IntBuffer.wrap(columns[0]), IntBuffer.wrap(columns[1]),
+                    IntBuffer.wrap(columns[2]), IntBuffer.wrap(columns[3]), IntBuffer.wrap(columns[4]),
+                    IntBuffer.wrap(columns[5]), byteOffsetColumn), gfaFile);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("The cache file is corrupt.", e);
+        }
+    }
+
+    /**
+     * Reads the upper bits of the byte offsets from a binary cache file.
+     *
+     * @param channel   a {@link FileChannel} of the cache file
+     * @param position  the byte offset in the cache file at which the upper bits start
+     * @param nodeCount the number of nodes
+     * @param edgeCount the number of edges
+     * @return the {@link ByteOffsetColumn}
+     * @throws IOException if the cache file cannot be read
+     */
+    private static ByteOffsetColumn readByteOffsetColumn(final FileChannel channel, final long position,
+                                                         final int nodeCount, final int edgeCount)
+            throws IOException {
+        final ByteBuffer nodeUpperBits = ByteBuffer.allocate(nodeCount);
+        final ByteBuffer edgeUpperBits = ByteBuffer.allocate(edgeCount);
+        if (!readFully(channel, nodeUpperBits, position)
+                || !readFully(channel, edgeUpperBits, position + nodeCount)) {
+            throw new IOException("Unexpected end of the cache file.");
+        }
+
+        return new ByteOffsetColumn(nodeUpperBits.array(), edgeUpperBits.array());
+    }
+
+    /**
+     * Maps a section of {@code int}s of the cache file into memory for reading.
+     *
+     * @param channel  a {@link FileChannel} of the cache file
+     * @param position a single-element array containing the byte offset of the section in the cache file, which is
+     *                 moved to the end of the section
+     * @param count    the number of {@code int}s in the section
+     * @return the mapped section
+     * @throws IOException if the section cannot be mapped
+     */
+    private static IntBuffer mapInts(final FileChannel channel, final long[] position, final int count)
+            throws IOException {
+        final long size = (long) Integer.BYTES * count;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The graph is too large to be mapped into memory.");
+        }
+
+        final IntBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position[0], size)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        position[0] += size;
+        return section;
+    }
+
+    /**
+     * Reads a section of {@code int}s of the cache file into the heap, so that it can be changed.
+     *
+     * @param channel  a {@link FileChannel} of the cache file
+     * @param position a single-element array containing the byte offset of the section in the cache file, which is
+     *                 moved to the end of the section
+     * @param count    the number of {@code int}s in the section
+     * @return the section, wrapping an array on the heap
+     * @throws IOException if the section cannot be read
+     */
+    private static IntBuffer readInts(final FileChannel channel, final long[] position, final int count)
+            throws IOException {
+        final long size = (long) Integer.BYTES * count;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The graph is too large to be mapped into memory.");
+        }
+
+        final ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        if (!readFully(channel, bytes, position[0])) {
+            throw new IOException("Unexpected end of the cache file.");
+        }
+        bytes.flip();
+
+        final int[] section = new int[count];
+        bytes.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(section);
+        position[0] += size;
+        return IntBuffer.wrap(section);
+    }
+
+    /**
+     * Reads from the cache file until the buffer is full.
+     *
+     * @param channel  a {@link FileChannel} of the cache file
+     * @param buffer   the buffer to read into
+     * @param position the byte offset in the cache file to start reading at
+     * @return {@code true} iff the buffer was filled before the end of the file was reached
+     * @throws IOException if the cache file cannot be read
+     */
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,247 @@
+package org.dnacronym.hygene.persistence;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * The header of a binary cache file.
+ * <p>
+ * The header consists of six little-endian {@code int}s: a magic number, the version of the format, the number of
+ * nodes, the number of edges, a set of flags indicating which optional sections are present and a CRC-32 checksum of
+ * everything after the header.
+ */
+final class GraphFileHeader {
+    /**
+     * The version of the binary format written by this class.
+     */
+    static final int CURRENT_VERSION = 2;
+    /**
+     * The size of the header in bytes.
+     */
+    static final int SIZE = 6 * Integer.BYTES;
+    /**
+     * The flag indicating that the file contains the upper bits of the byte offsets.
+     */
+    static final int FLAG_BYTE_OFFSET_COLUMN = 1;
+    /**
+     * The flag indicating that the file contains the index of nodes by horizontal position.
+     */
+    static final int FLAG_NODE_POSITIONS = 2;
+    /**
+     * The flag indicating that the file contains the topological rank of each node.
+     */
+    static final int FLAG_TOPOLOGICAL_ORDER = 4;
+    /**
+     * The flag indicating that the file contains the superbubbles of the graph.
+     */
+    static final int FLAG_BUBBLE_INDEX = 8;
+    /**
+     * The flag indicating that the file contains the chains of the graph.
+     */
+    static final int FLAG_CHAIN_COMPACTION = 16;
+    /**
+     * The flag indicating that the file contains the levels of the hierarchy of the graph above its chains.
+     */
+    static final int FLAG_HIERARCHY = 32;
+
+    private static final int MAGIC = 0x43475948; // "HYGC" in little-endian order
+
+    private final int version;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int flags;
+    private final int checksum;
+
+
+    /**
+     * Constructs a new {@link GraphFileHeader} of the current version.
+     *
+     * @param nodeCount the number of nodes
+     * @param edgeCount the number of edges
+     * @param flags     the {@code FLAG_} constants of the optional sections that are present, combined with {@code |}
+     * @param checksum  the CRC-32 checksum of everything after the header
+     */
+    GraphFileHeader(final int nodeCount, final int edgeCount, final int flags, final int checksum) {
+        this(CURRENT_VERSION, nodeCount, edgeCount, flags, checksum);
+    }
+
+    /**
+     * Constructs a new {@link GraphFileHeader}.
+     *
+     * @param version   the version of the format
+     * @param nodeCount the number of nodes
+     * @param edgeCount the number of edges
+     * @param flags     the flags indicating which optional sections are present
+     * @param checksum  the CRC-32 checksum of everything after the header
+     */
+    private GraphFileHeader(final int version, final int nodeCount, final int edgeCount, final int flags,
+                            final int checksum) {
+        this.version = version;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.flags = flags;
+        this.checksum = checksum;
+    }
+
+
+    /**
+     * Reads the header at the start of a cache file.
+     *
+     * @param channel a {@link FileChannel} of the cache file
+     * @return the header, or {@code null} if the file is not in the binary format
+     * @throws IOException if the cache file cannot be read
+     */
+    static @Nullable GraphFileHeader read(final FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return null;
+            }
+        }
+
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            return null;
+        }
+        return new GraphFileHeader(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getInt());
+    }
+
+    /**
+     * Writes the header at the start of a cache file.
+     *
+     * @param channel a {@link FileChannel} of the cache file
+     * @throws IOException if the cache file cannot be written
+     */
+    void write(final FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(version).putInt(nodeCount).putInt(edgeCount).putInt(flags).putInt(checksum);
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    /**
+     * Checks that the header describes a graph of the expected size in a supported version of the format.
+     *
+     * @param graphSize the number of nodes in the graph
+     * @throws IOException if the version is not supported or the number of nodes is not as expected
+     */
+    void check(final int graphSize) throws IOException {
+        if (!isCurrentVersion()) {
+            throw new IOException("Version " + version + " of the cache file format is not supported.");
+        }
+        if (nodeCount != graphSize) {
+            throw new IOException("Expected a graph of " + graphSize + " nodes, but the cache file contains "
+                    + nodeCount + ".");
+        }
+    }
+
+    /**
+     * Returns whether the file is in the current version of the format.
+     *
+     * @return {@code true} iff the file is in the current version of the format
+     */
+    boolean isCurrentVersion() {
+        return version == CURRENT_VERSION;
+    }
+
+    /**
+     * Returns whether the file contains all sections that are computed after parsing.
+     *
+     * @return {@code true} iff the file contains the node positions, topological order, superbubbles, chains and
+     * hierarchy
+     */
+    boolean isComplete() {
+        return hasNodePositions() && hasTopologicalOrder() && hasBubbleIndex() && hasChainCompaction()
+                && hasHierarchy();
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the CRC-32 checksum of everything after the header.
+     *
+     * @return the CRC-32 checksum of everything after the header
+     */
+    int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Returns whether the file contains the upper bits of the byte offsets.
+     *
+     * @return {@code true} iff the file contains the upper bits of the byte offsets
+     */
+    boolean hasByteOffsetColumn() {
+        return (flags & FLAG_BYTE_OFFSET_COLUMN) != 0;
+    }
+
+    /**
+     * Returns whether the file contains the index of nodes by horizontal position.
+     *
+     * @return {@code true} iff the file contains the index of nodes by horizontal position
+     */
+    boolean hasNodePositions() {
+        return (flags & FLAG_NODE_POSITIONS) != 0;
+    }
+
+    /**
+     * Returns whether the file contains the topological rank of each node.
+     *
+     * @return {@code true} iff the file contains the topological rank of each node
+     */
+    boolean hasTopologicalOrder() {
+        return (flags & FLAG_TOPOLOGICAL_ORDER) != 0;
+    }
+
+    /**
+     * Returns whether the file contains the superbubbles of the graph.
+     *
+     * @return {@code true} iff the file contains the superbubbles of the graph
+     */
+    boolean hasBubbleIndex() {
+        return (flags & FLAG_BUBBLE_INDEX) != 0;
+    }
+
+    /**
+     * Returns whether the file contains the chains of the graph.
+     *
+     * @return {@code true} iff the file contains the chains of the graph
+     */
+    boolean hasChainCompaction() {
+        return (flags & FLAG_CHAIN_COMPACTION) != 0;
+    }
+
+    /**
+     * Returns whether the file contains the levels of the hierarchy of the graph above its chains.
+     *
+     * @return {@code true} iff the file contains the levels of the hierarchy of the graph above its chains
+     */
+    boolean hasHierarchy() {
+        return (flags & FLAG_HIERARCHY) != 0;
+    }
+}
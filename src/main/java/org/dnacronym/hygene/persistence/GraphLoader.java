@@ -1,13 +1,17 @@
 package org.dnacronym.hygene.persistence;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 
 /**
@@ -25,6 +29,7 @@ public final class GraphLoader {
     private static final String KEY_COLUMN_VALUE = "0";
     private static final String NODE_COUNT_COLUMN_NAME = "node_count";
     private static final String DUMP_COLUMN_NAME = "dump";
+    private static final int HEAP_FRACTION_FOR_CACHE = 4;
 
     private final FileDatabaseDriver fileDatabaseDriver;
 
@@ -81,7 +86,7 @@ public final class GraphLoader {
      * @param graph    the graph to dump
      * @param fileName the destination filename
      */
-    public void dumpGraph(final int[][] graph, final String fileName) {
+    public void dumpGraph(final Graph graph, final String fileName) {
         LOGGER.info("Dumping graph to storage.");
 
         if (hasGraph()) {
@@ -95,7 +100,7 @@ public final class GraphLoader {
 
             LOGGER.info("Load temporary file into the database.");
             fileDatabaseDriver.raw("INSERT INTO " + TABLE_NAME + " VALUES(" + KEY_COLUMN_VALUE + ","
-                    + graph.length + ",\"Coming soon\")");
+                    + graph.getNodeCount() + ",\"Coming soon\")");
         } catch (final SQLException | IOException e) {
             throw new UnexpectedDatabaseException("Failed to dump graph into database.", e);
         }
@@ -105,13 +110,44 @@ public final class GraphLoader {
 
     /**
      * Restores the graph dump in the specified file into a graph.
+     * <p>
+     * Caches in an older format are migrated to the current format first. Caches that fit comfortably in the heap are
+     * read into it, and larger caches are memory-mapped, so that they do not need to fit in the heap.
      *
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
      * @param fileName        the target filename
      * @return a graph
      * @throws IOException if we cannot read from the cache file
      */
-    public int[][] restoreGraph(final ProgressUpdater progressUpdater, final String fileName) throws IOException {
+    public Graph restoreGraph(final ProgressUpdater progressUpdater, final GfaFile gfaFile, final String fileName)
+            throws IOException {
+        return restoreGraph(progressUpdater, gfaFile, fileName, null);
+    }
+
+    /**
+     * Restores the graph dump in the specified file into a graph, completing the cache first if it lacks sections.
+     * <p>
+     * The cache is loaded only once. Caches that fit comfortably in the heap are read into it, and larger caches are
+     * memory-mapped, so that they do not need to fit in the heap. Caches in the older text format can only be parsed
+     * into the heap.
+     * <p>
+     * If the cache is in an older format, or lacks some of the sections that are computed after parsing, the loaded
+     * graph is completed by the given {@link Consumer} and its sections are streamed back to the cache file. The
+     * completed graph is then returned as is, except for large migrated caches, which are mapped from the new cache
+     * file so that the parsed graph can leave the heap. If the cache file cannot be replaced, for instance because the
+     * platform does not allow a mapped file to be replaced, the cache is completed again on the next restore.
+     *
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
+     * @param fileName        the target filename
+     * @param completer       computes the sections missing from a graph, or {@code null} if the cache should only be
+     *                        migrated to the current format
+     * @return a graph
+     * @throws IOException if we cannot read from the cache file
+     */
+    public Graph restoreGraph(final ProgressUpdater progressUpdater, final GfaFile gfaFile, final String fileName,
+                              final @Nullable Consumer<Graph> completer) throws IOException {
         LOGGER.info("Restoring graph from storage.");
 
         if (!hasGraph()) {
@@ -124,10 +160,82 @@ public final class GraphLoader {
             final int nodeCount = Integer.parseInt(fileDatabaseDriver.getSingleValue(TABLE_NAME, KEY_COLUMN_NAME,
                     KEY_COLUMN_VALUE, NODE_COUNT_COLUMN_NAME));
 
-            LOGGER.info("Load temporary file into memory and parse to internal data structure.");
-            return cache.read(nodeCount, progressUpdater);
+            if (cache.isCurrentFormat() && (completer == null || cache.isComplete())) {
+                return load(cache, nodeCount, gfaFile, progressUpdater);
+            }
+            return migrate(cache, nodeCount, gfaFile, progressUpdater, completer);
         } catch (final SQLException e) {
             throw new UnexpectedDatabaseException("Failed to retrieve graph dump.", e);
         }
     }
+
+
+    /**
+     * Loads a cache that is in an older format or lacks sections, completes it and writes it back.
+     *
+     * @param cache           the cache file
+     * @param nodeCount       the number of nodes in the graph
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @param completer       computes the sections missing from a graph, or {@code null} if the cache should only be
+     *                        migrated to the current format
+     * @return the completed graph
+     * @throws IOException if we cannot read from the cache file
+     */
+    private static Graph migrate(final GraphArrayFile cache, final int nodeCount, final GfaFile gfaFile,
+                                 final ProgressUpdater progressUpdater, final @Nullable Consumer<Graph> completer)
+            throws IOException {
+        LOGGER.info("Migrate cache file to the current format.");
+        final boolean currentFormat = cache.isCurrentFormat();
+        final Graph graph = currentFormat
+                ? load(cache, nodeCount, gfaFile, progressUpdater)
+                : cache.read(nodeCount, gfaFile, progressUpdater);
+        if (completer != null) {
+            completer.accept(graph);
+        }
+
+        try {
+            cache.write(graph);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to update the cache file.", e);
+            return graph;
+        }
+
+        if (!currentFormat && isLarge(cache)) {
+            LOGGER.info("Map migrated cache file into memory.");
+            return cache.map(nodeCount, gfaFile);
+        }
+        return graph;
+    }
+
+    /**
+     * Loads a cache in the binary format of the current version, mapping it if it is too large for the heap.
+     *
+     * @param cache           the cache file
+     * @param nodeCount       the number of nodes in the graph
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if we cannot read from the cache file
+     */
+    private static Graph load(final GraphArrayFile cache, final int nodeCount, final GfaFile gfaFile,
+                              final ProgressUpdater progressUpdater) throws IOException {
+        if (isLarge(cache)) {
+            LOGGER.info("Map cache file into memory.");
+            return cache.map(nodeCount, gfaFile);
+        }
+
+        LOGGER.info("Load cache file into memory.");
+        return cache.read(nodeCount, gfaFile, progressUpdater);
+    }
+
+    /**
+     * Returns {@code true} iff. the cache file is too large to be read into the heap comfortably.
+     *
+     * @param cache the cache file
+     * @return {@code true} iff. the cache file is too large to be read into the heap comfortably
+     */
+    private static boolean isLarge(final GraphArrayFile cache) {
+        return cache.getSize() > Runtime.getRuntime().maxMemory() / HEAP_FRACTION_FOR_CACHE;
+    }
 }
@@ -0,0 +1,184 @@
+package org.dnacronym.hygene.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+
+/**
+ * Reads little-endian sections of primitive values from a {@link FileChannel} into arrays, and computes a checksum
+ * over them.
+ * <p>
+ * The channel is read in large blocks, which are copied into the arrays in bulk.
+ */
+final class SectionReader {
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    /**
+     * The number of bytes that are mapped at once to compute the checksum of a mapped file.
+     */
+    private static final long CHECKSUM_CHUNK_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 checksum;
+
+
+    /**
+     * Constructs a new {@link SectionReader} that reads from the current position of the channel onwards.
+     *
+     * @param channel the {@link FileChannel} to read from
+     */
+    SectionReader(final FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.flip();
+        this.checksum = new CRC32();
+    }
+
+
+    /**
+     * Reads a single {@code int}, such as the number of elements in a section.
+     *
+     * @return the value
+     * @throws IOException if the value cannot be read
+     */
+    int readInt() throws IOException {
+        while (buffer.remaining() < Integer.BYTES) {
+            fill();
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a section of {@code int}s.
+     *
+     * @param count the number of values to read
+     * @return the values
+     * @throws IOException if the values cannot be read
+     */
+    int[] readInts(final int count) throws IOException {
+        final int[] values = new int[count];
+
+        int read = 0;
+        while (read < count) {
+            while (buffer.remaining() < Integer.BYTES) {
+                fill();
+            }
+
+            final int length = Math.min(count - read, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().get(values, read, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            read += length;
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads a section of {@code long}s.
+     *
+     * @param count the number of values to read
+     * @return the values
+     * @throws IOException if the values cannot be read
+     */
+    long[] readLongs(final int count) throws IOException {
+        final long[] values = new long[count];
+
+        int read = 0;
+        while (read < count) {
+            while (buffer.remaining() < Long.BYTES) {
+                fill();
+            }
+
+            final int length = Math.min(count - read, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().get(values, read, length);
+            buffer.position(buffer.position() + length * Long.BYTES);
+            read += length;
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads a section of bytes.
+     *
+     * @param count the number of values to read
+     * @return the values
+     * @throws IOException if the values cannot be read
+     */
+    byte[] readBytes(final int count) throws IOException {
+        final byte[] values = new byte[count];
+
+        int read = 0;
+        while (read < count) {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+
+            final int length = Math.min(count - read, buffer.remaining());
+            buffer.get(values, read, length);
+            read += length;
+        }
+
+        return values;
+    }
+
+    /**
+     * Checks that the checksum of the values read so far matches the expected checksum.
+     *
+     * @param expectedChecksum the expected CRC-32 checksum
+     * @throws IOException if the checksums do not match
+     */
+    void verifyChecksum(final int expectedChecksum) throws IOException {
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("The cache file is corrupt.");
+        }
+    }
+
+    /**
+     * Checks that the checksum of everything after the header of a cache file matches the expected checksum.
+     * <p>
+     * The file is mapped in chunks instead of being read into the heap, so that this works for files that do not fit
+     * in the heap. The pages are left in the page cache of the operating system, which then also serves the mapped
+     * columns of the graph.
+     *
+     * @param channel          a {@link FileChannel} of the cache file
+     * @param expectedChecksum the expected CRC-32 checksum
+     * @throws IOException if the file cannot be mapped or the checksums do not match
+     */
+    static void verifyMappedChecksum(final FileChannel channel, final int expectedChecksum) throws IOException {
+        final CRC32 fileChecksum = new CRC32();
+        final long size = channel.size();
+        for (long position = GraphFileHeader.SIZE; position < size; position += CHECKSUM_CHUNK_SIZE) {
+            fileChecksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(CHECKSUM_CHUNK_SIZE, size - position)));
+        }
+
+        if ((int) fileChecksum.getValue() != expectedChecksum) {
+            throw new IOException("The cache file is corrupt.");
+        }
+    }
+
+
+    /**
+     * Reads the next block of the channel into the buffer, keeping the values that have not been consumed yet.
+     *
+     * @throws IOException if the channel cannot be read or if its end has been reached
+     */
+    private void fill() throws IOException {
+        buffer.compact();
+        final int count = channel.read(buffer);
+        if (count < 0) {
+            throw new IOException("Unexpected end of the cache file.");
+        }
+
+        final ByteBuffer readBytes = buffer.duplicate();
+        readBytes.flip();
+        readBytes.position(buffer.position() - count);
+        checksum.update(readBytes);
+
+        buffer.flip();
+    }
+}
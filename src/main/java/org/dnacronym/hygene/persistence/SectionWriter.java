@@ -0,0 +1,119 @@
+package org.dnacronym.hygene.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+
+/**
+ * Writes little-endian sections of primitive values to a {@link FileChannel}, and computes a checksum over them.
+ * <p>
+ * Values are collected in a direct buffer and written in large blocks.
+ */
+final class SectionWriter {
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 checksum;
+
+
+    /**
+     * Constructs a new {@link SectionWriter} that writes from the current position of the channel onwards.
+     *
+     * @param channel the {@link FileChannel} to write to
+     */
+    SectionWriter(final FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.checksum = new CRC32();
+    }
+
+
+    /**
+     * Writes a single {@code int}, such as the number of elements in a section.
+     *
+     * @param value the value to write
+     * @throws IOException if the value cannot be written
+     */
+    void writeInt(final int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush();
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes a section of {@code int}s.
+     *
+     * @param values the values to write
+     * @throws IOException if the values cannot be written
+     */
+    void writeInts(final IntBuffer values) throws IOException {
+        for (int i = 0; i < values.capacity(); i++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(values.get(i));
+        }
+    }
+
+    /**
+     * Writes a section of {@code long}s.
+     *
+     * @param values the values to write
+     * @throws IOException if the values cannot be written
+     */
+    void writeLongs(final long[] values) throws IOException {
+        for (final long value : values) {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+        }
+    }
+
+    /**
+     * Writes a section of bytes.
+     *
+     * @param values the values to write
+     * @throws IOException if the values cannot be written
+     */
+    void writeBytes(final byte[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            final int length = Math.min(buffer.remaining(), values.length - offset);
+            buffer.put(values, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes all collected values to the channel.
+     *
+     * @throws IOException if the values cannot be written
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the checksum of the values written so far.
+     *
+     * @return the CRC-32 checksum of the values written so far
+     */
+    int getChecksum() {
+        return (int) checksum.getValue();
+    }
+}
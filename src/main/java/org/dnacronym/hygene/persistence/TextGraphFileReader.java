@@ -0,0 +1,121 @@
+package org.dnacronym.hygene.persistence;
+
+import org.dnacronym.hygene.graph.ByteOffsetColumn;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.ProgressUpdater;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.StringTokenizer;
+
+
+/**
+ * Reads cache files of earlier versions, in which each line contains the values of one node array as text.
+ * <p>
+ * If the graph has a {@link ByteOffsetColumn}, the node arrays are followed by a line with the upper bits of the node
+ * byte offsets and a line with the upper bits of the edge byte offsets.
+ */
+final class TextGraphFileReader {
+    private static final int PROGRESS_UPDATE_INTERVAL = 50000;
+    private static final int PROGRESS_TOTAL = 100;
+    private static final String NODE_VALUE_SEPARATOR = " ";
+
+
+    /**
+     * Prevent instantiation of {@link TextGraphFileReader}.
+     */
+    private TextGraphFileReader() {
+    }
+
+
+    /**
+     * Reads a cache file in the text format.
+     *
+     * @param channel         a {@link FileChannel} of the cache file
+     * @param graphSize       the number of nodes in the graph
+     * @param gfaFile         the {@link GfaFile} the graph belongs to
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @return the {@link Graph} stored in the cache file
+     * @throws IOException if the cache file cannot be read
+     */
+    static Graph read(final FileChannel channel, final int graphSize, final GfaFile gfaFile,
+                      final ProgressUpdater progressUpdater) throws IOException {
+        final int[][] nodeArrays = new int[graphSize][];
+
+        channel.position(0);
+        final BufferedReader cache = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        for (int nodeIndex = 0; nodeIndex < graphSize; nodeIndex++) {
+            if (nodeIndex % PROGRESS_UPDATE_INTERVAL == 0) {
+                progressUpdater.updateProgress(
+                        PROGRESS_TOTAL * nodeIndex / graphSize,
+                        "Restoring graph from cache...");
+            }
+
+            nodeArrays[nodeIndex] = parseLine(readLine(cache));
+        }
+
+        final String nodeUpperBits = cache.readLine();
+        if (nodeUpperBits == null) {
+            return new Graph(nodeArrays, gfaFile);
+        }
+
+        final ByteOffsetColumn byteOffsetColumn = new ByteOffsetColumn(
+                toBytes(parseLine(nodeUpperBits)), toBytes(parseLine(readLine(cache))));
+        return new Graph(nodeArrays, byteOffsetColumn, gfaFile);
+    }
+
+
+    /**
+     * Reads the next line of the cache file.
+     *
+     * @param cache the reader of the cache file
+     * @return the next line
+     * @throws IOException if the line cannot be read or if the end of the file has been reached
+     */
+    private static String readLine(final BufferedReader cache) throws IOException {
+        final String line = cache.readLine();
+        if (line == null) {
+            throw new IOException("Unexpected end of the cache file.");
+        }
+        return line;
+    }
+
+    /**
+     * Parses a line of separated values.
+     *
+     * @param line a line of the cache file
+     * @return the values on the line
+     */
+    private static int[] parseLine(final String line) {
+        final StringTokenizer tokenizer = new StringTokenizer(line, NODE_VALUE_SEPARATOR);
+        final int[] values = new int[tokenizer.countTokens()];
+
+        int valueIndex = 0;
+        while (tokenizer.hasMoreTokens()) {
+            values[valueIndex] = Integer.parseInt(tokenizer.nextToken());
+            valueIndex++;
+        }
+
+        return values;
+    }
+
+    /**
+     * Narrows each value to a byte.
+     *
+     * @param values values between {@code 0} and {@code 255}
+     * @return the values as bytes
+     */
+    private static byte[] toBytes(final int[] values) {
+        final byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
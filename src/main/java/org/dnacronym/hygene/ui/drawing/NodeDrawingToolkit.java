@@ -99,7 +99,7 @@ public abstract class NodeDrawingToolkit extends DrawingToolkit {
      * @param nodeWidth the width of the node
      * @param color     the {@link Color} to fill the node with
      */
-    public abstract void draw(double nodeX, double nodeY, double nodeWidth, Color color, String sequence);
+    public abstract void draw(double nodeX, double nodeY, double nodeWidth, Color color, CharSequence sequence);
 
     /**
      * Fills a round rectangle based on the node position and width.
@@ -149,7 +149,7 @@ public abstract class NodeDrawingToolkit extends DrawingToolkit {
      * @param nodeWidth the width of the node
      * @param sequence  the sequence of the node
      */
-    public abstract void drawSequence(double nodeX, double nodeY, double nodeWidth, String sequence);
+    public abstract void drawSequence(double nodeX, double nodeY, double nodeWidth, CharSequence sequence);
 
 
     /**
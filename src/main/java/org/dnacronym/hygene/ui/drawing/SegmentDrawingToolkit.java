@@ -27,7 +27,7 @@ public final class SegmentDrawingToolkit extends NodeDrawingToolkit {
      */
     @Override
     public void draw(final double segmentX, final double segmentY, final double segmentWidth, final Color color,
-                     final String sequence) {
+                     final CharSequence sequence) {
         drawGenomes(segmentX, segmentY, segmentWidth, Collections.singletonList(color));
     }
 
@@ -127,7 +127,7 @@ public final class SegmentDrawingToolkit extends NodeDrawingToolkit {
      */
     @Override
     public void drawSequence(final double segmentX, final double segmentY, final double segmentWidth,
-                             final String sequence) {
+                             final CharSequence sequence) {
         getGraphicsContext().setFill(Color.BLACK);
         getGraphicsContext().setFont(getNodeFont());
 
@@ -136,9 +136,10 @@ public final class SegmentDrawingToolkit extends NodeDrawingToolkit {
         if (charCount == 0) {
             return;
         } else if (sequence.length() > charCount) {
-            sequenceToDraw = sequence.substring(0, charCount - 1) + "\u2026";
+            // Only the part of the sequence that fits in the node is decoded
+            sequenceToDraw = sequence.subSequence(0, charCount - 1) + "\u2026";
         } else {
-            sequenceToDraw = sequence;
+            sequenceToDraw = sequence.toString();
         }
 
         final double sequenceWidth = sequenceToDraw.length() * getCharWidth();
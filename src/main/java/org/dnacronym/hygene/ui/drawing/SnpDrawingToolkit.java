@@ -48,7 +48,7 @@ public final class SnpDrawingToolkit extends NodeDrawingToolkit {
      */
     @Override
     public void draw(final double snpX, final double snpY, final double snpWidth, final Color color,
-                     final String sequence) {
+                     final CharSequence sequence) {
         final List<Character> sequences = extractSequences(sequence);
 
         if (sequences.isEmpty()) {
@@ -182,7 +182,7 @@ public final class SnpDrawingToolkit extends NodeDrawingToolkit {
      * @param sequence the sequence of the node
      */
     @Override
-    public void drawSequence(final double snpX, final double snpY, final double snpWidth, final String sequence) {
+    public void drawSequence(final double snpX, final double snpY, final double snpWidth, final CharSequence sequence) {
         if (snpWidth / 2 <= getCharWidth()) {
             return;
         }
@@ -261,11 +261,11 @@ public final class SnpDrawingToolkit extends NodeDrawingToolkit {
     }
 
 
-    private List<Character> extractSequences(final String sequenceDescription) {
-        if ("".equals(sequenceDescription)) {
+    private List<Character> extractSequences(final CharSequence sequenceDescription) {
+        if (sequenceDescription.length() == 0) {
             return new ArrayList<>();
         }
-        String sequences = sequenceDescription;
+        String sequences = sequenceDescription.toString();
         if (sequences.length() == 0) {
             return new ArrayList<>();
         }
@@ -3,9 +3,13 @@ package org.dnacronym.hygene.ui.graph;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import org.dnacronym.hygene.coordinatesystem.GenomePoint;
+import org.dnacronym.hygene.graph.node.ChainSegment;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
+import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 
+import java.util.Collections;
 import java.util.List;
 
 
@@ -81,22 +85,17 @@ public final class GraphAnnotationVisualizer {
         boolean endpointFound = false;
 
         for (final Node node : nodes) {
-            if (!(node instanceof Segment)) {
-                continue;
-            }
-            final Segment segment = (Segment) node;
-
-            maxOnscreenId = Math.max(maxOnscreenId, segment.getId());
-            minOnscreenId = Math.min(minOnscreenId, segment.getId());
-
-            if (segment.getId() == startNodeId) {
-                startX = graphDimensionsCalculator.computeXPosition(node)
-                        + (double) startOffset / node.getLength() * graphDimensionsCalculator.computeWidth(node);
-            }
-            if (segment.getId() == endNodeId) {
-                endX = graphDimensionsCalculator.computeXPosition(node)
-                        + (double) endOffset / node.getLength() * graphDimensionsCalculator.computeWidth(node);
-                endpointFound = true;
+            for (final Segment segment : getDrawnSegments(node)) {
+                maxOnscreenId = Math.max(maxOnscreenId, segment.getId());
+                minOnscreenId = Math.min(minOnscreenId, segment.getId());
+
+                if (segment.getId() == startNodeId) {
+                    startX = computeXPosition(segment, startOffset);
+                }
+                if (segment.getId() == endNodeId) {
+                    endX = computeXPosition(segment, endOffset);
+                    endpointFound = true;
+                }
             }
         }
 
@@ -109,4 +108,34 @@ public final class GraphAnnotationVisualizer {
         graphicsContext.setFill(Color.BLACK);
         graphicsContext.fillText(seqId, startX, ANNOTATION_MARKER_HEIGHT);
     }
+
+
+    /**
+     * Returns the {@link Segment}s that are drawn as part of the given {@link Node}.
+     * <p>
+     * The segments in a chain or an expanded cluster each occupy their own part of the node. Collapsed clusters and
+     * other nodes do not show individual segments.
+     *
+     * @param node a {@link Node} on screen
+     * @return the {@link Segment}s that are drawn as part of the given {@link Node}
+     */
+    private static List<Segment> getDrawnSegments(final Node node) {
+        if (node instanceof Segment || node instanceof ChainSegment
+                || node instanceof ClusterSegment && ((ClusterSegment) node).isExpanded()) {
+            return ((GfaNode) node).getSegments();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Computes the onscreen x position of the base at the given offset in the given {@link Segment}.
+     *
+     * @param segment a {@link Segment} on screen
+     * @param offset  the offset of a base in the segment
+     * @return the onscreen x position of the base at the given offset in the given {@link Segment}
+     */
+    private double computeXPosition(final Segment segment, final int offset) {
+        return graphDimensionsCalculator.computeXPosition(segment)
+                + (double) offset / segment.getLength() * graphDimensionsCalculator.computeWidth(segment);
+    }
 }
@@ -25,8 +25,8 @@ import org.dnacronym.hygene.graph.CenterPointQuery;
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.Subgraph;
 import org.dnacronym.hygene.graph.layout.FafospLayerer;
+import org.dnacronym.hygene.graph.metadata.NodeMetadataCache;
 import org.dnacronym.hygene.graph.node.Node;
-import org.dnacronym.hygene.graph.node.Segment;
 
 import javax.inject.Inject;
 import java.util.LinkedList;
@@ -64,6 +64,7 @@ public final class GraphDimensionsCalculator {
     private final IntegerProperty nodeCountProperty;
     private final DoubleProperty laneHeightProperty;
     private final IntegerProperty laneCountProperty;
+    private final LongProperty metadataCacheBudgetProperty;
 
     /**
      * The {@link Graph} used to get the unscaled coordinates of nodes.
@@ -106,16 +107,7 @@ public final class GraphDimensionsCalculator {
             }
             if (newValue.intValue() >= getNodeCountProperty().intValue() - 1) {
                 centerNodeIdProperty.set(nodeCountProperty.intValue() - 2);
-                return;
-            }
-
-            centerPointQuery.query(centerNodeIdProperty.get(), radiusProperty.get());
-        });
-        radiusProperty.addListener((observable, oldValue, newValue) -> {
-            if (centerPointQuery == null) {
-                return;
             }
-            centerPointQuery.query(centerNodeIdProperty.get(), radiusProperty.get());
         });
 
         viewPointProperty = new SimpleLongProperty(2000);
@@ -124,7 +116,7 @@ public final class GraphDimensionsCalculator {
                 viewPointProperty.set(0);
                 return;
             }
-            final int sentinelId = getGraphProperty().get().getNodeArrays().length - 1;
+            final int sentinelId = getGraphProperty().get().getNodeCount() - 1;
             final long sentinelEndPosition = getGraphProperty().get().getRealEndXPosition(sentinelId);
             if (newValue.longValue() > sentinelEndPosition) {
                 viewPointProperty.set(sentinelEndPosition);
@@ -133,18 +125,27 @@ public final class GraphDimensionsCalculator {
 
             centerNodeIdProperty.set(getGraphProperty().get().getNodeAtPosition(newValue.longValue()));
             calculate(subgraph);
+            queryViewport();
         });
         viewRadiusProperty = new SimpleIntegerProperty(1);
         viewRadiusProperty.addListener((observable, oldValue, newValue) -> {
             calculate(subgraph);
             radiusProperty.set(((newValue.intValue() + FafospLayerer.LAYER_WIDTH - 1)
                     / FafospLayerer.LAYER_WIDTH) / 2);
+            queryViewport();
         });
 
         nodeHeightProperty = new SimpleDoubleProperty(1);
         laneHeightProperty = new SimpleDoubleProperty(1);
         laneCountProperty = new SimpleIntegerProperty(1);
 
+        metadataCacheBudgetProperty = new SimpleLongProperty(NodeMetadataCache.DEFAULT_BYTE_BUDGET);
+        metadataCacheBudgetProperty.addListener((observable, oldValue, newValue) -> {
+            if (centerPointQuery != null) {
+                centerPointQuery.getNodeMetadataCache().setByteBudget(newValue.longValue());
+            }
+        });
+
         graphProperty = new SimpleObjectProperty<>();
         graphStore.getGfaFileProperty().addListener((observable, oldValue, newValue) -> setGraph(newValue.getGraph()));
 
@@ -195,7 +196,11 @@ public final class GraphDimensionsCalculator {
             return;
         }
 
-        final Optional<Segment> centerNode = subgraph.getSegment(centerNodeIdProperty.get());
+        Optional<? extends Node> centerNode = subgraph.getGfaNode(centerNodeIdProperty.get());
+        if (!centerNode.isPresent()) {
+            // The centre node may lie just outside the viewport, in which case any node in the viewport will do
+            centerNode = subgraph.getNodes().stream().findFirst();
+        }
         if (!centerNode.isPresent()) {
             return;
         }
@@ -242,13 +247,30 @@ public final class GraphDimensionsCalculator {
     void setGraph(final Graph graph) {
         graphProperty.set(graph);
         centerPointQuery = new CenterPointQuery(graph);
+        centerPointQuery.getNodeMetadataCache().setByteBudget(metadataCacheBudgetProperty.get());
 
-        nodeCountProperty.set(graph.getNodeArrays().length);
+        nodeCountProperty.set(graph.getNodeCount());
         centerNodeIdProperty.set(1);
-        final int sinkId = graph.getNodeArrays().length - 1;
+        final int sinkId = graph.getNodeCount() - 1;
         final long sentinelPosition = graph.getRealEndXPosition(sinkId);
         viewPointProperty.set(sentinelPosition / 2);
         viewRadiusProperty.set(DEFAULT_RADIUS * FafospLayerer.LAYER_WIDTH);
+        queryViewport();
+    }
+
+    /**
+     * Fills the {@link CenterPointQuery}'s cache with the nodes and edges in the current viewport.
+     * <p>
+     * If the graph has not been set, this method does nothing.
+     */
+    private void queryViewport() {
+        if (centerPointQuery == null) {
+            return;
+        }
+
+        final long viewPoint = viewPointProperty.get();
+        final int halfViewRadius = viewRadiusProperty.get() / 2;
+        centerPointQuery.queryRange(viewPoint - halfViewRadius, viewPoint + halfViewRadius);
     }
 
     /**
@@ -273,7 +295,7 @@ public final class GraphDimensionsCalculator {
     void setCanvasSize(final double canvasWidth, final double canvasHeight) {
         canvasDimension = new Dimension2D(canvasWidth, canvasHeight);
 
-        if (subgraph != null && subgraph.getSegment(centerNodeIdProperty.get()).isPresent()) {
+        if (subgraph != null) {
             calculate(subgraph);
         }
     }
@@ -434,6 +456,15 @@ public final class GraphDimensionsCalculator {
         return viewRadiusProperty;
     }
 
+    /**
+     * Returns the property of the maximum number of bytes the sequences in the node metadata cache may retain.
+     *
+     * @return the property of the maximum number of bytes the sequences in the node metadata cache may retain
+     */
+    public LongProperty getMetadataCacheBudgetProperty() {
+        return metadataCacheBudgetProperty;
+    }
+
     /**
      * Returns the center-point query.
      *
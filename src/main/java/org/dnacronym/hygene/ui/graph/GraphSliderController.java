@@ -13,10 +13,9 @@ import org.dnacronym.hygene.ui.drawing.HeatMapDrawing;
 import javax.inject.Inject;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
 /**
@@ -42,7 +41,7 @@ public final class GraphSliderController implements Initializable {
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
         graphDimensionsCalculator.getGraphProperty().addListener((observable, oldValue, newValue) -> {
-            final int sentinelId = newValue.getNodeArrays().length - 1;
+            final int sentinelId = newValue.getNodeCount() - 1;
             graphScrollBar.setMin(1);
             graphScrollBar.setMax(newValue.getRealEndXPosition(sentinelId - 1));
         });
@@ -71,21 +70,29 @@ public final class GraphSliderController implements Initializable {
      * @return the list of buckets representing node densities in the graph
      */
     private List<Integer> generateBuckets(final Graph graph) {
-        final Map<Integer, Integer> buckets = new HashMap<>(BUCKET_COUNT);
-
-        final int sinkId = graph.getNodeArrays().length - 1;
+        final int sinkId = graph.getNodeCount() - 1;
         final long graphWidth = (long) graph.getUnscaledXPosition(sinkId) * 1000 + graph.getLength(sinkId);
         final long bucketSize = Math.round((double) graphWidth / BUCKET_COUNT);
 
-        new GraphIterator(graph).visitAll(SequenceDirection.RIGHT, nodeId -> {
+        // The sink ends to the right of all other nodes, so its end determines the number of buckets
+        final AtomicIntegerArray buckets = new AtomicIntegerArray(Math.toIntExact(graphWidth / bucketSize) + 1);
+        final int lastBucket = buckets.length() - 1;
+
+        new GraphIterator(graph).visitAllInParallel(SequenceDirection.RIGHT, nodeId -> {
             final int left = Math.toIntExact(graph.getRealStartXPosition(nodeId) / bucketSize);
-            final int right = Math.toIntExact(graph.getRealEndXPosition(nodeId) / bucketSize);
+            final int right = Math.toIntExact(Math.min(graph.getRealEndXPosition(nodeId) / bucketSize, lastBucket));
 
             for (int pos = left; pos <= right; pos++) {
-                buckets.put(pos, buckets.containsKey(pos) ? buckets.get(pos) + 1 : 1);
+                buckets.incrementAndGet(pos);
             }
         });
 
-        return new ArrayList<>(buckets.values());
+        final List<Integer> nonEmptyBuckets = new ArrayList<>(buckets.length());
+        for (int pos = 0; pos < buckets.length(); pos++) {
+            if (buckets.get(pos) > 0) {
+                nonEmptyBuckets.add(buckets.get(pos));
+            }
+        }
+        return nonEmptyBuckets;
     }
 }
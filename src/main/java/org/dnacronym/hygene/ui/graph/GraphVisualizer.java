@@ -22,9 +22,13 @@ import org.apache.logging.log4j.Logger;
 import org.dnacronym.hygene.core.HygeneEventBus;
 import org.dnacronym.hygene.event.SnapshotButtonWasPressed;
 import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.Subgraph;
 import org.dnacronym.hygene.graph.annotation.Annotation;
 import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
 import org.dnacronym.hygene.graph.node.AggregateSegment;
+import org.dnacronym.hygene.graph.node.ChainSegment;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
@@ -232,11 +236,11 @@ public final class GraphVisualizer {
             nodeDrawingToolkit.drawGenomes(nodeX, nodeY, nodeWidth, computeNodeColors(gfaNode));
         }
 
-        if (selectedSegmentProperty.isNotNull().get() && gfaNode.getSegmentIds().stream()
+        if (selectedSegmentProperty.isNotNull().get() && getDrawnSegmentIds(gfaNode).stream()
                 .anyMatch(segmentId -> selectedSegmentProperty.get().containsSegment(segmentId))) {
             nodeDrawingToolkit.drawHighlight(nodeX, nodeY, nodeWidth, HighlightType.SELECTED);
         }
-        if (hoveredSegmentProperty.isNotNull().get() && gfaNode.getSegmentIds().stream()
+        if (hoveredSegmentProperty.isNotNull().get() && getDrawnSegmentIds(gfaNode).stream()
                 .anyMatch(segmentId -> hoveredSegmentProperty.get().containsSegment(segmentId))) {
             nodeDrawingToolkit.drawHighlight(nodeX, nodeY, nodeWidth, HighlightType.HIGHLIGHTED);
         }
@@ -249,12 +253,26 @@ public final class GraphVisualizer {
 
         if (gfaNode.hasMetadata()
                 && graphDimensionsCalculator.getRadiusProperty().get() < MAX_SEQUENCE_DRAWING_RADIUS) {
-            final String sequence = gfaNode.getMetadata().getSequence();
+            final PackedSequence sequence = gfaNode.getMetadata().getSequence();
             nodeDrawingToolkit.drawSequence(nodeX, nodeY, nodeWidth, sequence);
         }
 
+        if (isCollapsedCluster(gfaNode)) {
+            // The segments of a collapsed cluster are not created, so the cluster is drawn as a whole
+            if (graphDimensionsCalculator.getObservableQueryNodes().size() < 5000) {
+                rTree.addNode(((ClusterSegment) gfaNode).getFirstSegmentId(), nodeX, nodeY, nodeWidth,
+                        nodeHeightProperty.get());
+            }
+            return;
+        }
+
         gfaNode.getSegments().forEach(segment -> {
-            nodeDrawingToolkit.drawAnnotations(nodeX, nodeY, nodeWidth,
+            // The segments in a chain or cluster each occupy their own part of the node
+            final boolean spread = node instanceof ChainSegment || node instanceof ClusterSegment;
+            final double segmentX = spread ? graphDimensionsCalculator.computeXPosition(segment) : nodeX;
+            final double segmentWidth = spread ? graphDimensionsCalculator.computeWidth(segment) : nodeWidth;
+
+            nodeDrawingToolkit.drawAnnotations(segmentX, nodeY, segmentWidth,
                     segmentAnnotationColors(segment, annotations),
 
                     annotations.stream()
@@ -267,13 +285,16 @@ public final class GraphVisualizer {
                                     annotation -> (double) annotation.getEndNodeBaseOffset() / segment.getLength())));
 
             if (graphDimensionsCalculator.getObservableQueryNodes().size() < 5000) {
-                rTree.addNode(segment.getId(), nodeX, nodeY, nodeWidth, nodeHeightProperty.get());
+                rTree.addNode(segment.getId(), segmentX, nodeY, segmentWidth, nodeHeightProperty.get());
             }
         });
     }
 
     private List<Color> computeNodeColors(final GfaNode gfaNode) {
         final List<Color> nodeColors = new ArrayList<>();
+        if (isCollapsedCluster(gfaNode)) {
+            return nodeColors;
+        }
 
         for (final Segment segment : gfaNode.getSegments()) {
             if (segment.hasMetadata()
@@ -291,6 +312,30 @@ public final class GraphVisualizer {
         return nodeColors;
     }
 
+    /**
+     * Returns {@code true} iff. the given node is a {@link ClusterSegment} whose segments have not been created.
+     *
+     * @param gfaNode a {@link GfaNode}
+     * @return {@code true} iff. the given node is a {@link ClusterSegment} whose segments have not been created
+     */
+    private static boolean isCollapsedCluster(final GfaNode gfaNode) {
+        return gfaNode instanceof ClusterSegment && !((ClusterSegment) gfaNode).isExpanded();
+    }
+
+    /**
+     * Returns the ids of the segments of the given node that are drawn, which for a collapsed cluster is only the id
+     * of its first segment, so that drawing does not create its segments.
+     *
+     * @param gfaNode a {@link GfaNode}
+     * @return the ids of the segments of the given node that are drawn
+     */
+    private static List<Integer> getDrawnSegmentIds(final GfaNode gfaNode) {
+        if (isCollapsedCluster(gfaNode)) {
+            return Collections.singletonList(((ClusterSegment) gfaNode).getFirstSegmentId());
+        }
+        return gfaNode.getSegmentIds();
+    }
+
     /**
      * Creates the correct toolkit for the given node.
      *
@@ -298,7 +343,7 @@ public final class GraphVisualizer {
      * @return the correct toolkit for the given node
      */
     private NodeDrawingToolkit createNodeDrawingToolkit(final Node node) {
-        if (node instanceof Segment) {
+        if (node instanceof Segment || node instanceof ChainSegment || node instanceof ClusterSegment) {
             return segmentDrawingToolkit;
         } else if (node instanceof AggregateSegment) {
             return snpDrawingToolkit;
@@ -505,7 +550,7 @@ public final class GraphVisualizer {
 
             graphicsContext.setFill(Color.rgb(0, 170, 135));
             for (final Node node : graphDimensionsCalculator.getObservableQueryNodes()) {
-                if (node instanceof Segment || node instanceof AggregateSegment) {
+                if (node instanceof GfaNode) {
                     final double nodeX = graphDimensionsCalculator.computeXPosition(node);
                     final double nodeWidth = graphDimensionsCalculator.computeWidth(node);
 
@@ -515,7 +560,7 @@ public final class GraphVisualizer {
 
                     final double nodeY = graphDimensionsCalculator.computeYPosition(node);
 
-                    if (node instanceof Segment) {
+                    if (!(node instanceof AggregateSegment)) {
                         segmentDrawingToolkit.draw(nodeX, nodeY, nodeWidth);
                         continue;
                     }
@@ -535,7 +580,7 @@ public final class GraphVisualizer {
             if (!(node instanceof GfaNode)) {
                 continue;
             }
-            ((GfaNode) node).getSegmentIds().forEach(nodeId -> {
+            getDrawnSegmentIds((GfaNode) node).forEach(nodeId -> {
                 minNodeId[0] = Math.min(minNodeId[0], nodeId);
                 maxNodeId[0] = Math.max(maxNodeId[0], nodeId);
             });
@@ -558,7 +603,8 @@ public final class GraphVisualizer {
             );
             drawNode(node,
                     bookmarked,
-                    node instanceof Segment && query.getQueriedNodes().contains(((Segment) node).getId()),
+                    (node instanceof Segment || node instanceof ChainSegment || node instanceof ClusterSegment)
+                            && getDrawnSegmentIds((GfaNode) node).stream().anyMatch(query.getQueriedNodes()::contains),
                     observableAnnotations);
         }
 
@@ -709,16 +755,19 @@ public final class GraphVisualizer {
      * @param nodeId node the id of the newly hovered {@link Segment}
      */
     public void setHoveredSegmentProperty(final int nodeId) {
-        graphDimensionsCalculator.getCenterPointQuery().getCache().getSegment(nodeId).ifPresent(segment -> {
+        final Subgraph cache = graphDimensionsCalculator.getCenterPointQuery().getCache();
+        cache.getSegment(nodeId).ifPresent(segment -> {
             hoveredSegmentProperty.set(segment);
 
+            // Only the node containing the segment has been given a y position by the layout
+            final GfaNode container = cache.getGfaNode(nodeId).orElse(segment);
             new NodeTooltip(
                     this,
                     graphicsContext,
                     segment,
                     graphDimensionsCalculator.computeXPosition(segment)
                             + (graphDimensionsCalculator.computeWidth(segment) / 2),
-                    graphDimensionsCalculator.computeBelowYPosition(segment)
+                    graphDimensionsCalculator.computeBelowYPosition(container)
             ).show();
         });
     }
@@ -202,11 +202,11 @@ public class NodeTooltip {
         }
     }
 
-    private String limitStringAt(final String string, final int length) {
+    private String limitStringAt(final CharSequence string, final int length) {
         if (string.length() > length) {
-            return string.substring(0, length) + (string.length() > length ? "..." : "");
+            return string.subSequence(0, length) + (string.length() > length ? "..." : "");
         } else {
-            return string;
+            return string.toString();
         }
     }
 }
@@ -10,6 +10,7 @@ import javafx.scene.control.TextFormatter;
 import javafx.scene.control.TitledPane;
 import javafx.scene.layout.GridPane;
 import javafx.util.converter.IntegerStringConverter;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.ui.graph.GraphStore;
@@ -98,9 +99,9 @@ public final class SequenceController implements Initializable {
         setOffset.setPromptText("0 - " + (segment.getSequenceLength() - 1));
 
         if (segment.hasMetadata()) {
-            final String sequence = segment.getMetadata().getSequence();
+            final PackedSequence sequence = segment.getMetadata().getSequence();
             sequenceVisualizer.getSequenceProperty().set(sequence);
-            sequenceTextArea.setText(sequence);
+            sequenceTextArea.setText(sequence.toString());
         }
     }
 
@@ -2,15 +2,16 @@ package org.dnacronym.hygene.ui.node;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.ui.graph.RTree;
 
@@ -19,6 +20,8 @@ import java.util.Optional;
 
 /**
  * Visualizer which shows a nice representation of the selected node.
+ * <p>
+ * Only the bases that are on screen are decoded from the {@link PackedSequence}.
  */
 public final class SequenceVisualizer {
     private static final double SQUARE_WIDTH = 35;
@@ -33,7 +36,7 @@ public final class SequenceVisualizer {
     private Canvas canvas;
     private GraphicsContext graphicsContext;
 
-    private final StringProperty sequenceProperty;
+    private final ObjectProperty<PackedSequence> sequenceProperty;
     private final IntegerProperty offsetProperty;
     private final BooleanProperty visibleProperty;
     private final IntegerProperty onScreenBasesProperty;
@@ -46,7 +49,7 @@ public final class SequenceVisualizer {
      * Create instance of {@link SequenceVisualizer}.
      */
     public SequenceVisualizer() {
-        sequenceProperty = new SimpleStringProperty();
+        sequenceProperty = new SimpleObjectProperty<>();
         offsetProperty = new SimpleIntegerProperty();
         onScreenBasesProperty = new SimpleIntegerProperty();
         hoveredBaseIdProperty = new SimpleIntegerProperty(-1);
@@ -214,10 +217,10 @@ public final class SequenceVisualizer {
      * @param i         the base offset in the sequence
      */
     private void drawBase(final double topRightX, final int i) {
-        final String base = String.valueOf(sequenceProperty.get().charAt(i));
+        final char base = sequenceProperty.get().charAt(i);
 
-        drawSquare(base, topRightX, VERTICAL_GAP,
-                i == hoveredBaseIdProperty.get() ? Color.PURPLE : Node.baseToColor(base.charAt(0)), Color.BLACK);
+        drawSquare(String.valueOf(base), topRightX, VERTICAL_GAP,
+                i == hoveredBaseIdProperty.get() ? Color.PURPLE : Node.baseToColor(base), Color.BLACK);
         drawSquare(String.valueOf(i), topRightX, VERTICAL_GAP * 2 + SQUARE_HEIGHT,
                 i == hoveredBaseIdProperty.get() ? Color.PURPLE : Color.rgb(0, 170, 135), Color.BLACK);
 
@@ -234,11 +237,11 @@ public final class SequenceVisualizer {
     }
 
     /**
-     * Returns the {@link StringProperty} which decides the sequence.
+     * Returns the {@link ObjectProperty} which decides the sequence.
      *
-     * @return the {@link StringProperty} which decides the sequence
+     * @return the {@link ObjectProperty} which decides the sequence
      */
-    public StringProperty getSequenceProperty() {
+    public ObjectProperty<PackedSequence> getSequenceProperty() {
         return sequenceProperty;
     }
 
@@ -4,8 +4,11 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.Slider;
+import javafx.scene.input.MouseEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.ui.graph.GraphDimensionsCalculator;
 import org.dnacronym.hygene.ui.graph.GraphVisualizer;
 
 import javax.inject.Inject;
@@ -18,19 +21,26 @@ import java.util.ResourceBundle;
  */
 public final class AdvancedSettingsViewController implements Initializable {
     private static final Logger LOGGER = LogManager.getLogger(AdvancedSettingsViewController.class);
+    private static final long BYTES_PER_MEBIBYTE = 1024L * 1024;
 
     @Inject
     private Settings settings;
     @Inject
     private GraphVisualizer graphVisualizer;
+    @Inject
+    private GraphDimensionsCalculator graphDimensionsCalculator;
 
     @FXML
     private CheckBox displayLaneBorders;
+    @FXML
+    private Slider metadataCacheBudget;
 
 
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
         displayLaneBorders.setSelected(graphVisualizer.getDisplayBordersProperty().get());
+        metadataCacheBudget.setValue(
+                (double) graphDimensionsCalculator.getMetadataCacheBudgetProperty().get() / BYTES_PER_MEBIBYTE);
     }
 
     /**
@@ -46,4 +56,18 @@ public final class AdvancedSettingsViewController implements Initializable {
             LOGGER.info("Displaying lane borders has now been " + (newValue ? "enabled." : "disabled."));
         });
     }
+
+    /**
+     * When the user finishes sliding the metadata cache size {@link Slider}.
+     *
+     * @param mouseEvent the {@link MouseEvent}
+     */
+    @FXML
+    void metadataCacheBudgetSliderDone(final MouseEvent mouseEvent) {
+        settings.addRunnable(() -> {
+            final long newValue = Math.round(((Slider) mouseEvent.getSource()).getValue());
+            graphDimensionsCalculator.getMetadataCacheBudgetProperty().setValue(newValue * BYTES_PER_MEBIBYTE);
+            LOGGER.info("Metadata cache size has been set to " + newValue + " MiB.");
+        });
+    }
 }
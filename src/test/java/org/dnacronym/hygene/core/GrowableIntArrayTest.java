@@ -0,0 +1,110 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GrowableIntArray}.
+ */
+final class GrowableIntArrayTest {
+    private GrowableIntArray array;
+
+
+    @BeforeEach
+    void beforeEach() {
+        array = new GrowableIntArray();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(array.size()).isEqualTo(0);
+        assertThat(array.toArray()).isEmpty();
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new GrowableIntArray(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testAddAndGet() {
+        array.add(42);
+        array.add(-7);
+
+        assertThat(array.size()).isEqualTo(2);
+        assertThat(array.get(0)).isEqualTo(42);
+        assertThat(array.get(1)).isEqualTo(-7);
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        final GrowableIntArray zeroCapacityArray = new GrowableIntArray(0);
+        for (int i = 0; i < 1000; i++) {
+            zeroCapacityArray.add(i);
+        }
+
+        assertThat(zeroCapacityArray.size()).isEqualTo(1000);
+        assertThat(zeroCapacityArray.get(999)).isEqualTo(999);
+    }
+
+    @Test
+    void testSet() {
+        array.add(1);
+        array.set(0, 2);
+
+        assertThat(array.get(0)).isEqualTo(2);
+    }
+
+    @Test
+    void testRemoveLast() {
+        array.add(1);
+        array.add(2);
+
+        assertThat(array.removeLast()).isEqualTo(2);
+        assertThat(array.toArray()).containsExactly(1);
+    }
+
+    @Test
+    void testRemoveLastEmpty() {
+        final Throwable e = catchThrowable(() -> array.removeLast());
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testClear() {
+        array.add(1);
+        array.add(2);
+
+        array.clear();
+
+        assertThat(array.size()).isEqualTo(0);
+        assertThat(array.toArray()).isEmpty();
+    }
+
+    @Test
+    void testGetOutOfBounds() {
+        array.add(1);
+
+        final Throwable e = catchThrowable(() -> array.get(1));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(e).hasMessage("Index 1 is out of bounds for size 1.");
+    }
+
+    @Test
+    void testToArrayIsTrimmed() {
+        array.add(3);
+        array.add(4);
+
+        assertThat(array.toArray()).containsExactly(3, 4);
+    }
+}
@@ -0,0 +1,83 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GrowableLongArray}.
+ */
+final class GrowableLongArrayTest {
+    private GrowableLongArray array;
+
+
+    @BeforeEach
+    void beforeEach() {
+        array = new GrowableLongArray();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(array.size()).isEqualTo(0);
+        assertThat(array.toArray()).isEmpty();
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new GrowableLongArray(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testAddAndGet() {
+        array.add(42L);
+        array.add(Long.MAX_VALUE);
+
+        assertThat(array.size()).isEqualTo(2);
+        assertThat(array.get(0)).isEqualTo(42L);
+        assertThat(array.get(1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        final GrowableLongArray zeroCapacityArray = new GrowableLongArray(0);
+        for (int i = 0; i < 1000; i++) {
+            zeroCapacityArray.add(i);
+        }
+
+        assertThat(zeroCapacityArray.size()).isEqualTo(1000);
+        assertThat(zeroCapacityArray.get(999)).isEqualTo(999L);
+    }
+
+    @Test
+    void testSet() {
+        array.add(1);
+        array.set(0, 2L);
+
+        assertThat(array.get(0)).isEqualTo(2L);
+    }
+
+    @Test
+    void testGetOutOfBounds() {
+        array.add(1);
+
+        final Throwable e = catchThrowable(() -> array.get(1));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(e).hasMessage("Index 1 is out of bounds for size 1.");
+    }
+
+    @Test
+    void testToArrayIsTrimmed() {
+        array.add(3);
+        array.add(4);
+
+        assertThat(array.toArray()).containsExactly(3L, 4L);
+    }
+}
@@ -0,0 +1,100 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link IntQueue}.
+ */
+final class IntQueueTest {
+    private IntQueue queue;
+
+
+    @BeforeEach
+    void beforeEach() {
+        queue = new IntQueue();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new IntQueue(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testFirstInFirstOut() {
+        queue.add(3);
+        queue.add(1);
+        queue.add(2);
+
+        assertThat(queue.remove()).isEqualTo(3);
+        assertThat(queue.remove()).isEqualTo(1);
+        assertThat(queue.remove()).isEqualTo(2);
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testRemoveFromEmpty() {
+        final Throwable e = catchThrowable(() -> queue.remove());
+
+        assertThat(e).isInstanceOf(NoSuchElementException.class);
+    }
+
+    /**
+     * Tests that the order is kept when the buffer grows while its values wrap around the end of the buffer.
+     */
+    @Test
+    void testGrowsWhileWrapped() {
+        final IntQueue smallQueue = new IntQueue(4);
+        smallQueue.add(0);
+        smallQueue.add(1);
+        smallQueue.add(2);
+        smallQueue.remove();
+        smallQueue.remove();
+        for (int i = 3; i < 100; i++) {
+            smallQueue.add(i);
+        }
+
+        assertThat(smallQueue.size()).isEqualTo(98);
+        for (int i = 2; i < 100; i++) {
+            assertThat(smallQueue.remove()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void testZeroCapacity() {
+        final IntQueue zeroCapacityQueue = new IntQueue(0);
+        zeroCapacityQueue.add(5);
+        zeroCapacityQueue.add(6);
+
+        assertThat(zeroCapacityQueue.remove()).isEqualTo(5);
+        assertThat(zeroCapacityQueue.remove()).isEqualTo(6);
+    }
+
+    @Test
+    void testClear() {
+        queue.add(1);
+        queue.add(2);
+
+        queue.clear();
+        queue.add(3);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.remove()).isEqualTo(3);
+    }
+}
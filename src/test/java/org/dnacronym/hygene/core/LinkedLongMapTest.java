@@ -0,0 +1,141 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link LinkedLongMap}.
+ */
+final class LinkedLongMapTest {
+    private LinkedLongMap<String> map;
+
+
+    @BeforeEach
+    void beforeEach() {
+        map = new LinkedLongMap<>();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.values()).isEmpty();
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new LinkedLongMap<>(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testPutAndGet() {
+        map.put(42, "a");
+        map.put(-7, "b");
+
+        assertThat(map.get(42)).isEqualTo("a");
+        assertThat(map.get(-7)).isEqualTo("b");
+        assertThat(map.get(0)).isNull();
+        assertThat(map.containsKey(42)).isTrue();
+        assertThat(map.containsKey(0)).isFalse();
+    }
+
+    @Test
+    void testPutReplacesValue() {
+        map.put(1, "a");
+
+        assertThat(map.put(1, "b")).isEqualTo("a");
+        assertThat(map.get(1)).isEqualTo("b");
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testValuesInInsertionOrder() {
+        map.put(30, "a");
+        map.put(10, "b");
+        map.put(20, "c");
+        map.put(10, "d");
+
+        assertThat(map.values()).containsExactly("a", "d", "c");
+    }
+
+    @Test
+    void testRemove() {
+        map.put(1, "a");
+        map.put(2, "b");
+        map.put(3, "c");
+
+        assertThat(map.remove(2)).isEqualTo("b");
+        assertThat(map.remove(2)).isNull();
+        assertThat(map.containsKey(2)).isFalse();
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.values()).containsExactly("a", "c");
+    }
+
+    /**
+     * Tests that keys can be added again after removal and that the insertion order remains correct after growing.
+     */
+    @Test
+    void testRemoveAndGrow() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, String.valueOf(i));
+            if (i % 2 == 1) {
+                map.remove(i - 1);
+            }
+        }
+        map.put(0, "0");
+
+        assertThat(map.size()).isEqualTo(501);
+        assertThat(map.get(999)).isEqualTo("999");
+        assertThat(map.get(998)).isNull();
+        assertThat(map.values()).startsWith("1", "3").endsWith("997", "999", "0");
+    }
+
+    @Test
+    void testClear() {
+        map.put(1, "a");
+        map.put(2, "b");
+
+        map.clear();
+
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get(1)).isNull();
+        assertThat(map.values()).isEmpty();
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        map.put(1, "a");
+        map.put(2, "b");
+        map.remove(1);
+
+        final LinkedLongMap<String> copy = new LinkedLongMap<>(map);
+        map.put(3, "c");
+        copy.put(4, "d");
+
+        assertThat(copy.values()).containsExactly("b", "d");
+        assertThat(map.values()).containsExactly("b", "c");
+    }
+
+    @Test
+    void testIteratorFailsAfterModification() {
+        map.put(1, "a");
+        map.put(2, "b");
+        final Iterator<String> iterator = map.values().iterator();
+        iterator.next();
+
+        map.put(3, "c");
+
+        assertThat(catchThrowable(iterator::next)).isInstanceOf(ConcurrentModificationException.class);
+    }
+}
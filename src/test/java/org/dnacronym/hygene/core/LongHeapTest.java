@@ -0,0 +1,100 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link LongHeap}.
+ */
+final class LongHeapTest {
+    private LongHeap heap;
+
+
+    @BeforeEach
+    void beforeEach() {
+        heap = new LongHeap();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(heap.isEmpty()).isTrue();
+        assertThat(heap.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new LongHeap(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testSmallestFirst() {
+        heap.add(3);
+        heap.add(1);
+        heap.add(2);
+
+        assertThat(heap.peek()).isEqualTo(1);
+        assertThat(heap.remove()).isEqualTo(1);
+        assertThat(heap.remove()).isEqualTo(2);
+        assertThat(heap.remove()).isEqualTo(3);
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testRemoveFromEmpty() {
+        final Throwable e = catchThrowable(() -> heap.remove());
+
+        assertThat(e).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void testSortsManyValuesWhileGrowing() {
+        final Random random = new Random(42);
+        final long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong();
+            heap.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        final long[] removed = new long[values.length];
+        for (int i = 0; i < removed.length; i++) {
+            removed[i] = heap.remove();
+        }
+
+        assertThat(removed).containsExactly(values);
+    }
+
+    @Test
+    void testClear() {
+        heap.add(1);
+        heap.add(2);
+        heap.clear();
+
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testEncodeOrdersByPriorityFirst() {
+        heap.add(LongHeap.encode(2, 0));
+        heap.add(LongHeap.encode(1, 7));
+        heap.add(LongHeap.encode(1, 3));
+
+        final long first = heap.remove();
+        assertThat(LongHeap.decodePriority(first)).isEqualTo(1);
+        assertThat(LongHeap.decodeValue(first)).isEqualTo(3);
+        assertThat(LongHeap.decodeValue(heap.remove())).isEqualTo(7);
+        assertThat(LongHeap.decodePriority(heap.remove())).isEqualTo(2);
+    }
+}
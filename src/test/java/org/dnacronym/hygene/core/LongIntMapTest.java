@@ -0,0 +1,80 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link LongIntMap}.
+ */
+final class LongIntMapTest {
+    private LongIntMap map;
+
+
+    @BeforeEach
+    void beforeEach() {
+        map = new LongIntMap();
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.containsKey(0)).isFalse();
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new LongIntMap(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Capacity cannot be negative.");
+    }
+
+    @Test
+    void testPutAndGet() {
+        map.put(42, 1);
+        map.put(-7, 2);
+
+        assertThat(map.getOrDefault(42, -1)).isEqualTo(1);
+        assertThat(map.getOrDefault(-7, -1)).isEqualTo(2);
+        assertThat(map.getOrDefault(0, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(42)).isTrue();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testPutReplacesValue() {
+        map.put(1, 2);
+        map.put(1, 3);
+
+        assertThat(map.getOrDefault(1, -1)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        final LongIntMap zeroCapacityMap = new LongIntMap(0);
+        for (int i = 0; i < 1000; i++) {
+            zeroCapacityMap.put((long) i << 32, i);
+        }
+
+        assertThat(zeroCapacityMap.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(zeroCapacityMap.getOrDefault((long) i << 32, -1)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void testClear() {
+        map.put(1, 2);
+
+        map.clear();
+
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.containsKey(1)).isFalse();
+    }
+}
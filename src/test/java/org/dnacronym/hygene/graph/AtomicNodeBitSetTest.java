@@ -0,0 +1,55 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link AtomicNodeBitSet}.
+ */
+final class AtomicNodeBitSetTest {
+    private final AtomicNodeBitSet set = new AtomicNodeBitSet(200);
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(199)).isFalse();
+    }
+
+    @Test
+    void testAdd() {
+        assertThat(set.add(63)).isTrue();
+
+        assertThat(set.contains(63)).isTrue();
+        assertThat(set.contains(62)).isFalse();
+        assertThat(set.contains(64)).isFalse();
+    }
+
+    @Test
+    void testAddTwice() {
+        set.add(130);
+
+        assertThat(set.add(130)).isFalse();
+    }
+
+    /**
+     * Tests that exactly one of many concurrent additions of the same node succeeds.
+     */
+    @Test
+    void testAddConcurrently() {
+        final AtomicInteger successes = new AtomicInteger();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            if (set.add(i % 200)) {
+                successes.incrementAndGet();
+            }
+        });
+
+        assertThat(successes.get()).isEqualTo(200);
+    }
+}
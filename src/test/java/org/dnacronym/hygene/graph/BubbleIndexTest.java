@@ -0,0 +1,108 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link BubbleIndex}.
+ */
+final class BubbleIndexTest extends GraphTestBase {
+    @BeforeEach
+    void beforeEach() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}});
+        setSequenceLengths(new int[][] {{1, 1}, {2, 1}});
+    }
+
+
+    @Test
+    void testMismatchedBubbleArrays() {
+        final Throwable e = catchThrowable(() -> new BubbleIndex(getGraph(), new int[] {0}, new int[] {3},
+                new int[] {1}, new int[0], new int[] {0, 1, 2, 3, 4}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testIncompleteMemberOrder() {
+        final Throwable e = catchThrowable(() -> new BubbleIndex(getGraph(), new int[] {0}, new int[] {3},
+                new int[] {1}, new int[] {3}, new int[] {0, 1, 2, 3}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessageContaining("5 nodes");
+    }
+
+    @Test
+    void testEntranceOutOfBounds() {
+        final Throwable e = catchThrowable(() -> new BubbleIndex(getGraph(), new int[] {5}, new int[] {3},
+                new int[] {1}, new int[] {3}, new int[] {0, 1, 2, 3, 4}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Node 5 is out of bounds.");
+    }
+
+    @Test
+    void testMembersOutOfBounds() {
+        final Throwable e = catchThrowable(() -> new BubbleIndex(getGraph(), new int[] {0}, new int[] {3},
+                new int[] {3}, new int[] {1}, new int[] {0, 1, 2, 3, 4}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Members of bubble 0 are out of bounds.");
+    }
+
+    @Test
+    void testEntranceOfTwoBubbles() {
+        final Throwable e = catchThrowable(() -> new BubbleIndex(getGraph(), new int[] {0, 0}, new int[] {3, 4},
+                new int[] {1, 1}, new int[] {3, 4}, new int[] {0, 1, 2, 3, 4}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Node 0 is the entrance of two bubbles.");
+    }
+
+    @Test
+    void testGetBubbleByEntrance() {
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleByEntrance(0)).isEqualTo(0);
+        assertThat(index.getBubbleByEntrance(3)).isEqualTo(-1);
+    }
+
+    @Test
+    void testGetMembersReturnsCopy() {
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        index.getMembers(0)[0] = 4;
+
+        assertThat(index.getMembers(0)).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void testIsSnp() {
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.isSnp(0)).isTrue();
+    }
+
+    @Test
+    void testIsNotSnpWithLongerMember() {
+        setSequenceLengths(new int[][] {{2, 3}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.isSnp(0)).isFalse();
+    }
+
+    @Test
+    void testIsNotSnpWithDirectEdge() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 3}, {1, 2}, {2, 3}, {3, 4}});
+        setSequenceLengths(new int[][] {{1, 1}, {2, 1}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getMemberCount(0)).isEqualTo(2);
+        assertThat(index.isSnp(0)).isFalse();
+    }
+}
@@ -0,0 +1,47 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link ByteOffsetColumn}.
+ */
+final class ByteOffsetColumnTest {
+    @Test
+    void testRequiresColumn() {
+        assertThat(ByteOffsetColumn.requiresColumn(UnsignedInteger.MAX_VALUE)).isFalse();
+        assertThat(ByteOffsetColumn.requiresColumn(UnsignedInteger.MAX_VALUE + 1)).isTrue();
+    }
+
+    @Test
+    void testToLowerBitsTooLarge() {
+        final Throwable e = catchThrowable(() -> ByteOffsetColumn.toLowerBits(ByteOffsetColumn.MAX_BYTE_OFFSET + 1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRoundTrip() {
+        final long byteOffset = ByteOffsetColumn.MAX_BYTE_OFFSET - 5;
+        final ByteOffsetColumn column = new ByteOffsetColumn(3, 4);
+        column.setNodeUpperBits(1, byteOffset);
+
+        assertThat(ByteOffsetColumn.toByteOffset(ByteOffsetColumn.toLowerBits(byteOffset),
+                column.getNodeUpperBits(1))).isEqualTo(byteOffset);
+    }
+
+    @Test
+    void testEdgesDoNotOverlap() {
+        final ByteOffsetColumn column = new ByteOffsetColumn(3, 4);
+        column.setEdgeUpperBits(2, 3L << 32);
+        column.setEdgeUpperBits(3, 4L << 32);
+
+        assertThat(column.getEdgeUpperBits()).containsExactly(0, 0, 3, 4);
+        assertThat(column.getEdgeUpperBits(2)).isEqualTo(3);
+        assertThat(column.getEdgeUpperBits(3)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,277 @@
+package org.dnacronym.hygene.graph;
+
+import com.google.common.eventbus.Subscribe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.core.HygeneEventBus;
+import org.dnacronym.hygene.event.LayoutDoneEvent;
+import org.dnacronym.hygene.graph.layout.FafospLayerer;
+import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaParseException;
+import org.dnacronym.hygene.parser.ProgressUpdater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Benchmarks the latency between a {@link CenterPointQuery}, either by radius or by horizontal range, and the
+ * completion of the layout of its result, and the traversal of that result. Queries by radius are also measured on a
+ * graph with long chains, with and without compacting those chains, and queries by range are also measured when
+ * zoomed out to a fraction of the whole graph.
+ * <p>
+ * Run with {@code gradle junitPlatformTest -Pbenchmark}.
+ */
+@Tag("benchmark")
+final class CenterPointQueryBenchmarkTest {
+    private static final Logger LOGGER = LogManager.getLogger(CenterPointQueryBenchmarkTest.class);
+    private static final int BUBBLE_COUNT = 20_000;
+    private static final int CHAIN_LENGTH = 10;
+    private static final int[] RADII = {100, 300, 1000};
+    private static final int[] BASE_PAIR_RADII = {1000, 3000, 10_000};
+    private static final int[] ZOOM_OUT_DIVISORS = {100, 10, 1};
+    private static final int RUNS = 5;
+    private static final int CENTRE_OFFSET = 100;
+    private static final int TRAVERSALS = 20;
+    private static final int LAYOUT_TIMEOUT_SECONDS = 60;
+
+    private File file;
+    private volatile CountDownLatch layoutDone;
+    private volatile Subgraph layout;
+
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        file = File.createTempFile("benchmark", ".gfa");
+        writeBubbleGfa(file);
+        HygeneEventBus.getInstance().register(this);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        HygeneEventBus.getInstance().unregister(this);
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Test
+    void testQueryToLayoutLatency() throws GfaParseException, InterruptedException {
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+
+        measureQueryToLayoutLatency(graph, query, RADII, "");
+    }
+
+    @Test
+    void testBasePairQueryToLayoutLatency() throws GfaParseException, InterruptedException {
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+        query.setRadiusInBasePairs(true);
+
+        measureQueryToLayoutLatency(graph, query, BASE_PAIR_RADII, " bp");
+    }
+
+    @Test
+    void testChainQueryToLayoutLatency() throws GfaParseException, InterruptedException, IOException {
+        writeChainGfa(file);
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+
+        measureQueryToLayoutLatency(graph, query, RADII, " compacted");
+        query.setCompactChains(false);
+        measureQueryToLayoutLatency(graph, query, RADII, " uncompacted");
+    }
+
+    @Test
+    void testRangeQueryToLayoutLatency() throws GfaParseException, InterruptedException {
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+        graph.getNodeIntervals();
+
+        for (final int radius : RADII) {
+            for (int run = 0; run < RUNS; run++) {
+                final long centre = graph.getRealStartXPosition(graph.getNodeCount() / 2 + run * radius);
+                final long halfWidth = (long) radius * FafospLayerer.LAYER_WIDTH;
+
+                layoutDone = new CountDownLatch(1);
+                final long start = System.nanoTime();
+                query.queryRange(centre - halfWidth, centre + halfWidth);
+                assertThat(layoutDone.await(LAYOUT_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+                final long time = System.nanoTime() - start;
+                query.getLayoutExecutor().block();
+
+                LOGGER.info("Radius " + radius + ", run " + run + ": " + query.getCache().getNodes().size()
+                        + " nodes, range query to layout " + time / 1_000_000 + " ms");
+            }
+        }
+    }
+
+    @Test
+    void testZoomedOutRangeQueryToLayoutLatency() throws GfaParseException, InterruptedException {
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+        final long graphWidth = graph.getRealEndXPosition(graph.getNodeCount() - 1);
+
+        for (final int divisor : ZOOM_OUT_DIVISORS) {
+            for (int run = 0; run < RUNS; run++) {
+                final long width = graphWidth / divisor;
+                final long minX = (graphWidth - width) * run / RUNS;
+
+                layoutDone = new CountDownLatch(1);
+                final long start = System.nanoTime();
+                query.queryRange(minX, minX + width);
+                assertThat(layoutDone.await(LAYOUT_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+                final long time = System.nanoTime() - start;
+                query.getLayoutExecutor().block();
+
+                LOGGER.info("Width 1/" + divisor + ", run " + run + ": level " + query.getLevel() + ", "
+                        + query.getCache().getNodes().size() + " nodes, range query to layout " + time / 1_000_000
+                        + " ms");
+            }
+        }
+    }
+
+    @Test
+    void testSubgraphTraversal() throws GfaParseException, InterruptedException {
+        final Graph graph = new GfaFile(file.getAbsolutePath()).parse(ProgressUpdater.DUMMY);
+        final CenterPointQuery query = new CenterPointQuery(graph);
+
+        for (final int radius : RADII) {
+            layoutDone = new CountDownLatch(1);
+            query.query(graph.getNodeCount() / 2, radius);
+            assertThat(layoutDone.await(LAYOUT_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+            query.getLayoutExecutor().block();
+            // Layouts rewire the edges of the cached nodes, so traverse the laid out subgraph instead of the cache
+            final Subgraph subgraph = layout;
+
+            for (int run = 0; run < RUNS; run++) {
+                final long start = System.nanoTime();
+                int visited = 0;
+                for (int traversal = 0; traversal < TRAVERSALS; traversal++) {
+                    visited += subgraph.getNodesBFS(SequenceDirection.RIGHT).size();
+                    visited += subgraph.getNodesBFS(SequenceDirection.LEFT).size();
+                }
+                final long time = System.nanoTime() - start;
+
+                assertThat(visited).isEqualTo(2 * TRAVERSALS * subgraph.getNodes().size());
+                LOGGER.info("Radius " + radius + ", run " + run + ": " + subgraph.getNodes().size()
+                        + " nodes, breadth-first traversal " + time / (2 * TRAVERSALS * 1000) + " us");
+            }
+        }
+    }
+
+
+    /**
+     * Stores the laid out {@link Subgraph} and counts down the latch of the current run when a layout is done.
+     *
+     * @param event the {@link LayoutDoneEvent}
+     */
+    @Subscribe
+    public void onLayoutDone(final LayoutDoneEvent event) {
+        layout = event.getSubgraph();
+        final CountDownLatch latch = layoutDone;
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+
+    /**
+     * Measures the latency between a {@link CenterPointQuery} and the completion of the layout of its result.
+     *
+     * @param graph  the queried {@link Graph}
+     * @param query  the {@link CenterPointQuery}
+     * @param radii  the radii to query
+     * @param suffix the unit of the radii, to be logged
+     * @throws InterruptedException if the thread is interrupted while waiting for a layout
+     */
+    private void measureQueryToLayoutLatency(final Graph graph, final CenterPointQuery query, final int[] radii,
+                                             final String suffix) throws InterruptedException {
+        for (final int radius : radii) {
+            for (int run = 0; run < RUNS; run++) {
+                final int centre = graph.getNodeCount() / 2 + run * CENTRE_OFFSET;
+
+                layoutDone = new CountDownLatch(1);
+                final long start = System.nanoTime();
+                query.query(centre, radius);
+                assertThat(layoutDone.await(LAYOUT_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+                final long time = System.nanoTime() - start;
+                // The event is posted from within the layout task, so let that task finish before the next query
+                query.getLayoutExecutor().block();
+
+                LOGGER.info("Radius " + radius + suffix + ", run " + run + ": " + query.getCache().getNodes().size()
+                        + " nodes, query to layout " + time / 1_000_000 + " ms");
+            }
+        }
+    }
+
+
+    /**
+     * Writes a GFA file consisting of a chain of bubbles, alternating between SNPs and insertions.
+     *
+     * @param target the file to write to
+     * @throws IOException if the file could not be written
+     */
+    private static void writeBubbleGfa(final File target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("H\tVN:Z:1.0\n");
+            for (int i = 0; i < BUBBLE_COUNT; i++) {
+                final String anchor = "a" + i;
+                final String next = "a" + (i + 1);
+                writer.write("S\t" + anchor + "\tACGTACGTACGTACGTACGT\t*\tORI:Z:g1.fasta;g2.fasta\n");
+                writer.write("S\tb" + i + "\tA\t*\tORI:Z:g1.fasta\n");
+                writer.write("L\t" + anchor + "\t+\tb" + i + "\t+\t0M\n");
+                writer.write("L\tb" + i + "\t+\t" + next + "\t+\t0M\n");
+                if (i % 2 == 0) {
+                    writer.write("S\tc" + i + "\tC\t*\tORI:Z:g2.fasta\n");
+                    writer.write("L\t" + anchor + "\t+\tc" + i + "\t+\t0M\n");
+                    writer.write("L\tc" + i + "\t+\t" + next + "\t+\t0M\n");
+                } else {
+                    writer.write("L\t" + anchor + "\t+\t" + next + "\t+\t0M\n");
+                }
+            }
+            writer.write("S\ta" + BUBBLE_COUNT + "\tACGT\t*\tORI:Z:g1.fasta;g2.fasta\n");
+        }
+    }
+
+    /**
+     * Writes a GFA file consisting of a chain of SNPs, separated by chains of {@value CHAIN_LENGTH} segments.
+     *
+     * @param target the file to write to
+     * @throws IOException if the file could not be written
+     */
+    private static void writeChainGfa(final File target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("H\tVN:Z:1.0\n");
+            for (int i = 0; i < BUBBLE_COUNT; i++) {
+                for (int j = 0; j < CHAIN_LENGTH; j++) {
+                    writer.write("S\ta" + i + "_" + j + "\tACGTACGTAC\t*\tORI:Z:g1.fasta;g2.fasta\n");
+                    if (j > 0) {
+                        writer.write("L\ta" + i + "_" + (j - 1) + "\t+\ta" + i + "_" + j + "\t+\t0M\n");
+                    }
+                }
+
+                final String last = "a" + i + "_" + (CHAIN_LENGTH - 1);
+                final String next = "a" + (i + 1) + "_0";
+                writer.write("S\tb" + i + "\tA\t*\tORI:Z:g1.fasta\n");
+                writer.write("S\tc" + i + "\tC\t*\tORI:Z:g2.fasta\n");
+                writer.write("L\t" + last + "\t+\tb" + i + "\t+\t0M\n");
+                writer.write("L\t" + last + "\t+\tc" + i + "\t+\t0M\n");
+                writer.write("L\tb" + i + "\t+\t" + next + "\t+\t0M\n");
+                writer.write("L\tc" + i + "\t+\t" + next + "\t+\t0M\n");
+            }
+            writer.write("S\ta" + BUBBLE_COUNT + "_0\tACGT\t*\tORI:Z:g1.fasta;g2.fasta\n");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.dnacronym.hygene.graph;
 
+import org.dnacronym.hygene.graph.node.ChainSegment;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.GfaParseException;
@@ -68,6 +69,7 @@ final class CenterPointQueryTest {
 
     @Test
     void testQuery() {
+        centerPointQuery.setCompactChains(false);
         centerPointQuery.query(1, 1);
 
         final Subgraph subgraph = centerPointQuery.getCache();
@@ -121,4 +123,104 @@ final class CenterPointQueryTest {
 
         assertThat(centerPointQuery.getRadius()).isEqualTo(3);
     }
+
+    @Test
+    void testQueryRange() {
+        centerPointQuery.queryRange(graph.getRealStartXPosition(1), graph.getRealEndXPosition(1) - 1);
+
+        final Subgraph subgraph = centerPointQuery.getCache();
+
+        assertThat(subgraph.getNodes()).hasSize(1);
+        assertThat(subgraph.getSegment(1)).isPresent();
+    }
+
+    @Test
+    void testQueryRangeIncludesCrossingEdges() {
+        centerPointQuery.setCompactChains(false);
+        centerPointQuery.queryRange(graph.getRealEndXPosition(1) + 1, graph.getRealStartXPosition(2) - 1);
+
+        final Subgraph subgraph = centerPointQuery.getCache();
+
+        assertThat(subgraph.getNodes()).hasSize(2);
+        assertThat(subgraph.getSegment(1).get().getOutgoingEdges()).hasSize(1);
+    }
+
+    @Test
+    void testQueryRangeMinimumExceedsMaximum() {
+        final Throwable exception = catchThrowable(() -> centerPointQuery.queryRange(1, 0));
+
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        assertThat(exception).hasMessageContaining("Minimum x position cannot exceed maximum x position.");
+    }
+
+    @Test
+    void testSetCenterAfterQueryRange() {
+        centerPointQuery.queryRange(0, 0);
+        centerPointQuery.setCenter(2);
+
+        assertThat(centerPointQuery.getCache().getSegment(2)).isPresent();
+    }
+
+    @Test
+    void testQueryInBasePairs() {
+        centerPointQuery.setCompactChains(false);
+        centerPointQuery.setRadiusInBasePairs(true);
+        centerPointQuery.query(1, 0);
+
+        final Subgraph subgraph = centerPointQuery.getCache();
+
+        assertThat(subgraph.getNodes()).hasSize(2);
+        assertThat(subgraph.getSegment(1).get().getOutgoingEdges()).hasSize(1);
+    }
+
+    @Test
+    void testSetRadiusInBasePairs() {
+        centerPointQuery.setRadiusInBasePairs(true);
+        centerPointQuery.query(1, 0);
+        centerPointQuery.setRadius(100);
+
+        assertThat(centerPointQuery.getRadius()).isEqualTo(100);
+        assertThat(centerPointQuery.isRadiusInBasePairs()).isTrue();
+    }
+
+    @Test
+    void testSetCenterInBasePairs() {
+        centerPointQuery.query(1, 0);
+        centerPointQuery.setRadiusInBasePairs(true);
+        centerPointQuery.setCenter(2);
+
+        assertThat(centerPointQuery.getCache().getSegment(1)).isPresent();
+        assertThat(centerPointQuery.getCache().getSegment(2)).isPresent();
+    }
+
+    @Test
+    void testQueryCompactsChains() {
+        centerPointQuery.query(1, 0);
+
+        final Subgraph subgraph = centerPointQuery.getCache();
+
+        assertThat(subgraph.getNodes()).hasSize(1);
+        assertThat(subgraph.getNodes().iterator().next()).isInstanceOf(ChainSegment.class);
+        assertThat(subgraph.getGfaNode(1).get().getSegmentIds()).containsExactly(1, 2);
+    }
+
+    @Test
+    void testQueryRangeCompactsChains() {
+        centerPointQuery.queryRange(graph.getRealStartXPosition(2), graph.getRealStartXPosition(2));
+
+        final Subgraph subgraph = centerPointQuery.getCache();
+
+        assertThat(subgraph.getNodes()).hasSize(1);
+        assertThat(subgraph.getGfaNode(2).get().getSegmentIds()).containsExactly(1, 2);
+    }
+
+    @Test
+    void testSetCompactChains() {
+        centerPointQuery.query(1, 0);
+        centerPointQuery.setCompactChains(false);
+        centerPointQuery.setCenter(1);
+
+        assertThat(centerPointQuery.isCompactChains()).isFalse();
+        assertThat(centerPointQuery.getCache().getGfaNode(1).get()).isInstanceOf(Segment.class);
+    }
 }
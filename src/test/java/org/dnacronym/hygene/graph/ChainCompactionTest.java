@@ -0,0 +1,174 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link ChainCompaction}.
+ */
+final class ChainCompactionTest extends GraphTestBase {
+    @Test
+    void testCompactLinearChain() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getNodeCount()).isEqualTo(3);
+        assertThat(getMembers(compaction, 0)).containsExactly(0);
+        assertThat(getMembers(compaction, 1)).containsExactly(1, 2, 3);
+        assertThat(getMembers(compaction, 2)).containsExactly(4);
+    }
+
+    @Test
+    void testCompactedIds() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertForEachNode(new int[] {0, 1, 1, 1, 2}, compaction::getCompactedId);
+    }
+
+    @Test
+    void testBubbleIsNotCompacted() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 5}, {5, 6}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getNodeCount()).isEqualTo(6);
+        assertForEachNode(new int[] {0, 1, 2, 3, 4, 4, 5}, compaction::getCompactedId);
+        assertThat(getMembers(compaction, 4)).containsExactly(4, 5);
+    }
+
+    @Test
+    void testCompactedEdges() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 5}, {5, 6}});
+        final Graph compactedGraph = new ChainCompaction(getGraph()).getCompactedGraph();
+
+        assertThat(getNeighbours(compactedGraph, 1, SequenceDirection.RIGHT)).containsExactly(2, 3);
+        assertThat(getNeighbours(compactedGraph, 4, SequenceDirection.LEFT)).containsExactly(2, 3);
+        assertThat(getNeighbours(compactedGraph, 4, SequenceDirection.RIGHT)).containsExactly(5);
+        assertThat(getNeighbours(compactedGraph, 5, SequenceDirection.LEFT)).containsExactly(4);
+    }
+
+    @Test
+    void testSentinelsAreNotCompacted() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getNodeCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testSequenceLengthIsSummed() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+        setSequenceLengths(new int[][] {{1, 10}, {2, 20}, {3, 30}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getSequenceLength(1)).isEqualTo(60);
+    }
+
+    @Test
+    void testPositionIsTakenFromFirstMember() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+        for (int id = 0; id < 5; id++) {
+            getGraph().setUnscaledXPosition(id, 2 * id);
+        }
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getUnscaledXPosition(1)).isEqualTo(2);
+        assertThat(compaction.getCompactedGraph().getUnscaledXPosition(2)).isEqualTo(8);
+    }
+
+    @Test
+    void testCompactCycle() {
+        createGraph(4);
+        addEdges(new int[][] {{1, 2}, {2, 1}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        assertThat(compaction.getCompactedGraph().getNodeCount()).isEqualTo(3);
+        assertThat(getMembers(compaction, 1)).containsExactly(1, 2);
+        assertThat(getNeighbours(compaction.getCompactedGraph(), 1, SequenceDirection.RIGHT)).containsExactly(1);
+    }
+
+    @Test
+    void testRestoreFromMembers() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 5}, {5, 6}});
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        final ChainCompaction restored = new ChainCompaction(getGraph(), compaction.getMemberOffsets(),
+                compaction.getMembers());
+
+        assertForEachNode(new int[] {0, 1, 2, 3, 4, 4, 5}, restored::getCompactedId);
+        assertThat(getMembers(restored, 4)).containsExactly(4, 5);
+        assertThat(getNeighbours(restored.getCompactedGraph(), 1, SequenceDirection.RIGHT)).containsExactly(2, 3);
+    }
+
+    @Test
+    void testRestoreWithDuplicateMember() {
+        createGraph(3);
+
+        final Throwable exception = catchThrowable(() ->
+                new ChainCompaction(getGraph(), new int[] {0, 1, 3}, new int[] {0, 1, 1}));
+
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        assertThat(exception).hasMessageContaining("Node 1 is not a member of exactly one chain.");
+    }
+
+    @Test
+    void testRestoreWithEmptyChain() {
+        createGraph(3);
+
+        final Throwable exception = catchThrowable(() ->
+                new ChainCompaction(getGraph(), new int[] {0, 2, 2, 3}, new int[] {0, 1, 2}));
+
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        assertThat(exception).hasMessageContaining("Chain 1 has no members.");
+    }
+
+    @Test
+    void testRestoreWithTooFewMembers() {
+        createGraph(3);
+
+        final Throwable exception = catchThrowable(() ->
+                new ChainCompaction(getGraph(), new int[] {0, 2}, new int[] {0, 1}));
+
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetMemberOutOfBounds() {
+        createGraph(3);
+        final ChainCompaction compaction = new ChainCompaction(getGraph());
+
+        final Throwable exception = catchThrowable(() -> compaction.getMember(1, 1));
+
+        assertThat(exception).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(exception).hasMessageContaining("Member index 1 is out of bounds.");
+    }
+
+
+    private static List<Integer> getMembers(final ChainCompaction compaction, final int compactedId) {
+        final List<Integer> members = new ArrayList<>();
+        for (int i = 0; i < compaction.getMemberCount(compactedId); i++) {
+            members.add(compaction.getMember(compactedId, i));
+        }
+        return members;
+    }
+
+    private static List<Integer> getNeighbours(final Graph graph, final int id, final SequenceDirection direction) {
+        final List<Integer> neighbours = new ArrayList<>();
+        new GraphIterator(graph).visitDirectNeighbours(id, direction, neighbours::add);
+        return neighbours;
+    }
+}
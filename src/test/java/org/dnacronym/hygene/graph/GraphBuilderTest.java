@@ -0,0 +1,78 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GraphBuilder}.
+ */
+final class GraphBuilderTest {
+    @Test
+    void testBuildNodeArrays() {
+        final GraphBuilder builder = new GraphBuilder(new int[] {1, 1, 0}, new int[] {0, 1, 1});
+        builder.setSegment(1, 12, 5);
+        builder.addEdge(0, 1, 3);
+        builder.addEdge(1, 2, 20);
+
+        final Graph graph = builder.build(null);
+
+        assertThat(graph.getNodeArrays()).isEqualTo(new int[][] {
+                {0, 0, -1, 1, 1, UnsignedInteger.fromLong(3)},
+                {UnsignedInteger.fromLong(12), 5, -1, 1,
+                        2, UnsignedInteger.fromLong(20), 0, UnsignedInteger.fromLong(3)},
+                {0, 0, -1, 0, 1, UnsignedInteger.fromLong(20)}});
+    }
+
+    @Test
+    void testEdgesRetainOrder() {
+        final GraphBuilder builder = new GraphBuilder(new int[] {2, 0, 0}, new int[] {0, 1, 1});
+        builder.addEdge(0, 2, 0);
+        builder.addEdge(0, 1, 0);
+
+        final Graph graph = builder.build(null);
+
+        final int start = graph.getEdgeStart(0, SequenceDirection.RIGHT);
+        assertThat(graph.getNeighbour(start)).isEqualTo(2);
+        assertThat(graph.getNeighbour(start + 1)).isEqualTo(1);
+    }
+
+    @Test
+    void testNoColumnForSmallOffsets() {
+        final GraphBuilder builder = new GraphBuilder(new int[] {1, 0}, new int[] {0, 1});
+        builder.setSegment(1, UnsignedInteger.MAX_VALUE, 5);
+        builder.addEdge(0, 1, UnsignedInteger.MAX_VALUE);
+
+        assertThat(builder.build(null).getByteOffsetColumn()).isNull();
+    }
+
+    @Test
+    void testColumnForLargeOffsets() {
+        final long byteOffset = 5_000_000_000L;
+        final GraphBuilder builder = new GraphBuilder(new int[] {1, 0}, new int[] {0, 1});
+        builder.setSegment(0, 42, 5);
+        builder.setSegment(1, byteOffset, 5);
+        builder.addEdge(0, 1, byteOffset + 1);
+
+        final Graph graph = builder.build(null);
+
+        assertThat(graph.getByteOffset(0)).isEqualTo(42);
+        assertThat(graph.getByteOffset(1)).isEqualTo(byteOffset);
+        assertThat(graph.getEdgeByteOffset(0, 0)).isEqualTo(byteOffset + 1);
+        assertThat(graph.getEdgeByteOffset(1, 0)).isEqualTo(byteOffset + 1);
+    }
+
+    @Test
+    void testTooManyEdges() {
+        final GraphBuilder builder = new GraphBuilder(new int[] {1, 0}, new int[] {0, 1});
+        builder.addEdge(0, 1, 0);
+
+        final Throwable e = catchThrowable(() -> builder.addEdge(0, 1, 0));
+
+        assertThat(e).isInstanceOf(IllegalStateException.class);
+        assertThat(e).hasMessageContaining("exceeds the number of edges");
+    }
+}
@@ -0,0 +1,367 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GraphHierarchy}.
+ */
+final class GraphHierarchyTest extends GraphTestBase {
+    private static final int BUBBLE_COUNT = 1000;
+
+
+    @Test
+    void testLevelZeroIsGraph() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}});
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        assertThat(hierarchy.getGraph(0)).isSameAs(getGraph());
+        assertThat(hierarchy.getLevelId(0, 1)).isEqualTo(1);
+        assertThat(hierarchy.getMemberCount(0, 1)).isEqualTo(1);
+        assertThat(hierarchy.getFirstMember(0, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void testSmallGraphOnlyHasChainLevel() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        assertThat(hierarchy.getLevelCount()).isEqualTo(2);
+        assertThat(hierarchy.getGraph(1).getNodeCount()).isEqualTo(3);
+        assertThat(getMembers(hierarchy, 1, 1)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void testLevelOutOfBounds() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}});
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        final Throwable e = catchThrowable(() -> hierarchy.getGraph(2));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testCoarsenBubbles() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        assertThat(hierarchy.getLevelCount()).isGreaterThan(2);
+        for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+            assertThat(hierarchy.getGraph(level).getNodeCount())
+                    .isLessThan(hierarchy.getGraph(level - 1).getNodeCount());
+        }
+        final int coarsestLevel = hierarchy.getLevelCount() - 1;
+        assertThat(hierarchy.getGraph(coarsestLevel).getNodeCount()).isLessThanOrEqualTo(
+                GraphHierarchy.TARGET_NODE_COUNT);
+    }
+
+    @Test
+    void testMergeBubbleMembers() {
+        createBubbleGraph();
+        getGraph().setBubbleIndex(new SuperbubbleDetector(getGraph()).detect());
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        for (int bubble = 0; bubble < BUBBLE_COUNT; bubble++) {
+            final int start = 3 * bubble + 1;
+            final int levelId = hierarchy.getLevelId(2, start + 1);
+
+            assertThat(hierarchy.getLevelId(2, start + 2)).isEqualTo(levelId);
+            assertThat(hierarchy.getMemberCount(2, levelId)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testMergeBubbleMembersKeepsGraphsAcyclic() {
+        createBubbleGraph();
+        getGraph().setBubbleIndex(new SuperbubbleDetector(getGraph()).detect());
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        assertThat(hierarchy.getLevelCount()).isGreaterThan(2);
+        for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+            final Graph coarseGraph = hierarchy.getGraph(level);
+            final TopologicalOrder order = new TopologicalSorter(coarseGraph).sort();
+
+            for (int id = 0; id < coarseGraph.getNodeCount(); id++) {
+                final int from = id;
+                new GraphIterator(coarseGraph).visitDirectNeighbours(id, SequenceDirection.RIGHT,
+                        neighbour -> assertThat(order.getRank(neighbour)).isGreaterThan(order.getRank(from)));
+            }
+        }
+    }
+
+    @Test
+    void testMembersPartitionGraph() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        for (int level = 0; level < hierarchy.getLevelCount(); level++) {
+            final int[] memberCounts = new int[getGraph().getNodeCount()];
+            for (int levelId = 0; levelId < hierarchy.getGraph(level).getNodeCount(); levelId++) {
+                final List<Integer> members = getMembers(hierarchy, level, levelId);
+
+                assertThat(members).hasSize(hierarchy.getMemberCount(level, levelId));
+                assertThat(members.get(0)).isEqualTo(hierarchy.getFirstMember(level, levelId));
+                for (final int member : members) {
+                    assertThat(hierarchy.getLevelId(level, member)).isEqualTo(levelId);
+                    memberCounts[member]++;
+                }
+            }
+            assertThat(memberCounts).containsOnly(1);
+        }
+    }
+
+    @Test
+    void testSentinelsStaySeparate() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        for (int level = 0; level < hierarchy.getLevelCount(); level++) {
+            final int sink = hierarchy.getGraph(level).getNodeCount() - 1;
+
+            assertThat(getMembers(hierarchy, level, 0)).containsExactly(0);
+            assertThat(getMembers(hierarchy, level, sink)).containsExactly(getGraph().getNodeCount() - 1);
+        }
+    }
+
+    @Test
+    void testCoarseGraphsAreAcyclic() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        for (int level = 1; level < hierarchy.getLevelCount(); level++) {
+            final Graph coarseGraph = hierarchy.getGraph(level);
+            final TopologicalOrder order = new TopologicalSorter(coarseGraph).sort();
+
+            for (int id = 0; id < coarseGraph.getNodeCount(); id++) {
+                final int from = id;
+                new GraphIterator(coarseGraph).visitDirectNeighbours(id, SequenceDirection.RIGHT,
+                        neighbour -> assertThat(order.getRank(neighbour)).isGreaterThan(order.getRank(from)));
+            }
+        }
+    }
+
+    @Test
+    void testCoarseNodesStartAtTheirLeftmostMember() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final int coarsestLevel = hierarchy.getLevelCount() - 1;
+        final Graph coarseGraph = hierarchy.getGraph(coarsestLevel);
+
+        for (int levelId = 0; levelId < coarseGraph.getNodeCount(); levelId++) {
+            final int minPosition = getMembers(hierarchy, coarsestLevel, levelId).stream()
+                    .mapToInt(getGraph()::getUnscaledXPosition)
+                    .min()
+                    .getAsInt();
+
+            assertThat(coarseGraph.getUnscaledXPosition(levelId)).isEqualTo(minPosition);
+        }
+    }
+
+    @Test
+    void testCoarseNodesEndAtTheirRightmostMember() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        for (int level = 1; level < hierarchy.getLevelCount(); level++) {
+            for (int levelId = 0; levelId < hierarchy.getGraph(level).getNodeCount(); levelId++) {
+                final long maxEnd = getMembers(hierarchy, level, levelId).stream()
+                        .mapToLong(getGraph()::getRealEndXPosition)
+                        .max()
+                        .getAsLong();
+
+                assertThat(hierarchy.getEndXPosition(level, levelId)).isEqualTo(maxEnd);
+            }
+        }
+    }
+
+    @Test
+    void testNodeIntervalsOfLevel() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final int coarsestLevel = hierarchy.getLevelCount() - 1;
+        final int levelId = hierarchy.getLevelId(coarsestLevel, 301);
+        final long start = getGraph().getRealStartXPosition(301);
+        final long end = getGraph().getRealEndXPosition(301) - 1;
+
+        final List<Integer> visited = new ArrayList<>();
+        hierarchy.getNodeIntervals(coarsestLevel).visitNodes(start, end, visited::add);
+
+        assertThat(visited).containsExactly(levelId);
+        assertThat(hierarchy.getNodeIntervals(coarsestLevel).size())
+                .isEqualTo(hierarchy.getGraph(coarsestLevel).getNodeCount());
+        assertThat(hierarchy.getNodeIntervals(0)).isSameAs(getGraph().getNodeIntervals());
+    }
+
+    @Test
+    void testRestoreFromLevels() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        final GraphHierarchy restored = new GraphHierarchy(getGraph(), getParentIds(hierarchy), getChildren(hierarchy));
+
+        assertThat(restored.getLevelCount()).isEqualTo(hierarchy.getLevelCount());
+        for (int level = 1; level < hierarchy.getLevelCount(); level++) {
+            final Graph graph = hierarchy.getGraph(level);
+            final Graph restoredGraph = restored.getGraph(level);
+            assertThat(restoredGraph.getNodeCount()).isEqualTo(graph.getNodeCount());
+            for (int levelId = 0; levelId < graph.getNodeCount(); levelId++) {
+                assertThat(restoredGraph.getUnscaledXPosition(levelId)).isEqualTo(graph.getUnscaledXPosition(levelId));
+                assertThat(restoredGraph.getNeighbourCount(levelId, SequenceDirection.RIGHT))
+                        .isEqualTo(graph.getNeighbourCount(levelId, SequenceDirection.RIGHT));
+                assertThat(restored.getMemberCount(level, levelId)).isEqualTo(hierarchy.getMemberCount(level, levelId));
+                assertThat(restored.getEndXPosition(level, levelId))
+                        .isEqualTo(hierarchy.getEndXPosition(level, levelId));
+            }
+        }
+        assertThat(getMembers(restored, restored.getLevelCount() - 1, 1))
+                .isEqualTo(getMembers(hierarchy, hierarchy.getLevelCount() - 1, 1));
+    }
+
+    @Test
+    void testRestoreWithoutCoarseLevels() {
+        createBubbleGraph();
+
+        final GraphHierarchy restored = new GraphHierarchy(getGraph(), new int[0][], new int[0][]);
+
+        assertThat(restored.getLevelCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testRestoreWithDuplicateChild() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final int[][] children = getChildren(hierarchy);
+        children[0][2] = children[0][1];
+
+        final Throwable e = catchThrowable(() -> new GraphHierarchy(getGraph(), getParentIds(hierarchy), children));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRestoreWithChildlessNode() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final int[][] parentIds = getParentIds(hierarchy);
+        parentIds[0][parentIds[0].length - 1]++;
+
+        final Throwable e = catchThrowable(() -> new GraphHierarchy(getGraph(), parentIds, getChildren(hierarchy)));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessageContaining("has no children");
+    }
+
+    @Test
+    void testRestoreWithTooFewParentIds() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final int[][] parentIds = getParentIds(hierarchy);
+        parentIds[0] = new int[1];
+
+        final Throwable e = catchThrowable(() -> new GraphHierarchy(getGraph(), parentIds, getChildren(hierarchy)));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetLevelForNarrowRange() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+
+        assertThat(hierarchy.getLevel(1, CenterPointQuery.MAX_RANGE_NODE_COUNT)).isZero();
+    }
+
+    @Test
+    void testGetLevelForWholeGraph() {
+        createBubbleGraph();
+        final GraphHierarchy hierarchy = new GraphHierarchy(getGraph());
+        final long graphWidth = getGraph().getRealEndXPosition(getGraph().getNodeCount() - 1);
+
+        final int level = hierarchy.getLevel(graphWidth, CenterPointQuery.MAX_RANGE_NODE_COUNT);
+
+        assertThat(hierarchy.getGraph(level).getNodeCount()).isLessThanOrEqualTo(
+                CenterPointQuery.MAX_RANGE_NODE_COUNT);
+        assertThat(hierarchy.getGraph(level - 1).getNodeCount()).isGreaterThan(
+                CenterPointQuery.MAX_RANGE_NODE_COUNT);
+    }
+
+
+    /**
+     * Creates a graph of {@value #BUBBLE_COUNT} consecutive bubbles between the sentinels, in which each node is
+     * placed one column to the right of its left neighbours.
+     */
+    private void createBubbleGraph() {
+        final int nodeCount = 3 * BUBBLE_COUNT + 3;
+        createGraph(nodeCount);
+
+        final int[][] edges = new int[4 * BUBBLE_COUNT + 2][];
+        edges[0] = new int[] {0, 1};
+        for (int bubble = 0; bubble < BUBBLE_COUNT; bubble++) {
+            final int start = 3 * bubble + 1;
+            edges[4 * bubble + 1] = new int[] {start, start + 1};
+            edges[4 * bubble + 2] = new int[] {start, start + 2};
+            edges[4 * bubble + 3] = new int[] {start + 1, start + 3};
+            edges[4 * bubble + 4] = new int[] {start + 2, start + 3};
+        }
+        edges[4 * BUBBLE_COUNT + 1] = new int[] {nodeCount - 2, nodeCount - 1};
+        addEdges(edges);
+
+        // The start of each bubble is in an odd column and its branches are in the even column after it
+        for (int id = 1; id < nodeCount; id++) {
+            getGraph().setUnscaledXPosition(id, id % 3 == 1 ? 2 * (id / 3) + 1 : 2 * ((id - 2) / 3) + 2);
+        }
+        getGraph().setUnscaledXPosition(0, 0);
+    }
+
+    /**
+     * Returns copies of the parent ids of the levels of the given hierarchy from level 2 onwards.
+     *
+     * @param hierarchy a {@link GraphHierarchy}
+     * @return copies of the parent ids of the levels of the given hierarchy from level 2 onwards
+     */
+    private static int[][] getParentIds(final GraphHierarchy hierarchy) {
+        final int[][] parentIds = new int[hierarchy.getLevelCount() - 2][];
+        for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+            parentIds[level - 2] = hierarchy.getParentIds(level).clone();
+        }
+        return parentIds;
+    }
+
+    /**
+     * Returns copies of the children of the levels of the given hierarchy from level 2 onwards.
+     *
+     * @param hierarchy a {@link GraphHierarchy}
+     * @return copies of the children of the levels of the given hierarchy from level 2 onwards
+     */
+    private static int[][] getChildren(final GraphHierarchy hierarchy) {
+        final int[][] children = new int[hierarchy.getLevelCount() - 2][];
+        for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+            children[level - 2] = hierarchy.getChildren(level).clone();
+        }
+        return children;
+    }
+
+    /**
+     * Returns the members of the given node at the given level.
+     *
+     * @param hierarchy a {@link GraphHierarchy}
+     * @param level     a level
+     * @param levelId   the id of a node at the given level
+     * @return the members of the given node at the given level
+     */
+    private static List<Integer> getMembers(final GraphHierarchy hierarchy, final int level, final int levelId) {
+        final List<Integer> members = new ArrayList<>();
+        hierarchy.visitMembers(level, levelId, members::add);
+        return members;
+    }
+}
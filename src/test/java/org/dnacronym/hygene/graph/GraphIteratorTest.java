@@ -3,8 +3,12 @@ package org.dnacronym.hygene.graph;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -13,7 +17,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Unit tests for {@link GraphIterator}.
  */
 final class GraphIteratorTest extends GraphTestBase {
-    private final Consumer<Integer> dummyConsumer = ignored -> {
+    private final IntConsumer dummyConsumer = ignored -> {
     };
 
 
@@ -267,6 +271,44 @@ final class GraphIteratorTest extends GraphTestBase {
         assertThat(neighbours).containsExactlyInAnyOrder(2, 3, 4, 5);
     }
 
+    /**
+     * Tests that the pooled visited set is cleared between traversals.
+     */
+    @Test
+    void testVisitAllNeighboursRepeatedly() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}});
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> first = new ArrayList<>();
+        iterator.visitIndirectNeighbours(0, SequenceDirection.RIGHT, first::add);
+        final List<Integer> second = new ArrayList<>();
+        iterator.visitIndirectNeighbours(1, SequenceDirection.RIGHT, second::add);
+
+        assertThat(first).containsExactly(0, 1, 2, 3);
+        assertThat(second).containsExactly(1, 2, 3);
+    }
+
+    /**
+     * Tests that a traversal can be started from the action of another traversal of the same iterator.
+     */
+    @Test
+    void testVisitAllNeighboursNested() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}});
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> outer = new ArrayList<>();
+        final List<Integer> inner = new ArrayList<>();
+        iterator.visitIndirectNeighbours(0, SequenceDirection.RIGHT, node -> {
+            outer.add(node);
+            iterator.visitIndirectNeighbours(node, SequenceDirection.LEFT, inner::add);
+        });
+
+        assertThat(outer).containsExactly(0, 1, 2, 3);
+        assertThat(inner).containsExactly(0, 1, 0, 2, 1, 0, 3, 2, 1, 0);
+    }
+
 
     /*
      * visitIndirectNeighboursWithinRange
@@ -328,6 +370,83 @@ final class GraphIteratorTest extends GraphTestBase {
     }
 
 
+    /*
+     * visitIndirectNeighboursWithinDistance
+     */
+
+    @Test
+    void testVisitNeighboursWithinDistanceExcludesDistantNodes() {
+        createDistanceGraph();
+
+        final Map<Integer, Integer> distances = new HashMap<>();
+        new GraphIterator(getGraph()).visitIndirectNeighboursWithinDistance(1, 50, (distance, node) ->
+                distances.put(node, distance));
+
+        assertThat(distances).containsOnlyKeys(0, 1, 2, 4);
+        assertThat(distances).containsEntry(1, 0).containsEntry(0, 0).containsEntry(2, 0).containsEntry(4, 5);
+    }
+
+    @Test
+    void testVisitNeighboursWithinDistanceUsesShortestPath() {
+        createDistanceGraph();
+
+        final Map<Integer, Integer> distances = new HashMap<>();
+        new GraphIterator(getGraph()).visitIndirectNeighboursWithinDistance(1, 100, (distance, node) ->
+                distances.put(node, distance));
+
+        assertThat(distances).containsOnlyKeys(0, 1, 2, 3, 4);
+        assertThat(distances).containsEntry(3, 100);
+    }
+
+    @Test
+    void testVisitNeighboursWithinDistanceInOrderOfDistance() {
+        createDistanceGraph();
+
+        final List<Integer> distances = new ArrayList<>();
+        new GraphIterator(getGraph()).visitIndirectNeighboursWithinDistance(1, 1000, (distance, node) ->
+                distances.add(distance));
+
+        assertThat(distances).isSorted().hasSize(5);
+    }
+
+    @Test
+    void testVisitNeighboursWithinDistanceZero() {
+        createDistanceGraph();
+
+        final List<Integer> nodes = new ArrayList<>();
+        new GraphIterator(getGraph()).visitIndirectNeighboursWithinDistance(2, 0, (distance, node) ->
+                nodes.add(node));
+
+        assertThat(nodes).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    void testVisitNeighboursWithinDistanceRepeatedly() {
+        createDistanceGraph();
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> first = new ArrayList<>();
+        iterator.visitIndirectNeighboursWithinDistance(1, 50, (distance, node) -> first.add(node));
+        final List<Integer> second = new ArrayList<>();
+        iterator.visitIndirectNeighboursWithinDistance(1, 50, (distance, node) -> second.add(node));
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void testVisitNeighboursWithinDistanceNested() {
+        createDistanceGraph();
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final Map<Integer, Integer> counts = new HashMap<>();
+        iterator.visitIndirectNeighboursWithinDistance(1, 50, (distance, node) ->
+                iterator.visitIndirectNeighboursWithinDistance(node, 0, (innerDistance, innerNode) ->
+                        counts.merge(node, 1, Integer::sum)));
+
+        assertThat(counts).containsOnlyKeys(0, 1, 2, 4);
+    }
+
+
     /*
      * visitAll
      */
@@ -355,6 +474,59 @@ final class GraphIteratorTest extends GraphTestBase {
     }
 
 
+    /*
+     * visitAllInParallel
+     */
+
+    @Test
+    void testVisitAllInParallelLeft() {
+        createGraph(8);
+        addEdges(new int[][] {{0, 2}, {1, 2}, {2, 3}, {2, 4}, {2, 5}, {3, 5}, {3, 7}, {4, 7}});
+
+        final List<Integer> nodes = Collections.synchronizedList(new ArrayList<>());
+        new GraphIterator(getGraph()).visitAllInParallel(SequenceDirection.LEFT, nodes::add);
+
+        assertThat(nodes).containsExactlyInAnyOrder(7, 4, 3, 2, 1, 0);
+    }
+
+    /**
+     * Tests that every node is visited exactly once when a frontier spans several chunks.
+     */
+    @Test
+    void testVisitAllInParallelWideFrontier() {
+        final int width = 3 * FrontierExpansion.CHUNK_SIZE;
+        createGraph(width + 2);
+        final int[][] edges = new int[2 * width][];
+        for (int i = 1; i <= width; i++) {
+            edges[2 * i - 2] = new int[] {0, i};
+            edges[2 * i - 1] = new int[] {i, width + 1};
+        }
+        addEdges(edges);
+
+        final AtomicIntegerArray visitCounts = new AtomicIntegerArray(width + 2);
+        new GraphIterator(getGraph()).visitAllInParallel(SequenceDirection.RIGHT, visitCounts::incrementAndGet);
+
+        for (int i = 0; i < width + 2; i++) {
+            assertThat(visitCounts.get(i)).isEqualTo(1);
+        }
+    }
+
+    /**
+     * Tests that the parallel search visits the nodes level by level.
+     */
+    @Test
+    void testVisitAllInParallelLevelOrder() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}});
+
+        final List<Integer> nodes = Collections.synchronizedList(new ArrayList<>());
+        new GraphIterator(getGraph()).visitAllInParallel(SequenceDirection.RIGHT, nodes::add);
+
+        assertThat(nodes.get(0)).isEqualTo(0);
+        assertThat(nodes.subList(1, 3)).containsExactlyInAnyOrder(1, 2);
+        assertThat(nodes.subList(3, 5)).containsExactly(3, 4);
+    }
+
     /*
      * visitAllWithinRange
      */
@@ -423,4 +595,14 @@ final class GraphIteratorTest extends GraphTestBase {
 
         assertThat(depths).containsExactly(0, 1, 1, 2, 3);
     }
+
+
+    /**
+     * Creates a graph in which the path {@code 0 -> 1 -> 2 -> 3} has a long alternative {@code 0 -> 4 -> 3}.
+     */
+    private void createDistanceGraph() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {0, 4}, {4, 3}});
+        setSequenceLengths(new int[][] {{0, 5}, {1, 10}, {2, 100}, {3, 10}, {4, 1000}});
+    }
 }
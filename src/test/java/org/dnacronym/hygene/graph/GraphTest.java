@@ -1,8 +1,10 @@
 package org.dnacronym.hygene.graph;
 
+import org.dnacronym.hygene.core.UnsignedInteger;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 
 /**
@@ -16,6 +18,57 @@ final class GraphTest {
         assertThat(graph.getByteOffset(0)).isEqualTo(3);
     }
 
+    @Test
+    void testGetByteOffsetWithColumn() {
+        final int[][] nodeArrays = {NodeBuilder.start().withByteOffset(3).create().toArray()};
+        final ByteOffsetColumn column = new ByteOffsetColumn(1, 0);
+        column.setNodeUpperBits(0, 0x1200000003L);
+        final Graph graph = new Graph(nodeArrays, column, null);
+
+        assertThat(graph.getByteOffset(0)).isEqualTo(0x1200000003L);
+    }
+
+    @Test
+    void testGetEdgeByteOffset() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start()
+                .withOutgoingEdge(43, UnsignedInteger.fromLong(7))
+                .withIncomingEdge(47, UnsignedInteger.fromLong(9))
+                .toArray());
+
+        assertThat(graph.getEdgeByteOffset(0, 0)).isEqualTo(7);
+        assertThat(graph.getEdgeByteOffset(0, 1)).isEqualTo(9);
+    }
+
+    @Test
+    void testGetEdgeByteOffsetOfSecondNodeWithColumn() {
+        final int[][] nodeArrays = {
+                NodeBuilder.start().withOutgoingEdge(1, UnsignedInteger.fromLong(7)).toArray(),
+                NodeBuilder.start().withIncomingEdge(0, UnsignedInteger.fromLong(7)).toArray()};
+        final ByteOffsetColumn column = new ByteOffsetColumn(2, 2);
+        column.setEdgeUpperBits(1, 0x1200000007L);
+        final Graph graph = new Graph(nodeArrays, column, null);
+
+        assertThat(graph.getEdgeByteOffset(0, 0)).isEqualTo(7);
+        assertThat(graph.getEdgeByteOffset(1, 0)).isEqualTo(0x1200000007L);
+    }
+
+    @Test
+    void testWrongNumberOfEdgesInColumn() {
+        final int[][] nodeArrays = {NodeBuilder.start().withOutgoingEdge(0, 0).withIncomingEdge(0, 0).toArray()};
+
+        final Throwable e = catchThrowable(() -> new Graph(nodeArrays, new ByteOffsetColumn(1, 3), null));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessageContaining("Expected upper bits for 2 edges, but got 3.");
+    }
+
+    @Test
+    void testGetNodeCount() {
+        final Graph graph = createGraphWithNodes(Graph.createEmptyNodeArray(), Graph.createEmptyNodeArray());
+
+        assertThat(graph.getNodeCount()).isEqualTo(2);
+    }
+
     @Test
     void testGetLengthSmall() {
         final Graph graph = createGraphWithNodes(NodeBuilder.start().withSequenceLength(5).create().toArray());
@@ -67,6 +120,26 @@ final class GraphTest {
         assertThat(graph.getNodeArray(1)).isEqualTo(nodeArray);
     }
 
+    @Test
+    void testGetNodeArrayIsCopy() {
+        final int[] nodeArray = NodeBuilder.start().withUnscaledXPosition(33).create().toArray();
+        final Graph graph = createGraphWithNodes(nodeArray);
+
+        nodeArray[Graph.UNSCALED_X_POSITION_INDEX] = 34;
+        graph.getNodeArray(0)[Graph.UNSCALED_X_POSITION_INDEX] = 35;
+
+        assertThat(graph.getUnscaledXPosition(0)).isEqualTo(33);
+    }
+
+    @Test
+    void testGetNodeArrayAfterSetUnscaledXPosition() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().withUnscaledXPosition(33).create().toArray());
+
+        graph.setUnscaledXPosition(0, 34);
+
+        assertThat(graph.getNodeArray(0)[Graph.UNSCALED_X_POSITION_INDEX]).isEqualTo(34);
+    }
+
     @Test
     void testGetNode() {
         final ArrayBasedNode node = NodeBuilder.start().create();
@@ -101,6 +174,103 @@ final class GraphTest {
         assertThat(graph.getNeighbourCount(0, SequenceDirection.LEFT)).isEqualTo(3);
     }
 
+    @Test
+    void testGetNeighboursOfSecondNode() {
+        final int[] nodeA = NodeBuilder.start()
+                .withOutgoingEdge(1, 0)
+                .toArray();
+        final int[] nodeB = NodeBuilder.start()
+                .withOutgoingEdge(2, 0)
+                .withIncomingEdge(0, 0)
+                .withIncomingEdge(3, 0)
+                .toArray();
+        final Graph graph = createGraphWithNodes(nodeA, nodeB);
+
+        final int leftStart = graph.getEdgeStart(1, SequenceDirection.LEFT);
+        assertThat(graph.getEdgeStart(1, SequenceDirection.RIGHT)).isEqualTo(1);
+        assertThat(graph.getNeighbour(1)).isEqualTo(2);
+        assertThat(graph.getEdgeEnd(1, SequenceDirection.LEFT) - leftStart).isEqualTo(2);
+        assertThat(graph.getNeighbour(leftStart)).isEqualTo(0);
+        assertThat(graph.getNeighbour(leftStart + 1)).isEqualTo(3);
+    }
+
+    @Test
+    void testGetNodeIntervalsIsRebuiltAfterSettingNodePositions() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+        final NodeIntervalIndex intervals = graph.getNodeIntervals();
+
+        assertThat(graph.getNodeIntervals()).isSameAs(intervals);
+
+        graph.setNodePositions(new NodePositionIndex(new long[] {0}, new int[] {0}));
+
+        assertThat(graph.getNodeIntervals()).isNotSameAs(intervals);
+    }
+
+    @Test
+    void testGetChainCompactionIsRebuiltAfterSettingNodePositions() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+        final ChainCompaction compaction = graph.getChainCompaction();
+
+        assertThat(graph.getChainCompaction()).isSameAs(compaction);
+
+        graph.setNodePositions(new NodePositionIndex(new long[] {0}, new int[] {0}));
+
+        assertThat(graph.getChainCompaction()).isNotSameAs(compaction);
+    }
+
+    @Test
+    void testSetChainCompaction() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+        final ChainCompaction compaction = new ChainCompaction(graph);
+
+        assertThat(graph.hasChainCompaction()).isFalse();
+
+        graph.setChainCompaction(compaction);
+
+        assertThat(graph.hasChainCompaction()).isTrue();
+        assertThat(graph.getChainCompaction()).isSameAs(compaction);
+    }
+
+    @Test
+    void testSetHierarchy() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+        final GraphHierarchy hierarchy = new GraphHierarchy(graph);
+
+        assertThat(graph.hasHierarchy()).isFalse();
+
+        graph.setHierarchy(hierarchy);
+
+        assertThat(graph.hasHierarchy()).isTrue();
+        assertThat(graph.getHierarchy()).isSameAs(hierarchy);
+    }
+
+    @Test
+    void testSetChainCompactionResetsHierarchy() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+        graph.setHierarchy(new GraphHierarchy(graph));
+
+        graph.setChainCompaction(new ChainCompaction(graph));
+
+        assertThat(graph.hasHierarchy()).isFalse();
+    }
+
+    @Test
+    void testGetTopologicalRankWithoutOrder() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray());
+
+        final Throwable e = catchThrowable(() -> graph.getTopologicalRank(0));
+
+        assertThat(e).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testGetTopologicalRank() {
+        final Graph graph = createGraphWithNodes(NodeBuilder.start().toArray(), NodeBuilder.start().toArray());
+        graph.setTopologicalOrder(new TopologicalOrder(new int[] {1, 0}));
+
+        assertThat(graph.getTopologicalRank(0)).isEqualTo(1);
+    }
+
 
     private Graph createGraphWithNodes(final int[]... nodes) {
         return new Graph(nodes, null);
@@ -39,15 +39,20 @@ public abstract class GraphTestBase {
             nodeArrays[i] = NodeBuilder.start().toArray();
         }
 
-        graph = new Graph(nodeArrays, null);
+        graph = null;
     }
 
     /**
      * Returns the current {@link Graph}.
+     * <p>
+     * As the {@link Graph} copies the node arrays, it is created again after the node arrays have been changed.
      *
      * @return the current {@link Graph}
      */
     protected final Graph getGraph() {
+        if (graph == null) {
+            graph = new Graph(nodeArrays, null);
+        }
         return graph;
     }
 
@@ -83,6 +88,7 @@ public abstract class GraphTestBase {
                     .withOutgoingEdge(to, 0)
                     .toArray();
         }
+        graph = null;
     }
 
     /**
@@ -104,6 +110,7 @@ public abstract class GraphTestBase {
                     .withIncomingEdge(from, 0)
                     .toArray();
         }
+        graph = null;
     }
 
     /**
@@ -119,6 +126,7 @@ public abstract class GraphTestBase {
             final int id = sequenceLength[0];
             nodeArrays[id][Graph.NODE_SEQUENCE_LENGTH_INDEX] = sequenceLength[1];
         }
+        graph = null;
     }
 
     /**
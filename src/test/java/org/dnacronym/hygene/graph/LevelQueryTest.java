@@ -0,0 +1,74 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaParseException;
+import org.dnacronym.hygene.parser.ProgressUpdater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link LevelQuery}.
+ */
+final class LevelQueryTest {
+    private static final String GFA_TEST_FILE = "src/test/resources/gfa/simple.gfa";
+
+    private Graph graph;
+    private Subgraph subgraph;
+    private LevelQuery levelQuery;
+
+
+    @BeforeEach
+    void setUp() throws GfaParseException {
+        graph = new GfaFile(GFA_TEST_FILE).parse(ProgressUpdater.DUMMY);
+        subgraph = new Subgraph();
+        levelQuery = new LevelQuery(graph, subgraph);
+    }
+
+
+    @Test
+    void testStartsAtChainLevel() {
+        assertThat(levelQuery.getLevel()).isEqualTo(LevelQuery.CHAIN_LEVEL);
+    }
+
+    @Test
+    void testUseSameLevel() {
+        assertThat(levelQuery.useLevel(LevelQuery.CHAIN_LEVEL)).isFalse();
+    }
+
+    @Test
+    void testUseOtherLevel() {
+        assertThat(levelQuery.useLevel(0)).isTrue();
+        assertThat(levelQuery.getLevel()).isZero();
+        assertThat(levelQuery.toLevelId(2)).isEqualTo(2);
+    }
+
+    @Test
+    void testRangeLevelIsNotFinerThanBaseLevel() {
+        assertThat(levelQuery.getRangeLevel(0, 1, LevelQuery.CHAIN_LEVEL)).isEqualTo(LevelQuery.CHAIN_LEVEL);
+    }
+
+    @Test
+    void testAddWithinHopsSkipsSentinels() {
+        levelQuery.useLevel(0);
+        final NodeDistanceMap distanceMap = new NodeDistanceMap();
+
+        levelQuery.addWithinHops(1, graph.getNodeCount(), distanceMap);
+
+        assertThat(subgraph.containsSegment(0)).isFalse();
+        assertThat(subgraph.containsSegment(graph.getNodeCount() - 1)).isFalse();
+        assertThat(subgraph.containsSegment(1)).isTrue();
+        assertThat(distanceMap.getDistance(1)).isZero();
+    }
+
+    @Test
+    void testAddWithinBasePairsAddsCentre() {
+        levelQuery.useLevel(0);
+
+        levelQuery.addWithinBasePairs(1, 0);
+
+        assertThat(subgraph.containsSegment(1)).isTrue();
+    }
+}
@@ -0,0 +1,50 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link NodeBitSet}.
+ */
+final class NodeBitSetTest {
+    private final NodeBitSet set = new NodeBitSet(200);
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(199)).isFalse();
+    }
+
+    @Test
+    void testAdd() {
+        assertThat(set.add(64)).isTrue();
+
+        assertThat(set.contains(64)).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(65)).isFalse();
+    }
+
+    @Test
+    void testAddTwice() {
+        set.add(130);
+
+        assertThat(set.add(130)).isFalse();
+    }
+
+    @Test
+    void testClear() {
+        set.add(1);
+        set.add(2);
+        set.add(199);
+
+        set.clear();
+
+        assertThat(set.contains(1)).isFalse();
+        assertThat(set.contains(2)).isFalse();
+        assertThat(set.contains(199)).isFalse();
+        assertThat(set.add(2)).isTrue();
+    }
+}
@@ -4,9 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 
 /**
@@ -95,7 +98,7 @@ class NodeDistanceMapTest {
 
     @Test
     void testGetSetDistanceInvalidNode() {
-        assertThat(map.getDistance(895)).isNull();
+        assertThat(map.getDistance(895)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
     }
 
     @Test
@@ -114,6 +117,29 @@ class NodeDistanceMapTest {
         assertThat(map.getNodes(471)).doesNotContain(923);
     }
 
+    @Test
+    void testSetDistanceReturnsPreviousDistance() {
+        assertThat(map.setDistance(12, 5)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
+        assertThat(map.setDistance(12, 3)).isEqualTo(5);
+        assertThat(map.setDistance(12, 4)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
+    }
+
+    @Test
+    void testSetDistanceNegative() {
+        final Throwable e = catchThrowable(() -> map.setDistance(12, -1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Distance cannot be negative.");
+    }
+
+    @Test
+    void testNegativeNodeCount() {
+        final Throwable e = catchThrowable(() -> new NodeDistanceMap(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        assertThat(e).hasMessage("Node count cannot be negative.");
+    }
+
     @Test
     void testGetSetDistanceOverwriteHigher() {
         map.setDistance(923, 115);
@@ -148,7 +174,7 @@ class NodeDistanceMapTest {
 
     @Test
     void testRemoveNodeInvalidNode() {
-        assertThat(map.removeNode(530)).isNull();
+        assertThat(map.removeNode(530)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
     }
 
     @Test
@@ -158,13 +184,26 @@ class NodeDistanceMapTest {
         assertThat(map.removeNode(346)).isEqualTo(295);
     }
 
+    @Test
+    void testRemoveNodeKeepsOtherNodesWithSameDistance() {
+        map.setDistance(1, 4);
+        map.setDistance(2, 4);
+        map.setDistance(3, 4);
+
+        map.removeNode(1);
+
+        assertThat(map.getNodes(4)).containsExactlyInAnyOrder(2, 3);
+        assertThat(map.removeNode(3)).isEqualTo(4);
+        assertThat(map.getNodes(4)).containsExactly(2);
+    }
+
     @Test
     void testRemoveNodeRemoved() {
         map.setDistance(191, 765);
 
         map.removeNode(191);
 
-        assertThat(map.getDistance(191)).isNull();
+        assertThat(map.getDistance(191)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
         assertThat(map.getNodes(765)).doesNotContain(191);
     }
 
@@ -181,77 +220,59 @@ class NodeDistanceMapTest {
     }
 
     @Test
-    void testClearOneNode() {
+    void testClearAndReuse() {
         map.setDistance(366, 205);
-
         map.clear();
 
-        assertThat(map.size()).isEqualTo(0);
-        assertThat(map.getDistance(366)).isNull();
-        assertThat(map.getNodes(205)).isEmpty();
-    }
+        map.setDistance(12, 205);
 
-
-    /*
-     * keySet
-     */
-
-    @Test
-    void testKeySetEmpty() {
-        assertThat(map.keySet()).isEmpty();
-    }
-
-    @Test
-    void testKeySetMultipleNodes() {
-        map.setDistance(425, 881);
-        map.setDistance(68, 855);
-        map.setDistance(983, 935);
-        map.setDistance(63, 736);
-
-        assertThat(map.keySet()).containsExactlyInAnyOrder(63, 68, 425, 983);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.containsNode(366)).isFalse();
+        assertThat(map.getNodes(205)).containsExactly(12);
     }
 
-
-    /*
-     * values
-     */
-
     @Test
-    void testValuesEmpty() {
-        assertThat(map.values()).isEmpty();
-    }
+    void testClearOneNode() {
+        map.setDistance(366, 205);
 
-    @Test
-    void testValuesMultipleNodes() {
-        map.setDistance(156, 656);
-        map.setDistance(644, 656);
-        map.setDistance(950, 735);
-        map.setDistance(984, 639);
+        map.clear();
 
-        assertThat(map.values()).containsExactlyInAnyOrder(639, 656, 656, 735);
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.getDistance(366)).isEqualTo(NodeDistanceMap.NO_DISTANCE);
+        assertThat(map.getNodes(205)).isEmpty();
     }
 
 
     /*
-     * entrySet
+     * forEach
      */
 
     @Test
-    void testEntrySetEmpty() {
-        assertThat(map.entrySet()).isEmpty();
+    void testForEachEmpty() {
+        assertThat(entries()).isEmpty();
     }
 
     @Test
-    void testEntrySetMultipleNodes() {
+    void testForEachMultipleNodes() {
         map.setDistance(402, 509);
         map.setDistance(294, 239);
         map.setDistance(944, 817);
 
-        assertThat(map.entrySet()).containsExactlyInAnyOrder(
-                entry(402, 509), entry(294, 239), entry(944, 817));
+        assertThat(entries()).containsExactly(entry(294, 239), entry(402, 509), entry(944, 817));
     }
 
 
+    /**
+     * Returns the node-distance pairs in the map, in the order in which {@link NodeDistanceMap#forEach} visits them.
+     *
+     * @return the node-distance pairs in the map
+     */
+    private List<Map.Entry<Integer, Integer>> entries() {
+        final List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        map.forEach((node, distance) -> entries.add(entry(node, distance)));
+        return entries;
+    }
+
     private Map.Entry<Integer, Integer> entry(final int key, final int value) {
         return new AbstractMap.SimpleEntry<>(key, value);
     }
@@ -0,0 +1,164 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link NodeIntervalIndex}.
+ */
+final class NodeIntervalIndexTest extends GraphTestBase {
+    private static final int RANDOM_NODE_COUNT = 1000;
+    private static final int RANDOM_QUERY_COUNT = 500;
+
+
+    @Test
+    void testSize() {
+        createGraph(3);
+
+        assertThat(new NodeIntervalIndex(getGraph()).size()).isEqualTo(3);
+    }
+
+    @Test
+    void testVisitNodesInOrderOfStart() {
+        createGraph(3);
+        setUnscaledXPositions(2, 0, 1);
+
+        assertThat(visitNodes(new NodeIntervalIndex(getGraph()), 0, 2000)).containsExactly(1, 2, 0);
+    }
+
+    @Test
+    void testVisitNodesIncludesLongNodeStartingBeforeRange() {
+        createGraph(2);
+        setSequenceLengths(new int[][] {{0, 5000}});
+        setUnscaledXPositions(0, 3);
+
+        assertThat(visitNodes(new NodeIntervalIndex(getGraph()), 4000, 4500)).containsExactly(0);
+    }
+
+    @Test
+    void testVisitNodesExcludesNodesOutsideRange() {
+        createGraph(3);
+        setUnscaledXPositions(0, 2, 4);
+
+        assertThat(visitNodes(new NodeIntervalIndex(getGraph()), 1000, 1999)).isEmpty();
+        assertThat(visitNodes(new NodeIntervalIndex(getGraph()), 2000, 2000)).containsExactly(1);
+    }
+
+    @Test
+    void testVisitNodesEmptyRange() {
+        createGraph(2);
+
+        assertThat(visitNodes(new NodeIntervalIndex(getGraph()), 1, 0)).isEmpty();
+    }
+
+    @Test
+    void testVisitEdgesIncludesEdgeCrossingRange() {
+        createGraph(2);
+        addEdges(new int[][] {{0, 1}});
+        setUnscaledXPositions(0, 10);
+        final NodeIntervalIndex index = new NodeIntervalIndex(getGraph());
+
+        assertThat(visitNodes(index, 4000, 5000)).isEmpty();
+        assertThat(visitEdges(index, 4000, 5000)).containsExactly(edge(0, 1));
+    }
+
+    @Test
+    void testVisitEdgesExcludesEdgesOutsideRange() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}});
+        setUnscaledXPositions(0, 1, 10);
+
+        assertThat(visitEdges(new NodeIntervalIndex(getGraph()), 0, 400)).isEmpty();
+        assertThat(visitEdges(new NodeIntervalIndex(getGraph()), 2000, 3000)).containsExactly(edge(1, 2));
+    }
+
+    @Test
+    void testVisitMatchesLinearScan() {
+        final Random random = new Random(42);
+        createGraph(RANDOM_NODE_COUNT);
+        for (int id = 0; id < RANDOM_NODE_COUNT - 1; id++) {
+            addEdges(new int[][] {{id, id + 1 + random.nextInt(Math.min(5, RANDOM_NODE_COUNT - 1 - id))}});
+        }
+        final int[][] sequenceLengths = new int[RANDOM_NODE_COUNT][];
+        for (int id = 0; id < RANDOM_NODE_COUNT; id++) {
+            sequenceLengths[id] = new int[] {id, random.nextInt(10) == 0 ? random.nextInt(20_000) : 1};
+        }
+        setSequenceLengths(sequenceLengths);
+
+        final Graph graph = getGraph();
+        int column = 0;
+        for (int id = 0; id < RANDOM_NODE_COUNT; id++) {
+            column += random.nextInt(3);
+            graph.setUnscaledXPosition(id, column);
+        }
+        final NodeIntervalIndex index = new NodeIntervalIndex(graph);
+
+        for (int query = 0; query < RANDOM_QUERY_COUNT; query++) {
+            final long minX = random.nextInt(column * 1000);
+            final long maxX = minX + random.nextInt(50_000);
+
+            assertThat(new HashSet<>(visitNodes(index, minX, maxX))).isEqualTo(scanNodes(graph, minX, maxX));
+            assertThat(new HashSet<>(visitEdges(index, minX, maxX))).isEqualTo(scanEdges(graph, minX, maxX));
+        }
+    }
+
+
+    /**
+     * Sets the unscaled x position of each node in the current {@link Graph}.
+     *
+     * @param unscaledXPositions the unscaled x position of each node, in order of id
+     */
+    private void setUnscaledXPositions(final int... unscaledXPositions) {
+        for (int id = 0; id < unscaledXPositions.length; id++) {
+            getGraph().setUnscaledXPosition(id, unscaledXPositions[id]);
+        }
+    }
+
+    private static List<Integer> visitNodes(final NodeIntervalIndex index, final long minX, final long maxX) {
+        final List<Integer> nodes = new ArrayList<>();
+        index.visitNodes(minX, maxX, nodes::add);
+        return nodes;
+    }
+
+    private static List<List<Integer>> visitEdges(final NodeIntervalIndex index, final long minX, final long maxX) {
+        final List<List<Integer>> edges = new ArrayList<>();
+        index.visitEdges(minX, maxX, (left, right) -> edges.add(edge(left, right)));
+        return edges;
+    }
+
+    private static Set<Integer> scanNodes(final Graph graph, final long minX, final long maxX) {
+        final Set<Integer> nodes = new HashSet<>();
+        for (int id = 0; id < graph.getNodeCount(); id++) {
+            if (graph.getRealStartXPosition(id) <= maxX && graph.getRealEndXPosition(id) >= minX) {
+                nodes.add(id);
+            }
+        }
+        return nodes;
+    }
+
+    private static Set<List<Integer>> scanEdges(final Graph graph, final long minX, final long maxX) {
+        final Set<List<Integer>> edges = new HashSet<>();
+        for (int id = 0; id < graph.getNodeCount(); id++) {
+            final int left = id;
+            new GraphIterator(graph).visitDirectNeighbours(id, SequenceDirection.RIGHT, right -> {
+                if (graph.getRealEndXPosition(left) <= maxX && graph.getRealStartXPosition(right) >= minX) {
+                    edges.add(edge(left, right));
+                }
+            });
+        }
+        return edges;
+    }
+
+    private static List<Integer> edge(final int left, final int right) {
+        return Arrays.asList(left, right);
+    }
+}
@@ -0,0 +1,54 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodePositionIndex}.
+ */
+final class NodePositionIndexTest {
+    private final NodePositionIndex index = new NodePositionIndex(new long[] {1000, 3000, 7000}, new int[] {4, 2, 9});
+
+
+    @Test
+    void testDifferentLengths() {
+        final Throwable e = catchThrowable(() -> new NodePositionIndex(new long[] {1000}, new int[0]));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSize() {
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testExactPosition() {
+        assertThat(index.getNodeAtPosition(3000)).isEqualTo(2);
+    }
+
+    @Test
+    void testFloorPosition() {
+        assertThat(index.getNodeAtPosition(6999)).isEqualTo(2);
+    }
+
+    @Test
+    void testPositionAfterLast() {
+        assertThat(index.getNodeAtPosition(Long.MAX_VALUE)).isEqualTo(9);
+    }
+
+    @Test
+    void testPositionBeforeFirst() {
+        assertThat(index.getNodeAtPosition(-5)).isEqualTo(4);
+    }
+
+    @Test
+    void testEmptyIndex() {
+        final Throwable e = catchThrowable(() -> new NodePositionIndex(new long[0], new int[0]).getNodeAtPosition(0));
+
+        assertThat(e).isInstanceOf(IllegalStateException.class);
+    }
+}
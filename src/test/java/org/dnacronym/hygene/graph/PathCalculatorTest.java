@@ -191,6 +191,73 @@ class PathCalculatorTest {
         assertThat(s2s3.getGenomes()).isEqualTo(new HashSet<>(Arrays.asList("b", "c")));
     }
 
+    @Test
+    void testComputePathsInGlobalOrder() {
+        final Segment segment1 = new Segment(1, 63, 19);
+        final Segment segment2 = new Segment(2, 90, 32);
+        final Segment segment3 = new Segment(3, 98, 14);
+        final Segment segment4 = new Segment(4, 55, 10);
+
+        final Link e12 = connectNodes(segment1, segment2);
+        final Link e13 = connectNodes(segment1, segment3);
+        final Link e24 = connectNodes(segment2, segment4);
+        final Link e34 = connectNodes(segment3, segment4);
+
+        segment1.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b")));
+        segment2.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a")));
+        segment3.setMetadata(new NodeMetadata("-", "-", Arrays.asList("b")));
+        segment4.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b")));
+
+        subgraph.addAll(Arrays.asList(segment4, segment3, segment2, segment1));
+
+        pathCalculator.computePaths(subgraph, new TopologicalOrder(new int[] {0, 1, 2, 2, 3, 4}));
+
+        assertThat(e12.getGenomes()).containsExactly("a");
+        assertThat(e13.getGenomes()).containsExactly("b");
+        assertThat(e24.getGenomes()).containsExactly("a");
+        assertThat(e34.getGenomes()).containsExactly("b");
+    }
+
+    @Test
+    void testComputePathsWithInconsistentGlobalOrder() {
+        final Segment segment1 = new Segment(1, 63, 19);
+        final Segment segment2 = new Segment(2, 90, 32);
+        final Segment segment3 = new Segment(3, 98, 14);
+
+        final Link e12 = connectNodes(segment1, segment2);
+        final Link e23 = connectNodes(segment2, segment3);
+
+        segment1.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b")));
+        segment2.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a")));
+        segment3.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b")));
+
+        subgraph.addAll(Arrays.asList(segment1, segment2, segment3));
+
+        pathCalculator.computePaths(subgraph, new TopologicalOrder(new int[] {0, 1, 3, 2, 4}));
+
+        assertThat(e12.getGenomes()).containsExactly("a");
+        assertThat(e23.getGenomes()).containsExactly("a");
+    }
+
+    @Test
+    void testComputePathsInGlobalOrderSkipsSegmentsEnteredFromOutside() {
+        final Segment segment1 = new Segment(1, 63, 19);
+        final Segment segment2 = new Segment(2, 90, 32);
+        final Segment segment3 = new Segment(3, 98, 14);
+
+        connectNodes(segment1, segment2);
+        final Link e23 = connectNodes(segment2, segment3);
+
+        segment2.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a")));
+        segment3.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a")));
+
+        subgraph.addAll(Arrays.asList(segment2, segment3));
+
+        pathCalculator.computePaths(subgraph, new TopologicalOrder(new int[] {0, 1, 2, 3, 4}));
+
+        assertThat(e23.getGenomes()).isNull();
+    }
+
     /**
      * Connects the two {@link Segment}s with a {@link Link}.
      *
@@ -4,11 +4,14 @@ import org.dnacronym.hygene.graph.edge.AggregateEdge;
 import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.edge.SimpleEdge;
 import org.dnacronym.hygene.graph.node.AggregateSegment;
+import org.dnacronym.hygene.graph.node.ChainSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -175,6 +178,26 @@ class SegmentAggregatorTest {
         assertThat(aggregateSegment.getSegments()).containsExactly((Segment) nodeB, (Segment) nodeC);
     }
 
+    /**
+     * Tests that aggregation succeeds between two chains of segments.
+     */
+    @Test
+    void testAggregateSuccessBetweenChains() {
+        final GfaNode nodeA = new ChainSegment(Arrays.asList(new Segment(3, 13, 24), new Segment(4, 37, 24)));
+        final GfaNode nodeB = new Segment(43, 97, 1);
+        final GfaNode nodeC = new Segment(58, 44, 1);
+        final GfaNode nodeD = new ChainSegment(Arrays.asList(new Segment(19, 57, 48), new Segment(20, 83, 48)));
+        linkNodes(nodeA, nodeB);
+        linkNodes(nodeA, nodeC);
+        linkNodes(nodeB, nodeD);
+        linkNodes(nodeC, nodeD);
+
+        final AggregateSegment aggregateSegment = SegmentAggregator.aggregate(nodeA)
+                .orElseThrow(() -> new AssertionError("AggregateSegment is null."));
+        assertThat(aggregateSegment.getSegments()).containsExactly((Segment) nodeB, (Segment) nodeC);
+        assertThat(nodeD.getIncomingEdges()).containsExactlyElementsOf(aggregateSegment.getOutgoingEdges());
+    }
+
     /**
      * Tests that an aggregated node is correctly linked to the other nodes.
      */
@@ -378,6 +401,118 @@ class SegmentAggregatorTest {
     }
 
 
+    /**
+     * Tests that a SNP in the {@link BubbleIndex} is aggregated.
+     */
+    @Test
+    void testAggregateIndexedSnp() {
+        final BubbleIndex bubbleIndex = createSnpBubbleIndex(1);
+        final GfaNode nodeA = new Segment(0, 13, 24);
+        final GfaNode nodeB = new Segment(1, 97, 1);
+        final GfaNode nodeC = new Segment(2, 44, 1);
+        final GfaNode nodeD = new Segment(3, 57, 48);
+        linkNodes(nodeA, nodeB);
+        linkNodes(nodeA, nodeC);
+        linkNodes(nodeB, nodeD);
+        linkNodes(nodeC, nodeD);
+        final Subgraph subgraph = createSubgraph(nodeA, nodeB, nodeC, nodeD);
+
+        final AggregateSegment aggregateSegment = SegmentAggregator.aggregate(nodeA, subgraph, bubbleIndex)
+                .orElseThrow(() -> new AssertionError("AggregateSegment is null."));
+        assertThat(aggregateSegment.getSegments()).containsExactly((Segment) nodeB, (Segment) nodeC);
+        assertThat(aggregateSegment.getOutgoingEdges().iterator().next().getTo()).isEqualTo(nodeD);
+    }
+
+    /**
+     * Tests that a bubble which is not a SNP according to the {@link BubbleIndex} is not aggregated.
+     */
+    @Test
+    void testAggregateIndexedNonSnp() {
+        final BubbleIndex bubbleIndex = createSnpBubbleIndex(3);
+        final GfaNode nodeA = new Segment(0, 13, 24);
+        final GfaNode nodeB = new Segment(1, 97, 1);
+        final GfaNode nodeC = new Segment(2, 44, 1);
+        final GfaNode nodeD = new Segment(3, 57, 48);
+        linkNodes(nodeA, nodeB);
+        linkNodes(nodeA, nodeC);
+        linkNodes(nodeB, nodeD);
+        linkNodes(nodeC, nodeD);
+        final Subgraph subgraph = createSubgraph(nodeA, nodeB, nodeC, nodeD);
+
+        assertThat(SegmentAggregator.aggregate(nodeA, subgraph, bubbleIndex)).isEmpty();
+    }
+
+    /**
+     * Tests that a SNP in the {@link BubbleIndex} is not aggregated if its exit is not in the subgraph.
+     */
+    @Test
+    void testAggregateIndexedSnpWithoutExit() {
+        final BubbleIndex bubbleIndex = createSnpBubbleIndex(1);
+        final GfaNode nodeA = new Segment(0, 13, 24);
+        final GfaNode nodeB = new Segment(1, 97, 1);
+        final GfaNode nodeC = new Segment(2, 44, 1);
+        linkNodes(nodeA, nodeB);
+        linkNodes(nodeA, nodeC);
+        final Subgraph subgraph = createSubgraph(nodeA, nodeB, nodeC);
+
+        assertThat(SegmentAggregator.aggregate(nodeA, subgraph, bubbleIndex)).isEmpty();
+    }
+
+    /**
+     * Tests that a SNP in the {@link BubbleIndex} is not aggregated if one of its members is not in the subgraph.
+     */
+    @Test
+    void testAggregateIndexedSnpWithoutMember() {
+        final BubbleIndex bubbleIndex = createSnpBubbleIndex(1);
+        final GfaNode nodeA = new Segment(0, 13, 24);
+        final GfaNode nodeB = new Segment(1, 97, 1);
+        final GfaNode nodeD = new Segment(3, 57, 48);
+        linkNodes(nodeA, nodeB);
+        linkNodes(nodeB, nodeD);
+        final Subgraph subgraph = createSubgraph(nodeA, nodeB, nodeD);
+
+        assertThat(SegmentAggregator.aggregate(nodeA, subgraph, bubbleIndex)).isEmpty();
+    }
+
+    /**
+     * Tests that a SNP in the {@link BubbleIndex} is aggregated after a chain ending in its entrance.
+     */
+    @Test
+    void testAggregateIndexedSnpAfterChain() {
+        final BubbleIndex bubbleIndex = createSnpBubbleIndex(1);
+        final Subgraph subgraph = new Subgraph();
+        final Segment segmentA = new Segment(5, 37, 24);
+        final ChainSegment chain = new ChainSegment(Arrays.asList(segmentA, new Segment(0, 13, 24)));
+        final Segment segmentB = new Segment(1, 97, 1);
+        final Segment segmentC = new Segment(2, 44, 1);
+        final Segment segmentD = new Segment(3, 57, 48);
+        linkNodes(chain, segmentB);
+        linkNodes(chain, segmentC);
+        linkNodes(segmentB, segmentD);
+        linkNodes(segmentC, segmentD);
+        subgraph.add(chain);
+        subgraph.add(segmentB);
+        subgraph.add(segmentC);
+        subgraph.add(segmentD);
+
+        SegmentAggregator.aggregate(subgraph, bubbleIndex);
+
+        assertThat(chain.getOutgoingEdges()).hasSize(1);
+        assertThat(subgraph.getNodes()).hasSize(3);
+    }
+
+    /**
+     * Creates a {@link Subgraph} containing the given nodes.
+     *
+     * @param nodes the nodes in the subgraph
+     * @return a {@link Subgraph} containing the given nodes
+     */
+    private Subgraph createSubgraph(final GfaNode... nodes) {
+        final Subgraph subgraph = new Subgraph();
+        subgraph.addAll(Arrays.asList(nodes));
+        return subgraph;
+    }
+
     /**
      * Connects two nodes with an edge.
      *
@@ -389,4 +524,21 @@ class SegmentAggregatorTest {
         from.getOutgoingEdges().add(edge);
         to.getIncomingEdges().add(edge);
     }
+
+    /**
+     * Creates the {@link BubbleIndex} of a graph with a bubble from node 0 to node 3 through nodes 1 and 2.
+     *
+     * @param sequenceLength the sequence length of node 2
+     * @return the {@link BubbleIndex} of the graph
+     */
+    private BubbleIndex createSnpBubbleIndex(final int sequenceLength) {
+        final int[][] nodeArrays = {
+                NodeBuilder.start().withOutgoingEdge(1, 0).withOutgoingEdge(2, 0).toArray(),
+                NodeBuilder.start().withSequenceLength(1).withIncomingEdge(0, 0).withOutgoingEdge(3, 0).toArray(),
+                NodeBuilder.start().withSequenceLength(sequenceLength).withIncomingEdge(0, 0).withOutgoingEdge(3, 0)
+                        .toArray(),
+                NodeBuilder.start().withIncomingEdge(1, 0).withIncomingEdge(2, 0).toArray()
+        };
+        return new SuperbubbleDetector(new Graph(nodeArrays, null)).detect();
+    }
 }
@@ -0,0 +1,47 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link StronglyConnectedComponents}.
+ */
+final class StronglyConnectedComponentsTest extends GraphTestBase {
+    @Test
+    void testChainHasOneComponentPerNode() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}});
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(getGraph());
+
+        assertThat(components.getComponent(0)).isNotEqualTo(components.getComponent(1));
+        assertThat(components.getComponent(1)).isNotEqualTo(components.getComponent(2));
+        assertForEachNode(new int[] {0, 1, 2}, components::getNodeInOrder);
+    }
+
+    @Test
+    void testCycleIsOneComponent() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 1}, {3, 4}});
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(getGraph());
+
+        assertThat(components.getComponent(1)).isEqualTo(components.getComponent(2));
+        assertThat(components.getComponent(2)).isEqualTo(components.getComponent(3));
+        assertThat(components.getComponent(0)).isNotEqualTo(components.getComponent(1));
+        assertThat(components.getComponent(4)).isNotEqualTo(components.getComponent(1));
+    }
+
+    @Test
+    void testOrderGroupsComponentsTopologically() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 3}, {3, 4}, {4, 3}, {4, 1}, {1, 2}});
+        final StronglyConnectedComponents components = new StronglyConnectedComponents(getGraph());
+
+        assertThat(components.getNodeCount()).isEqualTo(5);
+        assertThat(components.getNodeInOrder(0)).isEqualTo(0);
+        assertThat(new int[] {components.getNodeInOrder(1), components.getNodeInOrder(2)}).containsOnly(3, 4);
+        assertThat(components.getNodeInOrder(3)).isEqualTo(1);
+        assertThat(components.getNodeInOrder(4)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,114 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.graph.edge.DummyEdge;
+import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.edge.Link;
+import org.dnacronym.hygene.graph.node.DummyNode;
+import org.dnacronym.hygene.graph.node.Segment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link SubgraphAdjacency}.
+ */
+final class SubgraphAdjacencyTest {
+    private Segment segment1;
+    private Segment segment2;
+    private Segment segment3;
+    private Link link12;
+    private Link link13;
+
+
+    @BeforeEach
+    void setUp() {
+        segment1 = new Segment(1, 10, 5);
+        segment2 = new Segment(2, 20, 5);
+        segment3 = new Segment(3, 30, 5);
+
+        link12 = connect(segment1, segment2);
+        link13 = connect(segment1, segment3);
+    }
+
+
+    @Test
+    void testEmpty() {
+        final SubgraphAdjacency adjacency = new SubgraphAdjacency(Collections.emptyList());
+
+        assertThat(adjacency.getNodeCount()).isEqualTo(0);
+        assertThat(adjacency.indexOf(segment1)).isEqualTo(SubgraphAdjacency.NOT_IN_SUBGRAPH);
+    }
+
+    @Test
+    void testIndicesFollowGivenOrder() {
+        final SubgraphAdjacency adjacency = new SubgraphAdjacency(Arrays.asList(segment2, segment1, segment2));
+
+        assertThat(adjacency.getNodeCount()).isEqualTo(2);
+        assertThat(adjacency.getNode(0)).isEqualTo(segment2);
+        assertThat(adjacency.getNode(1)).isEqualTo(segment1);
+        assertThat(adjacency.indexOf(segment1)).isEqualTo(1);
+        assertThat(adjacency.indexOf(segment3)).isEqualTo(SubgraphAdjacency.NOT_IN_SUBGRAPH);
+    }
+
+    @Test
+    void testEdgesAndNeighbours() {
+        final SubgraphAdjacency adjacency = new SubgraphAdjacency(Arrays.asList(segment1, segment2));
+
+        assertThat(adjacency.getEdgeCount(0, SequenceDirection.RIGHT)).isEqualTo(2);
+        assertThat(adjacency.getEdge(0, 0, SequenceDirection.RIGHT)).isEqualTo(link12);
+        assertThat(adjacency.getEdge(0, 1, SequenceDirection.RIGHT)).isEqualTo(link13);
+        assertThat(adjacency.getNeighbour(0, 0, SequenceDirection.RIGHT)).isEqualTo(1);
+        assertThat(adjacency.getNeighbour(0, 1, SequenceDirection.RIGHT))
+                .isEqualTo(SubgraphAdjacency.NOT_IN_SUBGRAPH);
+
+        assertThat(adjacency.getEdgeCount(1, SequenceDirection.LEFT)).isEqualTo(1);
+        assertThat(adjacency.getNeighbour(1, 0, SequenceDirection.LEFT)).isEqualTo(0);
+        assertThat(adjacency.getEdgeCount(1, SequenceDirection.RIGHT)).isEqualTo(0);
+    }
+
+    @Test
+    void testHasNeighbourIgnoresNodesOutsideSnapshot() {
+        final SubgraphAdjacency adjacency = new SubgraphAdjacency(Arrays.asList(segment1, segment3));
+
+        assertThat(adjacency.hasNeighbour(0, SequenceDirection.RIGHT)).isTrue();
+        assertThat(adjacency.hasNeighbour(0, SequenceDirection.LEFT)).isFalse();
+
+        final SubgraphAdjacency partial = new SubgraphAdjacency(Collections.singletonList(segment1));
+
+        assertThat(partial.hasNeighbour(0, SequenceDirection.RIGHT)).isFalse();
+    }
+
+    @Test
+    void testEdgeMapperDeduplicatesMappedEdges() {
+        final DummyNode dummy = new DummyNode(segment1, segment2);
+        final Edge dummyEdge = new DummyEdge(segment1, dummy, link12);
+        segment1.getOutgoingEdges().add(dummyEdge);
+
+        final SubgraphAdjacency adjacency = new SubgraphAdjacency(Arrays.asList(segment1, segment2),
+                edge -> edge instanceof DummyEdge ? ((DummyEdge) edge).getOriginalEdge() : edge);
+
+        assertThat(adjacency.getEdgeCount(0, SequenceDirection.RIGHT)).isEqualTo(2);
+        assertThat(adjacency.getEdge(0, 0, SequenceDirection.RIGHT)).isEqualTo(link12);
+        assertThat(adjacency.getEdge(0, 1, SequenceDirection.RIGHT)).isEqualTo(link13);
+    }
+
+
+    /**
+     * Connects the two nodes with a {@link Link}.
+     *
+     * @param left  the left node
+     * @param right the right node
+     * @return the {@link Link}
+     */
+    private static Link connect(final Segment left, final Segment right) {
+        final Link link = new Link(left, right, 0);
+        left.getOutgoingEdges().add(link);
+        right.getIncomingEdges().add(link);
+        return link;
+    }
+}
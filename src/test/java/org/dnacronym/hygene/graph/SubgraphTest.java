@@ -1,6 +1,7 @@
 package org.dnacronym.hygene.graph;
 
 import org.dnacronym.hygene.graph.edge.Link;
+import org.dnacronym.hygene.graph.node.ClusterSegment;
 import org.dnacronym.hygene.graph.node.FillNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
@@ -11,7 +12,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,7 +33,7 @@ final class SubgraphTest {
 
     @Test
     void testGetNodeEmpty() {
-        assertThat(subgraph.getNode(UUID.randomUUID())).isEmpty();
+        assertThat(subgraph.getNode(-1)).isEmpty();
     }
 
     @Test
@@ -42,7 +42,7 @@ final class SubgraphTest {
 
         subgraph.add(node);
 
-        assertThat(subgraph.getNode(UUID.randomUUID())).isEmpty();
+        assertThat(subgraph.getNode(-1)).isEmpty();
     }
 
     @Test
@@ -51,7 +51,42 @@ final class SubgraphTest {
 
         subgraph.add(node);
 
-        assertThat(subgraph.getNode(node.getUuid())).contains(node);
+        assertThat(subgraph.getNode(node.getUniqueId())).contains(node);
+    }
+
+    @Test
+    void testAddClusterDoesNotCreateSegments() {
+        final ClusterSegment cluster = new ClusterSegment(1, 3, 2, 10, 0, 1000,
+                segmentId -> segmentId == 3 || segmentId == 4, ArrayList::new);
+
+        subgraph.add(cluster);
+
+        assertThat(subgraph.getGfaNode(3)).contains(cluster);
+        assertThat(subgraph.containsSegment(3)).isTrue();
+        assertThat(cluster.isExpanded()).isFalse();
+
+        subgraph.remove(cluster);
+
+        assertThat(subgraph.containsSegment(3)).isFalse();
+    }
+
+    @Test
+    void testGetInnerSegmentOfCluster() {
+        final Segment first = new Segment(3, 0, 5);
+        final Segment inner = new Segment(4, 0, 5);
+        final ClusterSegment cluster = new ClusterSegment(1, 3, 2, 10, 0, 1000,
+                segmentId -> segmentId == 3 || segmentId == 4, () -> Arrays.asList(first, inner));
+
+        subgraph.add(cluster);
+
+        assertThat(subgraph.containsSegment(4)).isTrue();
+        assertThat(subgraph.getGfaNode(4)).contains(cluster);
+        assertThat(subgraph.getSegment(4)).contains(inner);
+        assertThat(subgraph.containsSegment(5)).isFalse();
+
+        subgraph.remove(cluster);
+
+        assertThat(subgraph.getGfaNode(4)).isEmpty();
     }
 
     @Test
@@ -93,7 +128,7 @@ final class SubgraphTest {
 
         subgraph.add(node);
 
-        assertThat(subgraph.contains(node.getUuid())).isTrue();
+        assertThat(subgraph.contains(node.getUniqueId())).isTrue();
     }
 
     @Test
@@ -111,7 +146,7 @@ final class SubgraphTest {
 
         subgraph.add(segment);
 
-        assertThat(subgraph.contains(segment.getUuid())).isTrue();
+        assertThat(subgraph.contains(segment.getUniqueId())).isTrue();
     }
 
     @Test
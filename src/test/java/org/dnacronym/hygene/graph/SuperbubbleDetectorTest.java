@@ -0,0 +1,129 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link SuperbubbleDetector}.
+ */
+final class SuperbubbleDetectorTest extends GraphTestBase {
+    @Test
+    void testDetectChain() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isZero();
+        assertThat(index.getMemberOrder()).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void testDetectSimpleBubble() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isEqualTo(1);
+        assertThat(index.getEntrance(0)).isEqualTo(0);
+        assertThat(index.getExit(0)).isEqualTo(3);
+        assertThat(index.getMembers(0)).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void testDetectBubbleWithDirectEdge() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 2}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isEqualTo(1);
+        assertThat(index.getMembers(0)).containsExactly(1);
+    }
+
+    @Test
+    void testDetectConsecutiveBubbles() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}, {3, 5}, {4, 6}, {5, 6}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isEqualTo(2);
+        assertThat(index.getExit(index.getBubbleByEntrance(0))).isEqualTo(3);
+        assertThat(index.getExit(index.getBubbleByEntrance(3))).isEqualTo(6);
+    }
+
+    @Test
+    void testDetectNestedBubbles() {
+        createGraph(10);
+        addEdges(new int[][] {
+                {0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 9},
+                {0, 5}, {5, 6}, {5, 7}, {6, 8}, {7, 8}, {8, 9}
+        });
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isEqualTo(3);
+        assertThat(index.getMembers(index.getBubbleByEntrance(0))).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(index.getMembers(index.getBubbleByEntrance(1))).containsExactlyInAnyOrder(2, 3);
+        assertThat(index.getMembers(index.getBubbleByEntrance(5))).containsExactlyInAnyOrder(6, 7);
+    }
+
+    @Test
+    void testDetectOnlyOuterBubbleWithCrossingEdge() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {2, 4}, {3, 4}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleByEntrance(0)).isEqualTo(0);
+        assertThat(index.getExit(0)).isEqualTo(4);
+        assertThat(index.getBubbleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDetectNoBubbleWithTwoSources() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 2}, {1, 2}, {2, 3}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isZero();
+    }
+
+    @Test
+    void testDetectExcludesCycles() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 1}, {3, 4}, {4, 5}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isZero();
+    }
+
+    @Test
+    void testDetectWithoutSource() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 0}});
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isZero();
+        assertThat(index.getMemberOrder()).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void testDetectLongChainOfBubbles() {
+        final int bubbleCount = 10_000;
+        createGraph(3 * bubbleCount + 1);
+        final int[][] edges = new int[4 * bubbleCount][];
+        for (int i = 0; i < bubbleCount; i++) {
+            final int entrance = 3 * i;
+            edges[4 * i] = new int[] {entrance, entrance + 1};
+            edges[4 * i + 1] = new int[] {entrance, entrance + 2};
+            edges[4 * i + 2] = new int[] {entrance + 1, entrance + 3};
+            edges[4 * i + 3] = new int[] {entrance + 2, entrance + 3};
+        }
+        addEdges(edges);
+        final BubbleIndex index = new SuperbubbleDetector(getGraph()).detect();
+
+        assertThat(index.getBubbleCount()).isEqualTo(bubbleCount);
+        final int bubble = index.getBubbleByEntrance(3 * (bubbleCount / 2));
+        assertThat(index.getExit(bubble)).isEqualTo(3 * (bubbleCount / 2) + 3);
+        assertThat(index.getMemberCount(bubble)).isEqualTo(2);
+    }
+}
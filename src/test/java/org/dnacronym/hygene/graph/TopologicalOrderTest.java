@@ -0,0 +1,62 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link TopologicalOrder}.
+ */
+final class TopologicalOrderTest {
+    private final TopologicalOrder order = new TopologicalOrder(new int[] {0, 2, 1, 3, 1});
+
+
+    @Test
+    void testNegativeRank() {
+        final Throwable e = catchThrowable(() -> new TopologicalOrder(new int[] {0, -1}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRankOutOfBounds() {
+        final Throwable e = catchThrowable(() -> new TopologicalOrder(new int[] {0, 2}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSize() {
+        assertThat(order.size()).isEqualTo(5);
+    }
+
+    @Test
+    void testGetRankCount() {
+        assertThat(order.getRankCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testGetRank() {
+        assertThat(order.getRank(3)).isEqualTo(3);
+    }
+
+    @Test
+    void testGetNodesByRank() {
+        assertThat(order.getNodesByRank()).containsExactly(0, 2, 4, 1, 3);
+    }
+
+    @Test
+    void testSortByRank() {
+        assertThat(order.sortByRank(new int[] {3, 4, 1, 2})).containsExactly(2, 4, 1, 3);
+    }
+
+    @Test
+    void testEmptyOrder() {
+        final TopologicalOrder emptyOrder = new TopologicalOrder(new int[0]);
+
+        assertThat(emptyOrder.getRankCount()).isZero();
+        assertThat(emptyOrder.getNodesByRank()).isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link TopologicalSorter}.
+ */
+final class TopologicalSorterTest extends GraphTestBase {
+    @Test
+    void testSortChain() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 1, 2, 3}, order::getRank);
+    }
+
+    @Test
+    void testSortUsesLongestPath() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 4}, {3, 4}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 1, 1, 2, 3}, order::getRank);
+    }
+
+    @Test
+    void testSortBreaksCycle() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 1}, {3, 4}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 1, 2, 3, 4}, order::getRank);
+    }
+
+    @Test
+    void testSortBreaksCycleBeforeDownstreamNode() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 2}, {2, 3}, {3, 2}, {3, 1}, {1, 4}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 3, 1, 2, 4}, order::getRank);
+    }
+
+    @Test
+    void testSortBreaksUpstreamCycleFirst() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 3}, {3, 4}, {4, 3}, {4, 1}, {1, 2}, {2, 1}, {2, 5}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 3, 4, 1, 2, 5}, order::getRank);
+    }
+
+    @Test
+    void testSortBreaksCycleAtEntrance() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 2}, {2, 1}, {1, 2}, {1, 3}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 2, 1, 3}, order::getRank);
+    }
+
+    @Test
+    void testSortWithoutSource() {
+        createGraph(3);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 0}});
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertForEachNode(new int[] {0, 1, 2}, order::getRank);
+    }
+
+    @Test
+    void testSortWideGraph() {
+        final int width = 5000;
+        createGraph(width + 2);
+        final int[][] edges = new int[2 * width][];
+        for (int i = 0; i < width; i++) {
+            edges[2 * i] = new int[] {0, i + 1};
+            edges[2 * i + 1] = new int[] {i + 1, width + 1};
+        }
+        addEdges(edges);
+        final TopologicalOrder order = new TopologicalSorter(getGraph()).sort();
+
+        assertThat(order.getRankCount()).isEqualTo(3);
+        assertThat(order.getRank(width / 2)).isEqualTo(1);
+        assertThat(order.getRank(width + 1)).isEqualTo(2);
+    }
+}
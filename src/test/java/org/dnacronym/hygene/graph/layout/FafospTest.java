@@ -1,6 +1,7 @@
 package org.dnacronym.hygene.graph.layout;
 
 import org.dnacronym.hygene.graph.GraphTestBase;
+import org.dnacronym.hygene.graph.NodePositionIndex;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,6 +47,19 @@ final class FafospTest extends GraphTestBase {
         assertThat(getGraph().getUnscaledXPosition(3)).isEqualTo(5);
     }
 
+    @Test
+    void testNodePositionIndexKeepsLastPlacedNode() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}});
+        setSequenceLengths(new int[][] {{1, 300}, {2, 1300}, {3, 400}});
+
+        final NodePositionIndex nodePositions = new Fafosp(getGraph()).horizontal();
+
+        assertThat(nodePositions.getPositions()).containsExactly(2000, 5000, 7000);
+        assertThat(nodePositions.getNodeIds()).containsExactly(2, 3, 4);
+        assertThat(nodePositions.getNodeAtPosition(4999)).isEqualTo(2);
+    }
+
     @Test
     void testChainOfThree() {
         createGraph(5);
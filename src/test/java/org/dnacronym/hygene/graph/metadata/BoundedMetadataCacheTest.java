@@ -0,0 +1,149 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link BoundedMetadataCache}.
+ */
+final class BoundedMetadataCacheTest {
+    private static final String SHORT_SEQUENCE = "ACGT";
+    private static final String LONG_SEQUENCE = String.join("", Collections.nCopies(250, "ACGT"));
+
+    private BoundedMetadataCache cache;
+    private long shortBytes;
+    private long longBytes;
+
+
+    @BeforeEach
+    void beforeEach() {
+        shortBytes = createMetadata(SHORT_SEQUENCE).getSequence().getRetainedBytes();
+        longBytes = createMetadata(LONG_SEQUENCE).getSequence().getRetainedBytes();
+        cache = new BoundedMetadataCache(2 * shortBytes + shortBytes / 2);
+    }
+
+
+    @Test
+    void testNegativeBudget() {
+        final Throwable e = catchThrowable(() -> new BoundedMetadataCache(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetMissing() {
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    void testGetPresent() {
+        final NodeMetadata metadata = createMetadata(SHORT_SEQUENCE);
+        cache.put(1, metadata);
+
+        assertThat(cache.get(1)).isSameAs(metadata);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isZero();
+    }
+
+    @Test
+    void testRetainedBytes() {
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+        cache.put(2, createMetadata(SHORT_SEQUENCE));
+
+        assertThat(cache.getRetainedBytes()).isEqualTo(2 * shortBytes);
+    }
+
+    @Test
+    void testReplaceUpdatesRetainedBytes() {
+        cache.setByteBudget(longBytes);
+        cache.put(1, createMetadata(LONG_SEQUENCE));
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getRetainedBytes()).isEqualTo(shortBytes);
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() {
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+        cache.put(2, createMetadata(SHORT_SEQUENCE));
+        cache.get(1);
+        cache.put(3, createMetadata(SHORT_SEQUENCE));
+
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(cache.get(3)).isNotNull();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.getRetainedBytes()).isEqualTo(2 * shortBytes);
+    }
+
+    @Test
+    void testEvictByBytesRatherThanEntries() {
+        cache.setByteBudget(longBytes + shortBytes);
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+        cache.put(2, createMetadata(SHORT_SEQUENCE));
+        cache.put(3, createMetadata(LONG_SEQUENCE));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.getRetainedBytes()).isEqualTo(longBytes + shortBytes);
+    }
+
+    @Test
+    void testDoNotStoreEntryLargerThanBudget() {
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+        cache.put(2, createMetadata(LONG_SEQUENCE));
+
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(cache.getEvictionCount()).isZero();
+    }
+
+    @Test
+    void testPutAll() {
+        final Map<Integer, NodeMetadata> metadata = new HashMap<>();
+        metadata.put(1, createMetadata(SHORT_SEQUENCE));
+        metadata.put(2, createMetadata(SHORT_SEQUENCE));
+
+        cache.putAll(metadata);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getRetainedBytes()).isEqualTo(2 * shortBytes);
+    }
+
+    @Test
+    void testLowerBudgetEvicts() {
+        cache.put(1, createMetadata(SHORT_SEQUENCE));
+        cache.put(2, createMetadata(SHORT_SEQUENCE));
+
+        cache.setByteBudget(shortBytes);
+
+        assertThat(cache.getByteBudget()).isEqualTo(shortBytes);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(2)).isNotNull();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testSetNegativeBudget() {
+        final Throwable e = catchThrowable(() -> cache.setByteBudget(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+
+    private static NodeMetadata createMetadata(final String sequence) {
+        return new NodeMetadata("name", sequence, new ArrayList<>());
+    }
+}
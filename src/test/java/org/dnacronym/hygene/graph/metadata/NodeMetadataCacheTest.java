@@ -1,9 +1,7 @@
 package org.dnacronym.hygene.graph.metadata;
 
 import org.dnacronym.hygene.core.HygeneEventBus;
-import org.dnacronym.hygene.event.CenterPointQueryChangeEvent;
 import org.dnacronym.hygene.event.LayoutDoneEvent;
-import org.dnacronym.hygene.graph.CenterPointQuery;
 import org.dnacronym.hygene.graph.Subgraph;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.parser.GfaFile;
@@ -25,13 +23,12 @@ import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
-import static org.mockito.Mockito.when;
 
 
 /**
@@ -72,7 +69,7 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture(), any());
         assertThat(captor.getValue()).isEmpty();
     }
 
@@ -85,7 +82,7 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture(), any());
         assertThat(captor.getValue().keySet()).containsExactly(2);
         assertThat(captor.getValue().values()).containsExactly(69L);
     }
@@ -101,18 +98,18 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture(), any());
         assertThat(captor.getValue().keySet()).containsExactly(1, 2);
         assertThat(captor.getValue().values()).containsExactly(40L, 69L);
     }
 
     @Test
-    void testLargeRadius() {
-        final CenterPointQuery cpq = mock(CenterPointQuery.class);
-        when(cpq.getRadius()).thenReturn(500);
-        cache.centerPointQueryChanged(new CenterPointQueryChangeEvent(cpq));
+    void testLargeSubgraph() {
+        final Subgraph subgraph = new Subgraph();
+        subgraph.add(new Segment(1, 40, 600_000));
+        subgraph.add(new Segment(2, 69, 600_000));
 
-        cache.layoutDone(new LayoutDoneEvent(mock(Subgraph.class)));
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
         verifyNoMoreInteractions(parser);
@@ -159,10 +156,46 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture(), any());
         assertThat(captor.getValue()).isEmpty();
     }
 
+    @Test
+    void testRetrieveAgainAfterEviction() throws MetadataParseException {
+        cache.setByteBudget(0);
+        final Subgraph subgraph = new Subgraph();
+        subgraph.add(new Segment(1, 38, 5));
+
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+        reset(parser);
+        final Subgraph otherSubgraph = new Subgraph();
+        otherSubgraph.add(new Segment(1, 38, 5));
+        cache.layoutDone(new LayoutDoneEvent(otherSubgraph));
+        cache.getRetrievalExecutor().block();
+
+        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture(), any());
+        assertThat(captor.getValue().keySet()).containsExactly(1);
+        assertThat(cache.getRetainedBytes()).isZero();
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testCountHits() {
+        final Subgraph subgraph = new Subgraph();
+        subgraph.add(new Segment(1, 38, 5));
+
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isZero();
+        assertThat(cache.getByteBudget()).isEqualTo(NodeMetadataCache.DEFAULT_BYTE_BUDGET);
+    }
+
     /**
      * Tests that the merge constructor creates an empty metadata object.
      */
@@ -173,7 +206,7 @@ final class NodeMetadataCacheTest {
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
 
         assertThat(mergedMetadata.getName()).isEqualTo("[]");
-        assertThat(mergedMetadata.getSequence()).isEqualTo("[]");
+        assertThat(mergedMetadata.getSequence()).hasToString("[]");
         assertThat(mergedMetadata.getGenomes()).isEmpty();
     }
 
@@ -186,7 +219,7 @@ final class NodeMetadataCacheTest {
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
 
         assertThat(mergedMetadata.getName()).isEqualTo("[name]");
-        assertThat(mergedMetadata.getSequence()).isEqualTo("[sequence]");
+        assertThat(mergedMetadata.getSequence()).hasToString("[sequence]");
         assertThat(mergedMetadata.getGenomes()).isEmpty();
     }
 
@@ -199,7 +232,7 @@ final class NodeMetadataCacheTest {
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
 
         assertThat(mergedMetadata.getName()).isEqualTo("[name]");
-        assertThat(mergedMetadata.getSequence()).isEqualTo("[sequence]");
+        assertThat(mergedMetadata.getSequence()).hasToString("[sequence]");
         assertThat(mergedMetadata.getGenomes()).containsExactly("genA", "genB");
     }
 
@@ -214,7 +247,7 @@ final class NodeMetadataCacheTest {
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
 
         assertThat(mergedMetadata.getName()).isEqualTo("[nameA, nameB]");
-        assertThat(mergedMetadata.getSequence()).isEqualTo("[sequenceA, sequenceB]");
+        assertThat(mergedMetadata.getSequence()).hasToString("[sequenceA, sequenceB]");
         assertThat(mergedMetadata.getGenomes()).containsExactly("genA", "genB", "genC", "genD");
     }
 
@@ -229,7 +262,7 @@ final class NodeMetadataCacheTest {
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
 
         assertThat(mergedMetadata.getName()).isEqualTo("[nameA, nameB]");
-        assertThat(mergedMetadata.getSequence()).isEqualTo("[sequenceA, sequenceB]");
+        assertThat(mergedMetadata.getSequence()).hasToString("[sequenceA, sequenceB]");
         assertThat(mergedMetadata.getGenomes()).containsExactly("genA", "genB", "genC");
     }
 
@@ -0,0 +1,154 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link PackedSequence}.
+ */
+final class PackedSequenceTest {
+    @Test
+    void testPackEmpty() {
+        final PackedSequence sequence = PackedSequence.pack("");
+
+        assertThat(sequence.length()).isZero();
+        assertThat(sequence).hasToString("");
+    }
+
+    @Test
+    void testPackBases() {
+        final PackedSequence sequence = PackedSequence.pack("ACGTTGCA");
+
+        assertThat(sequence.length()).isEqualTo(8);
+        assertThat(sequence.charAt(0)).isEqualTo('A');
+        assertThat(sequence.charAt(3)).isEqualTo('T');
+        assertThat(sequence).hasToString("ACGTTGCA");
+    }
+
+    @Test
+    void testPackAcrossWords() {
+        final String bases = String.join("", Collections.nCopies(20, "GATC"));
+
+        final PackedSequence sequence = PackedSequence.pack(bases);
+
+        assertThat(sequence).hasToString(bases);
+        assertThat(sequence.charAt(63)).isEqualTo('C');
+        assertThat(sequence.charAt(64)).isEqualTo('G');
+    }
+
+    @Test
+    void testPackExceptions() {
+        final PackedSequence sequence = PackedSequence.pack("ACNNNNGTRYa");
+
+        assertThat(sequence).hasToString("ACNNNNGTRYa");
+        assertThat(sequence.charAt(1)).isEqualTo('C');
+        assertThat(sequence.charAt(2)).isEqualTo('N');
+        assertThat(sequence.charAt(5)).isEqualTo('N');
+        assertThat(sequence.charAt(6)).isEqualTo('G');
+        assertThat(sequence.charAt(8)).isEqualTo('R');
+        assertThat(sequence.charAt(10)).isEqualTo('a');
+    }
+
+    @Test
+    void testRunOfExceptionsIsCompact() {
+        final String bases = String.join("", Collections.nCopies(1000, "A"));
+        final String unknowns = String.join("", Collections.nCopies(1000, "N"));
+
+        final long basesBytes = PackedSequence.pack(bases).getRetainedBytes();
+        final long unknownsBytes = PackedSequence.pack(unknowns).getRetainedBytes();
+
+        assertThat(unknownsBytes - basesBytes).isLessThan(16);
+    }
+
+    @Test
+    void testRetainsLessThanString() {
+        final String bases = String.join("", Collections.nCopies(1000, "ACGT"));
+
+        assertThat(PackedSequence.pack(bases).getRetainedBytes()).isLessThan(bases.length() / 3);
+    }
+
+    @Test
+    void testSoftMaskedSequenceIsCompact() {
+        final String upperCase = String.join("", Collections.nCopies(500, "ACGT"));
+        final String softMasked = upperCase.toLowerCase(Locale.ROOT)
+                + String.join("", Collections.nCopies(500, "N"))
+                + String.join("", Collections.nCopies(500, "n"))
+                + upperCase;
+        final String unmasked = String.join("", Collections.nCopies(1250, "ACGT"));
+
+        final PackedSequence sequence = PackedSequence.pack(softMasked);
+
+        assertThat(sequence).hasToString(softMasked);
+        assertThat(sequence.charAt(1)).isEqualTo('c');
+        assertThat(sequence.charAt(2000)).isEqualTo('N');
+        assertThat(sequence.charAt(2999)).isEqualTo('n');
+        assertThat(sequence.charAt(3000)).isEqualTo('A');
+        // Two lowercase runs and a single run of N, regardless of its case
+        assertThat(sequence.getRetainedBytes() - PackedSequence.pack(unmasked).getRetainedBytes()).isEqualTo(26);
+    }
+
+    @Test
+    void testSubSequenceWithMixedCase() {
+        final PackedSequence sequence = PackedSequence.pack("ACgtnNRy[");
+
+        assertThat(sequence.subSequence(1, 5)).isEqualTo("Cgtn");
+        assertThat(sequence.subSequence(4, 9)).isEqualTo("nNRy[");
+    }
+
+    @Test
+    void testSubSequence() {
+        final PackedSequence sequence = PackedSequence.pack("ACNNNNGTRY");
+
+        assertThat(sequence.subSequence(1, 4)).isEqualTo("CNN");
+        assertThat(sequence.subSequence(3, 9)).isEqualTo("NNNGTR");
+        assertThat(sequence.subSequence(6, 8)).isEqualTo("GT");
+        assertThat(sequence.subSequence(4, 4)).isEmpty();
+    }
+
+    @Test
+    void testSubSequenceOutOfBounds() {
+        final Throwable e = catchThrowable(() -> PackedSequence.pack("ACGT").subSequence(2, 5));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testCharAtOutOfBounds() {
+        final Throwable e = catchThrowable(() -> PackedSequence.pack("ACGT").charAt(4));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testPackPackedSequence() {
+        final PackedSequence sequence = PackedSequence.pack("ACGT");
+
+        assertThat(PackedSequence.pack(sequence)).isSameAs(sequence);
+    }
+
+    @Test
+    void testEquals() {
+        assertThat(PackedSequence.pack("ACNGT")).isEqualTo(PackedSequence.pack("ACNGT"));
+        assertThat(PackedSequence.pack("ACNGT").hashCode()).isEqualTo(PackedSequence.pack("ACNGT").hashCode());
+        assertThat(PackedSequence.pack("ACNGT")).isNotEqualTo(PackedSequence.pack("ACAGT"));
+        assertThat(PackedSequence.pack("ACGT")).isNotEqualTo(PackedSequence.pack("ACGTA"));
+    }
+
+    @Test
+    void testBuilderConcatenatesPackedSequences() {
+        final PackedSequence sequence = new PackedSequence.Builder(0)
+                .append(PackedSequence.pack("ACNN"))
+                .append(PackedSequence.pack("nngt"))
+                .append('[')
+                .build();
+
+        assertThat(sequence).hasToString("ACNNnngt[");
+        assertThat(sequence).isEqualTo(PackedSequence.pack("ACNNnngt["));
+    }
+}
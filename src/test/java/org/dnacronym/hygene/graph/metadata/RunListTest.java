@@ -0,0 +1,53 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link RunList}.
+ */
+final class RunListTest {
+    @Test
+    void testAddExtendsAdjacentRun() {
+        final RunList.Builder builder = new RunList.Builder();
+        builder.add(2);
+        builder.add(3);
+        builder.add(5);
+
+        final RunList runs = new RunList(builder);
+
+        assertThat(runs.size()).isEqualTo(2);
+        assertThat(runs.getStart(0)).isEqualTo(2);
+        assertThat(runs.getEnd(0)).isEqualTo(4);
+        assertThat(runs.getStart(1)).isEqualTo(5);
+        assertThat(runs.getEnd(1)).isEqualTo(6);
+    }
+
+    @Test
+    void testAddRunStartsNewRun() {
+        final RunList.Builder builder = new RunList.Builder();
+        builder.add(2);
+        builder.addRun(3);
+
+        assertThat(builder.size()).isEqualTo(2);
+        assertThat(builder.endsAt(4)).isTrue();
+    }
+
+    @Test
+    void testFind() {
+        final RunList.Builder builder = new RunList.Builder();
+        builder.add(2);
+        builder.add(3);
+        builder.add(6);
+        final RunList runs = new RunList(builder);
+
+        assertThat(runs.find(1)).isEqualTo(-1);
+        assertThat(runs.find(4)).isEqualTo(0);
+        assertThat(runs.find(7)).isEqualTo(1);
+        assertThat(runs.findContaining(3)).isEqualTo(0);
+        assertThat(runs.findContaining(4)).isEqualTo(-1);
+        assertThat(runs.findContaining(6)).isEqualTo(1);
+    }
+}
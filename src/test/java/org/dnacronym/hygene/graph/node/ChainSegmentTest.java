@@ -0,0 +1,69 @@
+package org.dnacronym.hygene.graph.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for {@link ChainSegment}.
+ */
+class ChainSegmentTest {
+    @Test
+    void testEmptyChain() {
+        assertThrows(IllegalArgumentException.class, () -> new ChainSegment(new ArrayList<>()));
+    }
+
+    @Test
+    void testSingleSegmentLength() {
+        final Segment segment = new Segment(2, 75, 749);
+
+        final ChainSegment chainSegment = new ChainSegment(Arrays.asList(segment));
+
+        assertThat(chainSegment.getLength()).isEqualTo(segment.getLength());
+    }
+
+    @Test
+    void testLengthSpansChain() {
+        final Segment segmentA = new Segment(3, 10, 5);
+        final Segment segmentB = new Segment(4, 20, 800);
+        segmentA.setXPosition(1000);
+        segmentB.setXPosition(2000);
+
+        final ChainSegment chainSegment = new ChainSegment(Arrays.asList(segmentA, segmentB));
+
+        assertThat(chainSegment.getLength()).isEqualTo(1800);
+    }
+
+    @Test
+    void testGetSegmentsInOrder() {
+        final Segment segmentA = new Segment(8, 10, 5);
+        final Segment segmentB = new Segment(3, 20, 5);
+
+        final ChainSegment chainSegment = new ChainSegment(Arrays.asList(segmentA, segmentB));
+
+        assertThat(chainSegment.getSegments()).containsExactly(segmentA, segmentB);
+        assertThat(chainSegment.getSegmentIds()).containsExactly(8, 3);
+    }
+
+    @Test
+    void testContainsSegment() {
+        final ChainSegment chainSegment = new ChainSegment(Arrays.asList(new Segment(8, 10, 5), new Segment(3, 20, 5)));
+
+        assertThat(chainSegment.containsSegment(3)).isTrue();
+        assertThat(chainSegment.containsSegment(4)).isFalse();
+    }
+
+    @Test
+    void testGetSegment() {
+        final Segment segment = new Segment(3, 20, 5);
+        final ChainSegment chainSegment = new ChainSegment(Arrays.asList(new Segment(8, 10, 5), segment));
+
+        assertThat(chainSegment.getSegment(3)).contains(segment);
+        assertThat(chainSegment.getSegment(4)).isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package org.dnacronym.hygene.graph.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for {@link ClusterSegment}.
+ */
+class ClusterSegmentTest {
+    @Test
+    void testEmptyCluster() {
+        assertThrows(IllegalArgumentException.class, () -> new ClusterSegment(new ArrayList<>()));
+    }
+
+    @Test
+    void testSpansSegments() {
+        final Segment segmentA = new Segment(3, 10, 5);
+        final Segment segmentB = new Segment(4, 20, 800);
+        final Segment segmentC = new Segment(5, 30, 5);
+        segmentA.setXPosition(2000);
+        segmentB.setXPosition(1000);
+        segmentC.setXPosition(2000);
+
+        final ClusterSegment clusterSegment = new ClusterSegment(Arrays.asList(segmentA, segmentB, segmentC));
+
+        assertThat(clusterSegment.getXPosition()).isEqualTo(1000);
+        assertThat(clusterSegment.getLength()).isEqualTo(1500);
+    }
+
+    @Test
+    void testGetSegments() {
+        final Segment segmentA = new Segment(8, 10, 5);
+        final Segment segmentB = new Segment(3, 20, 5);
+
+        final ClusterSegment clusterSegment = new ClusterSegment(Arrays.asList(segmentA, segmentB));
+
+        assertThat(clusterSegment.getSegments()).containsExactly(segmentA, segmentB);
+        assertThat(clusterSegment.getSegmentIds()).containsExactly(8, 3);
+    }
+
+    @Test
+    void testContainsSegment() {
+        final ClusterSegment clusterSegment = new ClusterSegment(
+                Arrays.asList(new Segment(8, 10, 5), new Segment(3, 20, 5)));
+
+        assertThat(clusterSegment.containsSegment(3)).isTrue();
+        assertThat(clusterSegment.containsSegment(4)).isFalse();
+        assertThat(clusterSegment.getSegment(4)).isEmpty();
+    }
+
+    @Test
+    void testEmptyLazyCluster() {
+        assertThrows(IllegalArgumentException.class, () -> new ClusterSegment(1, 3, 0, 0, 0, 0,
+                segmentId -> false, ArrayList::new));
+    }
+
+    @Test
+    void testLazyClusterDoesNotCreateSegments() {
+        final AtomicInteger creations = new AtomicInteger();
+
+        final ClusterSegment clusterSegment = new ClusterSegment(1, 3, 2, 10, 1000, 2500,
+                segmentId -> segmentId == 3 || segmentId == 8, () -> {
+                    creations.incrementAndGet();
+                    return createSegments();
+                });
+
+        assertThat(clusterSegment.getXPosition()).isEqualTo(1000);
+        assertThat(clusterSegment.getLength()).isEqualTo(1500);
+        assertThat(clusterSegment.getLevelId()).isEqualTo(1);
+        assertThat(clusterSegment.getFirstSegmentId()).isEqualTo(3);
+        assertThat(clusterSegment.getSegmentCount()).isEqualTo(2);
+        assertThat(clusterSegment.getSequenceLength()).isEqualTo(10);
+        assertThat(clusterSegment.containsSegment(8)).isTrue();
+        assertThat(clusterSegment.containsSegment(4)).isFalse();
+        assertThat(clusterSegment.getSegment(4)).isEmpty();
+        assertThat(clusterSegment.isExpanded()).isFalse();
+        assertThat(creations.get()).isZero();
+    }
+
+    @Test
+    void testLazyClusterCreatesSegmentsOnce() {
+        final AtomicInteger creations = new AtomicInteger();
+        final ClusterSegment clusterSegment = new ClusterSegment(1, 3, 2, 10, 1000, 2500,
+                segmentId -> segmentId == 3 || segmentId == 8, () -> {
+                    creations.incrementAndGet();
+                    return createSegments();
+                });
+
+        assertThat(clusterSegment.getSegmentIds()).containsExactly(3, 8);
+        assertThat(clusterSegment.getSegment(8)).isPresent();
+        assertThat(clusterSegment.isExpanded()).isTrue();
+        assertThat(creations.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testClusterOfSegmentsIsExpanded() {
+        final ClusterSegment clusterSegment = new ClusterSegment(
+                Arrays.asList(new Segment(8, 10, 5), new Segment(3, 20, 7)));
+
+        assertThat(clusterSegment.isExpanded()).isTrue();
+        assertThat(clusterSegment.getFirstSegmentId()).isEqualTo(8);
+        assertThat(clusterSegment.getSegmentCount()).isEqualTo(2);
+        assertThat(clusterSegment.getSequenceLength()).isEqualTo(12);
+    }
+
+
+    private static List<Segment> createSegments() {
+        return Arrays.asList(new Segment(3, 10, 5), new Segment(8, 20, 5));
+    }
+}
@@ -4,8 +4,6 @@ import javafx.scene.paint.Color;
 import org.dnacronym.hygene.graph.colorscheme.fixed.FixedColorScheme;
 import org.junit.jupiter.api.Test;
 
-import java.util.UUID;
-
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -20,10 +18,10 @@ abstract class NodeTest {
 
 
     @Test
-    void testUuid() {
-        final UUID uuid = node.getUuid();
+    void testUniqueId() {
+        final Node otherNode = new FillNode();
 
-        assertThat(uuid.toString()).hasSize(36);
+        assertThat(node.getUniqueId()).isNotEqualTo(otherNode.getUniqueId());
     }
 
     @Test
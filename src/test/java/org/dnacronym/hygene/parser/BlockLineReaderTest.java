@@ -0,0 +1,142 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link BlockLineReader}.
+ */
+final class BlockLineReaderTest {
+    private File file;
+
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        file = File.createTempFile("lines", ".gfa");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Test
+    void testReadLines() throws IOException {
+        write("S\t1\tA\nS\t2\tC\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tA");
+            assertThat(reader.readLine(6)).isEqualTo("S\t2\tC");
+        }
+    }
+
+    @Test
+    void testReadLinesOutOfOrder() throws IOException {
+        write("S\t1\tA\nS\t2\tC\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(6)).isEqualTo("S\t2\tC");
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tA");
+        }
+    }
+
+    @Test
+    void testReadLineWithCarriageReturn() throws IOException {
+        write("S\t1\tA\r\nS\t2\tC\r\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tA");
+            assertThat(reader.readLine(7)).isEqualTo("S\t2\tC");
+        }
+    }
+
+    @Test
+    void testReadLastLineWithoutTerminator() throws IOException {
+        write("S\t1\tA\nS\t2\tC");
+
+        try (FileChannel channel = openChannel()) {
+            assertThat(new BlockLineReader(channel).readLine(6)).isEqualTo("S\t2\tC");
+        }
+    }
+
+    @Test
+    void testReadEmptyLine() throws IOException {
+        write("\n\nS\t1\tA\n");
+
+        try (FileChannel channel = openChannel()) {
+            assertThat(new BlockLineReader(channel).readLine(1)).isEmpty();
+        }
+    }
+
+    @Test
+    void testReadAtEndOfFile() throws IOException {
+        write("S\t1\tA\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(6)).isNull();
+            assertThat(reader.readLine(100)).isNull();
+        }
+    }
+
+    @Test
+    void testReadLineAcrossBlocks() throws IOException {
+        final String prefix = createSequence(BlockLineReader.BLOCK_SIZE - 10);
+        write(prefix + "\nS\t1\tACGTACGTACGT\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(0)).isEqualTo(prefix);
+            assertThat(reader.readLine(prefix.length() + 1)).isEqualTo("S\t1\tACGTACGTACGT");
+        }
+    }
+
+    @Test
+    void testReadLineLongerThanBlock() throws IOException {
+        final String sequence = createSequence(3 * BlockLineReader.BLOCK_SIZE + 5);
+        write("S\t1\t" + sequence + "\nS\t2\tC\n");
+
+        try (FileChannel channel = openChannel()) {
+            final BlockLineReader reader = new BlockLineReader(channel);
+
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\t" + sequence);
+            assertThat(reader.readLine(sequence.length() + 5)).isEqualTo("S\t2\tC");
+        }
+    }
+
+
+    private void write(final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    private static String createSequence(final int length) {
+        final char[] bases = new char[length];
+        Arrays.fill(bases, 'A');
+        return new String(bases);
+    }
+}
@@ -1,5 +1,6 @@
 package org.dnacronym.hygene.parser;
 
+import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.parser.factories.MetadataParserFactory;
@@ -22,6 +23,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.entry;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -102,6 +104,23 @@ final class GfaFileTest {
         assertThat(gfaFile.getGraph()).isNotNull();
     }
 
+    @Test
+    void testRestoreFileWithLayout() throws IOException, GfaParseException {
+        currentFileName = GFA_TEST_FILE;
+        final Graph parsedGraph = new GfaFile(GFA_TEST_FILE).parse(ProgressUpdater.DUMMY);
+
+        final GfaParser gfaParser = spy(GfaParser.class);
+        GfaParserFactory.setInstance(gfaParser);
+        final Graph restoredGraph = new GfaFile(GFA_TEST_FILE).parse(ProgressUpdater.DUMMY);
+
+        verify(gfaParser, never()).parse(any(GfaFile.class), any(ProgressUpdater.class));
+        assertThat(restoredGraph.getNodePositions().getPositions())
+                .containsExactly(parsedGraph.getNodePositions().getPositions());
+        assertThat(restoredGraph.getNodePositions().getNodeIds())
+                .containsExactly(parsedGraph.getNodePositions().getNodeIds());
+        assertThat(restoredGraph.getUnscaledXPosition(1)).isEqualTo(parsedGraph.getUnscaledXPosition(1));
+    }
+
     @Test
     void testParseNodeMetadata() throws IOException, GfaParseException, MetadataParseException {
         final MetadataParser metadataParser = spy(MetadataParser.class);
@@ -112,7 +131,7 @@ final class GfaFileTest {
         final NodeMetadata nodeMetadata = gfaFile.parseNodeMetadata(38);
 
         verify(metadataParser).parseNodeMetadata(gfaFile, 38);
-        assertThat(nodeMetadata.getSequence()).isEqualTo("ACCTT");
+        assertThat(nodeMetadata.getSequence()).hasToString("ACCTT");
     }
 
     @Test
@@ -0,0 +1,215 @@
+package org.dnacronym.hygene.parser;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.Graph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Benchmarks the {@link GfaParser} against the two-pass parsing strategy it replaced, and its parallel mode against
+ * its sequential mode.
+ * <p>
+ * Run with {@code gradle junitPlatformTest -Pbenchmark}.
+ */
+@Tag("benchmark")
+final class GfaParserBenchmarkTest {
+    private static final Logger LOGGER = LogManager.getLogger(GfaParserBenchmarkTest.class);
+    private static final int SEGMENT_COUNT = 200_000;
+    private static final int HUB_INTERVAL = 1000;
+    private static final int RUNS = 3;
+    private static final int PARALLEL_CHUNK_SIZE = 64 * 1024;
+
+    private File file;
+
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        file = File.createTempFile("benchmark", ".gfa");
+        writeHighDegreeGfa(file);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Test
+    void testOnePassAgainstTwoPass() throws GfaParseException, IOException {
+        final GfaFile gfaFile = new GfaFile(file.getAbsolutePath());
+
+        int[][] onePassNodeArrays = new int[0][];
+        int[][] twoPassNodeArrays = new int[0][];
+        for (int run = 0; run < RUNS; run++) {
+            final long onePassStart = System.nanoTime();
+            onePassNodeArrays = new GfaParser(1, PARALLEL_CHUNK_SIZE).parse(gfaFile, ProgressUpdater.DUMMY)
+                    .getNodeArrays();
+            final long onePassTime = System.nanoTime() - onePassStart;
+
+            final long twoPassStart = System.nanoTime();
+            twoPassNodeArrays = new TwoPassGfaParser().parse(gfaFile);
+            final long twoPassTime = System.nanoTime() - twoPassStart;
+
+            LOGGER.info("Run " + run + ": one pass " + onePassTime / 1_000_000 + " ms, two pass "
+                    + twoPassTime / 1_000_000 + " ms");
+        }
+
+        assertThat(onePassNodeArrays).isEqualTo(twoPassNodeArrays);
+    }
+
+    @Test
+    void testParallelAgainstSequential() throws GfaParseException {
+        final GfaFile gfaFile = new GfaFile(file.getAbsolutePath());
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+
+        int[][] sequentialNodeArrays = new int[0][];
+        int[][] parallelNodeArrays = new int[0][];
+        for (int run = 0; run < RUNS; run++) {
+            final long sequentialStart = System.nanoTime();
+            sequentialNodeArrays = new GfaParser(1, PARALLEL_CHUNK_SIZE).parse(gfaFile, ProgressUpdater.DUMMY)
+                    .getNodeArrays();
+            final long sequentialTime = System.nanoTime() - sequentialStart;
+
+            final long parallelStart = System.nanoTime();
+            parallelNodeArrays = new GfaParser(threadCount, PARALLEL_CHUNK_SIZE).parse(gfaFile, ProgressUpdater.DUMMY)
+                    .getNodeArrays();
+            final long parallelTime = System.nanoTime() - parallelStart;
+
+            LOGGER.info("Run " + run + ": sequential " + sequentialTime / 1_000_000 + " ms, parallel ("
+                    + threadCount + " threads) " + parallelTime / 1_000_000 + " ms");
+        }
+
+        assertThat(parallelNodeArrays).isEqualTo(sequentialNodeArrays);
+    }
+
+
+    /**
+     * Writes a GFA file in which every segment links to its successor and every {@value HUB_INTERVAL}th segment is
+     * a hub that links to the next {@value HUB_INTERVAL} segments, some of which are declared later in the file.
+     *
+     * @param target the file to write to
+     * @throws IOException if the file could not be written
+     */
+    private static void writeHighDegreeGfa(final File target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("H\tVN:Z:1.0\n");
+            for (int i = 1; i <= SEGMENT_COUNT; i++) {
+                writer.write("S\t" + i + "\tACGTACGTAC\n");
+                if (i < SEGMENT_COUNT) {
+                    writer.write("L\t" + i + "\t+\t" + (i + 1) + "\t+\t0M\n");
+                }
+                if (i % HUB_INTERVAL == 0) {
+                    for (int j = i + 2; j <= Math.min(SEGMENT_COUNT, i + HUB_INTERVAL); j++) {
+                        writer.write("L\t" + i + "\t+\t" + j + "\t+\t0M\n");
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * The previous parsing strategy: a first pass allocates the node IDs, a second pass grows the node arrays with
+     * every edge.
+     */
+    private static final class TwoPassGfaParser {
+        private final Map<String, Integer> nodeIds = new HashMap<>();
+        private int[][] nodeArrays = new int[0][];
+
+
+        /**
+         * Parses the given file to node arrays.
+         *
+         * @param gfaFile the file to parse
+         * @return the node arrays
+         * @throws GfaParseException if the file could not be parsed
+         * @throws IOException       if the file could not be read
+         */
+        int[][] parse(final GfaFile gfaFile) throws GfaParseException, IOException {
+            nodeIds.put("<source>", 0);
+            try (BufferedReader reader = gfaFile.readFile()) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("S\t")) {
+                        nodeIds.put(line.substring(2, line.indexOf('\t', 2)), nodeIds.size());
+                    }
+                }
+            }
+            nodeIds.put("<sink>", nodeIds.size());
+
+            nodeArrays = new int[nodeIds.size()][];
+            Arrays.setAll(nodeArrays, i -> Graph.createEmptyNodeArray());
+
+            try (BufferedReader reader = gfaFile.readFile()) {
+                long byteOffset = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] fields = line.split("\t");
+                    if ("S".equals(fields[0])) {
+                        final int id = nodeIds.get(fields[1]);
+                        nodeArrays[id][Graph.NODE_BYTE_OFFSET_INDEX] = UnsignedInteger.fromLong(byteOffset);
+                        nodeArrays[id][Graph.NODE_SEQUENCE_LENGTH_INDEX] = fields[2].length();
+                    } else if ("L".equals(fields[0])) {
+                        addEdge(nodeIds.get(fields[1]), nodeIds.get(fields[3]), byteOffset);
+                    }
+                    byteOffset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+            }
+
+            final int sink = nodeArrays.length - 1;
+            for (int id = 1; id < sink; id++) {
+                if (nodeArrays[id].length - Graph.NODE_EDGE_DATA_OFFSET
+                        == nodeArrays[id][Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE) {
+                    addEdge(0, id, 0);
+                }
+                if (nodeArrays[id][Graph.NODE_OUTGOING_EDGES_INDEX] == 0) {
+                    addEdge(id, sink, 0);
+                }
+            }
+
+            return nodeArrays;
+        }
+
+        /**
+         * Adds an edge by copying both node arrays.
+         *
+         * @param fromId     the start node of the edge
+         * @param toId       the end node of the edge
+         * @param byteOffset the byte offset of the edge
+         */
+        private void addEdge(final int fromId, final int toId, final long byteOffset) {
+            final int[] to = Arrays.copyOf(nodeArrays[toId], nodeArrays[toId].length + Graph.EDGE_DATA_SIZE);
+            to[to.length - 2] = fromId;
+            to[to.length - 1] = UnsignedInteger.fromLong(byteOffset);
+            nodeArrays[toId] = to;
+
+            final int[] from = nodeArrays[fromId];
+            final int position = Graph.NODE_EDGE_DATA_OFFSET
+                    + from[Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE;
+            final int[] result = new int[from.length + Graph.EDGE_DATA_SIZE];
+            System.arraycopy(from, 0, result, 0, position);
+            result[position] = toId;
+            result[position + 1] = UnsignedInteger.fromLong(byteOffset);
+            System.arraycopy(from, position, result, position + Graph.EDGE_DATA_SIZE, from.length - position);
+            result[Graph.NODE_OUTGOING_EDGES_INDEX]++;
+            nodeArrays[fromId] = result;
+        }
+    }
+}
@@ -7,10 +7,11 @@ import org.dnacronym.hygene.graph.Graph;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -123,6 +124,63 @@ final class GfaParserTest {
         assertThat(secondNode.getIncomingEdges()).contains(new ArrayBasedEdge(1, 2, UnsignedInteger.fromLong(0), null));
     }
 
+    @Test
+    void testEdgeSpecifiedBeforeNonExistingNode() {
+        final String gfa = "S 1 A\nL 1 + 2 + 0M\nS 3 B";
+
+        final Throwable e = catchThrowable(() -> parse(gfa));
+        assertThat(e).isInstanceOf(GfaParseException.class);
+        assertThat(e).hasMessageContaining("Link has reference to non existing node 2");
+    }
+
+    @Test
+    void testEdgesRetainFileOrder() throws GfaParseException {
+        final String gfa = "S 1 A\nL 1 + 3 + 0M\nL 1 + 2 + 0M\nS 2 B\nS 3 C\nL 2 + 3 + 0M";
+        final Graph graph = parse(gfa);
+
+        final int[] firstNode = graph.getNodeArray(1);
+        assertThat(firstNode[Graph.NODE_EDGE_DATA_OFFSET]).isEqualTo(3);
+        assertThat(firstNode[Graph.NODE_EDGE_DATA_OFFSET + Graph.EDGE_DATA_SIZE]).isEqualTo(2);
+
+        final int[] thirdNode = graph.getNodeArray(3);
+        assertThat(thirdNode[Graph.NODE_OUTGOING_EDGES_INDEX]).isEqualTo(1);
+        assertThat(thirdNode[Graph.NODE_EDGE_DATA_OFFSET + Graph.EDGE_DATA_SIZE]).isEqualTo(1);
+        assertThat(thirdNode[Graph.NODE_EDGE_DATA_OFFSET + 2 * Graph.EDGE_DATA_SIZE]).isEqualTo(2);
+    }
+
+    @Test
+    void testParallelParsingEqualsSequentialParsing() throws GfaParseException {
+        final GfaFile gfaFile = new GfaFile("src/test/resources/gfa/index.gfa");
+
+        final Graph sequentialGraph = new GfaParser(1, 1).parse(gfaFile, ProgressUpdater.DUMMY);
+        final Graph parallelGraph = new GfaParser(4, 1).parse(gfaFile, ProgressUpdater.DUMMY);
+
+        assertThat(parallelGraph.getNodeArrays()).isEqualTo(sequentialGraph.getNodeArrays());
+        assertThat(gfaFile.getGenomeMapping()).containsValues("g1.fasta", "g2.fasta");
+    }
+
+    @Test
+    void testParallelParsingWithMoreChunksThanLines() throws GfaParseException, IOException {
+        final String gfa = "L 1 + 3 + 0M\r\nS 1 A\r\nS 2 B\r\nL 1 + 2 + 0M\r\nS 3 C\r\nL 2 + 3 + 0M";
+        final GfaFile gfaFile = new GfaFile(createTempFile(gfa).getAbsolutePath());
+
+        final Graph graph = new GfaParser(64, 1).parse(gfaFile, ProgressUpdater.DUMMY);
+
+        assertThat(graph.getNodeArrays()).isEqualTo(parse(gfa).getNodeArrays());
+        assertThat(graph.getByteOffset(3)).isEqualTo(42);
+        assertThat(graph.getSequenceLength(3)).isEqualTo(1);
+    }
+
+    @Test
+    void testParallelParsingWithLinkToNonExistingNode() throws IOException {
+        final String gfa = "S 1 A\nS 2 B\nL 1 + 2 + 0M\nL 2 + 3 + 0M";
+        final GfaFile gfaFile = new GfaFile(createTempFile(gfa).getAbsolutePath());
+
+        final Throwable e = catchThrowable(() -> new GfaParser(4, 1).parse(gfaFile, ProgressUpdater.DUMMY));
+        assertThat(e).isInstanceOf(GfaParseException.class);
+        assertThat(e).hasMessageContaining("Link has reference to non existing node 3");
+    }
+
     @Test
     void testSourceNodesAreAdded() throws GfaParseException {
         final String gfa = "S 1 A\nS 2 B\nL 1 + 2 + 0M";
@@ -150,12 +208,16 @@ final class GfaParserTest {
         return string.replaceAll(" ", "\t");
     }
 
+    private File createTempFile(final String gfa) throws IOException {
+        final File file = File.createTempFile("parser", ".gfa");
+        file.deleteOnExit();
+        Files.write(file.toPath(), replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
     private Graph parse(final String gfa) throws GfaParseException {
         final byte[] gfaBytes = replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8);
         final GfaFile gfaFile = mock(GfaFile.class);
-        when(gfaFile.readFile()).thenAnswer(invocationOnMock ->
-                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(gfaBytes)))
-        );
         when(gfaFile.getInputStream()).thenAnswer(invocationOnMock ->
                 new ByteArrayInputStream(gfaBytes)
         );
@@ -0,0 +1,111 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GfaTokenizer}.
+ */
+final class GfaTokenizerTest {
+    private static final String GFA = "H\tVN:Z:1.0\r\n\nS\t11\tACGT\t*\tORI:Z:g1;g2\nL\t11\t+\t12\t+\t0M";
+
+
+    @Test
+    void testStreamRecords() throws IOException {
+        final GfaTokenizer tokenizer = GfaTokenizer.fromInputStream(
+                new ByteArrayInputStream(GFA.getBytes(StandardCharsets.UTF_8)));
+
+        assertRecords(tokenizer);
+    }
+
+    @Test
+    void testMappedRecords() throws IOException {
+        try (FileChannel channel = FileChannel.open(createTempFile(GFA).toPath(), StandardOpenOption.READ)) {
+            assertRecords(GfaTokenizer.fromFileChannel(channel, 0, channel.size()));
+        }
+    }
+
+    @Test
+    void testMappedRange() throws IOException {
+        try (FileChannel channel = FileChannel.open(createTempFile(GFA).toPath(), StandardOpenOption.READ)) {
+            final GfaTokenizer tokenizer = GfaTokenizer.fromFileChannel(channel, 12, 37);
+
+            assertThat(tokenizer.next()).isTrue();
+            assertThat(tokenizer.getRecordType()).isEqualTo('S');
+            assertThat(tokenizer.getLineOffset()).isEqualTo(13);
+            assertThat(tokenizer.next()).isFalse();
+        }
+    }
+
+    @Test
+    void testInvalidRange() {
+        final Throwable e = catchThrowable(() -> GfaTokenizer.fromFileChannel(null, 5, 4));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testFieldViews() throws IOException {
+        final GfaTokenizer tokenizer = GfaTokenizer.fromInputStream(
+                new ByteArrayInputStream("S\t11\tACGT\t*\tORI:Z:g1;g2".getBytes(StandardCharsets.UTF_8)));
+        tokenizer.next();
+
+        assertThat(tokenizer.getByte(2, 1)).isEqualTo((byte) 'C');
+        assertThat(tokenizer.indexOf(4, (byte) ';', 0)).isEqualTo(8);
+        assertThat(tokenizer.indexOf(4, (byte) ';', 9)).isEqualTo(-1);
+        assertThat(tokenizer.regionEquals(4, 9, 2, "g2".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(tokenizer.fieldStartsWith(4, "ORI:Z:".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(tokenizer.getFieldChars(2).subSequence(1, 3).toString()).isEqualTo("CG");
+    }
+
+    @Test
+    void testNonExistingField() throws IOException {
+        final GfaTokenizer tokenizer = GfaTokenizer.fromInputStream(
+                new ByteArrayInputStream("S\t11".getBytes(StandardCharsets.UTF_8)));
+        tokenizer.next();
+
+        final Throwable e = catchThrowable(() -> tokenizer.getFieldLength(2));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(e).hasMessageContaining("Field 2 does not exist on line at position 0.");
+    }
+
+
+    private void assertRecords(final GfaTokenizer tokenizer) throws IOException {
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.getRecordType()).isEqualTo('H');
+        assertThat(tokenizer.getLineOffset()).isEqualTo(0);
+        assertThat(tokenizer.getFieldString(1)).isEqualTo("VN:Z:1.0");
+
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.getRecordType()).isEqualTo('S');
+        assertThat(tokenizer.getLineOffset()).isEqualTo(13);
+        assertThat(tokenizer.getFieldCount()).isEqualTo(5);
+        assertThat(tokenizer.getFieldLength(2)).isEqualTo(4);
+
+        assertThat(tokenizer.next()).isTrue();
+        assertThat(tokenizer.getRecordType()).isEqualTo('L');
+        assertThat(tokenizer.getLineOffset()).isEqualTo(37);
+        assertThat(tokenizer.getFieldChars(5).toString()).isEqualTo("0M");
+
+        assertThat(tokenizer.next()).isFalse();
+    }
+
+    private File createTempFile(final String contents) throws IOException {
+        final File file = File.createTempFile("tokenizer", ".gfa");
+        file.deleteOnExit();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
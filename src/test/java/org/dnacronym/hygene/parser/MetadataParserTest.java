@@ -3,72 +3,164 @@ package org.dnacronym.hygene.parser;
 import com.google.common.collect.ImmutableMap;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 
 final class MetadataParserTest {
+    private static final int SEGMENT_LINE_LENGTH = 30;
+
     private MetadataParser parser;
-    private RandomAccessFile randomAccessFile;
+    private File file;
 
 
     @BeforeEach
-    void beforeEach() {
+    void beforeEach() throws IOException {
         parser = new MetadataParser();
+        file = File.createTempFile("metadata", ".gfa");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.deleteIfExists(file.toPath());
     }
 
 
     @Test
     void testParseNodeMetadata() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("%n%nS 12 TCAAGG * ORI:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"));
+        final GfaFile gfaFile = createGfaFile("\n\nS 12 TCAAGG * ORI:Z:test.fasta;");
 
-        final NodeMetadata nodeMetadata = parser.parseNodeMetadata(gfaFile, 0);
+        final NodeMetadata nodeMetadata = parser.parseNodeMetadata(gfaFile, 2);
 
         assertThat(nodeMetadata.getName()).isEqualTo("12");
-        assertThat(nodeMetadata.getSequence()).isEqualTo("TCAAGG");
+        assertThat(nodeMetadata.getSequence()).hasToString("TCAAGG");
         assertThat(nodeMetadata.getGenomes()).contains("test.fasta");
     }
 
     @Test
     void testParseNodeMetadataOfMultipleNodes() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("%n%nS 12 TCAAGG * ORI:Z:test.fasta;"
-                + "%n%n%nS 12 TAG * ORI:Z:test.fasta;"
-                + "%nS 12 CAT * ORI:Z:test.fasta;"
-                + "%nS 12 SANITYCHECK * ORI:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(
-                replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"),
-                replaceSpacesWithTabs("S 12 TAG * ORI:Z:test.fasta;"),
-                replaceSpacesWithTabs("S 12 CAT * ORI:Z:test.fasta;")
-        );
+        final GfaFile gfaFile = createGfaFile("\n\nS 12 TCAAGG * ORI:Z:test.fasta;"
+                + "\n\n\nS 12 TAG * ORI:Z:test.fasta;"
+                + "\nS 12 CAT * ORI:Z:test.fasta;"
+                + "\nS 12 SANITYCHECK * ORI:Z:test.fasta;");
 
         final Map<Integer, NodeMetadata> nodesMetadata = parser.parseNodeMetadata(
                 gfaFile,
-                ImmutableMap.of(1, 3L, 2, 6L, 3, 7L)
+                ImmutableMap.of(1, 2L, 2, 36L, 3, 65L)
         );
 
-        assertThat(nodesMetadata.get(1).getSequence()).isEqualTo("TCAAGG");
-        assertThat(nodesMetadata.get(2).getSequence()).isEqualTo("TAG");
-        assertThat(nodesMetadata.get(3).getSequence()).isEqualTo("CAT");
+        assertThat(nodesMetadata.get(1).getSequence()).hasToString("TCAAGG");
+        assertThat(nodesMetadata.get(2).getSequence()).hasToString("TAG");
+        assertThat(nodesMetadata.get(3).getSequence()).hasToString("CAT");
     }
 
     @Test
-    void testParseEdgeMetadata() throws MetadataParseException, IOException {
+    void testParseNodeMetadataInParallel() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10));
+        final Map<Integer, Long> byteOffsets = createSegmentOffsets(10);
+
+        final Map<Integer, NodeMetadata> nodesMetadata = new MetadataParser(4, 1).parseNodeMetadata(gfaFile,
+                byteOffsets);
+
+        assertThat(nodesMetadata).hasSize(10);
+        assertThat(nodesMetadata.get(0).getName()).isEqualTo("00");
+        assertThat(nodesMetadata.get(9).getName()).isEqualTo("09");
+        assertThat(nodesMetadata.get(9).getGenomes()).containsExactly("test.fasta");
+    }
+
+    @Test
+    void testParseNodeMetadataInParallelPassesEachBatch() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10));
+        final List<Map<Integer, NodeMetadata>> batches = new ArrayList<>();
+
+        new MetadataParser(4, 2).parseNodeMetadata(gfaFile, createSegmentOffsets(10), batches::add);
+
+        assertThat(batches).hasSize(4);
+        assertThat(batches.stream().mapToInt(Map::size).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void testParseNodeMetadataInParallelWithInvalidLine() throws IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10) + "L 12 + 24 - 4M");
+        final Map<Integer, Long> byteOffsets = createSegmentOffsets(11);
+
+        final Throwable e = catchThrowable(() -> new MetadataParser(4, 1).parseNodeMetadata(gfaFile, byteOffsets));
+
+        assertThat(e).isInstanceOf(MetadataParseException.class);
+        assertThat(e).hasMessageContaining("to start with S");
+    }
+
+    @Test
+    void testParseNodeMetadataWhenInterrupted() throws IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10));
+        final Map<Integer, Long> byteOffsets = createSegmentOffsets(10);
+
+        Thread.currentThread().interrupt();
+        final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, byteOffsets));
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(e).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void testParseNodeMetadataInParallelWhenInterrupted() throws IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10));
+        final Map<Integer, Long> byteOffsets = createSegmentOffsets(10);
+
+        Thread.currentThread().interrupt();
+        final Throwable e = catchThrowable(() -> new MetadataParser(4, 1).parseNodeMetadata(gfaFile, byteOffsets));
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(e).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void testParseNodeMetadataInParallelRepeatedly() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile(createSegmentLines(10));
+        final MetadataParser parallelParser = new MetadataParser(4, 1);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(parallelParser.parseNodeMetadata(gfaFile, createSegmentOffsets(10))).hasSize(10);
+        }
+    }
+
+    @Test
+    void testParseEdgeMetadataWhenInterrupted() throws IOException {
         final GfaFile gfaFile = createGfaFile("L 12 + 24 - 4M");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
+
+        Thread.currentThread().interrupt();
+        final Throwable e = catchThrowable(() -> parser.parseEdgeMetadata(gfaFile, 0));
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(e).isInstanceOf(RejectedExecutionException.class);
+        assertThat(e.getCause()).isInstanceOf(ClosedByInterruptException.class);
+    }
+
+    @Test
+    void testConstructorWithoutThreads() {
+        final Throwable e = catchThrowable(() -> new MetadataParser(0, 1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testParseEdgeMetadata() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile("\n\nL 12 + 24 - 4M");
         final EdgeMetadata edgeMetadata = parser.parseEdgeMetadata(gfaFile, 2);
 
         assertThat(edgeMetadata.getFromOrient()).isEqualTo("+");
@@ -78,8 +170,7 @@ final class MetadataParserTest {
 
     @Test
     void testParseNodeMetadataWithInvalidLineBecauseTheSequenceIsMissing() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("S 12");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12"));
+        final GfaFile gfaFile = createGfaFile("\nS 12");
 
         final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -89,8 +180,7 @@ final class MetadataParserTest {
 
     @Test
     void testParseNodeMetadataWithInvalidLineBecauseTheGenomeIsMissing() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("S 12 AC *");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 AC *"));
+        final GfaFile gfaFile = createGfaFile("\nS 12 AC *");
 
         Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -100,8 +190,7 @@ final class MetadataParserTest {
     @Test
     void testParseNodeMetadataWithInvalidLineBecauseTheGenomePrefixIsIncorrect()
             throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("S 12 AC * ORY:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 AC * ORY:Z:test.fasta;"));
+        final GfaFile gfaFile = createGfaFile("\nS 12 AC * ORY:Z:test.fasta;");
 
         Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -110,8 +199,7 @@ final class MetadataParserTest {
 
     @Test
     void testParseEdgeMetadataWithInvalidLineBecauseTheOrientIsMissing() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("L 12 + 24");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24"));
+        final GfaFile gfaFile = createGfaFile("\nL 12 + 24");
 
         final Throwable e = catchThrowable(() -> parser.parseEdgeMetadata(gfaFile, 1));
 
@@ -121,8 +209,7 @@ final class MetadataParserTest {
 
     @Test
     void testParseNodeMetadataWithAnEdgeLine() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("L 12 + 24 - 4M");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
+        final GfaFile gfaFile = createGfaFile("\nL 12 + 24 - 4M");
 
         final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -132,8 +219,7 @@ final class MetadataParserTest {
 
     @Test
     void testParseEdgeMetadataWithANodeLine() throws MetadataParseException, IOException {
-        final GfaFile gfaFile = createGfaFile("S 12 ACTG");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 ACTG"));
+        final GfaFile gfaFile = createGfaFile("\nS 12 ACTG");
 
         final Throwable e = catchThrowable(() -> parser.parseEdgeMetadata(gfaFile, 1));
 
@@ -142,19 +228,25 @@ final class MetadataParserTest {
     }
 
 
-    private GfaFile createGfaFile(final String gfa) throws MetadataParseException {
-        final byte[] gfaBytes = replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8);
-        final GfaFile gfaFile = mock(GfaFile.class);
-        try {
-            when(gfaFile.readFile()).thenAnswer(invocationOnMock ->
-                    new BufferedReader(new InputStreamReader(new ByteArrayInputStream(gfaBytes)))
-            );
-        } catch (final GfaParseException e) {
-            e.printStackTrace();
+    private GfaFile createGfaFile(final String gfa) throws IOException {
+        Files.write(file.toPath(), replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8));
+        return new GfaFile(file.getAbsolutePath());
+    }
+
+    private String createSegmentLines(final int count) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(String.format("S %02d ACGT * ORI:Z:test.fasta;\n", i));
+        }
+        return builder.toString();
+    }
+
+    private Map<Integer, Long> createSegmentOffsets(final int count) {
+        final Map<Integer, Long> byteOffsets = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            byteOffsets.put(i, (long) i * SEGMENT_LINE_LENGTH);
         }
-        randomAccessFile = mock(RandomAccessFile.class);
-        when(gfaFile.getRandomAccessFile()).thenReturn(randomAccessFile);
-        return gfaFile;
+        return byteOffsets;
     }
 
     private String replaceSpacesWithTabs(final String string) {
@@ -22,7 +22,7 @@ final class MetadataParsingIntegrationTest {
         final ArrayBasedNode node = ArrayBasedNode.fromGraph(gfaFile.getGraph(), 1);
         final NodeMetadata nodeMetadata = gfaFile.parseNodeMetadata(node.getByteOffset());
 
-        assertThat(nodeMetadata.getSequence()).isEqualTo("ACCTT");
+        assertThat(nodeMetadata.getSequence()).hasToString("ACCTT");
         assertThat(nodeMetadata.getName()).isEqualTo("11");
     }
 
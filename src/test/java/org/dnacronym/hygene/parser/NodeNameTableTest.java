@@ -0,0 +1,162 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodeNameTable}.
+ */
+final class NodeNameTableTest {
+    private NodeNameTable table;
+
+
+    @BeforeEach
+    void beforeEach() {
+        table = new NodeNameTable();
+    }
+
+
+    @Test
+    void testGetAbsent() {
+        assertThat(get("12")).isEqualTo(NodeNameTable.ABSENT);
+        assertThat(get("name")).isEqualTo(NodeNameTable.ABSENT);
+    }
+
+    @Test
+    void testPutNumericName() {
+        put("12", 3);
+
+        assertThat(get("12")).isEqualTo(3);
+        assertThat(get("1")).isEqualTo(NodeNameTable.ABSENT);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testPutOtherName() {
+        put("node12", 3);
+
+        assertThat(get("node12")).isEqualTo(3);
+        assertThat(get("node1")).isEqualTo(NodeNameTable.ABSENT);
+    }
+
+    @Test
+    void testLeadingZeroesAreDistinctNames() {
+        put("12", 1);
+        put("012", 2);
+
+        assertThat(get("12")).isEqualTo(1);
+        assertThat(get("012")).isEqualTo(2);
+    }
+
+    @Test
+    void testPutOverwritesValue() {
+        final int firstEntry = put("a", 1);
+        final int secondEntry = put("a", 2);
+
+        assertThat(secondEntry).isEqualTo(firstEntry);
+        assertThat(get("a")).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testPutNegativeValue() {
+        final Throwable e = catchThrowable(() -> put("a", -1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSparseNumericNameIsFoundAfterDenseNames() {
+        put("2000000000", 0);
+        for (int i = 1; i <= 10_000; i++) {
+            put(Integer.toString(i), i);
+        }
+
+        assertThat(get("2000000000")).isEqualTo(0);
+        assertThat(get("10000")).isEqualTo(10_000);
+        assertThat(get("10001")).isEqualTo(NodeNameTable.ABSENT);
+    }
+
+    @Test
+    void testNumericNamesOfEachChunkAreStoredDirectly() {
+        final NodeNameTable firstChunk = table;
+        for (int i = 1; i <= 50_000; i++) {
+            put(Integer.toString(i), i);
+        }
+        table = new NodeNameTable();
+        for (int i = 50_001; i <= 100_000; i++) {
+            put(Integer.toString(i), i);
+        }
+
+        assertThat(firstChunk.getHashedCount()).isZero();
+        assertThat(table.getHashedCount()).isZero();
+        assertThat(get("50001")).isEqualTo(50_001);
+        assertThat(get("100000")).isEqualTo(100_000);
+        assertThat(get("50000")).isEqualTo(NodeNameTable.ABSENT);
+        assertThat(get("1")).isEqualTo(NodeNameTable.ABSENT);
+    }
+
+    @Test
+    void testNumericNameBelowFirstNumericNameIsFound() {
+        put("1000000", 0);
+        put("1", 1);
+
+        assertThat(get("1000000")).isEqualTo(0);
+        assertThat(get("1")).isEqualTo(1);
+        assertThat(table.getHashedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testManyOtherNames() {
+        for (int i = 0; i < 10_000; i++) {
+            put("s" + i, i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(get("s" + i)).isEqualTo(i);
+        }
+        assertThat(table.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void testGetName() {
+        final int numericEntry = put("42", 0);
+        final int otherEntry = put("x42", 1);
+
+        assertThat(new String(table.getName(numericEntry), StandardCharsets.UTF_8)).isEqualTo("42");
+        assertThat(new String(table.getName(otherEntry), StandardCharsets.UTF_8)).isEqualTo("x42");
+        assertThat(table.getValue(otherEntry)).isEqualTo(1);
+    }
+
+    @Test
+    void testParseNumber() {
+        assertThat(parseNumber("0")).isEqualTo(0);
+        assertThat(parseNumber("2147483647")).isEqualTo(Integer.MAX_VALUE);
+        assertThat(parseNumber("2147483648")).isEqualTo(-1);
+        assertThat(parseNumber("00")).isEqualTo(-1);
+        assertThat(parseNumber("-1")).isEqualTo(-1);
+        assertThat(parseNumber("")).isEqualTo(-1);
+    }
+
+
+    private int put(final String name, final int value) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return table.put(bytes, bytes.length, value);
+    }
+
+    private int get(final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return table.get(bytes, bytes.length);
+    }
+
+    private int parseNumber(final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return NodeNameTable.parseNumber(bytes, bytes.length);
+    }
+}
@@ -0,0 +1,438 @@
+package org.dnacronym.hygene.persistence;
+
+import org.dnacronym.hygene.graph.BubbleIndex;
+import org.dnacronym.hygene.graph.ByteOffsetColumn;
+import org.dnacronym.hygene.graph.ChainCompaction;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphBuilder;
+import org.dnacronym.hygene.graph.GraphHierarchy;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.SuperbubbleDetector;
+import org.dnacronym.hygene.graph.TopologicalOrder;
+import org.dnacronym.hygene.parser.ProgressUpdater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GraphArrayFile}.
+ */
+final class GraphArrayFileTest {
+    private static final int[][] NODE_ARRAYS = {{88, 5, -1, 1, 1, 45}, {8, 11, 41, 0, 0, 45}};
+    private static final int BUBBLE_COUNT = 1000;
+
+    private File file;
+    private GraphArrayFile graphArrayFile;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("graph", ".hygenecache");
+        graphArrayFile = new GraphArrayFile(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        file.setWritable(true);
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Test
+    void testReadIntoHeap() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        final Graph graph = graphArrayFile.read(2, null, ProgressUpdater.DUMMY);
+
+        assertThat(graph.getNodeArrays()).isEqualTo(NODE_ARRAYS);
+        assertThat(graph.getColumns().getNeighbours().isDirect()).isFalse();
+    }
+
+    @Test
+    void testMap() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        final Graph graph = graphArrayFile.map(2, null);
+
+        assertThat(graph.getNodeArrays()).isEqualTo(NODE_ARRAYS);
+        assertThat(graph.getColumns().getNeighbours().isDirect()).isTrue();
+    }
+
+    @Test
+    void testMapDoesNotWriteXPositions() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        graphArrayFile.map(2, null).setUnscaledXPosition(1, 12);
+
+        assertThat(graphArrayFile.map(2, null).getUnscaledXPosition(1)).isEqualTo(41);
+    }
+
+    @Test
+    void testMapReadOnlyFile() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+        assertThat(file.setReadOnly()).isTrue();
+
+        final Graph graph = graphArrayFile.map(2, null);
+        graph.setUnscaledXPosition(1, 12);
+
+        assertThat(graph.getNodeArrays()[0]).isEqualTo(NODE_ARRAYS[0]);
+        assertThat(graph.getUnscaledXPosition(1)).isEqualTo(12);
+    }
+
+    @Test
+    void testReadAndMapByteOffsetColumn() throws IOException {
+        final ByteOffsetColumn column = new ByteOffsetColumn(2, 2);
+        column.setNodeUpperBits(1, 5_000_000_000L);
+        column.setEdgeUpperBits(1, 1L << 39);
+        graphArrayFile.write(new Graph(NODE_ARRAYS, column, null));
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getByteOffsetColumn().getEdgeUpperBits())
+                .containsExactly(0, 1 << 7);
+        assertThat(graphArrayFile.map(2, null).getByteOffsetColumn().getNodeUpperBits()).containsExactly(0, 1);
+    }
+
+    @Test
+    void testWithoutNodePositions() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getNodePositions()).isNull();
+        assertThat(graphArrayFile.map(2, null).getNodePositions()).isNull();
+    }
+
+    @Test
+    void testReadAndMapNodePositions() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, new ByteOffsetColumn(2, 2), null);
+        graph.setNodePositions(new NodePositionIndex(new long[] {0, 41_000}, new int[] {0, 1}));
+        graphArrayFile.write(graph);
+
+        final NodePositionIndex readPositions = graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getNodePositions();
+        final NodePositionIndex mappedPositions = graphArrayFile.map(2, null).getNodePositions();
+
+        assertThat(readPositions.getPositions()).containsExactly(0, 41_000);
+        assertThat(readPositions.getNodeIds()).containsExactly(0, 1);
+        assertThat(mappedPositions.getPositions()).containsExactly(0, 41_000);
+        assertThat(mappedPositions.getNodeIds()).containsExactly(0, 1);
+    }
+
+    @Test
+    void testReadAndMapTopologicalOrder() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, new ByteOffsetColumn(2, 2), null);
+        graph.setNodePositions(new NodePositionIndex(new long[] {0, 41_000}, new int[] {0, 1}));
+        graph.setTopologicalOrder(new TopologicalOrder(new int[] {0, 1}));
+        graphArrayFile.write(graph);
+
+        final TopologicalOrder readOrder = graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getTopologicalOrder();
+        final TopologicalOrder mappedOrder = graphArrayFile.map(2, null).getTopologicalOrder();
+
+        assertThat(readOrder.getRanks()).containsExactly(0, 1);
+        assertThat(mappedOrder.getRanks()).containsExactly(0, 1);
+    }
+
+    @Test
+    void testWriteWithoutTopologicalOrder() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getTopologicalOrder()).isNull();
+        assertThat(graphArrayFile.map(2, null).getTopologicalOrder()).isNull();
+    }
+
+    @Test
+    void testReadAndMapBubbleIndex() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graph.setBubbleIndex(new SuperbubbleDetector(graph).detect());
+        graphArrayFile.write(graph);
+
+        final BubbleIndex readIndex = graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getBubbleIndex();
+        final BubbleIndex mappedIndex = graphArrayFile.map(2, null).getBubbleIndex();
+
+        assertThat(readIndex.getBubbleCount()).isZero();
+        assertThat(readIndex.getMemberOrder()).containsExactly(0, 1);
+        assertThat(mappedIndex.getMemberOrder()).containsExactly(0, 1);
+    }
+
+    @Test
+    void testReadCorruptBubbleIndex() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graph.setBubbleIndex(new BubbleIndex(graph, new int[0], new int[0], new int[0], new int[0], new int[] {0, 1}));
+        graph.getBubbleIndex().getMemberOrder()[1] = 2;
+        graphArrayFile.write(graph);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.read(2, null, ProgressUpdater.DUMMY));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("corrupt");
+    }
+
+    @Test
+    void testWriteWithoutBubbleIndex() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getBubbleIndex()).isNull();
+        assertThat(graphArrayFile.map(2, null).getBubbleIndex()).isNull();
+    }
+
+    @Test
+    void testReadAndMapChainCompaction() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        final ChainCompaction compaction = graph.getChainCompaction();
+        graphArrayFile.write(graph);
+
+        final Graph readGraph = graphArrayFile.read(2, null, ProgressUpdater.DUMMY);
+        final Graph mappedGraph = graphArrayFile.map(2, null);
+
+        assertThat(readGraph.hasChainCompaction()).isTrue();
+        assertThat(readGraph.getChainCompaction().getMemberOffsets()).isEqualTo(compaction.getMemberOffsets());
+        assertThat(readGraph.getChainCompaction().getMembers()).isEqualTo(compaction.getMembers());
+        assertThat(mappedGraph.hasChainCompaction()).isTrue();
+        assertThat(mappedGraph.getChainCompaction().getMembers()).isEqualTo(compaction.getMembers());
+    }
+
+    @Test
+    void testWriteWithoutChainCompaction() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).hasChainCompaction()).isFalse();
+        assertThat(graphArrayFile.map(2, null).hasChainCompaction()).isFalse();
+    }
+
+    @Test
+    void testReadCorruptChainCompaction() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graph.getChainCompaction().getMembers()[1] = 0;
+        graphArrayFile.write(graph);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.read(2, null, ProgressUpdater.DUMMY));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("corrupt");
+    }
+
+    @Test
+    void testReadAndMapHierarchy() throws IOException {
+        final Graph graph = createBubbleGraph();
+        final GraphHierarchy hierarchy = graph.getHierarchy();
+        graphArrayFile.write(graph);
+
+        final Graph readGraph = graphArrayFile.read(graph.getNodeCount(), null, ProgressUpdater.DUMMY);
+        final Graph mappedGraph = graphArrayFile.map(graph.getNodeCount(), null);
+
+        assertThat(hierarchy.getLevelCount()).isGreaterThan(2);
+        for (final Graph restoredGraph : new Graph[] {readGraph, mappedGraph}) {
+            assertThat(restoredGraph.hasHierarchy()).isTrue();
+            final GraphHierarchy restored = restoredGraph.getHierarchy();
+            assertThat(restored.getLevelCount()).isEqualTo(hierarchy.getLevelCount());
+            for (int level = 2; level < hierarchy.getLevelCount(); level++) {
+                assertThat(restored.getParentIds(level)).isEqualTo(hierarchy.getParentIds(level));
+                assertThat(restored.getChildren(level)).isEqualTo(hierarchy.getChildren(level));
+            }
+        }
+    }
+
+    @Test
+    void testWriteWithoutHierarchy() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graph.getChainCompaction();
+        graphArrayFile.write(graph);
+
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).hasHierarchy()).isFalse();
+        assertThat(graphArrayFile.map(2, null).hasHierarchy()).isFalse();
+    }
+
+    @Test
+    void testReadCorruptHierarchy() throws IOException {
+        final Graph graph = createBubbleGraph();
+        final GraphHierarchy hierarchy = graph.getHierarchy();
+        hierarchy.getChildren(2)[1] = hierarchy.getChildren(2)[0];
+        graphArrayFile.write(graph);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.read(graph.getNodeCount(), null,
+                ProgressUpdater.DUMMY));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("corrupt");
+    }
+
+    @Test
+    void testIsComplete() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graphArrayFile.write(graph);
+        final boolean completeWithoutSections = graphArrayFile.isComplete();
+
+        graph.setNodePositions(new NodePositionIndex(new long[] {0, 41_000}, new int[] {0, 1}));
+        graph.setTopologicalOrder(new TopologicalOrder(new int[] {0, 1}));
+        graph.setBubbleIndex(new SuperbubbleDetector(graph).detect());
+        graph.getHierarchy();
+        graphArrayFile.write(graph);
+
+        assertThat(completeWithoutSections).isFalse();
+        assertThat(graphArrayFile.isComplete()).isTrue();
+    }
+
+    @Test
+    void testFailedWriteRemovesTemporaryFile() throws IOException {
+        Files.delete(file.toPath());
+        Files.createDirectories(file.toPath().resolve("child"));
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.write(new Graph(NODE_ARRAYS, null)));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(new File(file.getPath() + ".tmp")).doesNotExist();
+        Files.delete(file.toPath().resolve("child"));
+    }
+
+    @Test
+    void testIsCurrentFormat() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        assertThat(graphArrayFile.isCurrentFormat()).isTrue();
+    }
+
+    @Test
+    void testTextFormatIsNotCurrent() throws IOException {
+        Files.write(file.toPath(), "88 5 -1 1 1 45 \n8 11 41 0 0 45 \n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(graphArrayFile.isCurrentFormat()).isFalse();
+        assertThat(graphArrayFile.read(2, null, ProgressUpdater.DUMMY).getNodeArrays()).isEqualTo(NODE_ARRAYS);
+    }
+
+    @Test
+    void testMapTextFormat() throws IOException {
+        Files.write(file.toPath(), "88 5 -1 1 1 45 \n8 11 41 0 0 45 \n".getBytes(StandardCharsets.UTF_8));
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.map(2, null));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("not in the binary format");
+    }
+
+    @Test
+    void testUnsupportedVersion() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+        writeIntAt(Integer.BYTES, GraphFileHeader.CURRENT_VERSION + 1);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.read(2, null, ProgressUpdater.DUMMY));
+
+        assertThat(graphArrayFile.isCurrentFormat()).isFalse();
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("is not supported");
+    }
+
+    @Test
+    void testWrongNodeCount() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.map(3, null));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("Expected a graph of 3 nodes, but the cache file contains 2.");
+    }
+
+    @Test
+    void testCorruptChecksum() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+        writeIntAt(file.length() - Integer.BYTES, 42);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.read(2, null, ProgressUpdater.DUMMY));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("corrupt");
+    }
+
+    @Test
+    void testMapCorruptChecksum() throws IOException {
+        final Graph graph = new Graph(NODE_ARRAYS, null);
+        graph.setTopologicalOrder(new TopologicalOrder(new int[] {0, 1}));
+        graphArrayFile.write(graph);
+        // A valid rank, so that only the checksum reveals the corruption
+        writeIntAt(file.length() - Integer.BYTES, 0);
+
+        final Throwable e = catchThrowable(() -> graphArrayFile.map(2, null));
+
+        assertThat(e).isInstanceOf(IOException.class);
+        assertThat(e).hasMessageContaining("corrupt");
+    }
+
+    @Test
+    void testTruncatedFile() throws IOException {
+        graphArrayFile.write(new Graph(NODE_ARRAYS, null));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(file.length() - 1);
+        }
+
+        assertThat(catchThrowable(() -> graphArrayFile.read(2, null, ProgressUpdater.DUMMY)))
+                .hasMessageContaining("Unexpected end of the cache file.");
+        assertThat(catchThrowable(() -> graphArrayFile.map(2, null)))
+                .hasMessageContaining("Unexpected end of the cache file.");
+    }
+
+
+    /**
+     * Creates a graph of {@value #BUBBLE_COUNT} consecutive bubbles between the sentinels, which is large enough to be
+     * coarsened into levels above its chains.
+     *
+     * @return a graph of consecutive bubbles
+     */
+    private static Graph createBubbleGraph() {
+        final int nodeCount = 3 * BUBBLE_COUNT + 3;
+        final int[] outgoingEdgeCounts = new int[nodeCount];
+        final int[] incomingEdgeCounts = new int[nodeCount];
+        outgoingEdgeCounts[0] = 1;
+        incomingEdgeCounts[1] = 1;
+        for (int bubble = 0; bubble < BUBBLE_COUNT; bubble++) {
+            final int start = 3 * bubble + 1;
+            outgoingEdgeCounts[start] = 2;
+            outgoingEdgeCounts[start + 1] = 1;
+            outgoingEdgeCounts[start + 2] = 1;
+            incomingEdgeCounts[start + 1] = 1;
+            incomingEdgeCounts[start + 2] = 1;
+            incomingEdgeCounts[start + 3] = 2;
+        }
+        outgoingEdgeCounts[nodeCount - 2] = 1;
+        incomingEdgeCounts[nodeCount - 1] = 1;
+
+        final GraphBuilder builder = new GraphBuilder(outgoingEdgeCounts, incomingEdgeCounts);
+        builder.addEdge(0, 1, 0);
+        for (int bubble = 0; bubble < BUBBLE_COUNT; bubble++) {
+            final int start = 3 * bubble + 1;
+            builder.addEdge(start, start + 1, 0);
+            builder.addEdge(start, start + 2, 0);
+            builder.addEdge(start + 1, start + 3, 0);
+            builder.addEdge(start + 2, start + 3, 0);
+        }
+        builder.addEdge(nodeCount - 2, nodeCount - 1, 0);
+        for (int id = 0; id < nodeCount; id++) {
+            builder.setSegment(id, id, 1);
+        }
+
+        final Graph graph = builder.build(null);
+        graph.setUnscaledXPosition(0, 0);
+        for (int id = 1; id < nodeCount; id++) {
+            graph.setUnscaledXPosition(id, id % 3 == 1 ? 2 * (id / 3) + 1 : 2 * ((id - 2) / 3) + 2);
+        }
+        return graph;
+    }
+
+    /**
+     * Overwrites a little-endian {@code int} in the file.
+     *
+     * @param position the byte offset of the value
+     * @param value    the new value
+     * @throws IOException if the file cannot be written
+     */
+    private void writeIntAt(final long position, final int value) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(Integer.reverseBytes(value));
+        }
+    }
+}
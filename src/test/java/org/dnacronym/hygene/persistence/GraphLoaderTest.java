@@ -1,5 +1,10 @@
 package org.dnacronym.hygene.persistence;
 
+import org.dnacronym.hygene.graph.ByteOffsetColumn;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.SuperbubbleDetector;
+import org.dnacronym.hygene.graph.layout.Fafosp;
+import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,9 +12,15 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 
 /**
@@ -19,6 +30,7 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
     private FileDatabase fileDatabase;
     private GraphLoader graphLoader;
     private ProgressUpdater progressUpdater;
+    private GfaFile gfaFile;
     private String temporaryPath;
 
 
@@ -32,6 +44,7 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
         temporaryPath = File.createTempFile("test", ".tmp").getAbsolutePath();
 
         progressUpdater = ProgressUpdater.DUMMY;
+        gfaFile = mock(GfaFile.class);
     }
 
     @AfterEach
@@ -49,14 +62,14 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
 
     @Test
     void testHasGraphTrue() throws IOException {
-        graphLoader.dumpGraph(new int[][] {}, temporaryPath);
+        graphLoader.dumpGraph(new Graph(new int[][] {}, gfaFile), temporaryPath);
 
         assertThat(graphLoader.hasGraph()).isTrue();
     }
 
     @Test
     void testDeleteGraph() throws IOException {
-        graphLoader.dumpGraph(new int[][] {}, temporaryPath);
+        graphLoader.dumpGraph(new Graph(new int[][] {}, gfaFile), temporaryPath);
         graphLoader.deleteGraph();
 
         assertThat(graphLoader.hasGraph()).isFalse();
@@ -64,22 +77,110 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
 
     @Test
     void testDumpGraphEquivalence() throws IOException {
-        final int[][] graph = new int[][] {{88, 5}, {8, 11, 41, 65, 45}, {18, 33}, {90, 61, 85, 83}, {6, 61, 4, 89, 98},
-                {77, 53, 24, 91}};
+        final int[][] graph = new int[][] {{88, 5, -1, 1, 3, 45}, {8, 11, 41, 0}, {18, 33, 2, 1, 5, 83, 0, 61},
+                {90, 61, 85, 0, 0, 45}, {6, 61, 4, 0}, {77, 53, 24, 0, 2, 91}};
 
-        graphLoader.dumpGraph(graph, temporaryPath);
+        graphLoader.dumpGraph(new Graph(graph, gfaFile), temporaryPath);
 
-        assertThat(graphLoader.restoreGraph(progressUpdater, temporaryPath)).isEqualTo(graph);
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath);
+        assertThat(restoredGraph.getNodeArrays()).isEqualTo(graph);
+        assertThat(restoredGraph.getByteOffsetColumn()).isNull();
     }
 
     @Test
     void testDumpGraphTwice() throws IOException {
-        final int[][] graphA = new int[][] {{47, 68, 74}, {83, 37}};
-        final int[][] graphB = new int[][] {{56}, {83, 69}, {44, 75, 91, 11}};
+        final int[][] graphA = new int[][] {{47, 68, 74, 0}, {83, 37, -1, 0}};
+        final int[][] graphB = new int[][] {{56, 2, 1, 1, 2, 83}, {83, 69, -1, 0}, {44, 75, 91, 0, 0, 11}};
 
-        graphLoader.dumpGraph(graphA, temporaryPath);
-        graphLoader.dumpGraph(graphB, temporaryPath);
+        graphLoader.dumpGraph(new Graph(graphA, gfaFile), temporaryPath);
+        graphLoader.dumpGraph(new Graph(graphB, gfaFile), temporaryPath);
 
-        assertThat(graphLoader.restoreGraph(progressUpdater, temporaryPath)).isEqualTo(graphB);
+        assertThat(graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath).getNodeArrays())
+                .isEqualTo(graphB);
+    }
+
+    @Test
+    void testDumpGraphWithLargeByteOffsets() throws IOException {
+        final long nodeByteOffset = 5_000_000_000L;
+        final long edgeByteOffset = 1L << 39;
+        final int edgeLowerBits = ByteOffsetColumn.toLowerBits(edgeByteOffset);
+        final int[][] nodeArrays = new int[][] {
+                {ByteOffsetColumn.toLowerBits(nodeByteOffset), 3, -1, 1, 1, edgeLowerBits},
+                {ByteOffsetColumn.toLowerBits(42), 5, -1, 0, 0, edgeLowerBits}};
+        final ByteOffsetColumn column = new ByteOffsetColumn(2, 2);
+        column.setNodeUpperBits(0, nodeByteOffset);
+        column.setEdgeUpperBits(0, edgeByteOffset);
+        column.setEdgeUpperBits(1, edgeByteOffset);
+
+        graphLoader.dumpGraph(new Graph(nodeArrays, column, gfaFile), temporaryPath);
+
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath);
+        assertThat(restoredGraph.getNodeArrays()).isEqualTo(nodeArrays);
+        assertThat(restoredGraph.getByteOffset(0)).isEqualTo(nodeByteOffset);
+        assertThat(restoredGraph.getByteOffset(1)).isEqualTo(42);
+        assertThat(restoredGraph.getEdgeByteOffset(0, 0)).isEqualTo(edgeByteOffset);
+        assertThat(restoredGraph.getEdgeByteOffset(1, 0)).isEqualTo(edgeByteOffset);
+    }
+
+    @Test
+    void testRestoreSmallGraphIntoHeap() throws IOException {
+        graphLoader.dumpGraph(new Graph(new int[][] {{88, 5, -1, 1, 1, 45}, {8, 11, 41, 0, 0, 45}}, gfaFile),
+                temporaryPath);
+
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath);
+        assertThat(restoredGraph.getColumns().getNeighbours().isDirect()).isFalse();
+    }
+
+    @Test
+    void testSetUnscaledXPositionDoesNotChangeCache() throws IOException {
+        graphLoader.dumpGraph(new Graph(new int[][] {{88, 5, -1, 0}, {8, 11, 41, 0}}, gfaFile), temporaryPath);
+
+        graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath).setUnscaledXPosition(1, 12);
+
+        assertThat(graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath).getUnscaledXPosition(1))
+                .isEqualTo(41);
+    }
+
+    @Test
+    void testRestoreIncompleteCacheCompletesCache() throws IOException {
+        graphLoader.dumpGraph(new Graph(new int[][] {{88, 5, -1, 1, 1, 45}, {8, 11, 41, 0, 0, 45}}, gfaFile),
+                temporaryPath);
+        final AtomicInteger completions = new AtomicInteger();
+
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath, graph -> {
+            completions.incrementAndGet();
+            graph.setNodePositions(new Fafosp(graph).horizontal());
+            graph.setBubbleIndex(new SuperbubbleDetector(graph).detect());
+            graph.getHierarchy();
+        });
+        graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath, graph -> completions.incrementAndGet());
+
+        assertThat(completions.get()).isEqualTo(1);
+        assertThat(restoredGraph.getBubbleIndex()).isNotNull();
+        assertThat(new GraphArrayFile(new File(temporaryPath + ".hygenecache")).isComplete()).isTrue();
+    }
+
+    @Test
+    void testRestoreIncompleteCacheReturnsCompletedGraph() throws IOException {
+        graphLoader.dumpGraph(new Graph(new int[][] {{88, 5, -1, 1, 1, 45}, {8, 11, 41, 0, 0, 45}}, gfaFile),
+                temporaryPath);
+        final AtomicReference<Graph> completedGraph = new AtomicReference<>();
+
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath,
+                completedGraph::set);
+
+        assertThat(restoredGraph).isSameAs(completedGraph.get());
+    }
+
+    @Test
+    void testRestoreTextCacheMigratesCache() throws IOException {
+        final int[][] graph = new int[][] {{88, 5, -1, 1, 1, 45}, {8, 11, 41, 0, 0, 45}};
+        graphLoader.dumpGraph(new Graph(graph, gfaFile), temporaryPath);
+        Files.write(Paths.get(temporaryPath + ".hygenecache"),
+                "88 5 -1 1 1 45 \n8 11 41 0 0 45 \n".getBytes(StandardCharsets.UTF_8));
+
+        final Graph restoredGraph = graphLoader.restoreGraph(progressUpdater, gfaFile, temporaryPath);
+        assertThat(restoredGraph.getNodeArrays()).isEqualTo(graph);
+        assertThat(new GraphArrayFile(new File(temporaryPath + ".hygenecache")).isCurrentFormat()).isTrue();
     }
 }
@@ -1,10 +1,11 @@
 package org.dnacronym.hygene.ui.node;
 
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
 import org.dnacronym.hygene.ui.UITestBase;
 import org.junit.jupiter.api.Test;
 
@@ -19,7 +20,7 @@ import static org.mockito.Mockito.when;
 final class SequenceControllerTest extends UITestBase {
     private SequenceController sequenceController;
     private SequenceVisualizer sequenceVisualizer;
-    private StringProperty sequenceProperty;
+    private ObjectProperty<PackedSequence> sequenceProperty;
 
 
     @Override
@@ -27,7 +28,7 @@ final class SequenceControllerTest extends UITestBase {
         sequenceController = new SequenceController();
 
         sequenceVisualizer = mock(SequenceVisualizer.class);
-        sequenceProperty = new SimpleStringProperty("sequence");
+        sequenceProperty = new SimpleObjectProperty<>(PackedSequence.pack("sequence"));
         when(sequenceVisualizer.getSequenceProperty()).thenReturn(sequenceProperty);
 
         sequenceController.setSequenceVisualizer(sequenceVisualizer);
@@ -4,6 +4,7 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -60,7 +61,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testIncrementOffset() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.incrementOffset(1);
 
@@ -69,7 +70,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testOffsetUpperBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.incrementOffset(100);
 
@@ -78,7 +79,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testOffsetLowerBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.decrementOffset(100);
 
@@ -87,7 +88,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffset() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.setOffset(2);
 
@@ -96,7 +97,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffsetLowerBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.setOffset(-10);
 
@@ -105,7 +106,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffsetUpperBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("aab"));
 
         sequenceVisualizer.setOffset(1000);
 
@@ -118,7 +119,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testDrawSequenceChange() {
-        sequenceVisualizer.getSequenceProperty().set("asdf");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("asdf"));
 
         verify(graphicsContext).clearRect(anyDouble(), anyDouble(), anyDouble(), anyDouble());
     }
@@ -133,7 +134,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testDrawOffsetChangeSequenceNotNull() {
-        sequenceVisualizer.getSequenceProperty().set("asdf");
+        sequenceVisualizer.getSequenceProperty().set(PackedSequence.pack("asdf"));
         sequenceVisualizer.setOffset(2);
 
         assertThat(sequenceVisualizer.getOffsetProperty().get()).isEqualTo(2);
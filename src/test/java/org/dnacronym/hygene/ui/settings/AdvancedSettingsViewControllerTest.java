@@ -3,9 +3,13 @@ package org.dnacronym.hygene.ui.settings;
 
 import com.google.inject.testing.fieldbinder.Bind;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.event.ActionEvent;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.Slider;
+import javafx.scene.input.MouseEvent;
 import org.dnacronym.hygene.ui.UITestBase;
+import org.dnacronym.hygene.ui.graph.GraphDimensionsCalculator;
 import org.dnacronym.hygene.ui.graph.GraphVisualizer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -27,6 +31,8 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
     @Bind
     private GraphVisualizer graphVisualizer;
     @Bind
+    private GraphDimensionsCalculator graphDimensionsCalculator;
+    @Bind
     private Settings settings;
     private CheckBox checkBox;
     private ActionEvent mouseEvent;
@@ -34,6 +40,7 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
     @Override
     public void beforeEach() {
         graphVisualizer = mock(GraphVisualizer.class);
+        graphDimensionsCalculator = mock(GraphDimensionsCalculator.class);
         settings = mock(Settings.class);
         createContextOfTest();
 
@@ -44,6 +51,9 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
         displayLaneBorder.setValue(false);
         when(graphVisualizer.getDisplayBordersProperty()).thenReturn(displayLaneBorder);
 
+        final SimpleLongProperty metadataCacheBudget = new SimpleLongProperty(64L * 1024 * 1024);
+        when(graphDimensionsCalculator.getMetadataCacheBudgetProperty()).thenReturn(metadataCacheBudget);
+
         checkBox = new CheckBox();
         checkBox.setSelected(true);
 
@@ -73,4 +83,20 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
 
         assertThat(graphVisualizer.getDisplayBordersProperty().getValue()).isTrue();
     }
+
+    @Test
+    void testMetadataCacheBudgetRunnable() {
+        final Slider slider = mock(Slider.class);
+        when(slider.getValue()).thenReturn(128.2);
+        final MouseEvent sliderEvent = mock(MouseEvent.class);
+        when(sliderEvent.getSource()).thenReturn(slider);
+
+        interact(() -> advancedSettingsViewController.metadataCacheBudgetSliderDone(sliderEvent));
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(settings).addRunnable(captor.capture());
+        captor.getValue().run();
+
+        assertThat(graphDimensionsCalculator.getMetadataCacheBudgetProperty().get()).isEqualTo(128L * 1024 * 1024);
+    }
 }